@@ -0,0 +1,156 @@
+package benchmark;
+
+import com.github.ethancommitpush.feign.async.ApacheHttpAsyncClient;
+import com.github.ethancommitpush.feign.async.AsyncDecoder;
+import com.github.ethancommitpush.feign.async.AsyncDispatchingClient;
+import com.github.ethancommitpush.feign.async.AsyncMethodHandlerDecorator;
+import com.github.ethancommitpush.feign.handler.DecoratingInvocationHandlerFactory;
+import com.sun.net.httpserver.HttpServer;
+import feign.Feign;
+import feign.RequestLine;
+import feign.codec.Decoder;
+import feign.codec.ErrorDecoder;
+import feign.httpclient.ApacheHttpClient;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fan-out of 200 concurrent calls to a local server answering after 20 ms, through the blocking client
+ * with a thread per in-flight call versus the non-blocking client with 2 I/O threads. The throughput is
+ * in fan-outs per second, the allocation is reported by {@code -prof gc} and the peak thread count is
+ * printed at the end of each fork.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AsyncTransportBenchmark {
+
+    private static final int CONCURRENCY = 200;
+
+    private static final long DELAY_MILLIS = 20;
+
+    private static final byte[] BODY = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+
+    interface EchoClient {
+
+        @RequestLine("GET /echo")
+        String echo();
+
+        @RequestLine("GET /echo")
+        CompletableFuture<String> echoAsync();
+
+    }
+
+    private HttpServer server;
+
+    private ScheduledExecutorService responder;
+
+    private CloseableHttpClient httpClient;
+
+    private ExecutorService callers;
+
+    private CloseableHttpAsyncClient httpAsyncClient;
+
+    private EchoClient blockingClient;
+
+    private EchoClient asyncClient;
+
+    @Setup
+    public void setup() throws IOException {
+        responder = Executors.newScheduledThreadPool(2);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.createContext("/echo", exchange -> responder.schedule(() -> {
+            try (OutputStream body = exchange.getResponseBody()) {
+                exchange.sendResponseHeaders(200, BODY.length);
+                body.write(BODY);
+            } catch (IOException e) {
+                exchange.close();
+            }
+        }, DELAY_MILLIS, TimeUnit.MILLISECONDS));
+        server.setExecutor(Executors.newFixedThreadPool(2));
+        server.start();
+        String url = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        httpClient = HttpClients.custom().setMaxConnTotal(CONCURRENCY).setMaxConnPerRoute(CONCURRENCY).build();
+        callers = Executors.newFixedThreadPool(CONCURRENCY);
+        blockingClient = Feign.builder()
+                .client(new ApacheHttpClient(httpClient))
+                .target(EchoClient.class, url);
+
+        httpAsyncClient = HttpAsyncClients.custom()
+                .setDefaultIOReactorConfig(IOReactorConfig.custom().setIoThreadCount(2).build())
+                .setMaxConnTotal(CONCURRENCY)
+                .setMaxConnPerRoute(CONCURRENCY)
+                .build();
+        Decoder decoder = new Decoder.Default();
+        asyncClient = Feign.builder()
+                .client(new AsyncDispatchingClient(new ApacheHttpClient(httpClient)))
+                .decoder(new AsyncDecoder(decoder))
+                .invocationHandlerFactory(new DecoratingInvocationHandlerFactory(Collections.singletonList(
+                        new AsyncMethodHandlerDecorator(new ApacheHttpAsyncClient(httpAsyncClient), decoder,
+                                new ErrorDecoder.Default()))))
+                .target(EchoClient.class, url);
+
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        System.out.println("Peak threads: " + threads.getPeakThreadCount());
+        callers.shutdownNow();
+        httpClient.close();
+        httpAsyncClient.close();
+        server.stop(0);
+        responder.shutdownNow();
+    }
+
+    @Benchmark
+    public Object blocking() {
+        CompletableFuture<?>[] calls = new CompletableFuture<?>[CONCURRENCY];
+        for (int i = 0; i < CONCURRENCY; i++) {
+            calls[i] = CompletableFuture.supplyAsync(blockingClient::echo, callers);
+        }
+        return CompletableFuture.allOf(calls).join();
+    }
+
+    @Benchmark
+    public Object async() {
+        CompletableFuture<?>[] calls = new CompletableFuture<?>[CONCURRENCY];
+        for (int i = 0; i < CONCURRENCY; i++) {
+            calls[i] = asyncClient.echoAsync();
+        }
+        return CompletableFuture.allOf(calls).join();
+    }
+
+}
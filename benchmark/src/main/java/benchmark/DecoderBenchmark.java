@@ -0,0 +1,76 @@
+package benchmark;
+
+import com.github.ethancommitpush.feign.decoder.BufferRecyclingJacksonDecoder;
+import feign.Request;
+import feign.Response;
+import feign.codec.Decoder;
+import feign.jackson.JacksonDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes the response of PostmanEchoClient.getTimeObject; run with -prof gc to compare bytes/op.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DecoderBenchmark {
+
+    public static class TimeObjectGetRespDTO {
+        public int years;
+        public int months;
+        public int date;
+        public int hours;
+        public int minutes;
+        public int seconds;
+        public int milliseconds;
+    }
+
+    private Response response;
+
+    private Decoder jacksonDecoder;
+
+    private Decoder bufferRecyclingJacksonDecoder;
+
+    @Setup
+    public void setup() {
+        String body = "{\"years\":2016,\"months\":9,\"date\":10,\"hours\":0,\"minutes\":0,\"seconds\":0,"
+                + "\"milliseconds\":0}";
+        response = Response.builder()
+                .status(200)
+                .headers(Collections.emptyMap())
+                .request(Request.create(Request.HttpMethod.GET, "https://postman-echo.com/time/object",
+                        Collections.emptyMap(), Request.Body.empty(), null))
+                .body(body, StandardCharsets.UTF_8)
+                .build();
+        jacksonDecoder = new JacksonDecoder();
+        bufferRecyclingJacksonDecoder = new BufferRecyclingJacksonDecoder();
+    }
+
+    @Benchmark
+    public Object jacksonDecoder() throws IOException {
+        return jacksonDecoder.decode(response, TimeObjectGetRespDTO.class);
+    }
+
+    @Benchmark
+    public Object bufferRecyclingJacksonDecoder() throws IOException {
+        return bufferRecyclingJacksonDecoder.decode(response, TimeObjectGetRespDTO.class);
+    }
+
+}
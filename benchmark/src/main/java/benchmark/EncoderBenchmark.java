@@ -0,0 +1,101 @@
+package benchmark;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.ethancommitpush.feign.encoder.StreamingBody;
+import feign.RequestTemplate;
+import feign.codec.Encoder;
+import feign.jackson.JacksonEncoder;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the body of PostmanEchoClient4.postTransformCollection with a large collection to a discarding
+ * stream: encoded by JacksonEncoder then copied into the entity as ApacheHttpClient does, or streamed by
+ * StreamingJacksonEncoder. Run with -prof gc to compare bytes/op.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EncoderBenchmark {
+
+    public static class TransformCollectionPostReqDTO {
+        public List<Item> values;
+    }
+
+    public static class Item {
+        public int id;
+        public String name;
+        public String description;
+    }
+
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private TransformCollectionPostReqDTO body;
+
+    private Encoder jacksonEncoder;
+
+    private ObjectMapper mapper;
+
+    @Setup
+    public void setup() {
+        body = new TransformCollectionPostReqDTO();
+        body.values = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Item item = new Item();
+            item.id = i;
+            item.name = "item-" + i;
+            item.description = "Description of the item number " + i + " of the collection";
+            body.values.add(item);
+        }
+        jacksonEncoder = new JacksonEncoder();
+        mapper = new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    }
+
+    @Benchmark
+    public void jacksonEncoder() throws IOException {
+        RequestTemplate template = new RequestTemplate();
+        jacksonEncoder.encode(body, TransformCollectionPostReqDTO.class, template);
+        new StringEntity(new String(template.body(), template.requestCharset()), ContentType.APPLICATION_JSON)
+                .writeTo(DISCARD);
+    }
+
+    @Benchmark
+    public void streamingJacksonEncoder() throws IOException {
+        Type type = TransformCollectionPostReqDTO.class;
+        new StreamingBody(mapper, body, type).writeTo(DISCARD);
+    }
+
+}
@@ -0,0 +1,88 @@
+package benchmark;
+
+import com.github.ethancommitpush.feign.annotation.FeignClient;
+import com.github.ethancommitpush.feign.handler.GeneratedClient;
+import feign.Client;
+import feign.Feign;
+import feign.InvocationHandlerFactory;
+import feign.Param;
+import feign.RequestLine;
+import feign.Response;
+import feign.codec.Decoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls PostmanEchoClient4.postTransformCollection through the proxy and through the implementation
+ * generated by spring-boot-starter-openfeign-processor, with an http client and a decoder doing nothing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeneratedClientBenchmark {
+
+    @FeignClient(url = "https://postman-echo.com")
+    public interface PostmanEchoClient4 {
+
+        @RequestLine("POST /transform/collection?from={from}&to={to}")
+        Object postTransformCollection(@Param("from") int from, @Param("to") int to, String body);
+
+    }
+
+    private PostmanEchoClient4 proxy;
+
+    private PostmanEchoClient4 generated;
+
+    @Setup
+    public void setup() throws Exception {
+        proxy = builder(new InvocationHandlerFactory.Default())
+                .target(PostmanEchoClient4.class, "https://postman-echo.com");
+
+        GeneratedClient generatedClient = (GeneratedClient) Class.forName(
+                GeneratedClient.implementationName(PostmanEchoClient4.class.getName())).newInstance();
+        builder((target, dispatch) -> {
+            generatedClient.bind(target, dispatch);
+            return new InvocationHandlerFactory.Default().create(target, dispatch);
+        }).target(PostmanEchoClient4.class, "https://postman-echo.com");
+        generated = (PostmanEchoClient4) generatedClient;
+    }
+
+    private static Feign.Builder builder(InvocationHandlerFactory invocationHandlerFactory) {
+        Client client = (request, options) -> Response.builder()
+                .status(200)
+                .headers(Collections.emptyMap())
+                .request(request)
+                .body(new byte[0])
+                .build();
+        Decoder decoder = (response, type) -> response;
+        return Feign.builder()
+                .client(client)
+                .decoder(decoder)
+                .invocationHandlerFactory(invocationHandlerFactory);
+    }
+
+    @Benchmark
+    public Object proxy() {
+        return proxy.postTransformCollection(1, 2, "{}");
+    }
+
+    @Benchmark
+    public Object generated() {
+        return generated.postTransformCollection(1, 2, "{}");
+    }
+
+}
@@ -0,0 +1,144 @@
+package benchmark;
+
+import com.github.ethancommitpush.feign.decoder.BufferRecyclingJacksonDecoder;
+import com.github.ethancommitpush.feign.decoder.LazySection;
+import com.github.ethancommitpush.feign.decoder.ProjectingJacksonDecoder;
+import feign.Request;
+import feign.Response;
+import feign.codec.Decoder;
+import feign.jackson.JacksonDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes wide responses into the DTOs of the example, which map few of their members: the response of
+ * PostmanEchoClient2.postPost with a large json member, and the one of PostmanEchoClient4.postTransformCollection
+ * with a thousand items, into its DTO with the items as maps, eager or lazy. Run with -prof gc to compare bytes/op.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+
+    public static class PostPostRespDTO {
+        public Headers headers = new Headers();
+        public String url;
+
+        public static class Headers {
+            public String host;
+            public String accept;
+        }
+    }
+
+    public static class TransformCollectionPostRespDTO {
+        public Info info;
+        public List<Map<String, Object>> item;
+
+        public static class Info {
+            public String name;
+            public String description;
+        }
+    }
+
+    public static class LazyTransformCollectionPostRespDTO {
+        public TransformCollectionPostRespDTO.Info info;
+        public LazySection<List<Map<String, Object>>> item;
+    }
+
+    private Response post;
+
+    private Response collection;
+
+    private Decoder jacksonDecoder;
+
+    private Decoder bufferRecyclingJacksonDecoder;
+
+    private Decoder projectingJacksonDecoder;
+
+    @Setup
+    public void setup() {
+        StringBuilder body = new StringBuilder("{\"args\":{},\"data\":\"\",\"files\":{},\"form\":{},\"headers\":{");
+        for (int i = 0; i < 30; i++) {
+            body.append("\"x-header-").append(i).append("\":\"value of header ").append(i).append("\",");
+        }
+        body.append("\"host\":\"postman-echo.com\",\"accept\":\"application/json\"},\"json\":{\"items\":[");
+        for (int i = 0; i < 2000; i++) {
+            body.append(i > 0 ? "," : "").append("{\"id\":").append(i).append(",\"name\":\"item ").append(i)
+                    .append("\",\"price\":").append(i * 1.5).append(",\"tags\":[\"a\",\"b\"],\"nested\":{\"x\":true}}");
+        }
+        body.append("]},\"url\":\"https://postman-echo.com/post\"}");
+        post = response("https://postman-echo.com/post", body.toString());
+
+        body = new StringBuilder("{\"info\":{\"name\":\"c\",\"description\":\"d\",\"schema\":\"s\"},\"item\":[");
+        for (int i = 0; i < 1000; i++) {
+            body.append(i > 0 ? "," : "").append("{\"name\":\"item ").append(i)
+                    .append("\",\"request\":{\"method\":\"GET\",\"url\":\"https://postman-echo.com/").append(i)
+                    .append("\",\"header\":[{\"key\":\"a\",\"value\":\"b\"}]},\"response\":[]}");
+        }
+        collection = response("https://postman-echo.com/transform/collection?from=1&to=2",
+                body.append("]}").toString());
+
+        jacksonDecoder = new JacksonDecoder();
+        bufferRecyclingJacksonDecoder = new BufferRecyclingJacksonDecoder();
+        projectingJacksonDecoder = new ProjectingJacksonDecoder();
+    }
+
+    private static Response response(String url, String body) {
+        return Response.builder()
+                .status(200)
+                .headers(Collections.emptyMap())
+                .request(Request.create(Request.HttpMethod.POST, url, Collections.emptyMap(), Request.Body.empty(),
+                        null))
+                .body(body, StandardCharsets.UTF_8)
+                .build();
+    }
+
+    @Benchmark
+    public Object postJacksonDecoder() throws IOException {
+        return jacksonDecoder.decode(post, PostPostRespDTO.class);
+    }
+
+    @Benchmark
+    public Object postBufferRecyclingJacksonDecoder() throws IOException {
+        return bufferRecyclingJacksonDecoder.decode(post, PostPostRespDTO.class);
+    }
+
+    @Benchmark
+    public Object postProjectingJacksonDecoder() throws IOException {
+        return projectingJacksonDecoder.decode(post, PostPostRespDTO.class);
+    }
+
+    @Benchmark
+    public Object collectionJacksonDecoder() throws IOException {
+        return jacksonDecoder.decode(collection, TransformCollectionPostRespDTO.class);
+    }
+
+    @Benchmark
+    public Object collectionProjectingJacksonDecoder() throws IOException {
+        return projectingJacksonDecoder.decode(collection, TransformCollectionPostRespDTO.class);
+    }
+
+    @Benchmark
+    public Object lazyCollectionProjectingJacksonDecoder() throws IOException {
+        return projectingJacksonDecoder.decode(collection, LazyTransformCollectionPostRespDTO.class);
+    }
+
+}
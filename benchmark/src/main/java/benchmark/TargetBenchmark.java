@@ -0,0 +1,67 @@
+package benchmark;
+
+import com.github.ethancommitpush.feign.PrecompiledTarget;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Target;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves the template of PostmanEchoClient.getTimeObject and applies it to the target, as a feign
+ * client does on every call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TargetBenchmark {
+
+    interface PostmanEchoClient {
+    }
+
+    private RequestTemplate template;
+
+    private Map<String, Object> variables;
+
+    private Target<PostmanEchoClient> hardCodedTarget;
+
+    private Target<PostmanEchoClient> precompiledTarget;
+
+    @Setup
+    public void setup() {
+        template = new RequestTemplate()
+                .method(Request.HttpMethod.GET)
+                .uri("/time/object?timestamp={timestamp}")
+                .header("Content-Type", "application/json");
+        variables = Collections.singletonMap("timestamp", "2016-10-10");
+        hardCodedTarget = new Target.HardCodedTarget<>(PostmanEchoClient.class, "https://postman-echo.com");
+        precompiledTarget = new PrecompiledTarget<>(PostmanEchoClient.class, "postmanEchoClient",
+                "https://postman-echo.com");
+    }
+
+    @Benchmark
+    public Request hardCodedTarget() {
+        return hardCodedTarget.apply(template.resolve(variables));
+    }
+
+    @Benchmark
+    public Request precompiledTarget() {
+        return precompiledTarget.apply(template.resolve(variables));
+    }
+
+}
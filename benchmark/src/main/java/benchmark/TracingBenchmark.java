@@ -0,0 +1,97 @@
+package benchmark;
+
+import com.github.ethancommitpush.feign.tracing.TracingClientDecorator;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of the tracing client decorator around a client answering immediately, on the paths of calls
+ * which are not traced: with a no-op OpenTelemetry, with the W3C propagator but no span, where the request
+ * is passed through as is, and with an unsampled parent span, whose context is still propagated.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TracingBenchmark {
+
+    private Request request;
+
+    private Request.Options options;
+
+    private Client client;
+
+    private Client tracingClient;
+
+    private Client propagatingClient;
+
+    private Span unsampledParent;
+
+    @Setup
+    public void setup() {
+        request = Request.create(Request.HttpMethod.GET, "https://postman-echo.com/time/object",
+                Collections.emptyMap(), Request.Body.empty(), null);
+        options = new Request.Options();
+        client = (request, options) -> Response.builder()
+                .status(200)
+                .headers(Collections.emptyMap())
+                .request(request)
+                .body("{}", StandardCharsets.UTF_8)
+                .build();
+        tracingClient = new TracingClientDecorator(OpenTelemetry.noop())
+                .decorate("postmanEchoClient", Object.class, client);
+        propagatingClient = new TracingClientDecorator(OpenTelemetry.propagating(
+                ContextPropagators.create(W3CTraceContextPropagator.getInstance())))
+                .decorate("postmanEchoClient", Object.class, client);
+        unsampledParent = Span.wrap(SpanContext.create("0af7651916cd43dd8448eb211c80319c", "b7ad6b7169203331",
+                TraceFlags.getDefault(), TraceState.getDefault()));
+    }
+
+    @Benchmark
+    public Response client() throws IOException {
+        return client.execute(request, options);
+    }
+
+    @Benchmark
+    public Response tracingClient() throws IOException {
+        return tracingClient.execute(request, options);
+    }
+
+    @Benchmark
+    public Response propagatingClientWithoutSpan() throws IOException {
+        return propagatingClient.execute(request, options);
+    }
+
+    @Benchmark
+    public Response propagatingClientUnsampled() throws IOException {
+        try (io.opentelemetry.context.Scope ignored = unsampledParent.makeCurrent()) {
+            return propagatingClient.execute(request, options);
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+package benchmark;
+
+import com.github.ethancommitpush.feign.httpclient.UnixDomainSocketClients;
+import feign.Feign;
+import feign.RequestLine;
+import feign.httpclient.ApacheHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls a local server, the same minimal HTTP/1.1 responder over loopback TCP and over a unix domain socket,
+ * with a pooled keep-alive connection. Requires Java 16+ and Linux or macOS.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UnixDomainSocketBenchmark {
+
+    private static final byte[] RESPONSE = ("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\n"
+            + "Content-Length: 11\r\n\r\n{\"ok\":true}").getBytes(StandardCharsets.US_ASCII);
+
+    interface SidecarClient {
+
+        @RequestLine("GET /health")
+        String health();
+
+    }
+
+    private Path socketPath;
+
+    private ServerSocketChannel tcpServer;
+
+    private ServerSocketChannel unixServer;
+
+    private UnixDomainSocketClients unixDomainSocketClients;
+
+    private SidecarClient tcpClient;
+
+    private SidecarClient unixClient;
+
+    @Setup
+    public void setup() throws IOException {
+        tcpServer = ServerSocketChannel.open();
+        tcpServer.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        serve(tcpServer);
+
+        socketPath = Files.createTempDirectory("feign").resolve("sidecar.sock");
+        unixServer = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        unixServer.bind(UnixDomainSocketAddress.of(socketPath));
+        serve(unixServer);
+
+        int port = ((InetSocketAddress) tcpServer.getLocalAddress()).getPort();
+        tcpClient = Feign.builder()
+                .client(new ApacheHttpClient())
+                .target(SidecarClient.class, "http://127.0.0.1:" + port);
+        unixDomainSocketClients = new UnixDomainSocketClients(2);
+        unixClient = Feign.builder()
+                .client(unixDomainSocketClients.getClient("unix://" + socketPath))
+                .target(SidecarClient.class, UnixDomainSocketClients.TARGET_URL);
+    }
+
+    /**
+     * Answer every request of every connection with the same response, on a thread per connection.
+     */
+    private static void serve(ServerSocketChannel server) {
+        Thread acceptor = new Thread(() -> {
+            while (server.isOpen()) {
+                try {
+                    SocketChannel channel = server.accept();
+                    Thread connection = new Thread(() -> respond(channel));
+                    connection.setDaemon(true);
+                    connection.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    private static void respond(SocketChannel channel) {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        int matched = 0;
+        try {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    // Each request ends with an empty line, none has a body
+                    byte b = buffer.get();
+                    matched = b == (matched % 2 == 0 ? '\r' : '\n') ? matched + 1 : (b == '\r' ? 1 : 0);
+                    if (matched == 4) {
+                        channel.write(ByteBuffer.wrap(RESPONSE));
+                        matched = 0;
+                    }
+                }
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            // Closed by the client
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        unixDomainSocketClients.close();
+        tcpServer.close();
+        unixServer.close();
+        Files.deleteIfExists(socketPath);
+    }
+
+    @Benchmark
+    public String loopbackTcp() {
+        return tcpClient.health();
+    }
+
+    @Benchmark
+    public String unixDomainSocket() {
+        return unixClient.health();
+    }
+
+}
@@ -0,0 +1,209 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Write the source of the implementation of an API interface, whose methods call the method handlers of
+ * the feign client directly. See GeneratedClient of the starter.
+ */
+class ClientSourceWriter {
+
+    private static final String GENERATED_CLIENT = "com.github.ethancommitpush.feign.handler.GeneratedClient";
+
+    private static final String SUFFIX = "_FeignClient";
+
+    private final ProcessingEnvironment processingEnv;
+
+    ClientSourceWriter(ProcessingEnvironment processingEnv) {
+        this.processingEnv = processingEnv;
+    }
+
+    /**
+     * Whether an implementation can be generated, Feign itself rejects parameterized API interfaces.
+     */
+    boolean supports(TypeElement type) {
+        return type.getTypeParameters().isEmpty() && !type.getModifiers().contains(Modifier.PRIVATE)
+                && processingEnv.getElementUtils().getTypeElement(GENERATED_CLIENT) != null;
+    }
+
+    /**
+     * @param binaryName binary name of an API interface.
+     * @return binary name of its implementation, as GeneratedClient resolves it.
+     */
+    static String implementationName(String binaryName) {
+        int dot = binaryName.lastIndexOf('.');
+        return binaryName.substring(0, dot + 1) + binaryName.substring(dot + 1).replace('$', '_') + SUFFIX;
+    }
+
+    /**
+     * @return binary name of the implementation.
+     */
+    String write(TypeElement type) throws IOException {
+        Elements elements = processingEnv.getElementUtils();
+        Types types = processingEnv.getTypeUtils();
+        PackageElement packageElement = elements.getPackageOf(type);
+        String packageName = packageElement.getQualifiedName().toString();
+        String binaryName = elements.getBinaryName(type).toString();
+        String simpleName = implementationName(binaryName).substring(packageName.isEmpty()
+                ? 0 : packageName.length() + 1);
+        String interfaceName = type.getQualifiedName().toString();
+
+        List<ExecutableElement> methods = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+            if (method.getEnclosingElement().getKind() == ElementKind.INTERFACE
+                    && method.getModifiers().contains(Modifier.ABSTRACT)) {
+                methods.add(method);
+            }
+        }
+
+        StringBuilder s = new StringBuilder();
+        s.append("// Generated by spring-boot-starter-openfeign-processor, do not edit\n");
+        if (!packageName.isEmpty()) {
+            s.append("package ").append(packageName).append(";\n\n");
+        }
+        s.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        s.append("public final class ").append(simpleName).append(" implements ").append(interfaceName)
+                .append(", ").append(GENERATED_CLIENT).append(" {\n\n");
+
+        s.append("    private static final java.lang.reflect.Method[] METHODS;\n\n");
+        s.append("    static {\n");
+        s.append("        try {\n");
+        s.append("            METHODS = new java.lang.reflect.Method[] {\n");
+        for (ExecutableElement method : methods) {
+            s.append("                ").append(interfaceName).append(".class.getMethod(\"")
+                    .append(method.getSimpleName()).append('"');
+            for (TypeMirror parameterType : ((ExecutableType) method.asType()).getParameterTypes()) {
+                s.append(", ").append(types.erasure(parameterType)).append(".class");
+            }
+            s.append("),\n");
+        }
+        s.append("            };\n");
+        s.append("        } catch (NoSuchMethodException e) {\n");
+        s.append("            throw new ExceptionInInitializerError(e);\n");
+        s.append("        }\n");
+        s.append("    }\n\n");
+
+        s.append("    private volatile feign.Target<?> target;\n\n");
+        s.append("    private volatile feign.InvocationHandlerFactory.MethodHandler[] handlers;\n\n");
+
+        s.append("    @Override\n");
+        s.append("    public void bind(feign.Target<?> target, java.util.Map<java.lang.reflect.Method, ")
+                .append("feign.InvocationHandlerFactory.MethodHandler> dispatch) {\n");
+        s.append("        feign.InvocationHandlerFactory.MethodHandler[] handlers = ")
+                .append("new feign.InvocationHandlerFactory.MethodHandler[METHODS.length];\n");
+        s.append("        for (int i = 0; i < METHODS.length; i++) {\n");
+        s.append("            handlers[i] = dispatch.get(METHODS[i]);\n");
+        s.append("        }\n");
+        s.append("        this.target = target;\n");
+        s.append("        this.handlers = handlers;\n");
+        s.append("    }\n");
+
+        DeclaredType declaredType = (DeclaredType) type.asType();
+        for (int i = 0; i < methods.size(); i++) {
+            ExecutableElement method = methods.get(i);
+            ExecutableType methodType = (ExecutableType) types.asMemberOf(declaredType, method);
+            s.append("\n    @Override\n    public ");
+            if (!method.getTypeParameters().isEmpty()) {
+                s.append(method.getTypeParameters().stream().map(ClientSourceWriter::declare)
+                        .collect(Collectors.joining(", ", "<", "> ")));
+            }
+            TypeMirror returnType = methodType.getReturnType();
+            s.append(returnType).append(' ').append(method.getSimpleName()).append('(');
+            List<? extends TypeMirror> parameterTypes = methodType.getParameterTypes();
+            for (int j = 0; j < parameterTypes.size(); j++) {
+                s.append(j > 0 ? ", " : "").append(parameterTypes.get(j)).append(" arg").append(j);
+            }
+            s.append(')');
+            List<? extends TypeMirror> thrownTypes = methodType.getThrownTypes();
+            if (!thrownTypes.isEmpty()) {
+                s.append(thrownTypes.stream().map(TypeMirror::toString)
+                        .collect(Collectors.joining(", ", " throws ", "")));
+            }
+            s.append(" {\n");
+
+            StringBuilder call = new StringBuilder("handlers[").append(i).append("].invoke(new Object[] {");
+            for (int j = 0; j < parameterTypes.size(); j++) {
+                call.append(j > 0 ? ", " : "").append("arg").append(j);
+            }
+            call.append("})");
+            if (returnType.getKind() != TypeKind.VOID) {
+                TypeMirror castType = returnType.getKind().isPrimitive()
+                        ? types.boxedClass(types.getPrimitiveType(returnType.getKind())).asType() : returnType;
+                call.insert(0, "return (" + castType + ") ");
+            }
+
+            boolean throwsThrowable = thrownTypes.stream()
+                    .anyMatch(t -> types.erasure(t).toString().equals("java.lang.Throwable"));
+            if (throwsThrowable) {
+                s.append("        ").append(call).append(";\n");
+            } else {
+                s.append("        try {\n");
+                s.append("            ").append(call).append(";\n");
+                s.append("        } catch (RuntimeException | Error e) {\n");
+                s.append("            throw e;\n");
+                s.append("        } catch (Throwable e) {\n");
+                for (TypeMirror thrownType : thrownTypes) {
+                    TypeMirror erasure = types.erasure(thrownType);
+                    s.append("            if (e instanceof ").append(erasure).append(") {\n");
+                    s.append("                throw (").append(erasure).append(") e;\n");
+                    s.append("            }\n");
+                }
+                s.append("            throw new java.lang.reflect.UndeclaredThrowableException(e);\n");
+                s.append("        }\n");
+            }
+            s.append("    }\n");
+        }
+
+        s.append("\n    @Override\n");
+        s.append("    public String toString() {\n");
+        s.append("        return String.valueOf(target);\n");
+        s.append("    }\n\n");
+        s.append("}\n");
+
+        String sourceName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(sourceName, type).openWriter()) {
+            writer.write(s.toString());
+        }
+        return sourceName;
+    }
+
+    private static String declare(TypeParameterElement typeParameter) {
+        String bounds = typeParameter.getBounds().stream()
+                .map(TypeMirror::toString)
+                .filter(bound -> !bound.equals("java.lang.Object"))
+                .collect(Collectors.joining(" & "));
+        return bounds.isEmpty() ? typeParameter.toString() : typeParameter + " extends " + bounds;
+    }
+
+}
@@ -0,0 +1,263 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Annotation processor which indexes the interfaces declared with &#64;FeignClient at build time, so they
+ * are registered without scanning the classpath, and generates the GraalVM native-image configuration of
+ * their proxies and of the DTOs they reference, for the reflection done by Feign and Jackson. It also
+ * generates an implementation of each of them which calls the method handlers without a proxy.
+ */
+@SupportedAnnotationTypes(FeignClientsProcessor.FEIGN_CLIENT)
+@SupportedOptions({FeignClientsProcessor.NATIVE_IMAGE_NAME, FeignClientsProcessor.GENERATE_CLIENTS})
+public class FeignClientsProcessor extends AbstractProcessor {
+
+    static final String FEIGN_CLIENT = "com.github.ethancommitpush.feign.annotation.FeignClient";
+
+    /** Directory under META-INF/native-image of the generated configuration, e.g. groupId/artifactId. */
+    static final String NATIVE_IMAGE_NAME = "feign.nativeImageName";
+
+    /** Whether to generate the implementations of the API interfaces, true by default. */
+    static final String GENERATE_CLIENTS = "feign.generateClients";
+
+    /** Read by FeignClientsRegistrar. */
+    static final String INDEX_LOCATION = "META-INF/feign.clients";
+
+    private final Set<String> clients = new TreeSet<>();
+
+    private final Set<String> types = new TreeSet<>();
+
+    private final Set<String> implementations = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement feignClient = processingEnv.getElementUtils().getTypeElement(FEIGN_CLIENT);
+        if (feignClient != null) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(feignClient)) {
+                if (element.getKind() == ElementKind.INTERFACE) {
+                    TypeElement type = (TypeElement) element;
+                    index(type);
+                    generate(type);
+                }
+            }
+        }
+        if (roundEnv.processingOver() && !clients.isEmpty()) {
+            merge(feignClient);
+            write();
+        }
+        return false;
+    }
+
+    private void index(TypeElement type) {
+        clients.add(binaryName(type));
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            if (method.getEnclosingElement().getKind() != ElementKind.INTERFACE) {
+                // Members of Object
+                continue;
+            }
+            collect(method.getReturnType());
+            for (VariableElement parameter : method.getParameters()) {
+                collect(parameter.asType());
+            }
+        }
+    }
+
+    /**
+     * Merge the clients of the index written by a previous compilation, as Spring's CandidateComponentsIndexer
+     * does, so that an incremental compilation of some of the API interfaces keeps the others. The ones which
+     * no longer exist or are no longer annotated are dropped.
+     */
+    private void merge(TypeElement feignClient) {
+        Elements elements = processingEnv.getElementUtils();
+        for (String name : readIndex()) {
+            if (clients.contains(name)) {
+                continue;
+            }
+            TypeElement type = elements.getTypeElement(name.replace('$', '.'));
+            if (type == null || type.getKind() != ElementKind.INTERFACE || !isAnnotated(type, feignClient)) {
+                continue;
+            }
+            index(type);
+            // Generated by the previous compilation
+            String implementation = ClientSourceWriter.implementationName(name);
+            if (elements.getTypeElement(implementation.replace('$', '.')) != null) {
+                implementations.add(implementation);
+            }
+        }
+    }
+
+    private static boolean isAnnotated(TypeElement type, TypeElement annotation) {
+        return type.getAnnotationMirrors().stream()
+                .anyMatch(mirror -> mirror.getAnnotationType().asElement().equals(annotation));
+    }
+
+    private List<String> readIndex() {
+        List<String> names = new ArrayList<>();
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (BufferedReader reader = new BufferedReader(file.openReader(true))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.trim().isEmpty()) {
+                        names.add(line.trim());
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // No previous index
+        }
+        return names;
+    }
+
+    private void generate(TypeElement type) {
+        if (Boolean.FALSE.toString().equals(processingEnv.getOptions().get(GENERATE_CLIENTS))) {
+            return;
+        }
+        ClientSourceWriter writer = new ClientSourceWriter(processingEnv);
+        if (!writer.supports(type)) {
+            return;
+        }
+        try {
+            implementations.add(writer.write(type));
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to generate the implementation of " + type + ": " + e, type);
+        }
+    }
+
+    /**
+     * Collect the classes of a type which Jackson reflects on, i.e. the type, its type arguments and the
+     * types of its fields, but the JDK and library ones.
+     */
+    private void collect(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            collect(((ArrayType) type).getComponentType());
+        } else if (type.getKind() == TypeKind.TYPEVAR) {
+            collect(((TypeVariable) type).getUpperBound());
+        } else if (type.getKind() == TypeKind.WILDCARD) {
+            TypeMirror bound = ((WildcardType) type).getExtendsBound();
+            if (bound != null) {
+                collect(bound);
+            }
+        } else if (type.getKind() == TypeKind.DECLARED) {
+            DeclaredType declaredType = (DeclaredType) type;
+            declaredType.getTypeArguments().forEach(this::collect);
+            TypeElement element = (TypeElement) declaredType.asElement();
+            String name = binaryName(element);
+            if (isLibrary(name) || !types.add(name)) {
+                return;
+            }
+            for (VariableElement field : ElementFilter.fieldsIn(element.getEnclosedElements())) {
+                if (!field.getModifiers().contains(Modifier.STATIC)) {
+                    collect(field.asType());
+                }
+            }
+            collect(element.getSuperclass());
+        }
+    }
+
+    private static boolean isLibrary(String name) {
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("feign.")
+                || name.startsWith("reactor.") || name.startsWith("com.fasterxml.jackson.");
+    }
+
+    private String binaryName(TypeElement element) {
+        return processingEnv.getElementUtils().getBinaryName(element).toString();
+    }
+
+    private void write() {
+        String name = processingEnv.getOptions().getOrDefault(NATIVE_IMAGE_NAME, "feign-clients");
+        String directory = "META-INF/native-image/" + name + "/";
+        try {
+            write(INDEX_LOCATION, String.join("\n", clients) + "\n");
+
+            StringBuilder proxies = new StringBuilder("[\n");
+            for (String client : clients) {
+                separate(proxies).append("  { \"interfaces\": [ \"").append(client).append("\" ] }");
+            }
+            write(directory + "proxy-config.json", proxies.append("\n]\n").toString());
+
+            StringBuilder reflection = new StringBuilder("[\n");
+            for (String client : clients) {
+                separate(reflection).append("  { \"name\": \"").append(client)
+                        .append("\", \"allDeclaredMethods\": true, \"allPublicMethods\": true }");
+            }
+            for (String implementation : implementations) {
+                separate(reflection).append("  { \"name\": \"").append(implementation)
+                        .append("\", \"allDeclaredConstructors\": true }");
+            }
+            for (String type : types) {
+                separate(reflection).append("  { \"name\": \"").append(type)
+                        .append("\", \"allDeclaredConstructors\": true, \"allDeclaredMethods\": true,")
+                        .append(" \"allDeclaredFields\": true }");
+            }
+            write(directory + "reflect-config.json", reflection.append("\n]\n").toString());
+
+            write(directory + "resource-config.json",
+                    "{ \"resources\": [ { \"pattern\": \"\\\\Q" + INDEX_LOCATION + "\\\\E\" } ] }\n");
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write the feign clients index: " + e);
+        }
+    }
+
+    private static StringBuilder separate(StringBuilder json) {
+        return json.length() > 2 ? json.append(",\n") : json;
+    }
+
+    private void write(String location, String content) throws IOException {
+        Filer filer = processingEnv.getFiler();
+        FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", location);
+        try (Writer writer = file.openWriter()) {
+            writer.write(content);
+        }
+    }
+
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.processor;
+
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.Target;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+public class ClientSourceWriterTest {
+
+    private static final String GENERATED_CLIENT = "package com.github.ethancommitpush.feign.handler;\n"
+            + "public interface GeneratedClient {\n"
+            + "    void bind(feign.Target<?> target, java.util.Map<java.lang.reflect.Method, "
+            + "feign.InvocationHandlerFactory.MethodHandler> dispatch);\n"
+            + "}\n";
+
+    private static final String API = "package example;\n"
+            + "@com.github.ethancommitpush.feign.annotation.FeignClient\n"
+            + "public interface Api {\n"
+            + "    <T extends Number> T echo(T value);\n"
+            + "    <K, V extends java.util.List<K>> java.util.Map<K, V> group(V values);\n"
+            + "    String join(String separator, String... parts);\n"
+            + "    String read(String path) throws java.io.IOException, java.util.concurrent.TimeoutException;\n"
+            + "    int count();\n"
+            + "    boolean exists(long id);\n"
+            + "    void delete(long id);\n"
+            + "}\n";
+
+    private static final String OUTER = "package example;\n"
+            + "public class Outer {\n"
+            + "    @com.github.ethancommitpush.feign.annotation.FeignClient\n"
+            + "    public interface Inner { String name(); }\n"
+            + "}\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Compile the API interfaces, the implementations generated for them included, and load them.
+     */
+    private ClassLoader compile(String... sources) throws IOException {
+        File output = folder.newFolder();
+        String[] all = Arrays.copyOf(sources, sources.length + 2);
+        all[sources.length] = FeignClientsProcessorTest.FEIGN_CLIENT;
+        all[sources.length + 1] = GENERATED_CLIENT;
+        FeignClientsProcessorTest.compile(output, Collections.emptyList(), Collections.singletonList(feignCore()),
+                all);
+        return new URLClassLoader(new URL[] {output.toURI().toURL()}, getClass().getClassLoader());
+    }
+
+    private static File feignCore() {
+        try {
+            return new File(Target.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Instantiate the implementation of the API interface and bind handlers, which answer by the method.
+     */
+    private static Object bind(Class<?> type, Map<String, MethodHandler> handlers) throws Exception {
+        Class<?> implementation = type.getClassLoader().loadClass(
+                ClientSourceWriter.implementationName(type.getName()));
+        Assert.assertTrue(type.isAssignableFrom(implementation));
+        Object client = implementation.getConstructor().newInstance();
+        Map<Method, MethodHandler> dispatch = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            dispatch.put(method, handlers.get(method.getName()));
+        }
+        Method bind = implementation.getMethod("bind", Target.class, Map.class);
+        bind.invoke(client, new Target.HardCodedTarget<>(type, "http://example.test"), dispatch);
+        return client;
+    }
+
+    private static Object call(Object client, Class<?> type, String name, Class<?>[] parameterTypes,
+                               Object... args) throws Throwable {
+        try {
+            return type.getMethod(name, parameterTypes).invoke(client, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Test
+    public void test_write() throws Throwable {
+        Class<?> api = compile(API).loadClass("example.Api");
+        Map<String, MethodHandler> handlers = new HashMap<>();
+        handlers.put("echo", argv -> argv[0]);
+        handlers.put("group", argv -> Collections.singletonMap("a", argv[0]));
+        handlers.put("join", argv -> argv[0] + String.join((String) argv[0], (String[]) argv[1]));
+        handlers.put("read", argv -> "content of " + argv[0]);
+        handlers.put("count", argv -> 3);
+        handlers.put("exists", argv -> (Long) argv[0] > 0);
+        handlers.put("delete", argv -> null);
+        Object client = bind(api, handlers);
+
+        Assert.assertEquals(42, call(client, api, "echo", new Class<?>[] {Number.class}, 42));
+        Assert.assertEquals(Collections.singletonMap("a", Collections.singletonList("x")),
+                call(client, api, "group", new Class<?>[] {java.util.List.class}, Collections.singletonList("x")));
+        Assert.assertEquals(",a,b", call(client, api, "join", new Class<?>[] {String.class, String[].class},
+                ",", new String[] {"a", "b"}));
+        Assert.assertEquals("content of /a", call(client, api, "read", new Class<?>[] {String.class}, "/a"));
+        Assert.assertEquals(3, call(client, api, "count", new Class<?>[0]));
+        Assert.assertEquals(true, call(client, api, "exists", new Class<?>[] {long.class}, 1L));
+        Assert.assertNull(call(client, api, "delete", new Class<?>[] {long.class}, 1L));
+        Assert.assertEquals("HardCodedTarget(type=Api, url=http://example.test)", client.toString());
+    }
+
+    @Test
+    public void test_write_rethrowsDeclaredExceptions() throws Throwable {
+        Class<?> api = compile(API).loadClass("example.Api");
+        IOException ioException = new IOException("disk");
+        TimeoutException timeoutException = new TimeoutException("slow");
+        Exception undeclared = new Exception("undeclared");
+        IllegalStateException runtimeException = new IllegalStateException("state");
+        Object[] failure = new Object[1];
+        Object client = bind(api, Collections.singletonMap("read", argv -> {
+            throw (Throwable) failure[0];
+        }));
+        Class<?>[] parameterTypes = {String.class};
+
+        for (Throwable expected : Arrays.asList(ioException, timeoutException, runtimeException)) {
+            failure[0] = expected;
+            try {
+                call(client, api, "read", parameterTypes, "/a");
+                Assert.fail();
+            } catch (Throwable e) {
+                Assert.assertSame(expected, e);
+            }
+        }
+
+        failure[0] = undeclared;
+        try {
+            call(client, api, "read", parameterTypes, "/a");
+            Assert.fail();
+        } catch (UndeclaredThrowableException e) {
+            Assert.assertSame(undeclared, e.getCause());
+        }
+    }
+
+    @Test
+    public void test_write_nestedInterface() throws Throwable {
+        Class<?> inner = compile(OUTER).loadClass("example.Outer$Inner");
+        Object client = bind(inner, Collections.singletonMap("name", argv -> "inner"));
+
+        Assert.assertEquals("example.Outer_Inner_FeignClient", client.getClass().getName());
+        Assert.assertEquals("inner", call(client, inner, "name", new Class<?>[0]));
+    }
+
+}
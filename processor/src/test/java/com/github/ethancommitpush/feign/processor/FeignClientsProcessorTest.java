@@ -0,0 +1,165 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.processor;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class FeignClientsProcessorTest {
+
+    static final String FEIGN_CLIENT = "package com.github.ethancommitpush.feign.annotation;\n"
+            + "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)\n"
+            + "@java.lang.annotation.Target(java.lang.annotation.ElementType.TYPE)\n"
+            + "public @interface FeignClient { String url() default \"\"; }\n";
+
+    private static final String HELLO_CLIENT = "package example;\n"
+            + "@com.github.ethancommitpush.feign.annotation.FeignClient\n"
+            + "public interface HelloClient { Greeting hello(String name); }\n";
+
+    private static final String GREETING = "package example;\n"
+            + "public class Greeting { public String text; }\n";
+
+    private static final String TIME_CLIENT = "package example;\n"
+            + "@com.github.ethancommitpush.feign.annotation.FeignClient\n"
+            + "public interface TimeClient { TimeOfDay now(); }\n";
+
+    private static final String TIME_OF_DAY = "package example;\n"
+            + "public class TimeOfDay { public long millis; }\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    static class Source extends SimpleJavaFileObject {
+
+        private final String content;
+
+        Source(String content) {
+            super(URI.create("string:///" + name(content).replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.content = content;
+        }
+
+        private static String name(String content) {
+            String packageName = content.substring("package ".length(), content.indexOf(';'));
+            String[] words = content.substring(content.indexOf(';')).split("[\\s{<(]+");
+            for (int i = 0; i < words.length - 1; i++) {
+                if (words[i].equals("interface") || words[i].equals("class") || words[i].equals("@interface")) {
+                    return packageName + "." + words[i + 1];
+                }
+            }
+            throw new IllegalArgumentException(content);
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content;
+        }
+
+    }
+
+    /**
+     * Compile the sources with the processor into the output directory, which is also on the classpath as
+     * on an incremental compilation.
+     */
+    static void compile(File output, List<String> options, List<File> classpath, String... sources)
+            throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null,
+                StandardCharsets.UTF_8)) {
+            fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singletonList(output));
+            fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, Collections.singletonList(output));
+            List<File> path = new ArrayList<>(classpath);
+            path.add(output);
+            fileManager.setLocation(StandardLocation.CLASS_PATH, path);
+            List<JavaFileObject> units = new ArrayList<>();
+            for (String source : sources) {
+                units.add(new Source(source));
+            }
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null,
+                    units);
+            task.setProcessors(Collections.singletonList(new FeignClientsProcessor()));
+            Assert.assertTrue(diagnostics.getDiagnostics().toString(), task.call());
+        }
+    }
+
+    private static String read(File output, String location) throws IOException {
+        return new String(Files.readAllBytes(new File(output, location).toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static List<String> index(File output) throws IOException {
+        return Arrays.asList(read(output, FeignClientsProcessor.INDEX_LOCATION).trim().split("\n"));
+    }
+
+    @Test
+    public void test_index() throws Exception {
+        File output = folder.newFolder();
+        compile(output, Collections.emptyList(), Collections.emptyList(),
+                FEIGN_CLIENT, HELLO_CLIENT, GREETING, TIME_CLIENT, TIME_OF_DAY);
+
+        Assert.assertEquals(Arrays.asList("example.HelloClient", "example.TimeClient"), index(output));
+        String reflection = read(output, "META-INF/native-image/feign-clients/reflect-config.json");
+        Assert.assertTrue(reflection.contains("\"example.Greeting\""));
+        Assert.assertTrue(reflection.contains("\"example.TimeOfDay\""));
+        String proxies = read(output, "META-INF/native-image/feign-clients/proxy-config.json");
+        Assert.assertTrue(proxies.contains("\"example.TimeClient\""));
+    }
+
+    @Test
+    public void test_index_mergedOnIncrementalCompilation() throws Exception {
+        File output = folder.newFolder();
+        compile(output, Collections.emptyList(), Collections.emptyList(),
+                FEIGN_CLIENT, HELLO_CLIENT, GREETING, TIME_CLIENT, TIME_OF_DAY);
+
+        // Only HelloClient changed
+        compile(output, Collections.emptyList(), Collections.emptyList(), HELLO_CLIENT);
+
+        Assert.assertEquals(Arrays.asList("example.HelloClient", "example.TimeClient"), index(output));
+        String reflection = read(output, "META-INF/native-image/feign-clients/reflect-config.json");
+        Assert.assertTrue(reflection.contains("\"example.TimeOfDay\""));
+        String proxies = read(output, "META-INF/native-image/feign-clients/proxy-config.json");
+        Assert.assertTrue(proxies.contains("\"example.TimeClient\""));
+    }
+
+    @Test
+    public void test_index_dropsClientsNoLongerAnnotated() throws Exception {
+        File output = folder.newFolder();
+        compile(output, Collections.emptyList(), Collections.emptyList(),
+                FEIGN_CLIENT, HELLO_CLIENT, GREETING, TIME_CLIENT, TIME_OF_DAY);
+
+        compile(output, Collections.emptyList(), Collections.emptyList(), HELLO_CLIENT,
+                "package example;\npublic interface TimeClient { TimeOfDay now(); }\n");
+
+        Assert.assertEquals(Collections.singletonList("example.HelloClient"), index(output));
+    }
+
+}
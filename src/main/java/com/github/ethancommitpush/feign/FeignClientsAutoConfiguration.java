@@ -13,35 +13,69 @@
  */
 package com.github.ethancommitpush.feign;
 
+import com.github.ethancommitpush.feign.admission.AdmissionClientDecorator;
+import com.github.ethancommitpush.feign.admission.AdmissionController;
 import com.github.ethancommitpush.feign.annotation.FeignClient;
+import com.github.ethancommitpush.feign.client.ClientDecorator;
+import com.github.ethancommitpush.feign.decoder.BufferRecyclingJacksonDecoder;
 import com.github.ethancommitpush.feign.decoder.CustomErrorDecoder;
+import com.github.ethancommitpush.feign.decoder.ProjectingJacksonDecoder;
+import com.github.ethancommitpush.feign.encoder.StreamingJacksonEncoder;
+import com.github.ethancommitpush.feign.httpclient.CachingDnsResolver;
+import com.github.ethancommitpush.feign.httpclient.CappedKeepAliveStrategy;
+import com.github.ethancommitpush.feign.httpclient.ConnectionPartitions;
+import com.github.ethancommitpush.feign.httpclient.ConnectionReuseMetrics;
+import com.github.ethancommitpush.feign.httpclient.StaleConnectionRetryHandler;
+import com.github.ethancommitpush.feign.httpclient.StreamingApacheHttpClient;
+import com.github.ethancommitpush.feign.jfr.FeignFlightRecorder;
+import com.github.ethancommitpush.feign.httpclient.UnixDomainSocketClients;
+import com.github.ethancommitpush.feign.limit.ResponseLimitClientDecorator;
+import com.github.ethancommitpush.feign.metrics.FeignClientsMetrics;
+import com.github.ethancommitpush.feign.ratelimit.RateLimitClientDecorator;
+import com.github.ethancommitpush.feign.slowcall.PhaseTimingRequestExecutor;
+import com.github.ethancommitpush.feign.slowcall.PhaseTimingSocketFactory;
+import com.github.ethancommitpush.feign.slowcall.PhaseTimingSslSocketFactory;
+import com.github.ethancommitpush.feign.slowcall.SlowCallDetector;
 
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.TrustStrategy;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
 import org.apache.http.ssl.SSLContexts;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
 
 import feign.Client;
 import feign.codec.Decoder;
 import feign.codec.Encoder;
 import feign.codec.ErrorDecoder;
-import feign.httpclient.ApacheHttpClient;
 import feign.jackson.JacksonDecoder;
 import feign.jackson.JacksonEncoder;
 
 import java.security.cert.X509Certificate;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
 
 /**
  * {@link org.springframework.boot.autoconfigure.EnableAutoConfiguration
@@ -70,12 +104,21 @@ public class FeignClientsAutoConfiguration implements BeanFactoryAware {
     @Bean
     @ConditionalOnMissingBean(name = "feignDecoder")
     public Decoder feignDecoder() {
+        if (properties.isProjectingDecoder()) {
+            return new ProjectingJacksonDecoder();
+        }
+        if (properties.isBufferRecycling()) {
+            return new BufferRecyclingJacksonDecoder();
+        }
         return new JacksonDecoder();
     }
 
     @Bean
     @ConditionalOnMissingBean(name = "feignEncoder")
     public Encoder feignEncoder() {
+        if (properties.isStreamingEncoder()) {
+            return new StreamingJacksonEncoder();
+        }
         return new JacksonEncoder();
     }
 
@@ -86,25 +129,224 @@ public class FeignClientsAutoConfiguration implements BeanFactoryAware {
 
     @Bean
     @ConditionalOnMissingBean(name = "feignClient")
-    public Client feignClient() {
-        return new ApacheHttpClient(getHttpClient());
+    public Client feignClient(@Qualifier("feignHttpClient") CloseableHttpClient feignHttpClient) {
+        return new StreamingApacheHttpClient(feignHttpClient);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "feignHttpClient")
+    public CloseableHttpClient feignHttpClient(
+            @Qualifier("feignConnectionManager") PoolingHttpClientConnectionManager feignConnectionManager,
+            FeignClientsLifecycle feignClientsLifecycle, ConnectionReuseMetrics feignConnectionReuseMetrics,
+            ObjectProvider<SlowCallDetector> feignSlowCallDetector) {
+        CloseableHttpClient httpClient = getHttpClient(feignConnectionManager, feignConnectionReuseMetrics,
+                feignSlowCallDetector.getIfAvailable() != null);
+        feignClientsLifecycle.register(httpClient);
+        return httpClient;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public FeignClientsLifecycle feignClientsLifecycle() {
+        return new FeignClientsLifecycle(properties.getShutdownTimeout());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public FeignComponentRegistry feignComponentRegistry(FeignClientsLifecycle feignClientsLifecycle) {
+        FeignComponentRegistry registry = new FeignComponentRegistry();
+        feignClientsLifecycle.register(registry);
+        return registry;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public FeignClientsRefresher feignClientsRefresher(Environment environment,
+            @Qualifier("feignConnectionManager") ObjectProvider<PoolingHttpClientConnectionManager> feignConnectionManager) {
+        return new FeignClientsRefresher(environment, properties, feignConnectionManager.getIfUnique());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public UnixDomainSocketClients feignUnixDomainSocketClients(FeignClientsLifecycle feignClientsLifecycle) {
+        UnixDomainSocketClients clients = new UnixDomainSocketClients(
+                properties.getHttpClient().getMaxConnectionsPerRoute());
+        feignClientsLifecycle.register(clients);
+        return clients;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "feign.startup", name = "parallel", havingValue = "true")
+    public FeignClientsParallelBuilder feignClientsParallelBuilder(ListableBeanFactory beanFactory) {
+        int parallelism = properties.getStartup().getParallelism();
+        return new FeignClientsParallelBuilder(beanFactory,
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "feign.admission", name = "enabled", havingValue = "true")
+    public AdmissionController feignAdmissionController() {
+        return new AdmissionController(properties);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "feign.admission", name = "enabled", havingValue = "true")
+    public AdmissionClientDecorator feignAdmissionClientDecorator(AdmissionController feignAdmissionController) {
+        return new AdmissionClientDecorator(feignAdmissionController);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ConnectionPartitions feignConnectionPartitions() {
+        return new ConnectionPartitions(properties);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public FeignClientsMetrics feignClientsMetrics() {
+        return new FeignClientsMetrics();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RateLimitClientDecorator feignRateLimitClientDecorator() {
+        return new RateLimitClientDecorator(properties);
     }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ResponseLimitClientDecorator feignResponseLimitClientDecorator() {
+        return new ResponseLimitClientDecorator(properties);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ConnectionReuseMetrics feignConnectionReuseMetrics() {
+        return new ConnectionReuseMetrics();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnClass(name = "jdk.jfr.Event")
+    @ConditionalOnProperty(prefix = "feign.jfr", name = "enabled", havingValue = "true")
+    public FeignFlightRecorder feignFlightRecorder() {
+        return new FeignFlightRecorder();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "feign.slow-calls", name = "enabled", havingValue = "true")
+    public SlowCallDetector feignSlowCallDetector() {
+        return new SlowCallDetector(properties);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "feignSlowCallClientDecorator")
+    @ConditionalOnProperty(prefix = "feign.slow-calls", name = "enabled", havingValue = "true")
+    public ClientDecorator feignSlowCallClientDecorator(SlowCallDetector feignSlowCallDetector) {
+        return feignSlowCallDetector.clientDecorator();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "feignConnectionManager")
+    public PoolingHttpClientConnectionManager feignConnectionManager(
+            ConnectionReuseMetrics feignConnectionReuseMetrics,
+            ObjectProvider<FeignFlightRecorder> feignFlightRecorder,
+            ObjectProvider<SlowCallDetector> feignSlowCallDetector) {
+        FeignClientsProperties.HttpClient httpClientProperties = properties.getHttpClient();
+
+        ConnectionSocketFactory http = PlainConnectionSocketFactory.getSocketFactory();
+        ConnectionSocketFactory https;
+        if (feignSlowCallDetector.getIfAvailable() != null) {
+            // To time the connects and the handshakes of the slow calls
+            http = new PhaseTimingSocketFactory(http);
+            https = new PhaseTimingSslSocketFactory(getSslContext());
+        } else {
+            https = new SSLConnectionSocketFactory(getSslContext());
+        }
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", http)
+                .register("https", https)
+                .build();
+
+        DnsResolver dnsResolver = SystemDefaultDnsResolver.INSTANCE;
+        long dnsCacheTtl = httpClientProperties.getDnsCacheTtl().toMillis();
+        if (dnsCacheTtl > 0) {
+            dnsResolver = new CachingDnsResolver(dnsResolver, dnsCacheTtl);
+        }
+
+        FeignFlightRecorder flightRecorder = feignFlightRecorder.getIfAvailable();
+        PoolingHttpClientConnectionManager connectionManager = flightRecorder != null
+                ? flightRecorder.connectionManager(registry, feignConnectionReuseMetrics, dnsResolver)
+                : new PoolingHttpClientConnectionManager(registry, feignConnectionReuseMetrics, dnsResolver);
+        connectionManager.setMaxTotal(httpClientProperties.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(httpClientProperties.getMaxConnectionsPerRoute());
+        connectionManager.setValidateAfterInactivity(
+                (int) httpClientProperties.getValidateAfterInactivity().toMillis());
+        return connectionManager;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "feign.warm-up", name = "enabled", havingValue = "true")
+    public FeignClientsWarmUp feignClientsWarmUp(
+            @Qualifier("feignConnectionManager") PoolingHttpClientConnectionManager feignConnectionManager,
+            @Qualifier("feignHttpClient") CloseableHttpClient feignHttpClient) {
+        return new FeignClientsWarmUp(feignConnectionManager, feignHttpClient, properties);
+    }
+
     /**
-     * Get a default httpClient which trust self-signed certificates.
+     * Get a default httpClient which pools connections through the connection manager, keeps them alive
+     * as long as the server allows up to a max, closes them once expired, and retries idempotent requests
+     * failing on a stale one.
      *
+     * @param timed whether to time the writes of the requests and the waits for the responses of slow calls.
      * @return default httpClient.
      */
-    private CloseableHttpClient getHttpClient() {
-        CloseableHttpClient httpClient = null;
+    private CloseableHttpClient getHttpClient(PoolingHttpClientConnectionManager connectionManager,
+                                              ConnectionReuseMetrics reuseMetrics, boolean timed) {
+        FeignClientsProperties.HttpClient httpClientProperties = properties.getHttpClient();
+        HttpClientBuilder builder = HttpClients.custom();
+        if (timed) {
+            builder.setRequestExecutor(new PhaseTimingRequestExecutor());
+        }
+        return builder
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy(new CappedKeepAliveStrategy(httpClientProperties.getKeepAlive().toMillis()))
+                .evictExpiredConnections()
+                .setRetryHandler(new StaleConnectionRetryHandler(httpClientProperties.getStaleConnectionRetries(),
+                        reuseMetrics))
+                .addInterceptorLast(reuseMetrics)
+                .build();
+    }
+
+    /**
+     * Get a SSL context which trust self-signed certificates, and keeps TLS sessions for resumption
+     * as configured.
+     *
+     * @return SSL context.
+     */
+    private SSLContext getSslContext() {
+        SSLContext sslContext = null;
         try {
             // To trust self-signed certificates
             TrustStrategy acceptingTrustStrategy = (X509Certificate[] chain, String authType) -> true;
-            SSLContext sslContext = SSLContexts.custom().loadTrustMaterial(null, acceptingTrustStrategy).build();
-            SSLConnectionSocketFactory csf = new SSLConnectionSocketFactory(sslContext);
-            httpClient = HttpClients.custom().setSSLSocketFactory(csf).build();
+            sslContext = SSLContexts.custom().loadTrustMaterial(null, acceptingTrustStrategy).build();
         } catch (Exception e) {
+            sslContext = SSLContexts.createDefault();
         }
-        return httpClient;
+
+        FeignClientsProperties.HttpClient httpClientProperties = properties.getHttpClient();
+        SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+        if (httpClientProperties.getSslSessionCacheSize() > 0) {
+            sessionContext.setSessionCacheSize(httpClientProperties.getSslSessionCacheSize());
+        }
+        if (!httpClientProperties.getSslSessionTimeout().isZero()) {
+            sessionContext.setSessionTimeout((int) httpClientProperties.getSslSessionTimeout().getSeconds());
+        }
+        return sslContext;
     }
 
 }
@@ -13,34 +13,79 @@
  */
 package com.github.ethancommitpush.feign;
 
+import com.github.ethancommitpush.feign.async.AsyncClient;
+import com.github.ethancommitpush.feign.async.AsyncDispatchingClient;
+import com.github.ethancommitpush.feign.async.AsyncMethodHandlerDecorator;
+import com.github.ethancommitpush.feign.client.ClientDecorator;
+import com.github.ethancommitpush.feign.encoder.StreamingJacksonEncoder;
+import com.github.ethancommitpush.feign.encoder.StreamingScope;
+import com.github.ethancommitpush.feign.handler.DecoratingInvocationHandlerFactory;
+import com.github.ethancommitpush.feign.handler.GeneratedClient;
+import com.github.ethancommitpush.feign.handler.MethodHandlerDecorator;
+import com.github.ethancommitpush.feign.handler.RefreshableInvocationHandler;
+import com.github.ethancommitpush.feign.httpclient.ConnectionPartitions;
+import com.github.ethancommitpush.feign.httpclient.PartitionedClient;
+import com.github.ethancommitpush.feign.httpclient.StreamingApacheHttpClient;
+import com.github.ethancommitpush.feign.httpclient.UnixDomainSocketClients;
+import com.github.ethancommitpush.feign.interceptor.StaticHeadersContract;
+import com.github.ethancommitpush.feign.jfr.FeignFlightRecorder;
+import com.github.ethancommitpush.feign.reactive.ReactiveMethodHandlerDecorator;
+
 import feign.Client;
+import feign.Contract;
 import feign.Feign;
+import feign.InvocationHandlerFactory;
 import feign.Logger.Level;
+import feign.Request;
+import feign.RequestInterceptor;
+import feign.Retryer;
 import feign.slf4j.Slf4jLogger;
 import feign.codec.Decoder;
 import feign.codec.Encoder;
 import feign.codec.ErrorDecoder;
+import feign.jackson.JacksonDecoder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.BeanNameAware;
 import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.ListableBeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.context.EnvironmentAware;
 import org.springframework.core.env.Environment;
 
+import java.lang.reflect.InvocationHandler;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
-public class FeignClientsFactory<T> implements FactoryBean<Object>, BeanFactoryAware, EnvironmentAware {
+public class FeignClientsFactory<T> implements FactoryBean<Object>, BeanFactoryAware, BeanNameAware,
+        EnvironmentAware {
     private static final Logger log = LoggerFactory.getLogger(FeignClientsFactory.class);
 
+    private static final boolean REACTOR_PRESENT = ClassUtils.isPresent("reactor.core.publisher.Flux",
+            FeignClientsFactory.class.getClassLoader());
+
     private BeanFactory beanFactory;
 
     private Environment environment;
 
+    private String beanName;
+
     private Class<T> apiType;
 
     private Map<String, Object> attributes;
@@ -60,22 +105,110 @@ public class FeignClientsFactory<T> implements FactoryBean<Object>, BeanFactoryA
     @Autowired
     private FeignClientsProperties properties;
 
+    @Autowired(required = false)
+    private List<MethodHandlerDecorator> methodHandlerDecorators;
+
+    @Autowired(required = false)
+    private List<ClientDecorator> clientDecorators;
+
+    @Autowired(required = false)
+    private FeignUrlResolver feignUrlResolver;
+
+    @Autowired(required = false)
+    private FeignComponentRegistry feignComponentRegistry;
+
+    @Autowired(required = false)
+    private AsyncClient feignAsyncClient;
+
+    @Autowired(required = false)
+    private FeignClientsRefresher feignClientsRefresher;
+
+    @Autowired(required = false)
+    private UnixDomainSocketClients feignUnixDomainSocketClients;
+
+    @Autowired(required = false)
+    private ConnectionPartitions feignConnectionPartitions;
+
+    @Autowired(required = false)
+    private FeignClientsParallelBuilder feignClientsParallelBuilder;
+
+    @Autowired(required = false)
+    private FeignFlightRecorder feignFlightRecorder;
+
+    private Class<?> generatedType;
+
+    private GeneratedClient generatedClient;
+
+    private volatile RefreshableInvocationHandler invocationHandler;
+
+    private volatile Map<String, Object> description = Collections.emptyMap();
+
     @Override
     public Object getObject() throws Exception {
-        Object r = feignBuild();
+        Object r = feignClientsParallelBuilder != null ? feignClientsParallelBuilder.getBuilt(this) : null;
+        if (r == null) {
+            r = feignBuild();
+        }
         log.debug("{} feign client: instance is {}, url is {}", apiType, r, getUrl());
+        if (feignClientsRefresher != null) {
+            feignClientsRefresher.register(this);
+        }
         return r;
     }
 
+    /**
+     * Rebuild the feign client with the current settings and swap it into the proxy generated at startup.
+     * In-flight calls complete on the previous one.
+     */
+    public synchronized void refresh() {
+        if (invocationHandler == null) {
+            return;
+        }
+        feignBuild();
+        log.info("{} feign client: refreshed, url is {}", apiType, getUrl());
+    }
+
     /**
      * Generate feign client.
      *
      * @return generated feign client.
      */
     private T feignBuild() {
+        return prepare().get();
+    }
+
+    /**
+     * Resolve the components of the feign client, e.g. beans, on the calling thread.
+     *
+     * @return the build of the feign client with them, i.e. the parsing of the API interface and the
+     * creation of the method handlers, which can run on another thread.
+     */
+    Supplier<T> prepare() {
+        if (generatedType != null && generatedClient == null) {
+            generatedClient = (GeneratedClient) BeanUtils.instantiateClass(generatedType);
+        }
         Feign.Builder builder = Feign.builder();
 
+        // The non-blocking http client has no unix domain socket transport
+        boolean nonBlocking = feignAsyncClient != null && !UnixDomainSocketClients.isUnixDomainSocket(getUrl());
+        boolean reactive = REACTOR_PRESENT && nonBlocking
+                && ReactiveMethodHandlerDecorator.hasReactiveMethods(apiType);
+        boolean async = reactive
+                || nonBlocking && AsyncMethodHandlerDecorator.hasAsyncMethods(apiType);
+        log.debug("{} feign client: asynchronous methods are {}", apiType, async ? "non-blocking" : "blocking");
+
         Client client = resolveClient();
+        Client transport = client;
+        client = decorateClient(client);
+        // Outermost, asynchronous calls are sent and observed by AsyncMethodHandlerDecorator instead
+        if (async && client != null) {
+            client = new AsyncDispatchingClient(client);
+        }
+        AsyncClient asyncClient = async ? decorateAsyncClient(feignAsyncClient) : null;
+        if (async && transport instanceof PartitionedClient) {
+            log.warn("{} feign client: its connection partition doesn't apply to its asynchronous methods, "
+                    + "sent through the connections of the non-blocking http client", apiType);
+        }
         log.debug("{} feign client {}: http client is {}", apiType, client);
         if (client != null) {
             builder.client(client);
@@ -84,13 +217,20 @@ public class FeignClientsFactory<T> implements FactoryBean<Object>, BeanFactoryA
         Encoder encoder = resolveEncoder();
         log.debug("{} feign client {}: encoder is {}", apiType, encoder);
         if (encoder != null) {
-            builder.encoder(encoder);
+            builder.encoder(feignFlightRecorder != null ? feignFlightRecorder.encoder(beanName, encoder) : encoder);
         }
+        // Only the default http client streams, and not what the non-blocking one sends
+        boolean streaming = encoder instanceof StreamingJacksonEncoder && !async
+                && feignClient instanceof StreamingApacheHttpClient
+                && (transport == feignClient || transport instanceof PartitionedClient);
+        log.debug("{} feign client: request bodies are {}", apiType, streaming ? "streamed" : "buffered");
 
         Decoder decoder = resolveDecoder();
         log.debug("{} feign client {}: decoder is {}", apiType, decoder);
+        Decoder recordedDecoder = feignFlightRecorder != null && decoder != null
+                ? feignFlightRecorder.decoder(beanName, decoder) : decoder;
         if (decoder != null) {
-            builder.decoder(decoder);
+            builder.decoder(recordedDecoder);
         }
 
         feign.Logger logger = resolveLogger();
@@ -99,6 +239,10 @@ public class FeignClientsFactory<T> implements FactoryBean<Object>, BeanFactoryA
             builder.logger(logger);
         }
 
+        FeignClientsProperties.ClientProperties clientProperties = properties.getClient(beanName);
+        builder.options(new Request.Options(clientProperties.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS,
+                clientProperties.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS, true));
+
         Level logLevel = properties.getLogLevel();
         log.debug("{} feign client {}: logger level is {}", apiType, logLevel);
         builder.logLevel(logLevel);
@@ -109,7 +253,124 @@ public class FeignClientsFactory<T> implements FactoryBean<Object>, BeanFactoryA
             builder.errorDecoder(errorDecoder);
         }
 
-        return builder.target(apiType, getUrl());
+        List<RequestInterceptor> interceptors = resolveInterceptors();
+        log.debug("{} feign client: interceptors are {}", apiType, interceptors);
+        builder.requestInterceptors(interceptors);
+
+        if (feignFlightRecorder != null) {
+            builder.retryer(feignFlightRecorder.retryer(beanName, new Retryer.Default()));
+        }
+
+        Map<String, Collection<String>> headers = resolveHeaders();
+        log.debug("{} feign client: static headers are {}", apiType, headers);
+        if (!headers.isEmpty()) {
+            builder.contract(new StaticHeadersContract(new Contract.Default(), headers));
+        }
+
+        List<MethodHandlerDecorator> decorators = new ArrayList<>();
+        if (methodHandlerDecorators != null) {
+            decorators.addAll(methodHandlerDecorators);
+        }
+        if (streaming) {
+            decorators.add(StreamingScope.DECORATOR);
+        }
+        if (async) {
+            // Innermost, right around the handler dispatching the request
+            ErrorDecoder asyncErrorDecoder = errorDecoder != null ? errorDecoder : new ErrorDecoder.Default();
+            AsyncMethodHandlerDecorator asyncDecorator = new AsyncMethodHandlerDecorator(asyncClient,
+                    decoder != null ? recordedDecoder : new Decoder.Default(), asyncErrorDecoder,
+                    logger != null ? logger : new feign.Logger.NoOpLogger(), logLevel);
+            decorators.add(asyncDecorator);
+            if (reactive) {
+                DataSize maxErrorBodyBytes = clientProperties.getMaxErrorResponseBytes();
+                decorators.add(new ReactiveMethodHandlerDecorator(asyncClient, asyncDecorator,
+                        decoder != null ? recordedDecoder : new JacksonDecoder(), asyncErrorDecoder,
+                        maxErrorBodyBytes != null ? maxErrorBodyBytes.toBytes()
+                                : ReactiveMethodHandlerDecorator.DEFAULT_MAX_ERROR_BODY_BYTES));
+            }
+        }
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("interface", apiType.getName());
+        description.put("url", getUrl());
+        description.put("client", describe(transport));
+        description.put("clientDecorators", clientDecorators != null
+                ? clientDecorators.stream().map(FeignClientsFactory::describe).toArray() : new Object[0]);
+        description.put("implementation", generatedType != null ? generatedType.getName() : "proxy");
+        description.put("asynchronous", async ? describe(feignAsyncClient) : null);
+        description.put("encoder", describe(encoder));
+        description.put("streamingBody", streaming);
+        description.put("decoder", describe(decoder));
+        description.put("errorDecoder", describe(errorDecoder));
+        description.put("logger", describe(logger));
+        description.put("logLevel", logLevel);
+        description.put("connectTimeout", clientProperties.getConnectTimeout().toString());
+        description.put("readTimeout", clientProperties.getReadTimeout().toString());
+        // Feign's default, applied to IOExceptions and RetryableExceptions
+        description.put("retryer", "Retryer.Default(period=100ms, maxPeriod=1s, maxAttempts=5)");
+        description.put("interceptors", interceptors.stream().map(FeignClientsFactory::describe).toArray());
+        // Only the names, the values may be credentials
+        description.put("headers", headers.keySet());
+        this.description = Collections.unmodifiableMap(description);
+
+        InvocationHandlerFactory binding = (target, dispatch) -> {
+            if (generatedClient != null) {
+                generatedClient.bind(target, dispatch);
+            }
+            return new InvocationHandlerFactory.Default().create(target, dispatch);
+        };
+        InvocationHandlerFactory invocationHandlerFactory = decorators.isEmpty()
+                ? binding : new DecoratingInvocationHandlerFactory(binding, decorators);
+        builder.invocationHandlerFactory((target, dispatch) -> {
+            InvocationHandler handler = invocationHandlerFactory.create(target, dispatch);
+            if (invocationHandler == null) {
+                invocationHandler = new RefreshableInvocationHandler(handler);
+            } else {
+                // Rebuilt on refresh, only the handler is kept
+                invocationHandler.setDelegate(handler);
+            }
+            return invocationHandler;
+        });
+
+        PrecompiledTarget<T> target = getTarget();
+        return () -> {
+            T proxy = builder.target(target);
+            return generatedClient != null ? apiType.cast(generatedClient) : proxy;
+        };
+    }
+
+    /**
+     * @return whether the feign client was built.
+     */
+    boolean isBuilt() {
+        return invocationHandler != null;
+    }
+
+    private static String describe(Object component) {
+        return component != null ? component.getClass().getName() : null;
+    }
+
+    /**
+     * Get the components and settings the feign client was built with, for monitoring.
+     *
+     * @return description, empty until built.
+     */
+    public Map<String, Object> getDescription() {
+        return description;
+    }
+
+    /**
+     * Get the target of the feign client with its url precompiled, named by the bean name if any.
+     *
+     * @return target.
+     */
+    private PrecompiledTarget<T> getTarget() {
+        String url = getUrl();
+        String name = StringUtils.hasText(beanName) ? beanName : url;
+        if (UnixDomainSocketClients.isUnixDomainSocket(url)) {
+            // Sent over the socket by the http client
+            url = UnixDomainSocketClients.TARGET_URL;
+        }
+        return new PrecompiledTarget<>(apiType, name, url);
     }
 
     public feign.Logger resolveLogger() {
@@ -123,7 +384,12 @@ public class FeignClientsFactory<T> implements FactoryBean<Object>, BeanFactoryA
     }
 
     public String getUrl() {
-        return resolveAttribute((String) attributes.get("url"));
+        String url = properties != null ? properties.getClient(beanName).getUrl() : null;
+        url = resolveAttribute(StringUtils.hasText(url) ? url : (String) attributes.get("url"));
+        if (feignUrlResolver != null) {
+            return feignUrlResolver.resolve(beanName, url);
+        }
+        return url;
     }
 
 
@@ -143,14 +409,92 @@ public class FeignClientsFactory<T> implements FactoryBean<Object>, BeanFactoryA
         String clientBeanName = (String) attributes.get("client");
 
         Client client = FeignConfigurationUtils.resolveClient(beanFactory, clientBeanName,
-                (Class<? extends Client>) clientClass);
+                (Class<? extends Client>) clientClass, feignComponentRegistry, beanName);
         if (client != null) {
             return client;
         }
 
+        String url = getUrl();
+        if (UnixDomainSocketClients.isUnixDomainSocket(url) && feignUnixDomainSocketClients != null) {
+            return feignUnixDomainSocketClients.getClient(url);
+        }
+
+        if (feignClient != null && feignConnectionPartitions != null) {
+            return feignConnectionPartitions.partition(beanName, getUrl(), feignClient);
+        }
         return feignClient;
     }
 
+    /**
+     * Decorates the http client with the client decorators, the first one being the outermost.
+     *
+     * @param client http client
+     * @return decorated http client
+     */
+    private Client decorateClient(Client client) {
+        if (client == null || clientDecorators == null) {
+            return client;
+        }
+        for (int i = clientDecorators.size() - 1; i >= 0; i--) {
+            client = clientDecorators.get(i).decorate(beanName, apiType, client);
+        }
+        return client;
+    }
+
+    /**
+     * Decorates the non-blocking http client with the client decorators likewise, after the http client.
+     *
+     * @param asyncClient non-blocking http client
+     * @return decorated non-blocking http client
+     */
+    private AsyncClient decorateAsyncClient(AsyncClient asyncClient) {
+        if (clientDecorators == null) {
+            return asyncClient;
+        }
+        for (int i = clientDecorators.size() - 1; i >= 0; i--) {
+            asyncClient = clientDecorators.get(i).decorateAsync(beanName, apiType, asyncClient);
+        }
+        return asyncClient;
+    }
+
+    /**
+     * Resolves the request interceptors: the request interceptor beans in their order, except the ones
+     * excluded for the client, followed by the ones named in &#64;FeignClient annotation.
+     *
+     * @return request interceptors
+     */
+    public List<RequestInterceptor> resolveInterceptors() {
+        List<String> beanNames = Arrays.asList((String[]) attributes.getOrDefault("interceptors", new String[0]));
+        List<String> excluded = properties.getClient(beanName).getExcludeInterceptors();
+
+        List<RequestInterceptor> interceptors = new ArrayList<>();
+        if (beanFactory instanceof ListableBeanFactory) {
+            ((ListableBeanFactory) beanFactory).getBeansOfType(RequestInterceptor.class).forEach((name, interceptor) -> {
+                if (!excluded.contains(name) && !beanNames.contains(name)) {
+                    interceptors.add(interceptor);
+                }
+            });
+            AnnotationAwareOrderComparator.sort(interceptors);
+        }
+        for (String name : beanNames) {
+            interceptors.add(beanFactory.getBean(name, RequestInterceptor.class));
+        }
+        return interceptors;
+    }
+
+    /**
+     * Resolves the static headers from the global and the client properties, the latter taking precedence.
+     *
+     * @return static headers
+     */
+    public Map<String, Collection<String>> resolveHeaders() {
+        Map<String, Collection<String>> headers = new LinkedHashMap<>();
+        properties.getHeaders().forEach((name, value) -> headers.put(name, Collections.singletonList(value)));
+        properties.getClient(beanName).getHeaders()
+                .forEach((name, value) -> headers.put(name, Collections.singletonList(value)));
+        return headers;
+    }
+
     /**
      * Resolves the encoder from either &#64;FeignClient annotation or default properties
      *
@@ -162,7 +506,7 @@ public class FeignClientsFactory<T> implements FactoryBean<Object>, BeanFactoryA
         String encoderBeanName = (String) attributes.get("encoder");
 
         Encoder encoder = FeignConfigurationUtils.resolveEncoder(beanFactory, encoderBeanName,
-                (Class<? extends Encoder>) encoderClass);
+                (Class<? extends Encoder>) encoderClass, feignComponentRegistry, beanName);
         if (encoder != null) {
             return encoder;
         }
@@ -181,7 +525,7 @@ public class FeignClientsFactory<T> implements FactoryBean<Object>, BeanFactoryA
         String decoderBeanName = (String) attributes.get("decoder");
 
         Decoder decoder = FeignConfigurationUtils.resolveDecoder(beanFactory, decoderBeanName,
-                (Class<? extends Decoder>) decoderClass);
+                (Class<? extends Decoder>) decoderClass, feignComponentRegistry, beanName);
         if (decoder != null) {
             return decoder;
         }
@@ -200,7 +544,7 @@ public class FeignClientsFactory<T> implements FactoryBean<Object>, BeanFactoryA
         String errorDecoderBeanName = (String) attributes.get("errorDecoder");
 
         ErrorDecoder errorDecoder = FeignConfigurationUtils.resolveErrorDecoder(beanFactory, errorDecoderBeanName,
-                (Class<? extends ErrorDecoder>) errorDecoderClass);
+                (Class<? extends ErrorDecoder>) errorDecoderClass, feignComponentRegistry, beanName);
         if (errorDecoder != null) {
             return errorDecoder;
         }
@@ -224,6 +568,15 @@ public class FeignClientsFactory<T> implements FactoryBean<Object>, BeanFactoryA
         this.beanFactory = beanFactory;
     }
 
+    @Override
+    public void setBeanName(String beanName) {
+        this.beanName = beanName;
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
     /**
      * Set the {@code Environment} that this component runs in.
      * @see org.springframework.context.EnvironmentAware
@@ -241,6 +594,14 @@ public class FeignClientsFactory<T> implements FactoryBean<Object>, BeanFactoryA
         this.apiType = apiType;
     }
 
+    public Class<?> getGeneratedType() {
+        return generatedType;
+    }
+
+    public void setGeneratedType(Class<?> generatedType) {
+        this.generatedType = generatedType;
+    }
+
     public Map<String, Object> getAttributes() {
         return attributes;
     }
@@ -0,0 +1,180 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign;
+
+import com.github.ethancommitpush.feign.handler.MethodHandlerDecorator;
+
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.Target;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.Ordered;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lifecycle of the feign clients. On stop, new calls are rejected and in-flight calls are drained up to the
+ * configured timeout, and they are accepted again on start. The registered resources, e.g. the http clients
+ * and their connection pools, are closed only when the context is destroyed, after the last stop.
+ */
+public class FeignClientsLifecycle implements SmartLifecycle, DisposableBean, MethodHandlerDecorator, Ordered {
+    private static final Logger log = LoggerFactory.getLogger(FeignClientsLifecycle.class);
+
+    /**
+     * Stop after the web server has finished its own graceful shutdown, which may still call feign clients.
+     */
+    public static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final Duration shutdownTimeout;
+
+    private final List<Closeable> closeables = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicLong rejectedCalls = new AtomicLong();
+
+    private final AtomicLong abortedCalls = new AtomicLong();
+
+    private volatile boolean running;
+
+    private volatile boolean accepting = true;
+
+    private volatile boolean closed;
+
+    public FeignClientsLifecycle(Duration shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    /**
+     * Register a resource to be closed on destroy, once in-flight calls are drained.
+     * @param closeable resource.
+     */
+    public void register(Closeable closeable) {
+        closeables.add(closeable);
+    }
+
+    @Override
+    public MethodHandler decorate(Target<?> target, Method method, MethodHandler handler) {
+        return argv -> {
+            inFlight.incrementAndGet();
+            boolean pending = false;
+            try {
+                if (!accepting) {
+                    rejectedCalls.incrementAndGet();
+                    throw new RejectedExecutionException(String.format("feign client %s is shutting down", target.name()));
+                }
+                Object result = handler.invoke(argv);
+                if (result instanceof CompletionStage) {
+                    // Asynchronous calls are in flight until their result completes
+                    pending = true;
+                    ((CompletionStage<?>) result).whenComplete((r, e) -> inFlight.decrementAndGet());
+                }
+                return result;
+            } finally {
+                if (!pending) {
+                    inFlight.decrementAndGet();
+                }
+            }
+        };
+    }
+
+    @Override
+    public void start() {
+        if (closed) {
+            throw new IllegalStateException("feign clients are closed");
+        }
+        accepting = true;
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        accepting = false;
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        try {
+            while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        int aborted = inFlight.get();
+        abortedCalls.addAndGet(aborted);
+        if (aborted > 0) {
+            log.warn("feign clients: {} in-flight call(s) aborted after waiting {}", aborted, shutdownTimeout);
+        }
+
+        log.info("feign clients: stopped, {} call(s) rejected and {} aborted at shutdown", rejectedCalls.get(),
+                abortedCalls.get());
+        running = false;
+    }
+
+    @Override
+    public void destroy() {
+        closed = true;
+        accepting = false;
+        for (Closeable closeable : closeables) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                log.warn("feign clients: failed to close {}", closeable, e);
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Outermost, so rejected calls don't reach any other decorator.
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    public int getInFlightCalls() {
+        return inFlight.get();
+    }
+
+    public long getRejectedCalls() {
+        return rejectedCalls.get();
+    }
+
+    public long getAbortedCalls() {
+        return abortedCalls.get();
+    }
+
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ListableBeanFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Builds all the feign clients in parallel when the first one is requested during the startup, instead of
+ * one after the other as they are injected. Their components are resolved from the bean factory on the
+ * calling thread, then the API interfaces are parsed and their method handlers created on a bounded
+ * fork-join pool. Each feign client bean then resolves to its prebuilt instance.
+ */
+public class FeignClientsParallelBuilder {
+    private static final Logger log = LoggerFactory.getLogger(FeignClientsParallelBuilder.class);
+
+    private final ListableBeanFactory beanFactory;
+
+    private final int parallelism;
+
+    private final Map<String, CompletableFuture<Object>> builds = new HashMap<>();
+
+    private boolean started;
+
+    /**
+     * @param beanFactory bean factory of the feign clients.
+     * @param parallelism max threads building at once.
+     */
+    public FeignClientsParallelBuilder(ListableBeanFactory beanFactory, int parallelism) {
+        this.beanFactory = beanFactory;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Get the prebuilt instance of the feign client, building all of them on first call.
+     * @param factory factory of the feign client.
+     * @return prebuilt instance, or null to build it on the calling thread, e.g. if requested while
+     * preparing the builds.
+     */
+    public synchronized Object getBuilt(FeignClientsFactory<?> factory) throws Exception {
+        if (!started) {
+            started = true;
+            buildAll();
+        }
+        CompletableFuture<Object> build = builds.remove(factory.getBeanName());
+        if (build == null) {
+            return null;
+        }
+        try {
+            return build.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private void buildAll() {
+        long start = System.nanoTime();
+        Map<String, FeignClientsFactory> factories = beanFactory.getBeansOfType(FeignClientsFactory.class, false,
+                false);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (FeignClientsFactory<?> factory : factories.values()) {
+                // Built meanwhile if a component resolved depends on it
+                if (factory.isBuilt() || builds.containsKey(factory.getBeanName())) {
+                    continue;
+                }
+                Supplier<?> build = factory.prepare();
+                builds.put(factory.getBeanName(), CompletableFuture.supplyAsync(() -> {
+                    long buildStart = System.nanoTime();
+                    Object client = build.get();
+                    log.info("{} feign client: built in {} ms on {}", factory.getApiType(),
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - buildStart),
+                            Thread.currentThread().getName());
+                    return client;
+                }, pool));
+            }
+        } finally {
+            // Lets the submitted builds complete
+            pool.shutdown();
+        }
+        int count = builds.size();
+        CompletableFuture.allOf(builds.values().toArray(new CompletableFuture[0])).whenComplete((r, e) ->
+                log.info("{} feign clients built in {} ms on {} threads", count,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), parallelism));
+    }
+
+}
@@ -13,14 +13,48 @@
  */
 package com.github.ethancommitpush.feign;
 
+import com.github.ethancommitpush.feign.annotation.Priority;
+
 import feign.Logger;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 @ConfigurationProperties("feign")
 public class FeignClientsProperties {
 
     private Logger.Level logLevel = Logger.Level.BASIC;
     private FeignLoggerType loggerType = FeignLoggerType.SYSTEM_ERR;
+    /** Whether the default decoder parses responses with recycled buffers, see BufferRecyclingJacksonDecoder. */
+    private boolean bufferRecycling = false;
+    /** Whether the default decoder maps only what the return types map, see ProjectingJacksonDecoder. */
+    private boolean projectingDecoder = false;
+    /** Whether the default encoder streams request bodies, see StreamingJacksonEncoder. */
+    private boolean streamingEncoder = false;
+    /** How long in-flight calls are drained at shutdown before the http clients are closed. */
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+    /** Headers added to every request of all feign clients. */
+    private Map<String, String> headers = new LinkedHashMap<>();
+    private HttpClient httpClient = new HttpClient();
+    private WarmUp warmUp = new WarmUp();
+    private Async async = new Async();
+    private Admission admission = new Admission();
+    private Startup startup = new Startup();
+    private Jfr jfr = new Jfr();
+    private SlowCalls slowCalls = new SlowCalls();
+    /** Settings per feign client, by the bean name of the feign client. */
+    private Map<String, ClientProperties> clients = new HashMap<>();
 
     public Logger.Level getLogLevel() {
         return logLevel;
@@ -38,4 +72,674 @@ public class FeignClientsProperties {
         this.loggerType = loggerType;
     }
 
+    public boolean isBufferRecycling() {
+        return bufferRecycling;
+    }
+
+    public void setBufferRecycling(boolean bufferRecycling) {
+        this.bufferRecycling = bufferRecycling;
+    }
+
+    public boolean isProjectingDecoder() {
+        return projectingDecoder;
+    }
+
+    public void setProjectingDecoder(boolean projectingDecoder) {
+        this.projectingDecoder = projectingDecoder;
+    }
+
+    public boolean isStreamingEncoder() {
+        return streamingEncoder;
+    }
+
+    public void setStreamingEncoder(boolean streamingEncoder) {
+        this.streamingEncoder = streamingEncoder;
+    }
+
+    public Duration getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    public void setShutdownTimeout(Duration shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public void setHeaders(Map<String, String> headers) {
+        this.headers = headers;
+    }
+
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public void setHttpClient(HttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    public WarmUp getWarmUp() {
+        return warmUp;
+    }
+
+    public void setWarmUp(WarmUp warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    public Jfr getJfr() {
+        return jfr;
+    }
+
+    public void setJfr(Jfr jfr) {
+        this.jfr = jfr;
+    }
+
+    public SlowCalls getSlowCalls() {
+        return slowCalls;
+    }
+
+    public void setSlowCalls(SlowCalls slowCalls) {
+        this.slowCalls = slowCalls;
+    }
+
+    public Startup getStartup() {
+        return startup;
+    }
+
+    public void setStartup(Startup startup) {
+        this.startup = startup;
+    }
+
+    public Admission getAdmission() {
+        return admission;
+    }
+
+    public void setAdmission(Admission admission) {
+        this.admission = admission;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public void setAsync(Async async) {
+        this.async = async;
+    }
+
+    public Map<String, ClientProperties> getClients() {
+        return clients;
+    }
+
+    public void setClients(Map<String, ClientProperties> clients) {
+        this.clients = clients;
+    }
+
+    /**
+     * Get the settings of the feign client.
+     * @param name bean name of the feign client.
+     * @return settings of the feign client, or the defaults if not configured.
+     */
+    public ClientProperties getClient(String name) {
+        ClientProperties client = name != null ? clients.get(name) : null;
+        return client != null ? client : new ClientProperties();
+    }
+
+    /**
+     * Settings of a feign client.
+     */
+    public static class ClientProperties {
+
+        /**
+         * Url of the feign client over the one of &#64;FeignClient, e.g. https://api.example.com, or a unix
+         * domain socket as unix:///var/run/agent.sock.
+         */
+        private String url;
+        /** Headers added to every request of the feign client, over the global ones. */
+        private Map<String, String> headers = new LinkedHashMap<>();
+        /** Bean names of the request interceptor beans not to apply to the feign client. */
+        private List<String> excludeInterceptors = new ArrayList<>();
+        private RateLimit rateLimit = new RateLimit();
+        private Pool pool = new Pool();
+        /** Connect timeout of the requests of the feign client. */
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        /** Read timeout of the requests of the feign client. */
+        private Duration readTimeout = Duration.ofSeconds(60);
+        /** Max size of the body of a successful response, read from the socket, none if not set. */
+        private DataSize maxResponseBytes;
+        /** Max size of the body of an error response, smaller than the one of a successful response. */
+        private DataSize maxErrorResponseBytes;
+        /** Duration over which a call is kept as a slow call when feign.slow-calls.enabled, none if not set. */
+        private Duration slowCallThreshold;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        public void setHeaders(Map<String, String> headers) {
+            this.headers = headers;
+        }
+
+        public List<String> getExcludeInterceptors() {
+            return excludeInterceptors;
+        }
+
+        public void setExcludeInterceptors(List<String> excludeInterceptors) {
+            this.excludeInterceptors = excludeInterceptors;
+        }
+
+        public RateLimit getRateLimit() {
+            return rateLimit;
+        }
+
+        public void setRateLimit(RateLimit rateLimit) {
+            this.rateLimit = rateLimit;
+        }
+
+        public Pool getPool() {
+            return pool;
+        }
+
+        public void setPool(Pool pool) {
+            this.pool = pool;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public DataSize getMaxResponseBytes() {
+            return maxResponseBytes;
+        }
+
+        public void setMaxResponseBytes(DataSize maxResponseBytes) {
+            this.maxResponseBytes = maxResponseBytes;
+        }
+
+        public DataSize getMaxErrorResponseBytes() {
+            return maxErrorResponseBytes;
+        }
+
+        public void setMaxErrorResponseBytes(DataSize maxErrorResponseBytes) {
+            this.maxErrorResponseBytes = maxErrorResponseBytes;
+        }
+
+        public Duration getSlowCallThreshold() {
+            return slowCallThreshold;
+        }
+
+        public void setSlowCallThreshold(Duration slowCallThreshold) {
+            this.slowCallThreshold = slowCallThreshold;
+        }
+
+    }
+
+    /**
+     * Settings of the partition of the default connection pool of a feign client.
+     */
+    public static class Pool {
+
+        /** Connections reserved to the feign client, which no other one can lease. */
+        private int reserved = 0;
+        /** Max connections leased by the feign client, reserved or borrowed, zero for no limit. */
+        private int max = 0;
+        /** How long to wait for a connection of the partition, zero to wait without limit. */
+        private Duration leaseTimeout = Duration.ZERO;
+
+        public int getReserved() {
+            return reserved;
+        }
+
+        public void setReserved(int reserved) {
+            this.reserved = reserved;
+        }
+
+        public int getMax() {
+            return max;
+        }
+
+        public void setMax(int max) {
+            this.max = max;
+        }
+
+        public Duration getLeaseTimeout() {
+            return leaseTimeout;
+        }
+
+        public void setLeaseTimeout(Duration leaseTimeout) {
+            this.leaseTimeout = leaseTimeout;
+        }
+
+    }
+
+    /**
+     * Settings of the rate limit of a feign client, applied to every attempt of its requests.
+     */
+    public static class RateLimit {
+
+        /** Sustained rate of requests, zero or negative for no rate limit. */
+        private double permitsPerSecond = 0;
+        /** Requests allowed at once after being idle. */
+        private int burst = 1;
+        /** Max time to wait for a permit, zero to fail fast. */
+        private Duration timeout = Duration.ofSeconds(5);
+
+        public double getPermitsPerSecond() {
+            return permitsPerSecond;
+        }
+
+        public void setPermitsPerSecond(double permitsPerSecond) {
+            this.permitsPerSecond = permitsPerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+    }
+
+    /**
+     * Settings of the default Apache http client shared by feign clients without a custom client.
+     */
+    public static class HttpClient {
+
+        /** Max connections of the pool in total. */
+        private int maxConnections = 20;
+        /** Max connections of the pool per route (scheme, host and port). */
+        private int maxConnectionsPerRoute = 2;
+        /** How long resolved host addresses are cached, zero or negative to resolve on every connect. */
+        private Duration dnsCacheTtl = Duration.ZERO;
+        /** Max TLS sessions kept for resumption, zero to use the JDK default. */
+        private int sslSessionCacheSize = 0;
+        /** How long a TLS session can be resumed, zero to use the JDK default. */
+        private Duration sslSessionTimeout = Duration.ZERO;
+        /**
+         * Max time an idle connection is kept alive, under the timeout of the server's Keep-Alive header. Keep
+         * it under the idle timeout of the load balancers in between.
+         */
+        private Duration keepAlive = Duration.ofSeconds(30);
+        /** Idle time after which a pooled connection is checked to be still open before being reused. */
+        private Duration validateAfterInactivity = Duration.ofSeconds(2);
+        /** Retries of an idempotent request failing on a connection closed by the server, zero for none. */
+        private int staleConnectionRetries = 1;
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getMaxConnectionsPerRoute() {
+            return maxConnectionsPerRoute;
+        }
+
+        public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        }
+
+        public Duration getDnsCacheTtl() {
+            return dnsCacheTtl;
+        }
+
+        public void setDnsCacheTtl(Duration dnsCacheTtl) {
+            this.dnsCacheTtl = dnsCacheTtl;
+        }
+
+        public int getSslSessionCacheSize() {
+            return sslSessionCacheSize;
+        }
+
+        public void setSslSessionCacheSize(int sslSessionCacheSize) {
+            this.sslSessionCacheSize = sslSessionCacheSize;
+        }
+
+        public Duration getSslSessionTimeout() {
+            return sslSessionTimeout;
+        }
+
+        public void setSslSessionTimeout(Duration sslSessionTimeout) {
+            this.sslSessionTimeout = sslSessionTimeout;
+        }
+
+        public Duration getKeepAlive() {
+            return keepAlive;
+        }
+
+        public void setKeepAlive(Duration keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        public Duration getValidateAfterInactivity() {
+            return validateAfterInactivity;
+        }
+
+        public void setValidateAfterInactivity(Duration validateAfterInactivity) {
+            this.validateAfterInactivity = validateAfterInactivity;
+        }
+
+        public int getStaleConnectionRetries() {
+            return staleConnectionRetries;
+        }
+
+        public void setStaleConnectionRetries(int staleConnectionRetries) {
+            this.staleConnectionRetries = staleConnectionRetries;
+        }
+
+    }
+
+    /**
+     * Settings of opening pooled connections to the feign clients' hosts before the context is ready.
+     */
+    public static class WarmUp {
+
+        private boolean enabled = false;
+        /** Connections to open per host, capped by max-connections-per-route. */
+        private int connections = 1;
+        /** Timeout of leasing, connecting and handshaking each connection. */
+        private Duration timeout = Duration.ofSeconds(5);
+        /** Optional path relative to each client url to send a GET request to, e.g. /health */
+        private String healthPath;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getConnections() {
+            return connections;
+        }
+
+        public void setConnections(int connections) {
+            this.connections = connections;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public String getHealthPath() {
+            return healthPath;
+        }
+
+        public void setHealthPath(String healthPath) {
+            this.healthPath = healthPath;
+        }
+
+    }
+
+    /**
+     * Settings of the JDK Flight Recorder events of the feign clients.
+     */
+    public static class Jfr {
+
+        /** Whether the feign clients emit JFR events, recorded when a recording enables them. */
+        private boolean enabled = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+    }
+
+    /**
+     * Settings of the records of the calls over the slow-call threshold of their feign client.
+     */
+    public static class SlowCalls {
+
+        /** Whether the calls of the feign clients with a slow-call threshold are traced. */
+        private boolean enabled = false;
+        /** Slow calls kept, the oldest ones being dropped. */
+        private int capacity = 100;
+        /** Max size of the request body kept. */
+        private DataSize maxBodyBytes = DataSize.ofKilobytes(1);
+        /** Max length of the url and of each header value kept. */
+        private int maxHeaderLength = 256;
+        /** Headers whose values are masked, case-insensitive. */
+        private Set<String> maskedHeaders = caseInsensitive(Arrays.asList("Authorization", "Proxy-Authorization",
+                "Cookie", "Set-Cookie", "X-Api-Key", "X-Auth-Token", "X-Amz-Security-Token", "X-CSRF-Token"));
+        /** Whether the query string of the url is kept, as it may carry credentials. */
+        private boolean keepQueryString = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public DataSize getMaxBodyBytes() {
+            return maxBodyBytes;
+        }
+
+        public void setMaxBodyBytes(DataSize maxBodyBytes) {
+            this.maxBodyBytes = maxBodyBytes;
+        }
+
+        public int getMaxHeaderLength() {
+            return maxHeaderLength;
+        }
+
+        public void setMaxHeaderLength(int maxHeaderLength) {
+            this.maxHeaderLength = maxHeaderLength;
+        }
+
+        public Set<String> getMaskedHeaders() {
+            return maskedHeaders;
+        }
+
+        public void setMaskedHeaders(Set<String> maskedHeaders) {
+            this.maskedHeaders = caseInsensitive(maskedHeaders);
+        }
+
+        public boolean isKeepQueryString() {
+            return keepQueryString;
+        }
+
+        public void setKeepQueryString(boolean keepQueryString) {
+            this.keepQueryString = keepQueryString;
+        }
+
+        private static Set<String> caseInsensitive(Collection<String> headers) {
+            Set<String> set = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+            set.addAll(headers);
+            return set;
+        }
+
+    }
+
+    /**
+     * Settings of the construction of the feign clients at startup.
+     */
+    public static class Startup {
+
+        /** Whether to build all the feign clients in parallel when the first one is requested. */
+        private boolean parallel = false;
+        /** Max threads building the feign clients, zero for the number of processors. */
+        private int parallelism = 0;
+
+        public boolean isParallel() {
+            return parallel;
+        }
+
+        public void setParallel(boolean parallel) {
+            this.parallel = parallel;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+    }
+
+    /**
+     * Settings of the admission control of the calls of all feign clients by priority.
+     */
+    public static class Admission {
+
+        /** Whether to queue the calls beyond the max concurrent calls, admitting them by priority. */
+        private boolean enabled = false;
+        /** Max calls in flight at once over all feign clients, zero for the max connections of the pool. */
+        private int maxConcurrentCalls = 0;
+        /** Queue delay over which a priority is overloaded, its calls then waiting only as long. */
+        private Duration targetDelay = Duration.ofMillis(5);
+        /** Interval over which the queue delay of a priority must stay over the target to be overloaded. */
+        private Duration interval = Duration.ofMillis(100);
+        /** Max time a call waits to be admitted per priority, before being shed. */
+        private Map<Priority.Level, Duration> maxQueueTime = new EnumMap<>(Priority.Level.class);
+
+        public Admission() {
+            maxQueueTime.put(Priority.Level.CRITICAL, Duration.ofSeconds(1));
+            maxQueueTime.put(Priority.Level.NORMAL, Duration.ofMillis(500));
+            maxQueueTime.put(Priority.Level.BACKGROUND, Duration.ofMillis(100));
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public Duration getTargetDelay() {
+            return targetDelay;
+        }
+
+        public void setTargetDelay(Duration targetDelay) {
+            this.targetDelay = targetDelay;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public Map<Priority.Level, Duration> getMaxQueueTime() {
+            return maxQueueTime;
+        }
+
+        public void setMaxQueueTime(Map<Priority.Level, Duration> maxQueueTime) {
+            this.maxQueueTime = maxQueueTime;
+        }
+
+    }
+
+    /**
+     * Settings of the non-blocking http client for methods returning CompletableFuture.
+     */
+    public static class Async {
+
+        /** Whether methods returning CompletableFuture are called through the non-blocking http client. */
+        private boolean enabled = false;
+        /** I/O threads driving all the connections. */
+        private int ioThreads = 2;
+        /** Max connections in total. */
+        private int maxConnections = 1000;
+        /** Max connections per route (scheme, host and port). */
+        private int maxConnectionsPerRoute = 200;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getIoThreads() {
+            return ioThreads;
+        }
+
+        public void setIoThreads(int ioThreads) {
+            this.ioThreads = ioThreads;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getMaxConnectionsPerRoute() {
+            return maxConnectionsPerRoute;
+        }
+
+        public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        }
+
+    }
+
 }
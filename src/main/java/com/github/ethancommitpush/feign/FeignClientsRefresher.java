@@ -0,0 +1,117 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign;
+
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Refreshes the feign clients at runtime: {@link FeignClientsProperties} is bound again from the
+ * environment onto the same instances, dropping the clients removed from {@code feign.clients}, the default
+ * connection pool is resized in place and every feign client is rebuilt and swapped into its proxy.
+ * Triggered by a {@link FeignClientsRefreshEvent}, or by the
+ * {@code EnvironmentChangeEvent} of Spring Cloud when a {@code feign.*} key changes.
+ */
+public class FeignClientsRefresher implements ApplicationListener<ApplicationEvent> {
+    private static final Logger log = LoggerFactory.getLogger(FeignClientsRefresher.class);
+
+    private static final String ENVIRONMENT_CHANGE_EVENT =
+            "org.springframework.cloud.context.environment.EnvironmentChangeEvent";
+
+    private final Environment environment;
+
+    private final FeignClientsProperties properties;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    private final List<FeignClientsFactory<?>> factories = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param environment environment to bind the properties from.
+     * @param properties the properties shared by the feign clients, updated in place.
+     * @param connectionManager the default connection pool, null if replaced.
+     */
+    public FeignClientsRefresher(Environment environment, FeignClientsProperties properties,
+                                 PoolingHttpClientConnectionManager connectionManager) {
+        this.environment = environment;
+        this.properties = properties;
+        this.connectionManager = connectionManager;
+    }
+
+    /**
+     * Register a feign client to be rebuilt on refresh.
+     * @param factory factory of the feign client.
+     */
+    public void register(FeignClientsFactory<?> factory) {
+        factories.add(factory);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationEvent event) {
+        if (event instanceof FeignClientsRefreshEvent
+                || ENVIRONMENT_CHANGE_EVENT.equals(event.getClass().getName()) && hasFeignKeys(event)) {
+            refresh();
+        }
+    }
+
+    private static boolean hasFeignKeys(ApplicationEvent event) {
+        Method getKeys = ReflectionUtils.findMethod(event.getClass(), "getKeys");
+        if (getKeys == null) {
+            return true;
+        }
+        Collection<?> keys = (Collection<?>) ReflectionUtils.invokeMethod(getKeys, event);
+        return keys == null || keys.stream().anyMatch(key -> String.valueOf(key).startsWith("feign."));
+    }
+
+    /**
+     * Refresh the settings and rebuild the feign clients.
+     */
+    public synchronized void refresh() {
+        Binder binder = Binder.get(environment);
+        FeignClientsProperties bound = binder.bind("feign", FeignClientsProperties.class)
+                .orElseGet(FeignClientsProperties::new);
+        // Bound in place, so the nested properties held by other components, e.g. admission, are updated too
+        binder.bind("feign", Bindable.ofInstance(properties));
+        properties.getClients().keySet().retainAll(bound.getClients().keySet());
+
+        if (connectionManager != null) {
+            FeignClientsProperties.HttpClient httpClientProperties = properties.getHttpClient();
+            connectionManager.setMaxTotal(httpClientProperties.getMaxConnections());
+            connectionManager.setDefaultMaxPerRoute(httpClientProperties.getMaxConnectionsPerRoute());
+        }
+
+        for (FeignClientsFactory<?> factory : factories) {
+            try {
+                factory.refresh();
+            } catch (RuntimeException e) {
+                log.error("Failed to refresh feign client {}, keeping the previous one", factory.getBeanName(), e);
+            }
+        }
+        log.info("Refreshed {} feign clients", factories.size());
+    }
+
+}
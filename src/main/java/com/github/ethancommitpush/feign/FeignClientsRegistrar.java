@@ -14,6 +14,7 @@
 package com.github.ethancommitpush.feign;
 
 import com.github.ethancommitpush.feign.annotation.FeignClient;
+import com.github.ethancommitpush.feign.handler.GeneratedClient;
 
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
@@ -28,19 +29,37 @@ import org.springframework.context.annotation.ClassPathScanningCandidateComponen
 import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
 import org.springframework.core.env.Environment;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.UrlResource;
 import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.util.ClassUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.beans.Introspector;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Registrar to register {@link com.github.ethancommitpush.feign.annotation.FeignClient}s.
  */
 public class FeignClientsRegistrar implements ImportBeanDefinitionRegistrar, ResourceLoaderAware, EnvironmentAware {
 
+    private static final Logger log = LoggerFactory.getLogger(FeignClientsRegistrar.class);
+
     private static final String BASE_PACKAGES_KEY = "feign.base-packages";
+    private static final String INDEX_IGNORE_KEY = "feign.index.ignore";
+    private static final String GENERATED_IGNORE_KEY = "feign.generated.ignore";
+
+    /** Written by the spring-boot-starter-openfeign-processor annotation processor. */
+    static final String INDEX_LOCATION = "META-INF/feign.clients";
 
     private Environment environment;
     private ResourceLoader resourceLoader;
@@ -58,17 +77,51 @@ public class FeignClientsRegistrar implements ImportBeanDefinitionRegistrar, Res
 
     /**
      * Scan all interfaces declared with &#64;FeignClient and collect className, attributes, and logLevel.
+     * The classpath scanning is skipped for the base packages covered by an index generated at build time,
+     * i.e. which contain any of its clients.
      */
     public void registerFeignClients(BeanDefinitionRegistry registry) {
+        List<String> basePackages = Optional.ofNullable(environment.getProperty(BASE_PACKAGES_KEY))
+                .map(s -> Arrays.stream(s.split("\\,")).map(String::trim).collect(Collectors.toList()))
+                .orElse(Collections.emptyList());
+
+        Set<String> index = environment.getProperty(INDEX_IGNORE_KEY, Boolean.class, false) ? null : loadIndex();
+        List<String> scannedPackages = basePackages;
+        if (index != null) {
+            scannedPackages = basePackages.stream()
+                    .filter(p -> index.stream().noneMatch(className -> className.startsWith(p + ".")))
+                    .collect(Collectors.toList());
+            if (!scannedPackages.isEmpty()) {
+                log.info("Scan {} for feign clients, not covered by {}", scannedPackages, INDEX_LOCATION);
+            }
+            MetadataReaderFactory readerFactory = new CachingMetadataReaderFactory(resourceLoader);
+            index.stream()
+                    .filter(className -> basePackages.stream().anyMatch(p -> className.startsWith(p + ".")))
+                    .forEach(className -> {
+                        AnnotationMetadata meta;
+                        try {
+                            meta = readerFactory.getMetadataReader(className).getAnnotationMetadata();
+                        } catch (IOException e) {
+                            log.warn("Skip {} listed in {} but not found", className, INDEX_LOCATION);
+                            return;
+                        }
+                        if (meta.isInterface() && meta.hasAnnotation(FeignClient.class.getName())) {
+                            Map<String, Object> attributes = meta.getAnnotationAttributes(FeignClient.class.getName());
+                            registerFeignClient(registry, className, attributes);
+                        }
+                    });
+            if (scannedPackages.isEmpty()) {
+                return;
+            }
+        }
+
         ClassPathScanningCandidateComponentProvider scanner = getScanner();
         scanner.setResourceLoader(resourceLoader);
 
         AnnotationTypeFilter annotationTypeFilter = new AnnotationTypeFilter(FeignClient.class);
         scanner.addIncludeFilter(annotationTypeFilter);
-        List<String> basePackages = Optional.ofNullable(environment.getProperty(BASE_PACKAGES_KEY))
-                .map(s -> Arrays.asList(s.split("\\,"))).orElse(Collections.emptyList());
 
-        basePackages.stream()
+        scannedPackages.stream()
                 .map(p -> scanner.findCandidateComponents(p))
                 .flatMap(Collection::stream)
                 .filter(bd -> bd instanceof AnnotatedBeanDefinition)
@@ -93,7 +146,7 @@ public class FeignClientsRegistrar implements ImportBeanDefinitionRegistrar, Res
         
         Class<?> apiType = null;
         try {
-            apiType = Class.forName(className);
+            apiType = ClassUtils.forName(className, resourceLoader.getClassLoader());
         } catch (Exception e) {
 
         }
@@ -101,6 +154,13 @@ public class FeignClientsRegistrar implements ImportBeanDefinitionRegistrar, Res
         BeanDefinitionBuilder definition = BeanDefinitionBuilder.genericBeanDefinition(FeignClientsFactory.class);
 
 		definition.addPropertyValue("apiType", apiType);
+        // Implementation generated by spring-boot-starter-openfeign-processor, preferred to a proxy
+        String generatedName = GeneratedClient.implementationName(className);
+        if (apiType != null && !environment.getProperty(GENERATED_IGNORE_KEY, Boolean.class, false)
+                && ClassUtils.isPresent(generatedName, resourceLoader.getClassLoader())) {
+            definition.addPropertyValue("generatedType", ClassUtils.resolveClassName(generatedName,
+                    resourceLoader.getClassLoader()));
+        }
         definition.addPropertyValue("attributes", attributes);
 		definition.setAutowireMode(AbstractBeanDefinition.AUTOWIRE_BY_NAME);
 
@@ -111,6 +171,30 @@ public class FeignClientsRegistrar implements ImportBeanDefinitionRegistrar, Res
 		BeanDefinitionReaderUtils.registerBeanDefinition(holder, registry);
     }
 
+    /**
+     * Load the class names of the feign clients from the indexes on the classpath.
+     * @return class names, or null if there is no index.
+     */
+    private Set<String> loadIndex() {
+        Set<String> classNames = new LinkedHashSet<>();
+        boolean found = false;
+        try {
+            Enumeration<URL> urls = resourceLoader.getClassLoader().getResources(INDEX_LOCATION);
+            while (urls.hasMoreElements()) {
+                found = true;
+                UrlResource resource = new UrlResource(urls.nextElement());
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+                    reader.lines().map(String::trim).filter(line -> !line.isEmpty()).forEach(classNames::add);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to load {}, fall back to classpath scanning", INDEX_LOCATION, e);
+            return null;
+        }
+        return found ? classNames : null;
+    }
+
     /**
      * Get the class path scanner.
      * @return scanner.
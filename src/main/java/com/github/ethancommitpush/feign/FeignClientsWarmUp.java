@@ -0,0 +1,157 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign;
+
+import com.github.ethancommitpush.feign.httpclient.UnixDomainSocketClients;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.util.StringUtils;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens pooled connections, including the TLS handshake, to the host of every registered feign client
+ * once all singletons are instantiated, so the first calls after startup don't pay for them.
+ */
+public class FeignClientsWarmUp implements SmartInitializingSingleton, BeanFactoryAware {
+    private static final Logger log = LoggerFactory.getLogger(FeignClientsWarmUp.class);
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    private final CloseableHttpClient httpClient;
+
+    private final FeignClientsProperties properties;
+
+    private BeanFactory beanFactory;
+
+    public FeignClientsWarmUp(PoolingHttpClientConnectionManager connectionManager, CloseableHttpClient httpClient,
+            FeignClientsProperties properties) {
+        this.connectionManager = connectionManager;
+        this.httpClient = httpClient;
+        this.properties = properties;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!(beanFactory instanceof ListableBeanFactory)) {
+            return;
+        }
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (FeignClientsFactory<?> factory : ((ListableBeanFactory) beanFactory)
+                .getBeansOfType(FeignClientsFactory.class, false, false).values()) {
+            String url = factory.getUrl();
+            // Not pooled by the default connection manager
+            if (StringUtils.hasText(url) && !UnixDomainSocketClients.isUnixDomainSocket(url)) {
+                urls.putIfAbsent(authorityOf(url), url);
+            }
+        }
+        urls.values().forEach(this::warmUp);
+    }
+
+    private static String authorityOf(String url) {
+        try {
+            return URI.create(url).getAuthority();
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    /**
+     * Open connections to the host of the url, release them back to the pool and call the health path.
+     * Failures are logged and never fail the startup.
+     * @param url url of a feign client.
+     */
+    private void warmUp(String url) {
+        FeignClientsProperties.WarmUp properties = this.properties.getWarmUp();
+        long start = System.nanoTime();
+        HttpRoute route;
+        try {
+            URI uri = URI.create(url);
+            HttpHost host = URIUtils.extractHost(uri);
+            route = new HttpRoute(host, null, "https".equalsIgnoreCase(host.getSchemeName()));
+        } catch (IllegalArgumentException e) {
+            log.warn("feign client warm-up: skip invalid url {}", url);
+            return;
+        }
+
+        long timeout = properties.getTimeout().toMillis();
+        int connections = Math.min(properties.getConnections(), connectionManager.getMaxPerRoute(route));
+        List<HttpClientConnection> leased = new ArrayList<>(connections);
+        int opened = 0;
+        boolean failed = false;
+        try {
+            for (int i = 0; i < connections; i++) {
+                ConnectionRequest request = connectionManager.requestConnection(route, null);
+                HttpClientConnection conn = request.get(timeout, TimeUnit.MILLISECONDS);
+                leased.add(conn);
+                if (!conn.isOpen()) {
+                    HttpClientContext context = HttpClientContext.create();
+                    connectionManager.connect(conn, route, (int) timeout, context);
+                    connectionManager.routeComplete(conn, route, context);
+                }
+                opened++;
+            }
+        } catch (Exception e) {
+            failed = true;
+            log.warn("feign client warm-up: failed to open connections to {}, {} opened", route.getTargetHost(),
+                    opened, e);
+        } finally {
+            // Not reused unless open with its route complete
+            leased.forEach(conn -> connectionManager.releaseConnection(conn, null, -1, TimeUnit.MILLISECONDS));
+        }
+
+        if (StringUtils.hasText(properties.getHealthPath())) {
+            try (CloseableHttpResponse response = httpClient.execute(new HttpGet(url + properties.getHealthPath()))) {
+                EntityUtils.consume(response.getEntity());
+                log.debug("feign client warm-up: {}{} returned {}", url, properties.getHealthPath(),
+                        response.getStatusLine().getStatusCode());
+            } catch (Exception e) {
+                log.warn("feign client warm-up: failed to call {}{}", url, properties.getHealthPath(), e);
+            }
+        }
+        if (!failed) {
+            log.info("feign client warm-up: opened {} connection(s) to {} in {} ms", opened,
+                    route.getTargetHost(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        this.beanFactory = beanFactory;
+    }
+
+}
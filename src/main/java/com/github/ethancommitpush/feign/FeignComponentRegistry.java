@@ -0,0 +1,84 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Shares the components specified by class in &#64;FeignClient, e.g. {@code clientClass} or
+ * {@code decoderClass}, so feign clients naming the same class get the same instance, and with it the same
+ * connection pool for http clients. Shared components which are {@link AutoCloseable} are closed with
+ * the registry.
+ */
+public class FeignComponentRegistry implements SmartInitializingSingleton, Closeable {
+    private static final Logger log = LoggerFactory.getLogger(FeignComponentRegistry.class);
+
+    private final ConcurrentMap<Class<?>, Object> components = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Class<?>, Set<String>> users = new ConcurrentHashMap<>();
+
+    /**
+     * Get the shared instance of the class, instantiating it with its no-arg constructor on first use.
+     * @param hint type of the component.
+     * @param beanClass class of the component.
+     * @param clientName bean name of the feign client using it.
+     * @return shared instance.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getOrCreate(Class<T> hint, Class<?> beanClass, String clientName) {
+        Object component = components.computeIfAbsent(beanClass, FeignConfigurationUtils::instantiate);
+        if (clientName != null) {
+            users.computeIfAbsent(beanClass, k -> new ConcurrentSkipListSet<>()).add(clientName);
+        }
+        return (T) component;
+    }
+
+    /**
+     * Report the shared components and the feign clients sharing them.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        users.forEach((beanClass, clientNames) ->
+                log.info("feign component {} is shared by {} client(s): {}", beanClass.getName(), clientNames.size(),
+                        clientNames));
+    }
+
+    public Map<Class<?>, Set<String>> getUsers() {
+        return users;
+    }
+
+    @Override
+    public void close() {
+        components.values().stream()
+                .filter(component -> component instanceof AutoCloseable)
+                .forEach(component -> {
+                    try {
+                        ((AutoCloseable) component).close();
+                    } catch (Exception e) {
+                        log.warn("failed to close feign component {}", component, e);
+                    }
+                });
+        components.clear();
+    }
+
+}
@@ -23,9 +23,24 @@ import feign.codec.ErrorDecoder;
 
 public class FeignConfigurationUtils {
 
-    @SuppressWarnings("unchecked")
     public static <T> T resolveOverrideableBean(Class<T> hint, BeanFactory beanFactory, String beanName,
             Class<?> beanClass) {
+        return resolveOverrideableBean(hint, beanFactory, beanName, beanClass, null, null);
+    }
+
+    /**
+     * Resolve a component either by bean name or by class, which are exclusive.
+     * @param hint type of the component.
+     * @param beanFactory bean factory to get the bean from.
+     * @param beanName bean name, empty if not specified.
+     * @param beanClass class, null or void if not specified.
+     * @param registry registry to share instances of the class, null to instantiate a new one.
+     * @param clientName bean name of the feign client, for the registry to report.
+     * @return component, or null if neither bean name nor class is specified.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T resolveOverrideableBean(Class<T> hint, BeanFactory beanFactory, String beanName,
+            Class<?> beanClass, FeignComponentRegistry registry, String clientName) {
         boolean hasBeanName = !StringUtils.isEmpty(beanName);
         boolean hasClass = (beanClass != null && beanClass != void.class);
 
@@ -39,16 +54,28 @@ public class FeignConfigurationUtils {
         }
 
         if (hasClass) {
-            try {
-                return (T) beanClass.getDeclaredConstructor().newInstance();
-            } catch (ReflectiveOperationException e) {
-                throw new IllegalArgumentException(e);
+            if (registry != null) {
+                return registry.getOrCreate(hint, beanClass, clientName);
             }
+            return (T) instantiate(beanClass);
         }
 
         return null;
     }
 
+    /**
+     * Instantiate the class with its no-arg constructor.
+     * @param beanClass class.
+     * @return new instance.
+     */
+    public static Object instantiate(Class<?> beanClass) {
+        try {
+            return beanClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
     public static Decoder resolveDecoder(BeanFactory beanFactory, String decoderBeanName,
             Class<? extends Decoder> decoderClass) {
         return resolveOverrideableBean(Decoder.class, beanFactory, decoderBeanName, decoderClass);
@@ -69,4 +96,25 @@ public class FeignConfigurationUtils {
         return resolveOverrideableBean(Client.class, beanFactory, clientBeanName, clientClass);
     }
 
+    public static Decoder resolveDecoder(BeanFactory beanFactory, String decoderBeanName,
+            Class<? extends Decoder> decoderClass, FeignComponentRegistry registry, String clientName) {
+        return resolveOverrideableBean(Decoder.class, beanFactory, decoderBeanName, decoderClass, registry, clientName);
+    }
+
+    public static Encoder resolveEncoder(BeanFactory beanFactory, String encoderBeanName,
+            Class<? extends Encoder> encoderClass, FeignComponentRegistry registry, String clientName) {
+        return resolveOverrideableBean(Encoder.class, beanFactory, encoderBeanName, encoderClass, registry, clientName);
+    }
+
+    public static ErrorDecoder resolveErrorDecoder(BeanFactory beanFactory, String errorDecoderBeanName,
+            Class<? extends ErrorDecoder> errorDecoderClass, FeignComponentRegistry registry, String clientName) {
+        return resolveOverrideableBean(ErrorDecoder.class, beanFactory, errorDecoderBeanName, errorDecoderClass,
+                registry, clientName);
+    }
+
+    public static Client resolveClient(BeanFactory beanFactory, String clientBeanName,
+            Class<? extends Client> clientClass, FeignComponentRegistry registry, String clientName) {
+        return resolveOverrideableBean(Client.class, beanFactory, clientBeanName, clientClass, registry, clientName);
+    }
+
 }
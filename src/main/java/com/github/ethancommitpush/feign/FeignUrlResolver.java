@@ -0,0 +1,31 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign;
+
+/**
+ * Resolves the url feign clients are targeted at, e.g. to send every client to a local stub server.
+ * When a bean of this type is declared, it's applied to the url of the &#64;FeignClient annotation
+ * after its placeholders are resolved.
+ */
+public interface FeignUrlResolver {
+
+    /**
+     * Resolve the url of the feign client.
+     * @param name bean name of the feign client.
+     * @param url url of the &#64;FeignClient annotation with placeholders resolved.
+     * @return url to target the feign client at.
+     */
+    String resolve(String name, String url);
+
+}
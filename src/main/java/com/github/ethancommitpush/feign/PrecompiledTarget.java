@@ -0,0 +1,60 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign;
+
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Target.HardCodedTarget;
+
+/**
+ * {@link HardCodedTarget} which prepares the url once when the feign client is built, instead of parsing
+ * it with {@link java.net.URI} on every call through {@link RequestTemplate#target(String)}. Urls with a
+ * query or a fragment are left to {@link HardCodedTarget}.
+ */
+public class PrecompiledTarget<T> extends HardCodedTarget<T> {
+
+    private final String baseUrl;
+
+    public PrecompiledTarget(Class<T> type, String name, String url) {
+        super(type, name, url);
+        this.baseUrl = precompile(url);
+    }
+
+    /**
+     * Strip the trailing slash as {@link RequestTemplate#target(String)} does.
+     * @param url url of the feign client.
+     * @return url to prepend to the path of each request, or null if it cannot be precompiled.
+     */
+    private static String precompile(String url) {
+        if (url.indexOf('?') >= 0 || url.indexOf('#') >= 0) {
+            return null;
+        }
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    @Override
+    public Request apply(RequestTemplate input) {
+        if (baseUrl == null) {
+            return super.apply(input);
+        }
+        Request request = input.request();
+        String relativeUrl = request.url();
+        if (relativeUrl.startsWith("http")) {
+            return request;
+        }
+        return Request.create(request.httpMethod(), baseUrl.concat(relativeUrl), request.headers(), request.body(),
+                request.charset(), input);
+    }
+
+}
@@ -0,0 +1,239 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.actuate;
+
+import com.github.ethancommitpush.feign.FeignClientsFactory;
+import com.github.ethancommitpush.feign.admission.AdmissionController;
+import com.github.ethancommitpush.feign.FeignClientsLifecycle;
+import com.github.ethancommitpush.feign.FeignClientsRefresher;
+import com.github.ethancommitpush.feign.httpclient.ConnectionPartitions;
+import com.github.ethancommitpush.feign.httpclient.ConnectionReuseMetrics;
+import com.github.ethancommitpush.feign.limit.ResponseLimitClientDecorator;
+import com.github.ethancommitpush.feign.metrics.ClientMetrics;
+import com.github.ethancommitpush.feign.metrics.FeignClientsMetrics;
+import com.github.ethancommitpush.feign.ratelimit.RateLimitClientDecorator;
+import com.github.ethancommitpush.feign.ratelimit.RateLimiter;
+
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@link Endpoint @Endpoint} exposing the feign clients: what each one was built with, its calls in
+ * flight, recent latencies, rate limiters and responses over their max size, the state of the default
+ * connection pool, of its partitions and of connection reuse by host, and the admission queues by
+ * priority. A write operation refreshes the feign clients.
+ */
+@Endpoint(id = "feignclients")
+public class FeignClientsEndpoint {
+
+    private final ListableBeanFactory beanFactory;
+
+    private final FeignClientsMetrics metrics;
+
+    private final FeignClientsLifecycle lifecycle;
+
+    private final RateLimitClientDecorator rateLimitClientDecorator;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    private final FeignClientsRefresher refresher;
+
+    private final ConnectionPartitions partitions;
+
+    private final AdmissionController admissionController;
+
+    private final ResponseLimitClientDecorator responseLimitClientDecorator;
+
+    private final ConnectionReuseMetrics reuseMetrics;
+
+    /**
+     * All but the bean factory and the metrics are optional.
+     */
+    public FeignClientsEndpoint(ListableBeanFactory beanFactory, FeignClientsMetrics metrics,
+                                FeignClientsLifecycle lifecycle, RateLimitClientDecorator rateLimitClientDecorator,
+                                PoolingHttpClientConnectionManager connectionManager,
+                                FeignClientsRefresher refresher, ConnectionPartitions partitions,
+                                AdmissionController admissionController,
+                                ResponseLimitClientDecorator responseLimitClientDecorator,
+                                ConnectionReuseMetrics reuseMetrics) {
+        this.beanFactory = beanFactory;
+        this.metrics = metrics;
+        this.lifecycle = lifecycle;
+        this.rateLimitClientDecorator = rateLimitClientDecorator;
+        this.connectionManager = connectionManager;
+        this.refresher = refresher;
+        this.partitions = partitions;
+        this.admissionController = admissionController;
+        this.responseLimitClientDecorator = responseLimitClientDecorator;
+        this.reuseMetrics = reuseMetrics;
+    }
+
+    @ReadOperation
+    public Map<String, Object> feignClients() {
+        Map<String, Object> clients = new TreeMap<>();
+        for (FeignClientsFactory<?> factory : factories().values()) {
+            clients.put(factory.getBeanName(), describe(factory));
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("clients", clients);
+        if (connectionManager != null) {
+            Map<String, Object> pool = pool();
+            if (partitions != null && !partitions.getPartitions().isEmpty()) {
+                pool.put("partitions", partitions());
+            }
+            if (reuseMetrics != null) {
+                Map<String, Object> hosts = new TreeMap<>();
+                reuseMetrics.getHosts().forEach((host, counters) -> hosts.put(host, counters.snapshot()));
+                pool.put("reuse", hosts);
+            }
+            result.put("pool", pool);
+        }
+        if (admissionController != null) {
+            result.put("admission", admission());
+        }
+        if (lifecycle != null) {
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("running", lifecycle.isRunning());
+            state.put("inFlight", lifecycle.getInFlightCalls());
+            state.put("rejected", lifecycle.getRejectedCalls());
+            state.put("aborted", lifecycle.getAbortedCalls());
+            result.put("lifecycle", state);
+        }
+        return result;
+    }
+
+    /**
+     * @param name bean name of a feign client.
+     * @return the feign client, null if unknown.
+     */
+    @ReadOperation
+    public Map<String, Object> feignClient(@Selector String name) {
+        for (FeignClientsFactory<?> factory : factories().values()) {
+            if (name.equals(factory.getBeanName())) {
+                return describe(factory);
+            }
+        }
+        return null;
+    }
+
+    @WriteOperation
+    public void refresh() {
+        if (refresher == null) {
+            throw new IllegalStateException("No FeignClientsRefresher to refresh the feign clients");
+        }
+        refresher.refresh();
+    }
+
+    @SuppressWarnings("rawtypes")
+    private Map<String, FeignClientsFactory> factories() {
+        return beanFactory.getBeansOfType(FeignClientsFactory.class, false, false);
+    }
+
+    private Map<String, Object> describe(FeignClientsFactory<?> factory) {
+        String name = factory.getBeanName();
+        Map<String, Object> client = new LinkedHashMap<>(factory.getDescription());
+        ClientMetrics clientMetrics = metrics.get(name);
+        if (clientMetrics != null) {
+            client.put("calls", clientMetrics.snapshot());
+        }
+        if (rateLimitClientDecorator != null) {
+            Map<String, Object> rateLimits = new TreeMap<>();
+            rateLimitClientDecorator.getLimiters().forEach((key, limiter) -> {
+                if (key.equals(name) || key.startsWith(name + "#")) {
+                    rateLimits.put(key, rateLimiter(limiter));
+                }
+            });
+            client.put("rateLimits", rateLimits);
+        }
+        if (responseLimitClientDecorator != null) {
+            Long violations = responseLimitClientDecorator.getViolations().get(name);
+            if (violations != null) {
+                client.put("responsesTooLarge", violations);
+            }
+        }
+        return client;
+    }
+
+    private static Map<String, Object> rateLimiter(RateLimiter limiter) {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("granted", limiter.getGranted());
+        state.put("waited", limiter.getWaited());
+        state.put("rejected", limiter.getRejected());
+        return state;
+    }
+
+    private Map<String, Object> pool() {
+        Map<String, Object> pool = new LinkedHashMap<>();
+        pool.put("total", poolStats(connectionManager.getTotalStats()));
+        Map<String, Object> routes = new TreeMap<>();
+        for (HttpRoute route : connectionManager.getRoutes()) {
+            routes.put(route.getTargetHost().toURI(), poolStats(connectionManager.getStats(route)));
+        }
+        pool.put("routes", routes);
+        return pool;
+    }
+
+    private Map<String, Object> admission() {
+        Map<String, Object> admission = new LinkedHashMap<>();
+        admission.put("inFlight", admissionController.getInFlight());
+        Map<String, Object> lanes = new LinkedHashMap<>();
+        admissionController.getLanes().forEach((level, lane) -> {
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("queued", lane.getQueued());
+            state.put("admitted", lane.getAdmitted());
+            state.put("shed", lane.getShed());
+            state.put("overloaded", lane.isOverloaded());
+            state.put("queueDelay", lane.getQueueDelay().snapshot());
+            lanes.put(level.name(), state);
+        });
+        admission.put("priorities", lanes);
+        return admission;
+    }
+
+    private Map<String, Object> partitions() {
+        Map<String, Object> result = new TreeMap<>();
+        partitions.getPartitions().forEach((name, partition) -> {
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("reserved", partition.getReserved());
+            state.put("max", partition.getMax() == Integer.MAX_VALUE ? null : partition.getMax());
+            state.put("leased", partition.getLeased());
+            state.put("waiting", partition.getWaiting());
+            state.put("timeouts", partition.getTimeouts());
+            state.put("leaseWait", partition.getLeaseWait().snapshot());
+            result.put(name, state);
+        });
+        return result;
+    }
+
+    private static Map<String, Object> poolStats(PoolStats stats) {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("leased", stats.getLeased());
+        state.put("pending", stats.getPending());
+        state.put("available", stats.getAvailable());
+        state.put("max", stats.getMax());
+        return state;
+    }
+
+}
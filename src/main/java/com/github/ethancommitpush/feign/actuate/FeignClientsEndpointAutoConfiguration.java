@@ -0,0 +1,80 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.actuate;
+
+import com.github.ethancommitpush.feign.FeignClientsAutoConfiguration;
+import com.github.ethancommitpush.feign.FeignClientsLifecycle;
+import com.github.ethancommitpush.feign.FeignClientsRefresher;
+import com.github.ethancommitpush.feign.admission.AdmissionController;
+import com.github.ethancommitpush.feign.httpclient.ConnectionPartitions;
+import com.github.ethancommitpush.feign.httpclient.ConnectionReuseMetrics;
+import com.github.ethancommitpush.feign.limit.ResponseLimitClientDecorator;
+import com.github.ethancommitpush.feign.metrics.FeignClientsMetrics;
+import com.github.ethancommitpush.feign.ratelimit.RateLimitClientDecorator;
+import com.github.ethancommitpush.feign.slowcall.SlowCallDetector;
+
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@link org.springframework.boot.autoconfigure.EnableAutoConfiguration
+ * Auto-configuration} for the {@link FeignClientsEndpoint} and the {@link FeignSlowCallsEndpoint}, when
+ * Spring Boot Actuator is present.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(Endpoint.class)
+@ConditionalOnBean(FeignClientsMetrics.class)
+@AutoConfigureAfter(FeignClientsAutoConfiguration.class)
+public class FeignClientsEndpointAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnAvailableEndpoint
+    public FeignClientsEndpoint feignClientsEndpoint(ListableBeanFactory beanFactory,
+            FeignClientsMetrics feignClientsMetrics,
+            ObjectProvider<FeignClientsLifecycle> feignClientsLifecycle,
+            ObjectProvider<RateLimitClientDecorator> feignRateLimitClientDecorator,
+            @Qualifier("feignConnectionManager") ObjectProvider<PoolingHttpClientConnectionManager> feignConnectionManager,
+            ObjectProvider<FeignClientsRefresher> feignClientsRefresher,
+            ObjectProvider<ConnectionPartitions> feignConnectionPartitions,
+            ObjectProvider<AdmissionController> feignAdmissionController,
+            ObjectProvider<ResponseLimitClientDecorator> feignResponseLimitClientDecorator,
+            ObjectProvider<ConnectionReuseMetrics> feignConnectionReuseMetrics) {
+        return new FeignClientsEndpoint(beanFactory, feignClientsMetrics, feignClientsLifecycle.getIfAvailable(),
+                feignRateLimitClientDecorator.getIfAvailable(), feignConnectionManager.getIfUnique(),
+                feignClientsRefresher.getIfAvailable(), feignConnectionPartitions.getIfAvailable(),
+                feignAdmissionController.getIfAvailable(), feignResponseLimitClientDecorator.getIfAvailable(),
+                feignConnectionReuseMetrics.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnAvailableEndpoint
+    @ConditionalOnBean(SlowCallDetector.class)
+    public FeignSlowCallsEndpoint feignSlowCallsEndpoint(SlowCallDetector feignSlowCallDetector) {
+        return new FeignSlowCallsEndpoint(feignSlowCallDetector);
+    }
+
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.actuate;
+
+import com.github.ethancommitpush.feign.slowcall.SlowCall;
+import com.github.ethancommitpush.feign.slowcall.SlowCallDetector;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * {@link Endpoint @Endpoint} exposing the last slow calls of the feign clients kept by the
+ * {@link SlowCallDetector}, the last one first.
+ */
+@Endpoint(id = "feignslowcalls")
+public class FeignSlowCallsEndpoint {
+
+    private final SlowCallDetector detector;
+
+    public FeignSlowCallsEndpoint(SlowCallDetector detector) {
+        this.detector = detector;
+    }
+
+    @ReadOperation
+    public Map<String, Object> slowCalls() {
+        return result(detector.getSlowCalls());
+    }
+
+    /**
+     * @param name bean name of a feign client.
+     * @return the slow calls of the feign client.
+     */
+    @ReadOperation
+    public Map<String, Object> clientSlowCalls(@Selector String name) {
+        return result(detector.getSlowCalls().stream()
+                .filter(call -> name.equals(call.getClient()))
+                .collect(Collectors.toList()));
+    }
+
+    private Map<String, Object> result(List<SlowCall> calls) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("recorded", detector.getRecorded());
+        result.put("calls", calls);
+        return result;
+    }
+
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.admission;
+
+import com.github.ethancommitpush.feign.annotation.Priority;
+import com.github.ethancommitpush.feign.async.AsyncClient;
+
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * {@link AsyncClient} which waits on the calling thread for each call to be admitted with the priority of
+ * its method, and holds the admission until the exchange completes, its body being buffered or streamed.
+ */
+class AdmissionAsyncClient implements AsyncClient {
+
+    private final AsyncClient delegate;
+
+    private final AdmissionController controller;
+
+    private final Priority.Level priority;
+
+    private final Map<Method, Priority.Level> methodPriorities;
+
+    AdmissionAsyncClient(AsyncClient delegate, AdmissionController controller, Priority.Level priority,
+                         Map<Method, Priority.Level> methodPriorities) {
+        this.delegate = delegate;
+        this.controller = controller;
+        this.priority = priority;
+        this.methodPriorities = methodPriorities;
+    }
+
+    @Override
+    public CompletableFuture<Response> execute(Request request, Options options) {
+        return admitted(request, r -> delegate.execute(r, options));
+    }
+
+    @Override
+    public CompletableFuture<Void> stream(Request request, Options options, BodyHandler handler) {
+        return admitted(request, r -> delegate.stream(r, options, handler));
+    }
+
+    private <T> CompletableFuture<T> admitted(Request request, Function<Request, CompletableFuture<T>> exchange) {
+        try {
+            controller.acquire(AdmissionClient.priorityOf(request, priority, methodPriorities));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return AsyncClient.failed(new InterruptedIOException("Interrupted waiting to be admitted"));
+        } catch (RuntimeException e) {
+            return AsyncClient.failed(e);
+        }
+        CompletableFuture<T> future;
+        try {
+            future = exchange.apply(request);
+        } catch (RuntimeException | Error e) {
+            controller.release();
+            throw e;
+        }
+        return AsyncClient.whenComplete(future, (r, e) -> controller.release());
+    }
+
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.admission;
+
+import com.github.ethancommitpush.feign.annotation.Priority;
+import com.github.ethancommitpush.feign.client.ReleasingBody;
+
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * {@link Client} which waits for each attempt to be admitted with the priority of its method, and holds the
+ * admission until the response body is read to its end or closed.
+ */
+public class AdmissionClient implements Client {
+
+    private final Client delegate;
+
+    private final AdmissionController controller;
+
+    private final Priority.Level priority;
+
+    private final Map<Method, Priority.Level> methodPriorities;
+
+    /**
+     * @param delegate the http client to decorate.
+     * @param controller admission controller shared by the feign clients.
+     * @param priority priority of the feign client.
+     * @param methodPriorities priorities of the methods overriding it, empty for none.
+     */
+    public AdmissionClient(Client delegate, AdmissionController controller, Priority.Level priority,
+                           Map<Method, Priority.Level> methodPriorities) {
+        this.delegate = delegate;
+        this.controller = controller;
+        this.priority = priority;
+        this.methodPriorities = methodPriorities;
+    }
+
+    @Override
+    public Response execute(Request request, Options options) throws IOException {
+        try {
+            controller.acquire(priorityOf(request, priority, methodPriorities));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting to be admitted");
+        }
+        Response response;
+        try {
+            response = delegate.execute(request, options);
+        } catch (IOException | RuntimeException | Error e) {
+            controller.release();
+            throw e;
+        }
+        return ReleasingBody.wrap(response, controller::release);
+    }
+
+    /**
+     * @return priority of the method of the request, or else of the feign client.
+     */
+    static Priority.Level priorityOf(Request request, Priority.Level priority,
+                                     Map<Method, Priority.Level> methodPriorities) {
+        if (!methodPriorities.isEmpty() && request.requestTemplate() != null
+                && request.requestTemplate().methodMetadata() != null) {
+            Priority.Level level = methodPriorities.get(request.requestTemplate().methodMetadata().method());
+            if (level != null) {
+                return level;
+            }
+        }
+        return priority;
+    }
+
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.admission;
+
+import com.github.ethancommitpush.feign.annotation.FeignClient;
+import com.github.ethancommitpush.feign.annotation.Priority;
+import com.github.ethancommitpush.feign.async.AsyncClient;
+import com.github.ethancommitpush.feign.client.ClientDecorator;
+import feign.Client;
+
+import org.springframework.core.Ordered;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decorates the http client of each feign client with an {@link AdmissionClient}, with the priority of
+ * &#64;FeignClient and the ones of the methods annotated with {@link Priority}. Inside the rate limits, so
+ * a call waiting for a permit does not hold an admission.
+ */
+public class AdmissionClientDecorator implements ClientDecorator, Ordered {
+
+    private final AdmissionController controller;
+
+    public AdmissionClientDecorator(AdmissionController controller) {
+        this.controller = controller;
+    }
+
+    @Override
+    public Client decorate(String name, Class<?> apiType, Client client) {
+        return new AdmissionClient(client, controller, priority(apiType), methodPriorities(apiType));
+    }
+
+    @Override
+    public AsyncClient decorateAsync(String name, Class<?> apiType, AsyncClient client) {
+        return new AdmissionAsyncClient(client, controller, priority(apiType), methodPriorities(apiType));
+    }
+
+    private static Priority.Level priority(Class<?> apiType) {
+        FeignClient feignClient = apiType.getAnnotation(FeignClient.class);
+        return feignClient != null ? feignClient.priority() : Priority.Level.NORMAL;
+    }
+
+    private static Map<Method, Priority.Level> methodPriorities(Class<?> apiType) {
+        Map<Method, Priority.Level> methodPriorities = new HashMap<>();
+        for (Method method : apiType.getMethods()) {
+            Priority annotation = method.getAnnotation(Priority.class);
+            if (annotation != null) {
+                methodPriorities.put(method, annotation.value());
+            }
+        }
+        return methodPriorities.isEmpty() ? Collections.emptyMap() : methodPriorities;
+    }
+
+    public AdmissionController getController() {
+        return controller;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 200;
+    }
+
+}
@@ -0,0 +1,247 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.admission;
+
+import com.github.ethancommitpush.feign.FeignClientsProperties;
+import com.github.ethancommitpush.feign.annotation.Priority;
+import com.github.ethancommitpush.feign.metrics.LatencyRecorder;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission of the calls of all feign clients, at most the max concurrent calls at once. Beyond, calls queue
+ * in a lane per priority and a released call admits the oldest one of the highest priority. A call waiting
+ * longer than the max queue time of its priority is shed.
+ * <p>
+ * As CoDel, a lane whose calls all waited over the target delay for a whole interval is overloaded: its
+ * calls then wait at most the target delay, so its queue drains by shedding instead of adding latency,
+ * until an admitted call waits less than the target again.
+ */
+public class AdmissionController {
+
+    private final FeignClientsProperties properties;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Map<Priority.Level, Lane> lanes = new EnumMap<>(Priority.Level.class);
+
+    /** Guarded by the lock. */
+    private int inFlight;
+
+    /**
+     * @param properties settings of the feign clients, whose admission settings are read on each call so a
+     * refresh applies to them, the max connections of the pool being the max concurrent calls if not set.
+     */
+    public AdmissionController(FeignClientsProperties properties) {
+        this.properties = properties;
+        for (Priority.Level level : Priority.Level.values()) {
+            lanes.put(level, new Lane());
+        }
+    }
+
+    /**
+     * Wait for the call to be admitted.
+     * @param level priority of the call.
+     * @throws CallShedException if it waited too long.
+     */
+    public void acquire(Priority.Level level) throws InterruptedException {
+        Lane lane = lanes.get(level);
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            if (inFlight < maxConcurrentCalls() && !hasWaiters(level)) {
+                inFlight++;
+                lane.admitted(start, 0);
+                return;
+            }
+            Waiter waiter = new Waiter(lock.newCondition());
+            lane.queue.addLast(waiter);
+            long remaining = lane.maxQueueTime(level);
+            try {
+                while (!waiter.admitted) {
+                    if (remaining <= 0) {
+                        lane.queue.remove(waiter);
+                        lane.shed++;
+                        lane.delayed(System.nanoTime());
+                        throw new CallShedException(level + " call shed after waiting "
+                                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms to be admitted");
+                    }
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                lane.queue.remove(waiter);
+                if (waiter.admitted) {
+                    release();
+                }
+                throw e;
+            }
+            long now = System.nanoTime();
+            lane.admitted(now, now - start);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Release the call, admitting the next one if any.
+     */
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            while (inFlight < maxConcurrentCalls()) {
+                Waiter waiter = nextWaiter();
+                if (waiter == null) {
+                    break;
+                }
+                waiter.admitted = true;
+                inFlight++;
+                waiter.condition.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean hasWaiters(Priority.Level level) {
+        for (Priority.Level other : Priority.Level.values()) {
+            if (other.compareTo(level) <= 0 && !lanes.get(other).queue.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Waiter nextWaiter() {
+        for (Lane lane : lanes.values()) {
+            Waiter waiter = lane.queue.pollFirst();
+            if (waiter != null) {
+                return waiter;
+            }
+        }
+        return null;
+    }
+
+    private int maxConcurrentCalls() {
+        int max = properties.getAdmission().getMaxConcurrentCalls();
+        return max > 0 ? max : properties.getHttpClient().getMaxConnections();
+    }
+
+    /**
+     * @return calls in flight.
+     */
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return lanes by priority.
+     */
+    public Map<Priority.Level, Lane> getLanes() {
+        return Collections.unmodifiableMap(lanes);
+    }
+
+    private static final class Waiter {
+
+        private final Condition condition;
+
+        private boolean admitted;
+
+        private Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+
+    /**
+     * Queue of a priority, its state being guarded by the lock of the admission controller.
+     */
+    public final class Lane {
+
+        private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+
+        private final LatencyRecorder queueDelay = new LatencyRecorder(TimeUnit.MINUTES.toMillis(1), 6);
+
+        private long admitted;
+
+        private long shed;
+
+        private boolean overloaded;
+
+        /** End of the interval since the first call over the target delay, zero if none. */
+        private long intervalEnd;
+
+        private long maxQueueTime(Priority.Level level) {
+            Duration maxQueueTime = properties.getAdmission().getMaxQueueTime().get(level);
+            if (overloaded || maxQueueTime == null) {
+                return properties.getAdmission().getTargetDelay().toNanos();
+            }
+            return maxQueueTime.toNanos();
+        }
+
+        private void admitted(long now, long delay) {
+            admitted++;
+            queueDelay.record(delay);
+            if (delay < properties.getAdmission().getTargetDelay().toNanos()) {
+                // Back to normal as soon as a call waits less than the target
+                overloaded = false;
+                intervalEnd = 0;
+            } else {
+                delayed(now);
+            }
+        }
+
+        /**
+         * A call of the lane waited over the target delay, admitted or shed.
+         */
+        private void delayed(long now) {
+            if (intervalEnd == 0) {
+                intervalEnd = now + properties.getAdmission().getInterval().toNanos();
+            } else if (now - intervalEnd >= 0) {
+                overloaded = true;
+            }
+        }
+
+        public int getQueued() {
+            return queue.size();
+        }
+
+        public long getAdmitted() {
+            return admitted;
+        }
+
+        public long getShed() {
+            return shed;
+        }
+
+        public boolean isOverloaded() {
+            return overloaded;
+        }
+
+        /**
+         * @return time waited to be admitted over the last minute.
+         */
+        public LatencyRecorder getQueueDelay() {
+            return queueDelay;
+        }
+
+    }
+
+}
@@ -0,0 +1,28 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.admission;
+
+/**
+ * Thrown when a call is shed by the admission control, after waiting too long to be admitted. It is not an
+ * {@link java.io.IOException}, so Feign does not retry it under the very overload that caused it.
+ */
+public class CallShedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CallShedException(String message) {
+        super(message);
+    }
+
+}
@@ -60,4 +60,41 @@ public @interface FeignClient {
      */
     String client() default "";
 
+    /**
+     * Request interceptor bean names for the specified Feign client interface, applied after the request
+     * interceptor beans applied to all Feign clients. The bean classes must implement the class
+     * feign.RequestInterceptor.
+     */
+    String[] interceptors() default {};
+
+    /**
+     * Encoder class for the specified Feign client interface, exclusive with {@link #encoder()}.
+     * The class must implement feign.codec.Encoder and have a no-arg constructor.
+     */
+    Class<?> encoderClass() default void.class;
+
+    /**
+     * Decoder class for the specified Feign client interface, exclusive with {@link #decoder()}.
+     * The class must implement feign.codec.Decoder and have a no-arg constructor.
+     */
+    Class<?> decoderClass() default void.class;
+
+    /**
+     * Error decoder class for the specified Feign client interface, exclusive with {@link #errorDecoder()}.
+     * The class must implement feign.codec.ErrorDecoder and have a no-arg constructor.
+     */
+    Class<?> errorDecoderClass() default void.class;
+
+    /**
+     * http client class for the specified Feign client interface, exclusive with {@link #client()}.
+     * The class must implement feign.Client and have a no-arg constructor.
+     */
+    Class<?> clientClass() default void.class;
+
+    /**
+     * Priority of the calls of the specified Feign client interface when the admission control is enabled,
+     * unless overridden by {@link Priority} on the method.
+     */
+    Priority.Level priority() default Priority.Level.NORMAL;
+
 }
@@ -0,0 +1,48 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation for declaring on methods of interfaces with &#64;FeignClient to admit their calls with another
+ * priority than the one of the whole feign client, when the admission control is enabled.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Priority {
+
+    Level value();
+
+    /**
+     * Priorities of calls, from the highest.
+     */
+    enum Level {
+
+        /** User-facing calls, admitted first and shed last. */
+        CRITICAL,
+
+        NORMAL,
+
+        /** Background calls, e.g. batches or reconciliations, admitted last and shed first. */
+        BACKGROUND
+
+    }
+
+}
@@ -0,0 +1,262 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.async;
+
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * {@link AsyncClient} on Apache HttpAsyncClient, whose I/O reactor drives all the connections from a few
+ * threads. Responses are either buffered in memory before completing, or streamed to a handler.
+ */
+public class ApacheHttpAsyncClient implements AsyncClient, Closeable {
+
+    private final CloseableHttpAsyncClient client;
+
+    /**
+     * @param client the async http client, started here if not yet.
+     */
+    public ApacheHttpAsyncClient(CloseableHttpAsyncClient client) {
+        this.client = client;
+        if (!client.isRunning()) {
+            client.start();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Response> execute(Request request, Options options) {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        Future<HttpResponse> exchange = client.execute(toHttpUriRequest(request, options),
+                new FutureCallback<HttpResponse>() {
+                    @Override
+                    public void completed(HttpResponse httpResponse) {
+                        try {
+                            future.complete(toFeignResponse(httpResponse, request));
+                        } catch (IOException e) {
+                            future.completeExceptionally(e);
+                        }
+                    }
+
+                    @Override
+                    public void failed(Exception e) {
+                        future.completeExceptionally(e);
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        future.completeExceptionally(new CancellationException(request.url()));
+                    }
+                });
+        abortOnCancel(future, exchange);
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Void> stream(Request request, Options options, BodyHandler handler) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Future<Void> exchange = client.execute(HttpAsyncMethods.create(toHttpUriRequest(request, options)),
+                new StreamingResponseConsumer(request, handler), new FutureCallback<Void>() {
+                    @Override
+                    public void completed(Void result) {
+                        future.complete(null);
+                    }
+
+                    @Override
+                    public void failed(Exception e) {
+                        future.completeExceptionally(e);
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        future.completeExceptionally(new CancellationException(request.url()));
+                    }
+                });
+        abortOnCancel(future, exchange);
+        return future;
+    }
+
+    /**
+     * Abort the exchange when the future is cancelled, so its connection is closed instead of leased.
+     */
+    private static void abortOnCancel(CompletableFuture<?> future, Future<?> exchange) {
+        future.whenComplete((r, e) -> {
+            if (future.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+    }
+
+    private static HttpUriRequest toHttpUriRequest(Request request, Options options) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(options.connectTimeoutMillis())
+                .setSocketTimeout(options.readTimeoutMillis())
+                .setRedirectsEnabled(options.isFollowRedirects())
+                .build();
+        RequestBuilder builder = RequestBuilder.create(request.httpMethod().name())
+                .setUri(request.url())
+                .setConfig(requestConfig);
+
+        ContentType contentType = null;
+        for (Map.Entry<String, Collection<String>> header : request.headers().entrySet()) {
+            String name = header.getKey();
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                // Set by the entity
+                continue;
+            }
+            for (String value : header.getValue()) {
+                if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+                    contentType = ContentType.parse(value);
+                }
+                builder.addHeader(name, value);
+            }
+        }
+        if (request.body() != null) {
+            builder.setEntity(new ByteArrayEntity(request.body(), contentType));
+        }
+        return builder.build();
+    }
+
+    private static Response toFeignResponse(HttpResponse httpResponse, Request request) throws IOException {
+        HttpEntity entity = httpResponse.getEntity();
+        return Response.builder()
+                .status(httpResponse.getStatusLine().getStatusCode())
+                .reason(httpResponse.getStatusLine().getReasonPhrase())
+                .headers(toFeignHeaders(httpResponse))
+                .request(request)
+                .body(entity != null ? EntityUtils.toByteArray(entity) : null)
+                .build();
+    }
+
+    private static Map<String, Collection<String>> toFeignHeaders(HttpResponse httpResponse) {
+        Map<String, Collection<String>> headers = new LinkedHashMap<>();
+        for (Header header : httpResponse.getAllHeaders()) {
+            headers.computeIfAbsent(header.getName(), k -> new ArrayList<>()).add(header.getValue());
+        }
+        return headers;
+    }
+
+    /**
+     * Hands the body over to the handler chunk by chunk as it is decoded from the connection.
+     */
+    private static class StreamingResponseConsumer extends AbstractAsyncResponseConsumer<Void>
+            implements InputControl {
+
+        private final Request request;
+
+        private final BodyHandler handler;
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(8192);
+
+        private volatile IOControl ioControl;
+
+        private volatile boolean suspended;
+
+        StreamingResponseConsumer(Request request, BodyHandler handler) {
+            this.request = request;
+            this.handler = handler;
+        }
+
+        @Override
+        protected void onResponseReceived(HttpResponse httpResponse) throws IOException {
+            handler.onResponse(Response.builder()
+                    .status(httpResponse.getStatusLine().getStatusCode())
+                    .reason(httpResponse.getStatusLine().getReasonPhrase())
+                    .headers(toFeignHeaders(httpResponse))
+                    .request(request)
+                    .build(), this);
+        }
+
+        @Override
+        protected void onEntityEnclosed(HttpEntity entity, ContentType contentType) {
+        }
+
+        @Override
+        protected void onContentReceived(ContentDecoder decoder, IOControl ioControl) throws IOException {
+            this.ioControl = ioControl;
+            if (suspended) {
+                ioControl.suspendInput();
+                return;
+            }
+            while (!suspended && decoder.read(buffer) > 0) {
+                buffer.flip();
+                handler.onContent(buffer);
+                buffer.clear();
+            }
+        }
+
+        @Override
+        protected Void buildResult(HttpContext context) {
+            return null;
+        }
+
+        @Override
+        protected void releaseResources() {
+        }
+
+        @Override
+        public void suspend() {
+            suspended = true;
+            IOControl ioControl = this.ioControl;
+            if (ioControl != null) {
+                ioControl.suspendInput();
+            }
+        }
+
+        @Override
+        public void resume() {
+            suspended = false;
+            IOControl ioControl = this.ioControl;
+            if (ioControl != null) {
+                ioControl.requestInput();
+            }
+        }
+
+    }
+
+    @Override
+    public void close() throws IOException {
+        client.close();
+    }
+
+}
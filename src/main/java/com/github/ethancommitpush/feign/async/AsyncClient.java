@@ -0,0 +1,129 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.async;
+
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+/**
+ * Non-blocking http client, completing the response from its own I/O threads instead of blocking the
+ * calling thread.
+ */
+public interface AsyncClient {
+
+    /**
+     * Execute the request.
+     * @param request request.
+     * @param options options of the request.
+     * @return response with its body buffered, or failed with the {@link java.io.IOException} of the exchange.
+     */
+    CompletableFuture<Response> execute(Request request, Options options);
+
+    /**
+     * Execute the request, handing the body of the response over to the handler as it arrives, from an
+     * I/O thread. Cancelling the result aborts the exchange.
+     * @param request request.
+     * @param options options of the request.
+     * @param handler handler of the response.
+     * @return completed once the body is fully handled, or failed.
+     */
+    default CompletableFuture<Void> stream(Request request, Options options, BodyHandler handler) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        future.completeExceptionally(new UnsupportedOperationException(
+                getClass().getName() + " doesn't support streaming responses"));
+        return future;
+    }
+
+    /**
+     * @param error failure.
+     * @param <T> type of the result.
+     * @return future failed with the error.
+     */
+    static <T> CompletableFuture<T> failed(Throwable error) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(error);
+        return future;
+    }
+
+    /**
+     * Run an action once an exchange completes, e.g. to release what a decorator acquired before it.
+     * @param exchange future of the exchange.
+     * @param action action on its result or failure.
+     * @param <T> type of the result.
+     * @return future completed as the exchange once the action has run, whose cancellation cancels the
+     * exchange.
+     */
+    static <T> CompletableFuture<T> whenComplete(CompletableFuture<T> exchange,
+            BiConsumer<? super T, ? super Throwable> action) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        // Unlike a dependent of CompletableFuture#whenComplete, the failure of the exchange is not wrapped
+        exchange.whenComplete((r, e) -> {
+            try {
+                action.accept(r, e);
+            } catch (Throwable t) {
+                if (e == null) {
+                    result.completeExceptionally(t);
+                    return;
+                }
+            }
+            if (e != null) {
+                result.completeExceptionally(e);
+            } else {
+                result.complete(r);
+            }
+        });
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Handler of a streamed response.
+     */
+    interface BodyHandler {
+
+        /**
+         * @param response status and headers of the response, without body.
+         * @param control control of the input, to stop reading the body while the handler can't keep up.
+         */
+        void onResponse(Response response, InputControl control) throws IOException;
+
+        /**
+         * @param content chunk of the body, only valid during the call.
+         */
+        void onContent(ByteBuffer content) throws IOException;
+
+    }
+
+    /**
+     * Control of the input of a streamed response, usable from any thread.
+     */
+    interface InputControl {
+
+        void suspend();
+
+        void resume();
+
+    }
+
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.async;
+
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.Request;
+import feign.Request.Options;
+
+/**
+ * The asynchronous call being prepared on the current thread. Feign builds and intercepts the request
+ * synchronously, then {@link AsyncDispatchingClient} leaves it here instead of executing it, for the
+ * caller to send it through the {@link AsyncClient}, and interrupts the call before Feign logs, decodes or
+ * retries a response.
+ */
+public final class AsyncDispatch {
+
+    private static final ThreadLocal<AsyncDispatch> CURRENT = new ThreadLocal<>();
+
+    static final RuntimeException DISPATCHED = new Dispatched();
+
+    private Request request;
+
+    private Options options;
+
+    private AsyncDispatch() {
+    }
+
+    /**
+     * Prepare the request of a call with the method handler of feign, without executing it.
+     * @param handler method handler of feign, whose http client is an {@link AsyncDispatchingClient}.
+     * @param argv arguments of the call.
+     * @return the prepared call.
+     * @throws Throwable as thrown by the method handler, e.g. by the encoder or the request interceptors.
+     */
+    public static AsyncDispatch prepare(MethodHandler handler, Object[] argv) throws Throwable {
+        AsyncDispatch dispatch = new AsyncDispatch();
+        CURRENT.set(dispatch);
+        try {
+            handler.invoke(argv);
+        } catch (Dispatched e) {
+            // Not a failure, the request is ready to be sent
+        } finally {
+            CURRENT.remove();
+        }
+        if (dispatch.request == null) {
+            throw new IllegalStateException("Asynchronous call was not dispatched, the http client of the feign "
+                    + "client must be an AsyncDispatchingClient");
+        }
+        return dispatch;
+    }
+
+    static AsyncDispatch current() {
+        return CURRENT.get();
+    }
+
+    void dispatched(Request request, Options options) {
+        this.request = request;
+        this.options = options;
+    }
+
+    public Request getRequest() {
+        return request;
+    }
+
+    public Options getOptions() {
+        return options;
+    }
+
+    private static final class Dispatched extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private Dispatched() {
+            super("Asynchronous call dispatched", null, false, false);
+        }
+
+    }
+
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.async;
+
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+import java.io.IOException;
+
+/**
+ * {@link Client} which leaves the requests of asynchronous methods to be sent through the
+ * {@link AsyncClient}, while the requests of other methods go through the blocking http client. It is the
+ * outermost client, so that the client decorators only see the exchanges actually sent through them.
+ */
+public class AsyncDispatchingClient implements Client {
+
+    private final Client delegate;
+
+    public AsyncDispatchingClient(Client delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Response execute(Request request, Options options) throws IOException {
+        AsyncDispatch dispatch = AsyncDispatch.current();
+        if (dispatch == null) {
+            return delegate.execute(request, options);
+        }
+        dispatch.dispatched(request, options);
+        throw AsyncDispatch.DISPATCHED;
+    }
+
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.async;
+
+import com.github.ethancommitpush.feign.handler.MethodHandlerDecorator;
+
+import feign.Feign;
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.Logger;
+import feign.Logger.Level;
+import feign.Response;
+import feign.Target;
+import feign.Util;
+import feign.codec.Decoder;
+import feign.codec.ErrorDecoder;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decorates the methods of a feign client returning {@link CompletableFuture}: the request is prepared on
+ * the calling thread and sent through the {@link AsyncClient}, then the response is logged and decoded on
+ * the I/O thread completing it. Asynchronous calls are not retried.
+ */
+public class AsyncMethodHandlerDecorator implements MethodHandlerDecorator {
+
+    private final AsyncClient asyncClient;
+
+    private final Decoder decoder;
+
+    private final ErrorDecoder errorDecoder;
+
+    private final ResponseLogger responseLogger;
+
+    public AsyncMethodHandlerDecorator(AsyncClient asyncClient, Decoder decoder, ErrorDecoder errorDecoder) {
+        this(asyncClient, decoder, errorDecoder, null, Level.NONE);
+    }
+
+    /**
+     * @param asyncClient non-blocking http client.
+     * @param decoder decoder of the responses.
+     * @param errorDecoder decoder of the error responses.
+     * @param logger logger of the feign client, which logs the requests as they are prepared.
+     * @param logLevel level of the logger.
+     */
+    public AsyncMethodHandlerDecorator(AsyncClient asyncClient, Decoder decoder, ErrorDecoder errorDecoder,
+            Logger logger, Level logLevel) {
+        this.asyncClient = asyncClient;
+        this.decoder = decoder;
+        this.errorDecoder = errorDecoder;
+        this.responseLogger = logger != null && logLevel != Level.NONE
+                ? new ResponseLogger(logger, logLevel) : ResponseLogger.NONE;
+    }
+
+    /**
+     * @param apiType interface of a feign client.
+     * @return whether any of its methods returns {@link CompletableFuture}.
+     */
+    public static boolean hasAsyncMethods(Class<?> apiType) {
+        for (Method method : apiType.getMethods()) {
+            if (isAsync(method)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAsync(Method method) {
+        return method.getReturnType() == CompletableFuture.class;
+    }
+
+    @Override
+    public MethodHandler decorate(Target<?> target, Method method, MethodHandler handler) {
+        if (!isAsync(method)) {
+            return handler;
+        }
+        Type resultType = resultType(method, CompletableFuture.class);
+        String configKey = Feign.configKey(target.type(), method);
+
+        return argv -> {
+            AsyncDispatch dispatch;
+            try {
+                dispatch = AsyncDispatch.prepare(handler, argv);
+            } catch (Throwable e) {
+                CompletableFuture<Object> result = new CompletableFuture<>();
+                result.completeExceptionally(e);
+                return result;
+            }
+            return send(dispatch, configKey, resultType);
+        };
+    }
+
+    /**
+     * @param method method of a feign client.
+     * @param container generic container returned by the method, e.g. {@link CompletableFuture}.
+     * @return type of the result in the container.
+     */
+    public static Type resultType(Method method, Class<?> container) {
+        Type type = method.getGenericReturnType();
+        return type instanceof ParameterizedType ? Util.resolveLastTypeParameter(type, container) : Object.class;
+    }
+
+    /**
+     * Send a prepared call and decode its response once it completes. Cancelling the result cancels the
+     * exchange.
+     * @param dispatch prepared call.
+     * @param configKey config key of the method, see {@link Feign#configKey(Class, Method)}.
+     * @param resultType type to decode the response to.
+     * @return decoded response.
+     */
+    public CompletableFuture<Object> send(AsyncDispatch dispatch, String configKey, Type resultType) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        long start = System.nanoTime();
+        CompletableFuture<Response> response = asyncClient.execute(dispatch.getRequest(), dispatch.getOptions());
+        response.whenComplete((r, error) -> {
+            long elapsedTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (error != null) {
+                responseLogger.error(configKey, error, elapsedTime);
+                result.completeExceptionally(error);
+                return;
+            }
+            try {
+                Response logged = responseLogger.response(configKey, r, elapsedTime);
+                result.complete(decode(configKey, resultType, logged));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.whenComplete((r, error) -> {
+            if (result.isCancelled()) {
+                response.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private Object decode(String configKey, Type resultType, Response response) throws Exception {
+        if (resultType == Response.class) {
+            return response;
+        }
+        try {
+            if (response.status() < 200 || response.status() >= 300) {
+                throw errorDecoder.decode(configKey, response);
+            }
+            if (resultType == Void.class) {
+                return null;
+            }
+            return decoder.decode(response, resultType);
+        } finally {
+            Util.ensureClosed(response.body());
+        }
+    }
+
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.async;
+
+import com.github.ethancommitpush.feign.FeignClientsAutoConfiguration;
+import com.github.ethancommitpush.feign.FeignClientsLifecycle;
+import com.github.ethancommitpush.feign.FeignClientsProperties;
+
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * {@link org.springframework.boot.autoconfigure.EnableAutoConfiguration
+ * Auto-configuration} that calls the methods of feign clients returning CompletableFuture through a
+ * non-blocking http client, when enabled by {@code feign.async.enabled}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(CloseableHttpAsyncClient.class)
+@ConditionalOnProperty(prefix = "feign.async", name = "enabled", havingValue = "true")
+@AutoConfigureAfter(FeignClientsAutoConfiguration.class)
+public class FeignAsyncAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(name = "feignAsyncHttpClient")
+    public CloseableHttpAsyncClient feignAsyncHttpClient(FeignClientsProperties properties,
+                                                         FeignClientsLifecycle feignClientsLifecycle) {
+        FeignClientsProperties.Async asyncProperties = properties.getAsync();
+        CloseableHttpAsyncClient httpClient = HttpAsyncClients.custom()
+                .setDefaultIOReactorConfig(IOReactorConfig.custom()
+                        .setIoThreadCount(asyncProperties.getIoThreads())
+                        .build())
+                .setMaxConnTotal(asyncProperties.getMaxConnections())
+                .setMaxConnPerRoute(asyncProperties.getMaxConnectionsPerRoute())
+                .setThreadFactory(new CustomizableThreadFactory("feign-async-"))
+                .build();
+        feignClientsLifecycle.register(httpClient);
+        return httpClient;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public AsyncClient feignAsyncClient(
+            @Qualifier("feignAsyncHttpClient") CloseableHttpAsyncClient feignAsyncHttpClient) {
+        return new ApacheHttpAsyncClient(feignAsyncHttpClient);
+    }
+
+}
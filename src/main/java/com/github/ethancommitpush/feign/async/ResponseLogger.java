@@ -0,0 +1,100 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.async;
+
+import feign.Logger;
+import feign.Logger.Level;
+import feign.Response;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Logs the responses of asynchronous calls with the logger of the feign client, as Feign logs the responses
+ * of blocking calls. The logging methods of {@link Logger} being protected, they are called reflectively.
+ */
+final class ResponseLogger {
+
+    private static final Method LOG_RESPONSE = method("logAndRebufferResponse",
+            String.class, Level.class, Response.class, long.class);
+
+    private static final Method LOG_IO_EXCEPTION = method("logIOException",
+            String.class, Level.class, IOException.class, long.class);
+
+    static final ResponseLogger NONE = new ResponseLogger(new Logger.NoOpLogger(), Level.NONE);
+
+    private final Logger logger;
+
+    private final Level level;
+
+    ResponseLogger(Logger logger, Level level) {
+        this.logger = logger;
+        this.level = level;
+    }
+
+    private static Method method(String name, Class<?>... parameterTypes) {
+        try {
+            Method method = Logger.class.getDeclaredMethod(name, parameterTypes);
+            method.setAccessible(true);
+            return method;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param configKey config key of the method.
+     * @param response response received.
+     * @param elapsedTime milliseconds since the request was sent.
+     * @return the response, whose body is buffered if it was logged.
+     * @throws IOException if the body cannot be read.
+     */
+    Response response(String configKey, Response response, long elapsedTime) throws IOException {
+        if (level == Level.NONE || LOG_RESPONSE == null) {
+            return response;
+        }
+        try {
+            return (Response) LOG_RESPONSE.invoke(logger, configKey, level, response, elapsedTime);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw (Error) cause;
+        } catch (IllegalAccessException e) {
+            return response;
+        }
+    }
+
+    /**
+     * @param configKey config key of the method.
+     * @param error failure of the exchange.
+     * @param elapsedTime milliseconds since the request was sent.
+     */
+    void error(String configKey, Throwable error, long elapsedTime) {
+        if (level == Level.NONE || LOG_IO_EXCEPTION == null || !(error instanceof IOException)) {
+            return;
+        }
+        try {
+            LOG_IO_EXCEPTION.invoke(logger, configKey, level, error, elapsedTime);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            // Logging is best effort
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.client;
+
+import com.github.ethancommitpush.feign.async.AsyncClient;
+
+import feign.Client;
+
+/**
+ * Decorates the http client of each feign client when the feign client is built. Beans of this type are
+ * applied to every feign client in their {@link org.springframework.core.annotation.Order} with the first
+ * one being the outermost, around the client resolved from &#64;FeignClient or the default one.
+ */
+public interface ClientDecorator {
+
+    /**
+     * Decorate the http client.
+     * @param name bean name of the feign client.
+     * @param apiType interface of the feign client.
+     * @param client http client to decorate.
+     * @return decorated http client, or the http client itself if nothing to decorate.
+     */
+    Client decorate(String name, Class<?> apiType, Client client);
+
+    /**
+     * Decorate the non-blocking http client of the asynchronous methods, right after the http client of the
+     * same feign client. A decoration waiting for something, e.g. a permit, waits on the calling thread, or
+     * the subscribing one for a {@code Mono} or a {@code Flux}.
+     * @param name bean name of the feign client.
+     * @param apiType interface of the feign client.
+     * @param client non-blocking http client to decorate.
+     * @return decorated non-blocking http client, by default the client itself.
+     */
+    default AsyncClient decorateAsync(String name, Class<?> apiType, AsyncClient client) {
+        return client;
+    }
+
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.client;
+
+import feign.Response;
+
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link Response.Body} which runs a callback once when closed, to release what a call holds until its
+ * response is read, as the connection of the pool. It also runs when the stream or the reader of the body
+ * is closed or read to its end, as Feign's logger does before swapping the body for a copy in memory.
+ */
+public class ReleasingBody implements Response.Body {
+
+    private final Response.Body delegate;
+
+    private final Runnable release;
+
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    public ReleasingBody(Response.Body delegate, Runnable release) {
+        this.delegate = delegate;
+        this.release = release;
+    }
+
+    /**
+     * Release when the body of the response is closed, or now if it has none.
+     * @param response response.
+     * @param release callback.
+     * @return response whose body releases.
+     */
+    public static Response wrap(Response response, Runnable release) {
+        if (response.body() == null) {
+            release.run();
+            return response;
+        }
+        return response.toBuilder().body(new ReleasingBody(response.body(), release)).build();
+    }
+
+    @Override
+    public Integer length() {
+        return delegate.length();
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return delegate.isRepeatable();
+    }
+
+    @Override
+    public InputStream asInputStream() throws IOException {
+        return new FilterInputStream(delegate.asInputStream()) {
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b < 0) {
+                    release();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int count = super.read(b, off, len);
+                if (count < 0) {
+                    release();
+                }
+                return count;
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    release();
+                }
+            }
+
+        };
+    }
+
+    @Override
+    public Reader asReader(Charset charset) throws IOException {
+        return new FilterReader(delegate.asReader(charset)) {
+
+            @Override
+            public int read() throws IOException {
+                int c = super.read();
+                if (c < 0) {
+                    release();
+                }
+                return c;
+            }
+
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                int count = super.read(cbuf, off, len);
+                if (count < 0) {
+                    release();
+                }
+                return count;
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    release();
+                }
+            }
+
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            delegate.close();
+        } finally {
+            release();
+        }
+    }
+
+    private void release() {
+        if (released.compareAndSet(false, true)) {
+            release.run();
+        }
+    }
+
+}
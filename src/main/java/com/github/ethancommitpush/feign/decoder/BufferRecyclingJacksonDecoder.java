@@ -0,0 +1,111 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.decoder;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+
+import feign.Response;
+import feign.codec.Decoder;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Jackson decoder which parses the response body straight from its {@link java.io.InputStream}, so the
+ * read buffers come from Jackson's per thread buffer recycler instead of a new reader, char decoder and
+ * their buffers being allocated for every response as {@link feign.jackson.JacksonDecoder} does.
+ * Jackson detects UTF-8, 16 and 32 from the bytes, a body in any other charset of its Content-Type is read
+ * through a reader of that charset.
+ */
+public class BufferRecyclingJacksonDecoder implements Decoder {
+
+    /**
+     * Detected by Jackson from the bytes, US-ASCII being a subset of UTF-8.
+     */
+    private static final Set<String> DETECTED_CHARSETS = new HashSet<>(Arrays.asList("US-ASCII", "UTF-8",
+            "UTF-16", "UTF-16BE", "UTF-16LE", "UTF-32", "UTF-32BE", "UTF-32LE"));
+
+    private final ObjectMapper mapper;
+
+    public BufferRecyclingJacksonDecoder() {
+        this(Collections.<Module>emptyList());
+    }
+
+    public BufferRecyclingJacksonDecoder(Iterable<Module> modules) {
+        this(new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .registerModules(modules));
+    }
+
+    public BufferRecyclingJacksonDecoder(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        if (response.body() == null) {
+            return null;
+        }
+        Charset charset = charset(response);
+        try (JsonParser parser = charset != null
+                ? mapper.getFactory().createParser(response.body().asReader(charset))
+                : mapper.getFactory().createParser(response.body().asInputStream())) {
+            if (parser.nextToken() == null) {
+                return null;
+            }
+            return mapper.readValue(parser, mapper.constructType(type));
+        } catch (RuntimeJsonMappingException e) {
+            if (e.getCause() != null && e.getCause() instanceof IOException) {
+                throw IOException.class.cast(e.getCause());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return charset of the Content-Type of the response, null when there is none, it is unknown or it is
+     * detected by Jackson from the bytes.
+     */
+    static Charset charset(Response response) {
+        Collection<String> contentTypes = response.headers().get("Content-Type");
+        if (contentTypes == null) {
+            return null;
+        }
+        for (String contentType : contentTypes) {
+            for (String parameter : contentType.split(";")) {
+                String[] pair = parameter.trim().split("=", 2);
+                if (pair.length == 2 && pair[0].trim().equalsIgnoreCase("charset")) {
+                    try {
+                        Charset charset = Charset.forName(pair[1].trim().replace("\"", ""));
+                        return DETECTED_CHARSETS.contains(charset.name()) ? null : charset;
+                    } catch (IllegalArgumentException e) {
+                        return null;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+}
@@ -13,6 +13,8 @@
  */
 package com.github.ethancommitpush.feign.decoder;
 
+import com.github.ethancommitpush.feign.limit.LimitedBody;
+import com.github.ethancommitpush.feign.limit.ResponseTooLargeException;
 import feign.Request;
 import feign.Response;
 import feign.codec.ErrorDecoder;
@@ -20,7 +22,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * A custom errorDecoder to log exceptions.
+ * A custom errorDecoder to log exceptions. Returns a {@link ResponseTooLargeException} when the body of the
+ * error response was over its max size, as the default one ignores why it could not read the body.
  */
 public class CustomErrorDecoder implements ErrorDecoder {
     private static final Logger log = LoggerFactory.getLogger(CustomErrorDecoder.class);
@@ -35,12 +38,14 @@ public class CustomErrorDecoder implements ErrorDecoder {
      */
     @Override
     public Exception decode(String methodKey, Response response) {
-        if (response.status() >= 400 && response.status() <= 599) {
+        if (response.status() >= 400 && response.status() <= 599 && log.isErrorEnabled()) {
             log.error("status {} reading {}, url: {}, request body: {}"
                     , response.status(), methodKey, response.request().url()
                     , requestBodyAsString(response.request()));
         }
-        return errorDecoder.decode(methodKey, response);
+        Exception exception = errorDecoder.decode(methodKey, response);
+        ResponseTooLargeException violation = LimitedBody.violation(response);
+        return violation != null ? violation : exception;
     }
 
     /**
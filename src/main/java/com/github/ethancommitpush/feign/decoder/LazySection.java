@@ -0,0 +1,174 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.decoder;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Section of a response decoded on first use, for a member of a DTO which is large and seldom read, e.g.
+ * {@code LazySection<List<Item>> items}. Decoding the response only skips the JSON of the section and keeps
+ * where it is in the body, which the {@link ProjectingJacksonDecoder} reads as an array for the return types
+ * with such a section; otherwise the section is copied. {@link #get()} maps it the first time.
+ *
+ * @param <T> type of the section.
+ */
+@JsonDeserialize(using = LazySection.Deserializer.class)
+@JsonSerialize(using = LazySection.Serializer.class)
+public final class LazySection<T> {
+
+    private final ObjectCodec codec;
+
+    private final JavaType type;
+
+    /** JSON of the section from its offset, until decoded. */
+    private byte[] json;
+
+    private final int offset;
+
+    private final int length;
+
+    private volatile T value;
+
+    private LazySection(ObjectCodec codec, JavaType type, byte[] json, int offset, int length) {
+        this.codec = codec;
+        this.type = type;
+        this.json = json;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * @param value value of the section.
+     * @return section already decoded, e.g. for tests.
+     */
+    public static <T> LazySection<T> of(T value) {
+        LazySection<T> section = new LazySection<>(null, null, null, 0, 0);
+        section.value = value;
+        return section;
+    }
+
+    /**
+     * @return the section, decoded the first time.
+     * @throws RuntimeJsonMappingException if the section does not map to its type.
+     */
+    public T get() {
+        T result = value;
+        if (result == null) {
+            synchronized (this) {
+                result = value;
+                if (result == null && json != null) {
+                    result = decode();
+                    value = result;
+                    json = null;
+                }
+            }
+        }
+        return result;
+    }
+
+    public boolean isDecoded() {
+        return json == null;
+    }
+
+    private T decode() {
+        try (JsonParser parser = codec.getFactory().createParser(json, offset, length)) {
+            return codec.readValue(parser, type);
+        } catch (IOException e) {
+            throw new RuntimeJsonMappingException("Cannot decode section as " + type + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return json != null ? new String(json, offset, length, StandardCharsets.UTF_8) : String.valueOf(value);
+    }
+
+    static class Deserializer extends JsonDeserializer<LazySection<?>> implements ContextualDeserializer {
+
+        private final JavaType type;
+
+        Deserializer() {
+            this(null);
+        }
+
+        private Deserializer(JavaType type) {
+            this.type = type;
+        }
+
+        @Override
+        public JsonDeserializer<?> createContextual(DeserializationContext ctxt, BeanProperty property) {
+            JavaType sectionType = property != null ? property.getType() : ctxt.getContextualType();
+            return new Deserializer(sectionType.containedTypeOrUnknown(0));
+        }
+
+        @Override
+        public LazySection<?> deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            ObjectCodec codec = p.getCodec();
+            if (codec == null) {
+                return ctxt.reportInputMismatch(this, "No ObjectCodec to decode a LazySection later");
+            }
+            JsonLocation start = p.getTokenLocation();
+            boolean structure = p.isExpectedStartObjectToken() || p.isExpectedStartArrayToken();
+            if (structure && start.getSourceRef() instanceof byte[] && start.getByteOffset() >= 0) {
+                // Where the section is in the body, which it keeps until decoded
+                p.skipChildren();
+                long end = p.getCurrentLocation().getByteOffset();
+                return new LazySection<>(codec, type, (byte[]) start.getSourceRef(), (int) start.getByteOffset(),
+                        (int) (end - start.getByteOffset()));
+            }
+            ByteArrayBuilder bytes = new ByteArrayBuilder();
+            try (JsonGenerator generator = codec.getFactory().createGenerator(bytes)) {
+                generator.copyCurrentStructure(p);
+            }
+            byte[] json = bytes.toByteArray();
+            return new LazySection<>(codec, type, json, 0, json.length);
+        }
+
+    }
+
+    static class Serializer extends JsonSerializer<LazySection<?>> {
+
+        @Override
+        public void serialize(LazySection<?> section, JsonGenerator gen, SerializerProvider serializers)
+                throws IOException {
+            synchronized (section) {
+                if (section.json != null) {
+                    gen.writeRawValue(new String(section.json, section.offset, section.length,
+                            StandardCharsets.UTF_8));
+                    return;
+                }
+            }
+            serializers.defaultSerializeValue(section.value, gen);
+        }
+
+    }
+
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.decoder;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+
+import feign.Response;
+import feign.Util;
+import feign.codec.Decoder;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Jackson decoder which maps only what the return type maps: a {@link Projection} is built once per return
+ * type from its deserializers, and the members of the response it leaves out are skipped by the parser,
+ * never reaching a deserializer. Members of type {@link LazySection} are skipped, and mapped on first use.
+ * Like {@link BufferRecyclingJacksonDecoder}, it parses the body straight from its stream with recycled
+ * buffers, unless it is in a charset of its Content-Type which Jackson doesn't detect from the bytes.
+ */
+public class ProjectingJacksonDecoder implements Decoder {
+
+    private final ObjectMapper mapper;
+
+    private final Map<Type, ProjectedReader> readers = new ConcurrentHashMap<>();
+
+    public ProjectingJacksonDecoder() {
+        this(Collections.<Module>emptyList());
+    }
+
+    public ProjectingJacksonDecoder(Iterable<Module> modules) {
+        this(new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .registerModules(modules));
+    }
+
+    public ProjectingJacksonDecoder(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        if (response.body() == null) {
+            return null;
+        }
+        ProjectedReader reader = readers.computeIfAbsent(type, this::reader);
+        Charset charset = BufferRecyclingJacksonDecoder.charset(response);
+        JsonParser parser;
+        if (reader.projection != null && reader.projection.hasLazySections()) {
+            byte[] bytes = toByteArray(response.body());
+            // Lazy sections are parsed from UTF-8
+            parser = mapper.getFactory().createParser(charset != null
+                    ? new String(bytes, charset).getBytes(StandardCharsets.UTF_8) : bytes);
+        } else {
+            parser = charset != null
+                    ? mapper.getFactory().createParser(response.body().asReader(charset))
+                    : mapper.getFactory().createParser(response.body().asInputStream());
+        }
+        if (reader.projection != null) {
+            parser = new ProjectingParser(parser, reader.projection);
+        }
+        try {
+            if (parser.nextToken() == null) {
+                return null;
+            }
+            return reader.reader.readValue(parser);
+        } catch (RuntimeJsonMappingException e) {
+            if (e.getCause() != null && e.getCause() instanceof IOException) {
+                throw IOException.class.cast(e.getCause());
+            }
+            throw e;
+        } finally {
+            parser.close();
+        }
+    }
+
+    /**
+     * Reads the body into an array of its length when known, for its lazy sections to refer to it.
+     */
+    private static byte[] toByteArray(Response.Body body) throws IOException {
+        try (InputStream in = body.asInputStream()) {
+            if (body.length() == null) {
+                return Util.toByteArray(in);
+            }
+            byte[] bytes = new byte[body.length()];
+            int read = 0;
+            while (read < bytes.length) {
+                int count = in.read(bytes, read, bytes.length - read);
+                if (count < 0) {
+                    throw new EOFException("Body ended after " + read + " of " + bytes.length + " bytes");
+                }
+                read += count;
+            }
+            return bytes;
+        }
+    }
+
+    private ProjectedReader reader(Type type) {
+        JavaType javaType = mapper.constructType(type);
+        return new ProjectedReader(mapper.readerFor(javaType), Projection.of(mapper, javaType));
+    }
+
+    /**
+     * Reader of a return type, with its projection if any.
+     */
+    private static final class ProjectedReader {
+
+        private final ObjectReader reader;
+
+        private final Projection projection;
+
+        private ProjectedReader(ObjectReader reader, Projection projection) {
+            this.reader = reader;
+            this.projection = projection;
+        }
+
+    }
+
+}
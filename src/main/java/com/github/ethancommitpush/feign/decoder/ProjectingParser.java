@@ -0,0 +1,101 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.decoder;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Parser leaving out the members not in the {@link Projection} of the object they are in: their value is
+ * skipped with {@link JsonParser#skipChildren()}, so no deserializer ever sees, buffers or maps it.
+ */
+final class ProjectingParser extends JsonParserDelegate {
+
+    /** Projection of each open object or array, from the root. */
+    private Projection[] open = new Projection[16];
+
+    private int depth;
+
+    /** Projection of the value to come, or of the root value. */
+    private Projection next;
+
+    ProjectingParser(JsonParser parser, Projection root) {
+        super(parser);
+        this.next = root;
+    }
+
+    @Override
+    public JsonToken nextToken() throws IOException {
+        JsonToken token = delegate.nextToken();
+        while (token == JsonToken.FIELD_NAME) {
+            Projection projection = depth > 0 ? open[depth - 1] : null;
+            if (projection == null) {
+                next = null;
+                return token;
+            }
+            String name = delegate.getCurrentName();
+            if (projection.includes(name)) {
+                next = projection.member(name);
+                return token;
+            }
+            delegate.nextToken();
+            delegate.skipChildren();
+            token = delegate.nextToken();
+        }
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            push(next);
+            next = token == JsonToken.START_ARRAY && next != null ? next.elements() : null;
+        } else if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+            pop();
+        } else if (depth > 0 && delegate.getParsingContext().inArray()) {
+            next = open[depth - 1] != null ? open[depth - 1].elements() : null;
+        }
+        return token;
+    }
+
+    @Override
+    public JsonToken nextValue() throws IOException {
+        JsonToken token = nextToken();
+        return token == JsonToken.FIELD_NAME ? nextToken() : token;
+    }
+
+    @Override
+    public JsonParser skipChildren() throws IOException {
+        JsonToken token = delegate.currentToken();
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            delegate.skipChildren();
+            pop();
+        }
+        return this;
+    }
+
+    private void push(Projection projection) {
+        if (depth == open.length) {
+            open = Arrays.copyOf(open, depth * 2);
+        }
+        open[depth++] = projection;
+    }
+
+    private void pop() {
+        depth--;
+        if (depth > 0 && delegate.getParsingContext().inArray()) {
+            next = open[depth - 1] != null ? open[depth - 1].elements() : null;
+        }
+    }
+
+}
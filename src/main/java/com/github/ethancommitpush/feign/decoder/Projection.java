@@ -0,0 +1,199 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.decoder;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyName;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBase;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.deser.ValueInstantiator;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Members of the JSON values mapped by a type: the properties of a bean as its deserializer knows them,
+ * each with the projection of its own type, or the projection of the elements of an array or a collection
+ * and of the values of a map. Null stands for a type mapping every member, e.g. a map of strings, a
+ * {@link com.fasterxml.jackson.databind.JsonNode} or a bean with an any setter, so nothing is left out.
+ */
+final class Projection {
+
+    /** Members mapped by name, null for every member. */
+    private final Map<String, Projection> members;
+
+    /** Projection of the elements, or of the members when they are all mapped. */
+    private Projection elements;
+
+    /** Whether a {@link LazySection} is projected, so the body is better parsed from an array. */
+    private boolean lazy;
+
+    private Projection(Map<String, Projection> members) {
+        this.members = members;
+    }
+
+    boolean includes(String name) {
+        return members == null || members.containsKey(name);
+    }
+
+    /**
+     * @param name name of a member included.
+     * @return projection of its value, null if left as is.
+     */
+    Projection member(String name) {
+        return members == null ? elements : members.get(name);
+    }
+
+    Projection elements() {
+        return elements;
+    }
+
+    boolean hasLazySections() {
+        return lazy;
+    }
+
+    /**
+     * @param mapper mapper to deserialize the type with.
+     * @param type type to deserialize.
+     * @return its projection, null if it maps every member, when the mapper fails on unknown properties or
+     * when the type has no deserializer, so its deserialization fails as without a projection.
+     */
+    static Projection of(ObjectMapper mapper, JavaType type) {
+        DeserializationConfig config = mapper.getDeserializationConfig();
+        if (config.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                || config.isEnabled(MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES)) {
+            return null;
+        }
+        DefaultDeserializationContext ctxt = ((DefaultDeserializationContext) mapper.getDeserializationContext())
+                .createInstance(config, null, mapper.getInjectableValues());
+        try {
+            Builder builder = new Builder(ctxt);
+            Projection projection = builder.of(type);
+            if (projection != null) {
+                projection.lazy = builder.lazy;
+            }
+            return projection;
+        } catch (JsonMappingException e) {
+            return null;
+        }
+    }
+
+    private static final class Builder {
+
+        private final DefaultDeserializationContext ctxt;
+
+        /** Projections of the beans by type, to end on recursive types. */
+        private final Map<JavaType, Projection> building = new HashMap<>();
+
+        private boolean lazy;
+
+        private Builder(DefaultDeserializationContext ctxt) {
+            this.ctxt = ctxt;
+        }
+
+        private Projection of(JavaType type) throws JsonMappingException {
+            if (type.hasRawClass(LazySection.class)) {
+                lazy = true;
+                return of(type.containedTypeOrUnknown(0));
+            }
+            Class<?> raw = type.getRawClass();
+            if (type.isArrayType() || type.isCollectionLikeType() && Collection.class.isAssignableFrom(raw)
+                    || type.isMapLikeType() && Map.class.isAssignableFrom(raw) || type.isReferenceType()) {
+                Projection content = of(type.getContentType());
+                if (content == null) {
+                    return null;
+                }
+                if (type.isReferenceType()) {
+                    return content;
+                }
+                Projection projection = new Projection(null);
+                projection.elements = content;
+                return projection;
+            }
+            if (building.containsKey(type)) {
+                return building.get(type);
+            }
+            if (type.isContainerType() || type.isJavaLangObject() || type.isEnumType() || type.isPrimitive()
+                    || raw.getName().startsWith("java.")) {
+                return null;
+            }
+            DeserializationConfig config = ctxt.getConfig();
+            JsonDeserializer<?> deserializer = ctxt.findRootValueDeserializer(type);
+            if (!(deserializer instanceof BeanDeserializerBase)
+                    || ctxt.getFactory().findTypeDeserializer(config, type) != null) {
+                return null;
+            }
+            BeanDeserializerBase bean = (BeanDeserializerBase) deserializer;
+            // Members read by something else than the properties
+            ValueInstantiator instantiator = bean.getValueInstantiator();
+            if (instantiator != null && (instantiator.canCreateUsingDelegate()
+                    || instantiator.canCreateUsingArrayDelegate()) || bean.getObjectIdReader() != null) {
+                return null;
+            }
+            for (Iterator<SettableBeanProperty> it = bean.properties(); it.hasNext(); ) {
+                if (it.next().hasValueTypeDeserializer()) {
+                    return null;
+                }
+            }
+            BeanDescription description = config.introspect(type);
+            if (description.findAnySetterAccessor() != null) {
+                return null;
+            }
+            for (BeanPropertyDefinition property : description.findProperties()) {
+                if (property.getPrimaryMember() != null
+                        && config.getAnnotationIntrospector().findUnwrappingNameTransformer(property.getPrimaryMember())
+                        != null) {
+                    return null;
+                }
+            }
+            Projection projection = new Projection(new HashMap<>());
+            building.put(type, projection);
+            for (Iterator<SettableBeanProperty> it = bean.properties(); it.hasNext(); ) {
+                add(projection, it.next());
+            }
+            if (instantiator != null && instantiator.canCreateFromObjectWith()) {
+                SettableBeanProperty[] creatorProperties = instantiator.getFromObjectArguments(config);
+                if (creatorProperties != null) {
+                    for (SettableBeanProperty property : creatorProperties) {
+                        add(projection, property);
+                    }
+                }
+            }
+            return projection;
+        }
+
+        private void add(Projection projection, SettableBeanProperty property) throws JsonMappingException {
+            Projection value = of(property.getType());
+            projection.members.put(property.getName(), value);
+            List<PropertyName> aliases = property.findAliases(ctxt.getConfig());
+            for (PropertyName alias : aliases) {
+                projection.members.put(alias.getSimpleName(), value);
+            }
+        }
+
+    }
+
+}
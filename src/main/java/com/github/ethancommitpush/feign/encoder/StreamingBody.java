@@ -0,0 +1,114 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.encoder;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Request body serialized by Jackson when written: as JSON, or as NDJSON, one JSON value per line, for an
+ * {@link Iterator} or a {@link Stream}, which can be written only once.
+ */
+public class StreamingBody {
+
+    public static final String JSON = "application/json";
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    private final ObjectMapper mapper;
+
+    private final Object value;
+
+    private final Type type;
+
+    private final AtomicBoolean written = new AtomicBoolean();
+
+    public StreamingBody(ObjectMapper mapper, Object value, Type type) {
+        this.mapper = mapper;
+        this.value = value;
+        this.type = type;
+    }
+
+    /**
+     * @return whether the body is a sequence of values, written as NDJSON.
+     */
+    public boolean isSequence() {
+        return value instanceof Iterator || value instanceof Stream;
+    }
+
+    public boolean isRepeatable() {
+        return !isSequence();
+    }
+
+    /**
+     * @return whether a sequence was written, and cannot be anymore.
+     */
+    public boolean isWritten() {
+        return written.get();
+    }
+
+    public String getContentType() {
+        return isSequence() ? NDJSON : JSON;
+    }
+
+    /**
+     * Serialize the body to the stream, without closing it.
+     * @param out stream to write to.
+     * @throws IOException when serializing or writing failed, or when a sequence is written again.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        if (!isSequence()) {
+            ObjectWriter writer = mapper.writerFor(mapper.constructType(type))
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            writer.writeValue(out, value);
+            return;
+        }
+        if (!written.compareAndSet(false, true)) {
+            throw new IOException("Body of an Iterator or a Stream can be written only once");
+        }
+        Iterator<?> iterator = value instanceof Stream ? ((Stream<?>) value).iterator() : (Iterator<?>) value;
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (iterator.hasNext()) {
+                mapper.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+            }
+        } finally {
+            if (value instanceof Stream) {
+                ((Stream<?>) value).close();
+            }
+        }
+    }
+
+    /**
+     * @return the body serialized in a byte array, for an http client which cannot stream it.
+     * @throws IOException when serializing failed.
+     */
+    public byte[] toByteArray() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeTo(out);
+        return out.toByteArray();
+    }
+
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.encoder;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import feign.RequestTemplate;
+import feign.Util;
+import feign.codec.EncodeException;
+import feign.codec.Encoder;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collections;
+
+/**
+ * Jackson encoder which leaves the body to be serialized straight into the request stream by
+ * {@link com.github.ethancommitpush.feign.httpclient.StreamingApacheHttpClient}, with chunked transfer
+ * encoding, instead of into a byte array first as {@link feign.jackson.JacksonEncoder} does. An
+ * {@link java.util.Iterator} or a {@link java.util.stream.Stream} is written as NDJSON, one JSON value per
+ * line. When the http client of the feign client cannot stream, the body is serialized at once.
+ * Unlike {@link feign.jackson.JacksonEncoder}, the JSON is not indented.
+ */
+public class StreamingJacksonEncoder implements Encoder {
+
+    private static final String CONTENT_TYPE = "Content-Type";
+
+    private final ObjectMapper mapper;
+
+    public StreamingJacksonEncoder() {
+        this(Collections.<Module>emptyList());
+    }
+
+    public StreamingJacksonEncoder(Iterable<Module> modules) {
+        this(new ObjectMapper()
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .registerModules(modules));
+    }
+
+    public StreamingJacksonEncoder(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    @Override
+    public void encode(Object object, Type bodyType, RequestTemplate template) throws EncodeException {
+        StreamingBody body = new StreamingBody(mapper, object, bodyType);
+        if (body.isSequence() && !template.headers().containsKey(CONTENT_TYPE)) {
+            template.header(CONTENT_TYPE, StreamingBody.NDJSON);
+        }
+        if (StreamingScope.defer(body)) {
+            return;
+        }
+        try {
+            template.body(body.toByteArray(), Util.UTF_8);
+        } catch (IOException e) {
+            throw new EncodeException(e.getMessage(), e);
+        }
+    }
+
+}
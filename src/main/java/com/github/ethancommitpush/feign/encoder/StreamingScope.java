@@ -0,0 +1,72 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.encoder;
+
+import com.github.ethancommitpush.feign.handler.MethodHandlerDecorator;
+
+/**
+ * The request body left by the {@link StreamingJacksonEncoder} for the call on the current thread, for the
+ * http client to stream it. Each call of a feign client whose http client can stream runs in its own scope,
+ * which the factory adds with {@link #DECORATOR}, so a feign client called meanwhile, e.g. by an interceptor,
+ * does not take the body. Out of a scope, the encoder serializes the body at once.
+ */
+public final class StreamingScope {
+
+    private static final ThreadLocal<StreamingScope> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Runs each call in a new scope, restoring the enclosing one after.
+     */
+    public static final MethodHandlerDecorator DECORATOR = (target, method, handler) -> argv -> {
+        StreamingScope enclosing = CURRENT.get();
+        CURRENT.set(new StreamingScope());
+        try {
+            return handler.invoke(argv);
+        } finally {
+            if (enclosing != null) {
+                CURRENT.set(enclosing);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    };
+
+    private StreamingBody body;
+
+    private StreamingScope() {
+    }
+
+    /**
+     * Leave the body to be streamed by the http client, if the call runs in a scope.
+     * @param body request body.
+     * @return whether the body was left, false to serialize it now.
+     */
+    static boolean defer(StreamingBody body) {
+        StreamingScope scope = CURRENT.get();
+        if (scope == null) {
+            return false;
+        }
+        scope.body = body;
+        return true;
+    }
+
+    /**
+     * @return the body to stream for the call on the current thread, null if none.
+     */
+    public static StreamingBody body() {
+        StreamingScope scope = CURRENT.get();
+        return scope != null ? scope.body : null;
+    }
+
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.handler;
+
+import feign.InvocationHandlerFactory;
+import feign.Target;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link InvocationHandlerFactory} which applies {@link MethodHandlerDecorator}s to the method handlers
+ * before creating the invocation handler with the delegate.
+ */
+public class DecoratingInvocationHandlerFactory implements InvocationHandlerFactory {
+
+    private final InvocationHandlerFactory delegate;
+
+    private final List<MethodHandlerDecorator> decorators;
+
+    public DecoratingInvocationHandlerFactory(List<MethodHandlerDecorator> decorators) {
+        this(new InvocationHandlerFactory.Default(), decorators);
+    }
+
+    public DecoratingInvocationHandlerFactory(InvocationHandlerFactory delegate,
+            List<MethodHandlerDecorator> decorators) {
+        this.delegate = delegate;
+        this.decorators = decorators;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public InvocationHandler create(Target target, Map<Method, MethodHandler> dispatch) {
+        Map<Method, MethodHandler> decorated = new LinkedHashMap<>(dispatch.size());
+        dispatch.forEach((method, handler) -> {
+            for (int i = decorators.size() - 1; i >= 0; i--) {
+                handler = decorators.get(i).decorate(target, method, handler);
+            }
+            decorated.put(method, handler);
+        });
+        return delegate.create(target, decorated);
+    }
+
+}
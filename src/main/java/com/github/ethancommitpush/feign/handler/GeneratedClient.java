@@ -0,0 +1,48 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.handler;
+
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.Target;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * Implementation of an API interface generated at build time by spring-boot-starter-openfeign-processor,
+ * whose methods call their method handlers directly instead of through a {@link java.lang.reflect.Proxy}
+ * and a lookup by {@link Method}.
+ */
+public interface GeneratedClient {
+
+    /**
+     * Suffix of the generated implementation, in the package of the API interface, whose name is the binary
+     * name of the API interface with {@code $} replaced by {@code _}.
+     */
+    String SUFFIX = "_FeignClient";
+
+    /**
+     * Bind the method handlers of the feign client, again when it is rebuilt. Each call runs entirely on the
+     * method handler it started with.
+     * @param target target of the feign client.
+     * @param dispatch method handlers of the API interface methods.
+     */
+    void bind(Target<?> target, Map<Method, MethodHandler> dispatch);
+
+    static String implementationName(String interfaceName) {
+        int dot = interfaceName.lastIndexOf('.');
+        return interfaceName.substring(0, dot + 1) + interfaceName.substring(dot + 1).replace('$', '_') + SUFFIX;
+    }
+
+}
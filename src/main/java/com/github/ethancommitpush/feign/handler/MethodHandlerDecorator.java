@@ -0,0 +1,37 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.handler;
+
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.Target;
+
+import java.lang.reflect.Method;
+
+/**
+ * Decorates the handler of each method of a feign client when the client is built. Beans of this type
+ * are applied to every feign client in their {@link org.springframework.core.annotation.Order} with
+ * the first one being the outermost.
+ */
+public interface MethodHandlerDecorator {
+
+    /**
+     * Decorate the handler of the method.
+     * @param target target of the feign client, whose name is the bean name of the feign client.
+     * @param method method of the feign client interface.
+     * @param handler handler to decorate.
+     * @return decorated handler, or the handler itself if nothing to decorate.
+     */
+    MethodHandler decorate(Target<?> target, Method method, MethodHandler handler);
+
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.handler;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+
+/**
+ * {@link InvocationHandler} of a generated feign client proxy whose delegate can be swapped atomically
+ * when the feign client is rebuilt. Each call runs entirely on the delegate it started with.
+ */
+public class RefreshableInvocationHandler implements InvocationHandler {
+
+    private volatile InvocationHandler delegate;
+
+    public RefreshableInvocationHandler(InvocationHandler delegate) {
+        this.delegate = delegate;
+    }
+
+    public void setDelegate(InvocationHandler delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        return delegate.invoke(proxy, method, args);
+    }
+
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.httpclient;
+
+import org.apache.http.conn.DnsResolver;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link DnsResolver} which caches resolved addresses per host for a fixed time to live, so new pooled
+ * connections don't pay a DNS lookup each. An expired entry is refreshed on the next lookup, and kept
+ * serving if the refresh fails.
+ */
+public class CachingDnsResolver implements DnsResolver {
+
+    private final DnsResolver delegate;
+
+    private final long ttlNanos;
+
+    private final ConcurrentMap<String, Entry> cache = new ConcurrentHashMap<>();
+
+    public CachingDnsResolver(DnsResolver delegate, long ttlMillis) {
+        this.delegate = delegate;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+    }
+
+    @Override
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        long now = System.nanoTime();
+        Entry entry = cache.get(host);
+        if (entry != null && now - entry.resolvedAt < ttlNanos) {
+            return entry.addresses.clone();
+        }
+
+        InetAddress[] addresses;
+        try {
+            addresses = delegate.resolve(host);
+        } catch (UnknownHostException e) {
+            if (entry != null) {
+                return entry.addresses.clone();
+            }
+            throw e;
+        }
+        cache.put(host, new Entry(addresses.clone(), now));
+        return addresses;
+    }
+
+    private static final class Entry {
+
+        private final InetAddress[] addresses;
+
+        private final long resolvedAt;
+
+        private Entry(InetAddress[] addresses, long resolvedAt) {
+            this.addresses = addresses;
+            this.resolvedAt = resolvedAt;
+        }
+    }
+
+}
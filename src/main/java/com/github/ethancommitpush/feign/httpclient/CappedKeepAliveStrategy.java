@@ -0,0 +1,43 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.httpclient;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Keeps a connection alive as long as the timeout of the server's Keep-Alive header, capped under the max
+ * given, or for the max when the server sets none. The cap must be under the idle timeout of the load
+ * balancers in between, which close idle connections without the client noticing.
+ */
+public class CappedKeepAliveStrategy implements ConnectionKeepAliveStrategy {
+
+    private final long maxMillis;
+
+    /**
+     * @param maxMillis max time an idle connection is kept alive.
+     */
+    public CappedKeepAliveStrategy(long maxMillis) {
+        this.maxMillis = maxMillis;
+    }
+
+    @Override
+    public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+        long serverMillis = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+        return serverMillis > 0 ? Math.min(serverMillis, maxMillis) : maxMillis;
+    }
+
+}
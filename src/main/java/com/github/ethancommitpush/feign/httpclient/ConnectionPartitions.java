@@ -0,0 +1,291 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.httpclient;
+
+import com.github.ethancommitpush.feign.FeignClientsProperties;
+import com.github.ethancommitpush.feign.metrics.LatencyRecorder;
+
+import feign.Client;
+
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Partitions of the default connection pool between the feign clients sharing it, so a slow one cannot lease
+ * every connection. Each feign client has connections reserved to it, and borrows from the capacity
+ * reserved to none up to its max, waiting at most its lease timeout. The leases of the feign clients of a same
+ * host are also bounded by the max connections per route of the pool, so a lease is never left waiting in the
+ * pool itself. Enabled once a feign client sets {@code feign.clients.<name>.pool}, then the other ones only
+ * borrow.
+ */
+public class ConnectionPartitions {
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPartitions.class);
+
+    private final FeignClientsProperties properties;
+
+    private final ConcurrentMap<String, Partition> partitions = new ConcurrentHashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition released = lock.newCondition();
+
+    /** Connections leased beyond the reservations, guarded by the lock. */
+    private int borrowed;
+
+    public ConnectionPartitions(FeignClientsProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @return whether a feign client sets its partition.
+     */
+    public boolean isEnabled() {
+        return properties.getClients().values().stream()
+                .map(FeignClientsProperties.ClientProperties::getPool)
+                .anyMatch(pool -> pool.getReserved() > 0 || pool.getMax() > 0);
+    }
+
+    /**
+     * Decorate the http client of the default connection pool with the partition of the feign client,
+     * updated with its current settings.
+     * @param name bean name of the feign client.
+     * @param url url of the feign client.
+     * @param client http client of the default connection pool.
+     * @return the partitioned http client, or the http client if partitions are not enabled.
+     */
+    public Client partition(String name, String url, Client client) {
+        if (!isEnabled()) {
+            return client;
+        }
+        FeignClientsProperties.Pool pool = properties.getClient(name).getPool();
+        Partition partition = partitions.computeIfAbsent(name, Partition::new);
+        lock.lock();
+        try {
+            partition.reserved = pool.getReserved();
+            partition.max = pool.getMax() > 0 ? Math.max(pool.getMax(), pool.getReserved()) : Integer.MAX_VALUE;
+            partition.leaseTimeout = pool.getLeaseTimeout();
+            partition.route = route(url);
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        int reserved = reserved();
+        if (reserved > capacity()) {
+            log.warn("feign clients reserve {} connections out of a pool of {}", reserved, capacity());
+        }
+        int routeReserved = routeReserved(partition.route);
+        if (routeReserved > routeCapacity()) {
+            log.warn("feign clients reserve {} connections to {} out of {} per route", routeReserved,
+                    partition.route, routeCapacity());
+        }
+        return new PartitionedClient(client, this, partition);
+    }
+
+    /**
+     * Take a connection of the partition, reserved or borrowed.
+     * @throws ConnectionPoolTimeoutException if none is available within the lease timeout.
+     */
+    void acquire(Partition partition) throws ConnectionPoolTimeoutException, InterruptedException {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            long timeout = partition.leaseTimeout.toNanos();
+            long remaining = timeout;
+            partition.waiting++;
+            try {
+                while (!tryAcquire(partition)) {
+                    if (timeout <= 0) {
+                        released.await();
+                    } else if (remaining <= 0) {
+                        partition.timeouts++;
+                        throw new ConnectionPoolTimeoutException("Timeout waiting for a connection of feign client "
+                                + partition.name);
+                    } else {
+                        remaining = released.awaitNanos(remaining);
+                    }
+                }
+            } finally {
+                partition.waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+        partition.leaseWait.record(System.nanoTime() - start);
+    }
+
+    private boolean tryAcquire(Partition partition) {
+        int routeLeased = 0;
+        int routeBorrowed = 0;
+        for (Partition other : partitions.values()) {
+            if (other.route.equals(partition.route)) {
+                routeLeased += other.leased;
+                routeBorrowed += Math.max(other.leased - other.reserved, 0);
+            }
+        }
+        if (routeLeased >= routeCapacity()) {
+            return false;
+        }
+        if (partition.leased < partition.reserved) {
+            partition.leased++;
+            return true;
+        }
+        if (partition.leased < partition.max && borrowed < capacity() - reserved()
+                && routeBorrowed < routeCapacity() - routeReserved(partition.route)) {
+            partition.leased++;
+            borrowed++;
+            return true;
+        }
+        return false;
+    }
+
+    void release(Partition partition) {
+        lock.lock();
+        try {
+            if (partition.leased > partition.reserved) {
+                borrowed--;
+            }
+            partition.leased--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int capacity() {
+        return properties.getHttpClient().getMaxConnections();
+    }
+
+    private int routeCapacity() {
+        return properties.getHttpClient().getMaxConnectionsPerRoute();
+    }
+
+    private int reserved() {
+        int reserved = 0;
+        for (Partition partition : partitions.values()) {
+            reserved += partition.reserved;
+        }
+        return reserved;
+    }
+
+    private int routeReserved(String route) {
+        int reserved = 0;
+        for (Partition partition : partitions.values()) {
+            if (partition.route.equals(route)) {
+                reserved += partition.reserved;
+            }
+        }
+        return reserved;
+    }
+
+    /**
+     * @return route of the url in the pool, i.e. its scheme, host and port.
+     */
+    static String route(String url) {
+        if (url == null) {
+            return "";
+        }
+        try {
+            URI uri = URI.create(url);
+            String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : "http";
+            int port = uri.getPort() > 0 ? uri.getPort() : "https".equals(scheme) ? 443 : 80;
+            return uri.getHost() != null ? scheme + "://" + uri.getHost().toLowerCase(Locale.ROOT) + ":" + port
+                    : url;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    /**
+     * @return partitions by bean name of feign client.
+     */
+    public Map<String, Partition> getPartitions() {
+        return Collections.unmodifiableMap(partitions);
+    }
+
+    /**
+     * Partition of a feign client, its counters being guarded by the lock of the partitions.
+     */
+    public static class Partition {
+
+        private final String name;
+
+        private final LatencyRecorder leaseWait = new LatencyRecorder(TimeUnit.MINUTES.toMillis(1), 6);
+
+        private int reserved;
+
+        private int max;
+
+        private Duration leaseTimeout = Duration.ZERO;
+
+        private String route = "";
+
+        private int leased;
+
+        private int waiting;
+
+        private long timeouts;
+
+        Partition(String name) {
+            this.name = name;
+        }
+
+        public int getReserved() {
+            return reserved;
+        }
+
+        public int getMax() {
+            return max;
+        }
+
+        /**
+         * @return scheme, host and port of the feign client, whose connections are bounded per route.
+         */
+        public String getRoute() {
+            return route;
+        }
+
+        public int getLeased() {
+            return leased;
+        }
+
+        public int getWaiting() {
+            return waiting;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        /**
+         * @return time waited for a connection over the last minute.
+         */
+        public LatencyRecorder getLeaseWait() {
+            return leaseWait;
+        }
+
+    }
+
+}
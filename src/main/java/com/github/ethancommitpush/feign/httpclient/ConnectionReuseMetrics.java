@@ -0,0 +1,133 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.httpclient;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.config.ConnectionConfig;
+import org.apache.http.conn.HttpConnectionFactory;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.ManagedHttpClientConnectionFactory;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts per host the requests of the default http client, the connections it opens and the requests
+ * retried on a stale connection, to tell how often connections are reused. It's the connection factory of
+ * the connection manager and a request interceptor of the http client.
+ */
+public class ConnectionReuseMetrics implements HttpConnectionFactory<HttpRoute, ManagedHttpClientConnection>,
+        HttpRequestInterceptor {
+
+    private final HttpConnectionFactory<HttpRoute, ManagedHttpClientConnection> delegate;
+
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+
+    public ConnectionReuseMetrics() {
+        this(ManagedHttpClientConnectionFactory.INSTANCE);
+    }
+
+    public ConnectionReuseMetrics(HttpConnectionFactory<HttpRoute, ManagedHttpClientConnection> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ManagedHttpClientConnection create(HttpRoute route, ConnectionConfig config) {
+        host(route.getTargetHost()).newConnections.increment();
+        return delegate.create(route, config);
+    }
+
+    @Override
+    public void process(HttpRequest request, HttpContext context) {
+        Object target = context.getAttribute(HttpCoreContext.HTTP_TARGET_HOST);
+        if (target instanceof HttpHost) {
+            host((HttpHost) target).requests.increment();
+        }
+    }
+
+    void staleRetry(HttpHost target) {
+        host(target).staleRetries.increment();
+    }
+
+    /**
+     * The route has the default port of the scheme resolved, the request target not.
+     */
+    private Host host(HttpHost target) {
+        int port = target.getPort() >= 0 ? target.getPort()
+                : "https".equalsIgnoreCase(target.getSchemeName()) ? 443 : 80;
+        return hosts.computeIfAbsent(target.getSchemeName() + "://" + target.getHostName() + ":" + port,
+                key -> new Host());
+    }
+
+    /**
+     * @return the counters by host uri, e.g. https://api.example.com:443.
+     */
+    public Map<String, Host> getHosts() {
+        return Collections.unmodifiableMap(hosts);
+    }
+
+    /**
+     * Counters of a host.
+     */
+    public static class Host {
+
+        private final LongAdder requests = new LongAdder();
+
+        private final LongAdder newConnections = new LongAdder();
+
+        private final LongAdder staleRetries = new LongAdder();
+
+        public long getRequests() {
+            return requests.sum();
+        }
+
+        public long getNewConnections() {
+            return newConnections.sum();
+        }
+
+        public long getStaleRetries() {
+            return staleRetries.sum();
+        }
+
+        /**
+         * @return share of the requests sent on a connection opened for a previous one, zero without requests.
+         */
+        public double getReuseRatio() {
+            long count = getRequests();
+            return count > 0 ? Math.max(0, count - getNewConnections()) / (double) count : 0;
+        }
+
+        /**
+         * @return state for monitoring.
+         */
+        public Map<String, Object> snapshot() {
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("requests", getRequests());
+            snapshot.put("newConnections", getNewConnections());
+            snapshot.put("staleRetries", getStaleRetries());
+            snapshot.put("reuseRatio", getReuseRatio());
+            return snapshot;
+        }
+
+    }
+
+}
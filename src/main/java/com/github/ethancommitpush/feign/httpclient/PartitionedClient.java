@@ -0,0 +1,63 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.httpclient;
+
+import com.github.ethancommitpush.feign.client.ReleasingBody;
+
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+/**
+ * {@link Client} which holds a connection of the partition of its feign client from the request until the
+ * response body is read to its end or closed, as the connection of the pool itself.
+ */
+public class PartitionedClient implements Client {
+
+    private final Client delegate;
+
+    private final ConnectionPartitions partitions;
+
+    private final ConnectionPartitions.Partition partition;
+
+    public PartitionedClient(Client delegate, ConnectionPartitions partitions,
+                             ConnectionPartitions.Partition partition) {
+        this.delegate = delegate;
+        this.partitions = partitions;
+        this.partition = partition;
+    }
+
+    @Override
+    public Response execute(Request request, Options options) throws IOException {
+        try {
+            partitions.acquire(partition);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a connection");
+        }
+        Response response;
+        try {
+            response = delegate.execute(request, options);
+        } catch (IOException | RuntimeException | Error e) {
+            partitions.release(partition);
+            throw e;
+        }
+        return ReleasingBody.wrap(response, () -> partitions.release(partition));
+    }
+
+}
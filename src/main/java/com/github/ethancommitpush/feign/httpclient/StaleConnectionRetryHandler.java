@@ -0,0 +1,86 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.httpclient;
+
+import org.apache.http.HttpRequest;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.HttpRequestRetryHandler;
+import org.apache.http.client.methods.HttpRequestWrapper;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Retries a request failing on a connection the server already closed, as when a load balancer dropped it
+ * while idle: no response at all, or the socket reset while sending. Only idempotent requests are retried,
+ * unless nothing was sent yet. Any other failure is left to the retryer of the feign client, so requests
+ * are not retried twice over.
+ */
+public class StaleConnectionRetryHandler implements HttpRequestRetryHandler {
+
+    private static final Set<String> IDEMPOTENT_METHODS = new HashSet<>(
+            Arrays.asList("GET", "HEAD", "OPTIONS", "TRACE", "PUT", "DELETE"));
+
+    private final int maxRetries;
+
+    private final ConnectionReuseMetrics metrics;
+
+    /**
+     * @param maxRetries max retries of a request.
+     * @param metrics counts the retries, may be null.
+     */
+    public StaleConnectionRetryHandler(int maxRetries, ConnectionReuseMetrics metrics) {
+        this.maxRetries = maxRetries;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean retryRequest(IOException exception, int executionCount, HttpContext context) {
+        if (executionCount > maxRetries) {
+            return false;
+        }
+        if (!(exception instanceof NoHttpResponseException)
+                && (!(exception instanceof SocketException) || exception instanceof ConnectException)) {
+            return false;
+        }
+        HttpClientContext clientContext = HttpClientContext.adapt(context);
+        if (clientContext.isRequestSent() && !isIdempotent(clientContext.getRequest())) {
+            return false;
+        }
+        if (metrics != null && clientContext.getTargetHost() != null) {
+            metrics.staleRetry(clientContext.getTargetHost());
+        }
+        return true;
+    }
+
+    private static boolean isIdempotent(HttpRequest request) {
+        if (request instanceof HttpRequestWrapper) {
+            request = ((HttpRequestWrapper) request).getOriginal();
+        }
+        if (request instanceof HttpUriRequest && ((HttpUriRequest) request).isAborted()) {
+            return false;
+        }
+        return request != null
+                && IDEMPOTENT_METHODS.contains(request.getRequestLine().getMethod().toUpperCase(Locale.ROOT));
+    }
+
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.httpclient;
+
+import com.github.ethancommitpush.feign.encoder.StreamingBody;
+import com.github.ethancommitpush.feign.encoder.StreamingScope;
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+import feign.httpclient.ApacheHttpClient;
+
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * {@link Client} sending requests as {@link ApacheHttpClient} does, except that it streams the request body left by the
+ * {@link com.github.ethancommitpush.feign.encoder.StreamingJacksonEncoder} for the current call, serialized
+ * straight into the connection with chunked transfer encoding. The body of an {@link java.util.Iterator} or a
+ * {@link java.util.stream.Stream} being consumed by the first attempt, a failure once it was written is thrown
+ * as an {@link UncheckedIOException}, which Feign does not retry.
+ */
+public class StreamingApacheHttpClient implements Client {
+
+    private final ApacheHttpClient delegate;
+
+    public StreamingApacheHttpClient(HttpClient httpClient) {
+        this.delegate = new ApacheHttpClient(new EntityStreamingHttpClient(httpClient));
+    }
+
+    @Override
+    public Response execute(Request request, Options options) throws IOException {
+        try {
+            return delegate.execute(request, options);
+        } catch (IOException e) {
+            StreamingBody body = StreamingScope.body();
+            if (body != null && body.isWritten()) {
+                throw new UncheckedIOException("Request body of " + request.httpMethod() + " " + request.url()
+                        + " was consumed, not retried", e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Replaces the empty entity set by {@link ApacheHttpClient} with the body to stream, if any.
+     */
+    private static class EntityStreamingHttpClient extends CloseableHttpClient {
+
+        private final HttpClient delegate;
+
+        EntityStreamingHttpClient(HttpClient delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        protected CloseableHttpResponse doExecute(HttpHost target, HttpRequest request, HttpContext context)
+                throws IOException {
+            StreamingBody body = StreamingScope.body();
+            if (body != null && request instanceof HttpEntityEnclosingRequest) {
+                ((HttpEntityEnclosingRequest) request).setEntity(new StreamingEntity(body));
+            }
+            return (CloseableHttpResponse) delegate.execute(target, request, context);
+        }
+
+        /**
+         * The delegate is closed by its owner.
+         */
+        @Override
+        public void close() {
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public org.apache.http.params.HttpParams getParams() {
+            return delegate.getParams();
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public org.apache.http.conn.ClientConnectionManager getConnectionManager() {
+            return delegate.getConnectionManager();
+        }
+
+    }
+
+    private static class StreamingEntity extends AbstractHttpEntity {
+
+        private final StreamingBody body;
+
+        StreamingEntity(StreamingBody body) {
+            this.body = body;
+            setChunked(true);
+            setContentType(body.getContentType());
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return body.isRepeatable();
+        }
+
+        @Override
+        public long getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new ByteArrayInputStream(body.toByteArray());
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            body.writeTo(out);
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return false;
+        }
+
+    }
+
+}
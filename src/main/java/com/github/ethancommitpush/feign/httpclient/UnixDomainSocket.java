@@ -0,0 +1,316 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.httpclient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.ProtocolFamily;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Socket} over an {@code AF_UNIX} {@link SocketChannel} of Java 16+, so Apache HttpClient pools
+ * connections to a unix domain socket as to a TCP one. The channel is non-blocking and waits on a selector
+ * to honor the read timeout. Options specific to TCP are ignored.
+ */
+public class UnixDomainSocket extends Socket {
+
+    private static final ProtocolFamily UNIX;
+    private static final Method OPEN;
+    private static final Method ADDRESS_OF;
+
+    static {
+        ProtocolFamily unix = null;
+        Method open = null;
+        Method addressOf = null;
+        try {
+            // Compiled for Java 8
+            unix = StandardProtocolFamily.valueOf("UNIX");
+            open = SocketChannel.class.getMethod("open", ProtocolFamily.class);
+            addressOf = Class.forName("java.net.UnixDomainSocketAddress").getMethod("of", String.class);
+        } catch (IllegalArgumentException | ReflectiveOperationException e) {
+            unix = null;
+        }
+        UNIX = unix;
+        OPEN = unix != null ? open : null;
+        ADDRESS_OF = unix != null ? addressOf : null;
+    }
+
+    private final String path;
+
+    private SocketChannel channel;
+
+    private Selector selector;
+
+    private SelectionKey key;
+
+    private SocketAddress address;
+
+    private volatile int soTimeout;
+
+    private volatile boolean closed;
+
+    private final InputStream inputStream = new InputStream() {
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int n = read(b, 0, 1);
+            return n < 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return len == 0 ? 0 : UnixDomainSocket.this.read(ByteBuffer.wrap(b, off, len));
+        }
+
+        @Override
+        public void close() throws IOException {
+            UnixDomainSocket.this.close();
+        }
+    };
+
+    private final OutputStream outputStream = new OutputStream() {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            UnixDomainSocket.this.write(ByteBuffer.wrap(b, off, len));
+        }
+
+        @Override
+        public void close() throws IOException {
+            UnixDomainSocket.this.close();
+        }
+    };
+
+    public UnixDomainSocket(String path) {
+        this.path = path;
+    }
+
+    /**
+     * @return whether unix domain sockets are supported by the JVM, i.e. Java 16+.
+     */
+    public static boolean isSupported() {
+        return UNIX != null;
+    }
+
+    /**
+     * Connect to the unix domain socket, which is immediate or fails.
+     */
+    public void open() throws IOException {
+        if (!isSupported()) {
+            throw new SocketException("Unix domain sockets require Java 16+");
+        }
+        try {
+            address = (SocketAddress) ADDRESS_OF.invoke(null, path);
+            channel = (SocketChannel) OPEN.invoke(null, UNIX);
+        } catch (IllegalAccessException e) {
+            throw new SocketException(e.toString());
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new SocketException(cause.toString());
+        }
+        try {
+            channel.connect(address);
+            channel.configureBlocking(false);
+            selector = Selector.open();
+            key = channel.register(selector, 0);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private int read(ByteBuffer buffer) throws IOException {
+        ensureOpen();
+        int timeout = soTimeout;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        while (true) {
+            int n = channel.read(buffer);
+            if (n != 0) {
+                return n;
+            }
+            long remaining = 0;
+            if (timeout > 0) {
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    throw new SocketTimeoutException("Read timed out");
+                }
+                // Rounded up, not to time out before the deadline
+                remaining = TimeUnit.NANOSECONDS.toMillis(remainingNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1);
+            }
+            await(SelectionKey.OP_READ, remaining);
+        }
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        ensureOpen();
+        while (buffer.hasRemaining()) {
+            if (channel.write(buffer) == 0) {
+                // No write timeout, as a blocking socket
+                await(SelectionKey.OP_WRITE, 0);
+            }
+        }
+    }
+
+    private void await(int ops, long timeoutMillis) throws IOException {
+        try {
+            key.interestOps(ops);
+            selector.selectedKeys().clear();
+            selector.select(timeoutMillis);
+        } catch (ClosedSelectorException | CancelledKeyException e) {
+            throw new SocketException("Socket closed");
+        }
+    }
+
+    private void ensureOpen() throws SocketException {
+        if (closed || channel == null) {
+            throw new SocketException(closed ? "Socket closed" : "Socket not connected");
+        }
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        ensureOpen();
+        return inputStream;
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        ensureOpen();
+        return outputStream;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (selector != null) {
+                selector.close();
+            }
+        } finally {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+
+    @Override
+    public void shutdownInput() throws IOException {
+        ensureOpen();
+        channel.shutdownInput();
+    }
+
+    @Override
+    public void shutdownOutput() throws IOException {
+        ensureOpen();
+        channel.shutdownOutput();
+    }
+
+    @Override
+    public boolean isConnected() {
+        return channel != null;
+    }
+
+    @Override
+    public boolean isBound() {
+        return channel != null;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public boolean isInputShutdown() {
+        return closed;
+    }
+
+    @Override
+    public boolean isOutputShutdown() {
+        return closed;
+    }
+
+    @Override
+    public SocketAddress getRemoteSocketAddress() {
+        return address;
+    }
+
+    @Override
+    public SocketAddress getLocalSocketAddress() {
+        return null;
+    }
+
+    @Override
+    public void setSoTimeout(int timeout) {
+        this.soTimeout = timeout;
+    }
+
+    @Override
+    public int getSoTimeout() {
+        return soTimeout;
+    }
+
+    @Override
+    public void setTcpNoDelay(boolean on) {
+    }
+
+    @Override
+    public void setKeepAlive(boolean on) {
+    }
+
+    @Override
+    public void setReuseAddress(boolean on) {
+    }
+
+    @Override
+    public void setSoLinger(boolean on, int linger) {
+    }
+
+    @Override
+    public void setSendBufferSize(int size) {
+    }
+
+    @Override
+    public void setReceiveBufferSize(int size) {
+    }
+
+    @Override
+    public String toString() {
+        return "UnixDomainSocket[" + path + "]";
+    }
+
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.httpclient;
+
+import feign.Client;
+import feign.httpclient.ApacheHttpClient;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Http clients of the feign clients whose url is a unix domain socket, e.g. {@code unix:///var/run/agent.sock},
+ * one with its own connection pool per socket, shared by the feign clients of the same socket. Requests are
+ * sent to {@link #TARGET_URL}, so with {@code localhost} as their {@code Host} header.
+ */
+public class UnixDomainSocketClients implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(UnixDomainSocketClients.class);
+
+    private static final String SCHEME = "unix:";
+
+    /** Url of the feign clients of a unix domain socket, whose host is not resolved. */
+    public static final String TARGET_URL = "http://localhost";
+
+    private final int maxConnections;
+
+    private final ConcurrentMap<String, CloseableHttpClient> httpClients = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, PoolingHttpClientConnectionManager> connectionManagers =
+            new ConcurrentHashMap<>();
+
+    /**
+     * @param maxConnections max connections of the pool of each socket.
+     */
+    public UnixDomainSocketClients(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public static boolean isUnixDomainSocket(String url) {
+        return url != null && url.startsWith(SCHEME);
+    }
+
+    /**
+     * @param url url of a unix domain socket, e.g. {@code unix:///var/run/agent.sock}.
+     * @return path of the socket, e.g. {@code /var/run/agent.sock}.
+     */
+    public static String getPath(String url) {
+        String path = url.substring(SCHEME.length());
+        return path.startsWith("//") ? path.substring(2) : path;
+    }
+
+    /**
+     * Get the http client of the unix domain socket, creating it on first use.
+     * @param url url of the unix domain socket.
+     * @return http client.
+     */
+    public Client getClient(String url) {
+        if (!UnixDomainSocket.isSupported()) {
+            throw new IllegalStateException("Unix domain sockets require Java 16+: " + url);
+        }
+        String path = getPath(url);
+        return new ApacheHttpClient(httpClients.computeIfAbsent(path, this::createHttpClient));
+    }
+
+    private CloseableHttpClient createHttpClient(String path) {
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", new UnixDomainSocketFactory(path))
+                .build();
+        // Every host is the socket
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(registry,
+                host -> new InetAddress[] { InetAddress.getLoopbackAddress() });
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        connectionManagers.put(path, connectionManager);
+        log.info("unix domain socket {}: pool of {} connections", path, maxConnections);
+        return HttpClients.custom().setConnectionManager(connectionManager).build();
+    }
+
+    /**
+     * @return connection pools by socket path.
+     */
+    public Map<String, PoolingHttpClientConnectionManager> getConnectionManagers() {
+        return Collections.unmodifiableMap(connectionManagers);
+    }
+
+    @Override
+    public void close() {
+        httpClients.forEach((path, httpClient) -> {
+            try {
+                httpClient.close();
+            } catch (IOException e) {
+                log.warn("failed to close the http client of unix domain socket {}", path, e);
+            }
+        });
+        httpClients.clear();
+        connectionManagers.clear();
+    }
+
+}
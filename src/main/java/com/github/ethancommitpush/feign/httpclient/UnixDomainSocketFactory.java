@@ -0,0 +1,49 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.httpclient;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * {@link ConnectionSocketFactory} which connects to a unix domain socket whatever the host of the request.
+ */
+public class UnixDomainSocketFactory implements ConnectionSocketFactory {
+
+    private final String path;
+
+    public UnixDomainSocketFactory(String path) {
+        this.path = path;
+    }
+
+    @Override
+    public Socket createSocket(HttpContext context) {
+        return new UnixDomainSocket(path);
+    }
+
+    @Override
+    public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+            InetSocketAddress localAddress, HttpContext context) throws IOException {
+        UnixDomainSocket unixDomainSocket = socket instanceof UnixDomainSocket
+                ? (UnixDomainSocket) socket : new UnixDomainSocket(path);
+        unixDomainSocket.open();
+        return unixDomainSocket;
+    }
+
+}
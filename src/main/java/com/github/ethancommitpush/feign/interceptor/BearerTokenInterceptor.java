@@ -0,0 +1,136 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.interceptor;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RequestInterceptor} which adds an {@code Authorization: Bearer} header with a cached token. The
+ * token is refreshed in the background ahead of its expiry, so calls never wait for a token fetch except
+ * the very first one. A failed refresh keeps the current token and is retried after the retry interval.
+ */
+public class BearerTokenInterceptor implements RequestInterceptor, Closeable {
+    private static final Logger log = LoggerFactory.getLogger(BearerTokenInterceptor.class);
+
+    /**
+     * Fetches a new token, e.g. from an OAuth2 token endpoint.
+     */
+    @FunctionalInterface
+    public interface TokenSource {
+
+        Token fetch() throws Exception;
+
+    }
+
+    public static class Token {
+
+        private final String value;
+
+        private final Instant expiresAt;
+
+        public Token(String value, Instant expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public Instant getExpiresAt() {
+            return expiresAt;
+        }
+
+    }
+
+    private final TokenSource tokenSource;
+
+    private final Duration refreshAhead;
+
+    private final Duration retryInterval;
+
+    private final ScheduledExecutorService scheduler;
+
+    private volatile String header;
+
+    private boolean refreshing;
+
+    /**
+     * @param tokenSource source of the tokens.
+     * @param refreshAhead how long before the expiry of a token to refresh it.
+     * @param retryInterval how long to wait before retrying a failed refresh.
+     */
+    public BearerTokenInterceptor(TokenSource tokenSource, Duration refreshAhead, Duration retryInterval) {
+        this.tokenSource = tokenSource;
+        this.refreshAhead = refreshAhead;
+        this.retryInterval = retryInterval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "feign-bearer-token");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void apply(RequestTemplate template) {
+        String header = this.header;
+        if (header == null) {
+            header = fetchFirst();
+        }
+        template.header("Authorization", header);
+    }
+
+    private synchronized String fetchFirst() {
+        if (!refreshing) {
+            refreshing = true;
+            refresh();
+        }
+        if (header == null) {
+            throw new IllegalStateException("failed to fetch the bearer token");
+        }
+        return header;
+    }
+
+    private void refresh() {
+        long delay;
+        try {
+            Token token = tokenSource.fetch();
+            header = "Bearer " + token.getValue();
+            delay = Duration.between(Instant.now(), token.getExpiresAt()).minus(refreshAhead).toMillis();
+        } catch (Exception e) {
+            log.warn("failed to refresh the bearer token, retry in {}", retryInterval, e);
+            delay = retryInterval.toMillis();
+        }
+        if (!scheduler.isShutdown()) {
+            scheduler.schedule(this::refresh, Math.max(delay, retryInterval.toMillis()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.interceptor;
+
+import feign.Contract;
+import feign.MethodMetadata;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link Contract} which adds static headers to the template of every method once, when the feign client
+ * is built, instead of a {@link feign.RequestInterceptor} adding them on every call. Headers declared on
+ * the method or the interface take precedence.
+ */
+public class StaticHeadersContract implements Contract {
+
+    private final Contract delegate;
+
+    private final Map<String, Collection<String>> headers;
+
+    public StaticHeadersContract(Contract delegate, Map<String, Collection<String>> headers) {
+        this.delegate = delegate;
+        this.headers = headers;
+    }
+
+    @Override
+    public List<MethodMetadata> parseAndValidateMetadata(Class<?> targetType) {
+        List<MethodMetadata> metadata = delegate.parseAndValidateMetadata(targetType);
+        for (MethodMetadata md : metadata) {
+            headers.forEach((name, values) -> {
+                if (!md.template().headers().containsKey(name)) {
+                    md.template().header(name, values);
+                }
+            });
+        }
+        return metadata;
+    }
+
+}
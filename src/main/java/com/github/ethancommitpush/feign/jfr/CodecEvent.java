@@ -0,0 +1,57 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Encoding of a request body or decoding of a response body by a feign client.
+ */
+@Name("com.github.ethancommitpush.feign.Codec")
+@Label("Feign Codec")
+@Category("Feign")
+@Description("Encoding of a request body or decoding of a response body by a feign client.")
+@StackTrace(false)
+@Threshold("1 ms")
+class CodecEvent extends Event {
+
+    @Label("Client")
+    @Description("Bean name of the feign client")
+    String client;
+
+    @Label("Method")
+    @Description("Config key of the method of the feign client")
+    String configKey;
+
+    @Label("Operation")
+    @Description("encode or decode")
+    String operation;
+
+    @Label("Type")
+    @Description("Type of the body")
+    String type;
+
+    @Label("Bytes")
+    @Description("Size of the encoded body, or Content-Length of the decoded one, -1 if unknown")
+    @DataAmount
+    long bytes;
+
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * An HTTP exchange of a feign client, from sending the request to receiving the response headers.
+ */
+@Name("com.github.ethancommitpush.feign.Call")
+@Label("Feign Call")
+@Category("Feign")
+@Description("An HTTP exchange of a feign client, from sending the request to receiving the response headers.")
+@StackTrace(false)
+@Threshold("10 ms")
+class FeignCallEvent extends Event {
+
+    @Label("Client")
+    @Description("Bean name of the feign client")
+    String client;
+
+    @Label("Method")
+    @Description("Config key of the method of the feign client")
+    String configKey;
+
+    @Label("HTTP Method")
+    String method;
+
+    @Label("Host")
+    String host;
+
+    @Label("Status")
+    @Description("Status of the response, zero if it failed")
+    int status;
+
+    @Label("Request Bytes")
+    @Description("Size of the request body, -1 if none or streamed")
+    @DataAmount
+    long requestBytes;
+
+    @Label("Response Bytes")
+    @Description("Content-Length of the response, -1 if unknown")
+    @DataAmount
+    long responseBytes;
+
+    @Label("Error")
+    @Description("Class of the exception the exchange failed with")
+    String error;
+
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.jfr;
+
+import com.github.ethancommitpush.feign.async.AsyncClient;
+import com.github.ethancommitpush.feign.client.ClientDecorator;
+import feign.Client;
+import feign.RequestTemplate;
+import feign.Retryer;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
+
+import org.apache.http.config.Registry;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.HttpConnectionFactory;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import org.springframework.core.Ordered;
+
+import java.lang.reflect.Type;
+
+/**
+ * Emits JDK Flight Recorder events for the feign clients: each HTTP exchange, each wait for a connection of
+ * the default pool, each encoding and decoding and each retry. Their http clients, encoders, decoders and
+ * retryers are decorated when built, and each decoration emits nothing but checks whether its event is
+ * enabled when no recording asks for it. See feign.jfc for the settings of the events.
+ */
+public class FeignFlightRecorder implements ClientDecorator, Ordered {
+
+    @Override
+    public Client decorate(String name, Class<?> apiType, Client client) {
+        return new JfrClient(client, name);
+    }
+
+    @Override
+    public AsyncClient decorateAsync(String name, Class<?> apiType, AsyncClient client) {
+        return new JfrAsyncClient(client, name);
+    }
+
+    /**
+     * @param name bean name of the feign client.
+     * @param encoder encoder to decorate.
+     * @return encoder emitting a {@link CodecEvent} for each request body.
+     */
+    public Encoder encoder(String name, Encoder encoder) {
+        return (object, bodyType, template) -> {
+            CodecEvent event = new CodecEvent();
+            if (!event.isEnabled()) {
+                encoder.encode(object, bodyType, template);
+                return;
+            }
+            event.begin();
+            try {
+                encoder.encode(object, bodyType, template);
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    commit(event, name, template, "encode", bodyType,
+                            template.body() != null ? template.body().length : -1);
+                }
+            }
+        };
+    }
+
+    /**
+     * @param name bean name of the feign client.
+     * @param decoder decoder to decorate.
+     * @return decoder emitting a {@link CodecEvent} for each response body.
+     */
+    public Decoder decoder(String name, Decoder decoder) {
+        return (response, type) -> {
+            CodecEvent event = new CodecEvent();
+            if (!event.isEnabled()) {
+                return decoder.decode(response, type);
+            }
+            event.begin();
+            try {
+                return decoder.decode(response, type);
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    commit(event, name, response.request() != null ? response.request().requestTemplate() : null,
+                            "decode", type, response.body() != null && response.body().length() != null
+                                    ? response.body().length() : -1);
+                }
+            }
+        };
+    }
+
+    /**
+     * @param name bean name of the feign client.
+     * @param retryer retryer to decorate.
+     * @return retryer emitting a {@link RetryEvent} for each failed attempt.
+     */
+    public Retryer retryer(String name, Retryer retryer) {
+        return new JfrRetryer(retryer, name);
+    }
+
+    /**
+     * @return connection manager emitting a {@link PoolLeaseEvent} for each wait for a connection.
+     */
+    public PoolingHttpClientConnectionManager connectionManager(Registry<ConnectionSocketFactory> registry,
+            HttpConnectionFactory<HttpRoute, ManagedHttpClientConnection> connectionFactory, DnsResolver dnsResolver) {
+        return new JfrConnectionManager(registry, connectionFactory, dnsResolver);
+    }
+
+    private static void commit(CodecEvent event, String name, RequestTemplate template, String operation,
+                               Type type, long bytes) {
+        event.client = name;
+        event.configKey = configKey(template);
+        event.operation = operation;
+        event.type = type != null ? type.getTypeName() : null;
+        event.bytes = bytes;
+        event.commit();
+    }
+
+    static String configKey(RequestTemplate template) {
+        return template != null && template.methodMetadata() != null ? template.methodMetadata().configKey() : null;
+    }
+
+    static String host(String url) {
+        int start = url.indexOf("://");
+        start = start < 0 ? 0 : start + 3;
+        int end = start;
+        while (end < url.length() && url.charAt(end) != '/' && url.charAt(end) != '?') {
+            end++;
+        }
+        return url.substring(start, end);
+    }
+
+    /**
+     * Innermost, so an exchange does not include the waits for a rate limit or an admission.
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.jfr;
+
+import com.github.ethancommitpush.feign.async.AsyncClient;
+
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link AsyncClient} which emits a {@link FeignCallEvent} for each exchange, from the send of the request
+ * to its completion, when the event is enabled in a recording.
+ */
+class JfrAsyncClient implements AsyncClient {
+
+    private final AsyncClient delegate;
+
+    private final String name;
+
+    JfrAsyncClient(AsyncClient delegate, String name) {
+        this.delegate = delegate;
+        this.name = name;
+    }
+
+    @Override
+    public CompletableFuture<Response> execute(Request request, Options options) {
+        FeignCallEvent event = new FeignCallEvent();
+        if (!event.isEnabled()) {
+            return delegate.execute(request, options);
+        }
+        event.begin();
+        return AsyncClient.whenComplete(delegate.execute(request, options), (response, e) -> {
+            if (e != null) {
+                event.error = e.getClass().getName();
+            }
+            JfrClient.commit(event, name, request, response);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> stream(Request request, Options options, BodyHandler handler) {
+        FeignCallEvent event = new FeignCallEvent();
+        if (!event.isEnabled()) {
+            return delegate.stream(request, options, handler);
+        }
+        AtomicReference<Response> received = new AtomicReference<>();
+        BodyHandler recording = new BodyHandler() {
+            @Override
+            public void onResponse(Response response, InputControl control) throws IOException {
+                received.set(response);
+                handler.onResponse(response, control);
+            }
+
+            @Override
+            public void onContent(ByteBuffer content) throws IOException {
+                handler.onContent(content);
+            }
+        };
+        event.begin();
+        return AsyncClient.whenComplete(delegate.stream(request, options, recording), (r, e) -> {
+            if (e != null) {
+                event.error = e.getClass().getName();
+            }
+            JfrClient.commit(event, name, request, received.get());
+        });
+    }
+
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.jfr;
+
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+import java.io.IOException;
+
+/**
+ * {@link Client} which emits a {@link FeignCallEvent} for each exchange, when the event is enabled in a
+ * recording.
+ */
+class JfrClient implements Client {
+
+    private final Client delegate;
+
+    private final String name;
+
+    JfrClient(Client delegate, String name) {
+        this.delegate = delegate;
+        this.name = name;
+    }
+
+    @Override
+    public Response execute(Request request, Options options) throws IOException {
+        FeignCallEvent event = new FeignCallEvent();
+        if (!event.isEnabled()) {
+            return delegate.execute(request, options);
+        }
+        event.begin();
+        Response response = null;
+        try {
+            response = delegate.execute(request, options);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            event.error = e.getClass().getName();
+            throw e;
+        } finally {
+            commit(event, name, request, response);
+        }
+    }
+
+    /**
+     * End the event of the exchange of the request, and commit it when it lasted long enough.
+     */
+    static void commit(FeignCallEvent event, String name, Request request, Response response) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.client = name;
+            event.configKey = FeignFlightRecorder.configKey(request.requestTemplate());
+            event.method = request.httpMethod().name();
+            event.host = FeignFlightRecorder.host(request.url());
+            event.requestBytes = request.body() != null ? request.body().length : -1;
+            if (response != null) {
+                event.status = response.status();
+                event.responseBytes = response.body() != null && response.body().length() != null
+                        ? response.body().length() : -1;
+            }
+            event.commit();
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.jfr;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.HttpConnectionFactory;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PoolingHttpClientConnectionManager} which emits a {@link PoolLeaseEvent} for each wait for a
+ * connection, when the event is enabled in a recording.
+ */
+class JfrConnectionManager extends PoolingHttpClientConnectionManager {
+
+    JfrConnectionManager(Registry<ConnectionSocketFactory> registry,
+                         HttpConnectionFactory<HttpRoute, ManagedHttpClientConnection> connectionFactory,
+                         DnsResolver dnsResolver) {
+        super(registry, connectionFactory, dnsResolver);
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        ConnectionRequest request = super.requestConnection(route, state);
+        return new ConnectionRequest() {
+
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit unit)
+                    throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                PoolLeaseEvent event = new PoolLeaseEvent();
+                if (!event.isEnabled()) {
+                    return request.get(timeout, unit);
+                }
+                event.begin();
+                try {
+                    HttpClientConnection connection = request.get(timeout, unit);
+                    event.leased = true;
+                    return connection;
+                } finally {
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.route = route.getTargetHost().toURI();
+                        event.commit();
+                    }
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.jfr;
+
+import feign.RetryableException;
+import feign.Retryer;
+
+/**
+ * {@link Retryer} which emits a {@link RetryEvent} for each failed attempt, lasting the backoff of the
+ * retryer it decorates. Cloned for each call, as Feign does with retryers.
+ */
+class JfrRetryer implements Retryer {
+
+    private final Retryer delegate;
+
+    private final String name;
+
+    private int attempt = 1;
+
+    JfrRetryer(Retryer delegate, String name) {
+        this.delegate = delegate;
+        this.name = name;
+    }
+
+    @Override
+    public void continueOrPropagate(RetryableException e) {
+        RetryEvent event = new RetryEvent();
+        if (!event.isEnabled()) {
+            attempt++;
+            delegate.continueOrPropagate(e);
+            return;
+        }
+        event.begin();
+        try {
+            delegate.continueOrPropagate(e);
+            event.retried = true;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.client = name;
+                event.attempt = attempt;
+                event.status = e.status();
+                event.cause = e.getCause() != null ? e.getCause().getClass().getName() : e.getClass().getName();
+                if (e.hasRequest()) {
+                    event.method = e.request().httpMethod().name();
+                    event.host = FeignFlightRecorder.host(e.request().url());
+                }
+                event.commit();
+            }
+            attempt++;
+        }
+    }
+
+    @Override
+    public Retryer clone() {
+        return new JfrRetryer(delegate.clone(), name);
+    }
+
+}
@@ -0,0 +1,43 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A wait for a connection leased from the connection pool of the default http client.
+ */
+@Name("com.github.ethancommitpush.feign.PoolLease")
+@Label("Feign Pool Lease")
+@Category("Feign")
+@Description("A wait for a connection leased from the connection pool of the default http client.")
+@StackTrace(false)
+@Threshold("1 ms")
+class PoolLeaseEvent extends Event {
+
+    @Label("Route")
+    @Description("Target host of the route of the connection")
+    String route;
+
+    @Label("Leased")
+    @Description("Whether a connection was leased, false if the wait timed out or was interrupted")
+    boolean leased;
+
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A retry of a call of a feign client, lasting the backoff before the next attempt.
+ */
+@Name("com.github.ethancommitpush.feign.Retry")
+@Label("Feign Retry")
+@Category("Feign")
+@Description("A retry of a call of a feign client, lasting the backoff before the next attempt.")
+@StackTrace(false)
+@Threshold("0 ms")
+class RetryEvent extends Event {
+
+    @Label("Client")
+    @Description("Bean name of the feign client")
+    String client;
+
+    @Label("Attempt")
+    @Description("Number of the attempt that failed")
+    int attempt;
+
+    @Label("HTTP Method")
+    String method;
+
+    @Label("Host")
+    String host;
+
+    @Label("Status")
+    @Description("Status of the response, -1 if the request failed")
+    int status;
+
+    @Label("Retried")
+    @Description("Whether the call is retried, false once the retryer gives up")
+    boolean retried;
+
+    @Label("Cause")
+    String cause;
+
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.limit;
+
+import feign.Response;
+
+import org.apache.http.conn.EofSensorInputStream;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+
+/**
+ * {@link Response.Body} which counts the bytes read from the body it decorates, without buffering them. Once
+ * more than its max size is read, or right away when the Content-Length is larger, it aborts the connection
+ * instead of reading the rest to reuse it, and throws a {@link ResponseTooLargeException}.
+ */
+public class LimitedBody implements Response.Body {
+
+    private final Response.Body delegate;
+
+    private final long maxBytes;
+
+    private final String description;
+
+    private final Runnable onViolation;
+
+    private InputStream stream;
+
+    private volatile ResponseTooLargeException violation;
+
+    /**
+     * @param delegate the body to decorate.
+     * @param maxBytes max size of the body.
+     * @param description what the body is the response of, for the message of the exception.
+     * @param onViolation callback when the max size is exceeded, once.
+     */
+    public LimitedBody(Response.Body delegate, long maxBytes, String description, Runnable onViolation) {
+        this.delegate = delegate;
+        this.maxBytes = maxBytes;
+        this.description = description;
+        this.onViolation = onViolation;
+    }
+
+    /**
+     * @param response response.
+     * @return why the body of the response was not read to its end, null if it was not too large.
+     */
+    public static ResponseTooLargeException violation(Response response) {
+        return response.body() instanceof LimitedBody ? ((LimitedBody) response.body()).violation : null;
+    }
+
+    @Override
+    public Integer length() {
+        return delegate.length();
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return delegate.isRepeatable();
+    }
+
+    @Override
+    public InputStream asInputStream() throws IOException {
+        if (violation != null) {
+            throw violation;
+        }
+        if (stream == null) {
+            InputStream in = delegate.asInputStream();
+            Integer length = delegate.length();
+            if (length != null && length > maxBytes) {
+                throw exceeded(in, length + " bytes");
+            }
+            stream = new LimitedInputStream(in);
+        }
+        return stream;
+    }
+
+    @Override
+    public Reader asReader(Charset charset) throws IOException {
+        return new InputStreamReader(asInputStream(), charset);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            delegate.close();
+        } catch (IOException e) {
+            if (violation == null) {
+                throw e;
+            }
+        }
+    }
+
+    private ResponseTooLargeException exceeded(InputStream in, String size) {
+        if (in instanceof EofSensorInputStream) {
+            try {
+                ((EofSensorInputStream) in).abortConnection();
+            } catch (IOException ignored) {
+                // aborting closes the connection anyway
+            }
+        } else {
+            try {
+                in.close();
+            } catch (IOException ignored) {
+                // nothing else to release
+            }
+        }
+        violation = new ResponseTooLargeException("Body of " + description + " is larger than " + maxBytes
+                + " bytes, " + size, maxBytes);
+        onViolation.run();
+        return violation;
+    }
+
+    private class LimitedInputStream extends FilterInputStream {
+
+        private long count;
+
+        LimitedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                counted(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                counted(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            if (skipped > 0) {
+                counted(skipped);
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void counted(long n) throws IOException {
+            if (violation != null) {
+                throw violation;
+            }
+            count += n;
+            if (count > maxBytes) {
+                throw exceeded(in, "at least " + count + " bytes read");
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,208 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.limit;
+
+import com.github.ethancommitpush.feign.async.AsyncClient;
+
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link AsyncClient} which limits the size of the body of each response as {@link ResponseLimitClient} does.
+ * A buffered response is received through {@link AsyncClient#stream}, so its body is counted as it arrives and
+ * the exchange is aborted once it goes over its max size, instead of being buffered to its end.
+ */
+class ResponseLimitAsyncClient implements AsyncClient {
+
+    private final AsyncClient delegate;
+
+    private final long maxBytes;
+
+    private final long maxErrorBytes;
+
+    private final Runnable onViolation;
+
+    /**
+     * @param delegate the non-blocking http client to decorate.
+     * @param maxBytes max size of the body of a successful response, zero for no limit.
+     * @param maxErrorBytes max size of the body of an error response, zero for no limit.
+     * @param onViolation callback when a max size is exceeded.
+     */
+    ResponseLimitAsyncClient(AsyncClient delegate, long maxBytes, long maxErrorBytes, Runnable onViolation) {
+        this.delegate = delegate;
+        this.maxBytes = maxBytes;
+        this.maxErrorBytes = maxErrorBytes;
+        this.onViolation = onViolation;
+    }
+
+    @Override
+    public CompletableFuture<Response> execute(Request request, Options options) {
+        BufferingHandler buffering = new BufferingHandler(request);
+        CompletableFuture<Void> exchange = delegate.stream(request, options, buffering);
+        CompletableFuture<Response> result = new CompletableFuture<>();
+        exchange.whenComplete((r, e) -> {
+            if (e instanceof UnsupportedOperationException && buffering.response == null) {
+                // Buffered by the http client itself, checked once received
+                complete(result, delegate.execute(request, options), request);
+            } else if (e != null) {
+                result.completeExceptionally(e);
+            } else {
+                result.complete(buffering.response.toBuilder().body(buffering.body.toByteArray()).build());
+            }
+        });
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private void complete(CompletableFuture<Response> result, CompletableFuture<Response> exchange,
+                          Request request) {
+        exchange.whenComplete((response, e) -> {
+            if (e != null) {
+                result.completeExceptionally(e);
+                return;
+            }
+            long limit = limit(response);
+            if (limit > 0 && response.body() != null && response.body().length() != null
+                    && response.body().length() > limit) {
+                result.completeExceptionally(exceeded(request, response, limit, response.body().length()));
+            } else {
+                result.complete(response);
+            }
+        });
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> stream(Request request, Options options, BodyHandler handler) {
+        return delegate.stream(request, options, new LimitedHandler(request) {
+            @Override
+            public void onResponse(Response response, InputControl control) throws IOException {
+                super.onResponse(response, control);
+                handler.onResponse(response, control);
+            }
+
+            @Override
+            public void onContent(ByteBuffer content) throws IOException {
+                super.onContent(content);
+                handler.onContent(content);
+            }
+        });
+    }
+
+    private long limit(Response response) {
+        boolean error = response.status() < 200 || response.status() >= 300;
+        return error ? maxErrorBytes : maxBytes;
+    }
+
+    private ResponseTooLargeException exceeded(Request request, Response response, long limit, long size) {
+        onViolation.run();
+        return new ResponseTooLargeException("Body of " + response.status() + " response of "
+                + request.httpMethod() + " " + request.url() + " is larger than " + limit + " bytes, " + size
+                + " bytes", limit);
+    }
+
+    /**
+     * Counts the bytes of the body, and aborts the exchange once over the max size of the response, or right
+     * away when its Content-Length is larger.
+     */
+    private class LimitedHandler implements BodyHandler {
+
+        private final Request request;
+
+        Response response;
+
+        private long limit;
+
+        private long count;
+
+        LimitedHandler(Request request) {
+            this.request = request;
+        }
+
+        @Override
+        public void onResponse(Response response, InputControl control) throws IOException {
+            this.response = response;
+            this.limit = limit(response);
+            long length = contentLength(response);
+            if (limit > 0 && length > limit) {
+                throw exceeded(request, response, limit, length);
+            }
+        }
+
+        @Override
+        public void onContent(ByteBuffer content) throws IOException {
+            count += content.remaining();
+            if (limit > 0 && count > limit) {
+                throw exceeded(request, response, limit, count);
+            }
+        }
+
+    }
+
+    /**
+     * Buffers the body of the response within its max size.
+     */
+    private class BufferingHandler extends LimitedHandler {
+
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        BufferingHandler(Request request) {
+            super(request);
+        }
+
+        @Override
+        public void onContent(ByteBuffer content) throws IOException {
+            super.onContent(content);
+            if (content.hasArray()) {
+                body.write(content.array(), content.arrayOffset() + content.position(), content.remaining());
+                content.position(content.limit());
+            } else {
+                byte[] bytes = new byte[content.remaining()];
+                content.get(bytes);
+                body.write(bytes);
+            }
+        }
+
+    }
+
+    private static long contentLength(Response response) {
+        for (Map.Entry<String, Collection<String>> header : response.headers().entrySet()) {
+            if ("Content-Length".equalsIgnoreCase(header.getKey()) && !header.getValue().isEmpty()) {
+                try {
+                    return Long.parseLong(header.getValue().iterator().next().trim());
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.limit;
+
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+import java.io.IOException;
+
+/**
+ * {@link Client} which limits the size of the body of each response it returns, with a smaller max size for
+ * an error response, as Feign passes it to the error decoder.
+ */
+public class ResponseLimitClient implements Client {
+
+    private final Client delegate;
+
+    private final long maxBytes;
+
+    private final long maxErrorBytes;
+
+    private final Runnable onViolation;
+
+    /**
+     * @param delegate the http client to decorate.
+     * @param maxBytes max size of the body of a successful response, zero for no limit.
+     * @param maxErrorBytes max size of the body of an error response, zero for no limit.
+     * @param onViolation callback when a max size is exceeded.
+     */
+    public ResponseLimitClient(Client delegate, long maxBytes, long maxErrorBytes, Runnable onViolation) {
+        this.delegate = delegate;
+        this.maxBytes = maxBytes;
+        this.maxErrorBytes = maxErrorBytes;
+        this.onViolation = onViolation;
+    }
+
+    @Override
+    public Response execute(Request request, Options options) throws IOException {
+        Response response = delegate.execute(request, options);
+        boolean error = response.status() < 200 || response.status() >= 300;
+        long limit = error ? maxErrorBytes : maxBytes;
+        if (limit <= 0 || response.body() == null) {
+            return response;
+        }
+        String description = response.status() + " response of " + request.httpMethod() + " " + request.url();
+        return response.toBuilder().body(new LimitedBody(response.body(), limit, description, onViolation)).build();
+    }
+
+}
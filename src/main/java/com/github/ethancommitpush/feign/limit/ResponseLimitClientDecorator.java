@@ -0,0 +1,87 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.limit;
+
+import com.github.ethancommitpush.feign.FeignClientsProperties;
+import com.github.ethancommitpush.feign.async.AsyncClient;
+import com.github.ethancommitpush.feign.client.ClientDecorator;
+import feign.Client;
+
+import org.springframework.core.Ordered;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decorates the http client of each feign client with a {@link ResponseLimitClient}, when it has a max size
+ * configured by {@code feign.clients.<name>.max-response-bytes} or {@code max-error-response-bytes}, and counts
+ * the responses over it by name for monitoring. Outside the admission, so the error decoder gets its body.
+ * Its non-blocking http client is limited likewise by a {@link ResponseLimitAsyncClient}.
+ */
+public class ResponseLimitClientDecorator implements ClientDecorator, Ordered {
+
+    private final FeignClientsProperties properties;
+
+    private final Map<String, LongAdder> violations = new ConcurrentHashMap<>();
+
+    public ResponseLimitClientDecorator(FeignClientsProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Client decorate(String name, Class<?> apiType, Client client) {
+        FeignClientsProperties.ClientProperties clientProperties = properties.getClient(name);
+        long maxBytes = toBytes(clientProperties.getMaxResponseBytes());
+        long maxErrorBytes = toBytes(clientProperties.getMaxErrorResponseBytes());
+        if (maxBytes <= 0 && maxErrorBytes <= 0) {
+            return client;
+        }
+        LongAdder counter = violations.computeIfAbsent(name, key -> new LongAdder());
+        return new ResponseLimitClient(client, maxBytes, maxErrorBytes, counter::increment);
+    }
+
+    @Override
+    public AsyncClient decorateAsync(String name, Class<?> apiType, AsyncClient client) {
+        FeignClientsProperties.ClientProperties clientProperties = properties.getClient(name);
+        long maxBytes = toBytes(clientProperties.getMaxResponseBytes());
+        long maxErrorBytes = toBytes(clientProperties.getMaxErrorResponseBytes());
+        if (maxBytes <= 0 && maxErrorBytes <= 0) {
+            return client;
+        }
+        LongAdder counter = violations.computeIfAbsent(name, key -> new LongAdder());
+        return new ResponseLimitAsyncClient(client, maxBytes, maxErrorBytes, counter::increment);
+    }
+
+    /**
+     * @return responses over their max size by feign client name.
+     */
+    public Map<String, Long> getViolations() {
+        Map<String, Long> result = new TreeMap<>();
+        violations.forEach((name, counter) -> result.put(name, counter.sum()));
+        return result;
+    }
+
+    private static long toBytes(DataSize size) {
+        return size != null ? size.toBytes() : 0;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 150;
+    }
+
+}
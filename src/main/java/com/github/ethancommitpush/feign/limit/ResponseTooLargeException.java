@@ -0,0 +1,42 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.limit;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the body of a response is larger than the max size of its feign client. It is an
+ * {@link IOException} so Jackson and the other decoders rethrow it as is, then Feign throws a
+ * {@link feign.FeignException} caused by it. {@link com.github.ethancommitpush.feign.decoder.CustomErrorDecoder}
+ * returns it for an error response.
+ */
+public class ResponseTooLargeException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long maxBytes;
+
+    public ResponseTooLargeException(String message, long maxBytes) {
+        super(message);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return max size of the body that was exceeded, in bytes.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+}
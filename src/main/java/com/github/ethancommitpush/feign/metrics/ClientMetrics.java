@@ -0,0 +1,76 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runtime state of the calls of a feign client: in flight, totals and the latencies of the last minute.
+ */
+public class ClientMetrics {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LatencyRecorder latency = new LatencyRecorder(TimeUnit.MINUTES.toMillis(1), 6);
+
+    void started() {
+        inFlight.incrementAndGet();
+    }
+
+    void completed(long startNanos, boolean failed) {
+        inFlight.decrementAndGet();
+        calls.increment();
+        if (failed) {
+            errors.increment();
+        }
+        latency.record(System.nanoTime() - startNanos);
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public LatencyRecorder getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return state for monitoring.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("inFlight", getInFlight());
+        snapshot.put("calls", getCalls());
+        snapshot.put("errors", getErrors());
+        snapshot.put("latency", latency.snapshot());
+        return snapshot;
+    }
+
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.metrics;
+
+import com.github.ethancommitpush.feign.handler.MethodHandlerDecorator;
+
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.Target;
+
+import org.springframework.core.Ordered;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the calls of each feign client, from the calling thread's point of view: including retries
+ * and decoding, and until completion for methods returning {@link CompletionStage}.
+ */
+public class FeignClientsMetrics implements MethodHandlerDecorator, Ordered {
+
+    private final Map<String, ClientMetrics> clients = new ConcurrentHashMap<>();
+
+    @Override
+    public MethodHandler decorate(Target<?> target, Method method, MethodHandler handler) {
+        ClientMetrics metrics = clients.computeIfAbsent(target.name(), name -> new ClientMetrics());
+        return argv -> {
+            long start = System.nanoTime();
+            metrics.started();
+            boolean pending = false;
+            boolean failed = true;
+            try {
+                Object result = handler.invoke(argv);
+                if (result instanceof CompletionStage) {
+                    pending = true;
+                    ((CompletionStage<?>) result).whenComplete((r, e) -> metrics.completed(start, e != null));
+                }
+                failed = false;
+                return result;
+            } finally {
+                if (!pending) {
+                    metrics.completed(start, failed);
+                }
+            }
+        };
+    }
+
+    /**
+     * @param name name of a feign client.
+     * @return its metrics, null if unknown.
+     */
+    public ClientMetrics get(String name) {
+        return clients.get(name);
+    }
+
+    public Map<String, ClientMetrics> getClients() {
+        return Collections.unmodifiableMap(clients);
+    }
+
+    /**
+     * Right inside the lifecycle, so rejected calls are not recorded.
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+
+}
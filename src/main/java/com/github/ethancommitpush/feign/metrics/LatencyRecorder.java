@@ -0,0 +1,160 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram over a sliding window. The window is split in slots recycled round robin,
+ * each counting latencies in log-linear buckets of 8 per power of two of microseconds, i.e. within 12.5%.
+ * Recording is a few atomic increments; a slot is cleared by the first recorder entering it again, so a
+ * snapshot may miss the few latencies recorded meanwhile.
+ */
+public class LatencyRecorder {
+
+    private static final int SUB_BUCKET_BITS = 3;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Latencies are capped under 2^40 microseconds, about 12 days. */
+    private static final int MAX_EXPONENT = 40;
+
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final long slotNanos;
+
+    private final Slot[] slots;
+
+    /**
+     * @param windowMillis length of the window.
+     * @param slotCount slots the window is split in.
+     */
+    public LatencyRecorder(long windowMillis, int slotCount) {
+        this.slotNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis) / slotCount;
+        this.slots = new Slot[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+    /**
+     * @param nanos latency to record.
+     */
+    public void record(long nanos) {
+        long micros = Math.min(Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)), (1L << MAX_EXPONENT) - 1);
+        long epoch = System.nanoTime() / slotNanos;
+        Slot slot = slots[(int) (epoch % slots.length)];
+        long slotEpoch = slot.epoch.get();
+        if (slotEpoch != epoch && slot.epoch.compareAndSet(slotEpoch, epoch)) {
+            slot.clear();
+        }
+        slot.counts.incrementAndGet(bucket(micros));
+        slot.count.incrementAndGet();
+        slot.sum.addAndGet(micros);
+        slot.max.accumulateAndGet(micros, Math::max);
+    }
+
+    static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * @return count, mean, max and percentiles in milliseconds of the latencies within the window.
+     */
+    public Map<String, Object> snapshot() {
+        long epoch = System.nanoTime() / slotNanos;
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        for (Slot slot : slots) {
+            if (epoch - slot.epoch.get() >= slots.length) {
+                continue;
+            }
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += slot.counts.get(i);
+            }
+            count += slot.count.get();
+            sum += slot.sum.get();
+            max = Math.max(max, slot.max.get());
+        }
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("count", count);
+        snapshot.put("mean", count > 0 ? millis(sum / count) : 0.0);
+        snapshot.put("p50", millis(percentile(counts, count, 0.50)));
+        snapshot.put("p90", millis(percentile(counts, count, 0.90)));
+        snapshot.put("p99", millis(percentile(counts, count, 0.99)));
+        snapshot.put("max", millis(max));
+        return snapshot;
+    }
+
+    private static long percentile(long[] counts, long count, double percentile) {
+        long rank = (long) Math.ceil(count * percentile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) {
+                return upperBound(i);
+            }
+        }
+        return 0;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static class Slot {
+
+        private final AtomicLong epoch = new AtomicLong(-1);
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+        private final AtomicLong count = new AtomicLong();
+
+        private final AtomicLong sum = new AtomicLong();
+
+        private final AtomicLong max = new AtomicLong();
+
+        private void clear() {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts.set(i, 0);
+            }
+            count.set(0);
+            sum.set(0);
+            max.set(0);
+        }
+
+    }
+
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.ratelimit;
+
+import com.github.ethancommitpush.feign.async.AsyncClient;
+
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link AsyncClient} which takes its permits from the rate limiters of a {@link RateLimitClient}, so the
+ * blocking and the asynchronous calls of a feign client share them.
+ */
+class RateLimitAsyncClient implements AsyncClient {
+
+    private final AsyncClient delegate;
+
+    private final RateLimitClient limits;
+
+    RateLimitAsyncClient(AsyncClient delegate, RateLimitClient limits) {
+        this.delegate = delegate;
+        this.limits = limits;
+    }
+
+    @Override
+    public CompletableFuture<Response> execute(Request request, Options options) {
+        try {
+            limits.acquire(request);
+        } catch (RateLimitExceededException e) {
+            return AsyncClient.failed(e);
+        }
+        return AsyncClient.whenComplete(delegate.execute(request, options), (response, error) -> {
+            if (response != null) {
+                limits.observe(response);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> stream(Request request, Options options, BodyHandler handler) {
+        try {
+            limits.acquire(request);
+        } catch (RateLimitExceededException e) {
+            return AsyncClient.failed(e);
+        }
+        return delegate.stream(request, options, new BodyHandler() {
+            @Override
+            public void onResponse(Response response, InputControl control) throws IOException {
+                limits.observe(response);
+                handler.onResponse(response, control);
+            }
+
+            @Override
+            public void onContent(ByteBuffer content) throws IOException {
+                handler.onContent(content);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,188 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.ratelimit;
+
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Client} which takes a permit from the rate limiters of the feign client and of the called method
+ * before each attempt, and backs off the rate limiter of the feign client when the server tells it to with
+ * {@code Retry-After}, or with {@code X-RateLimit-Remaining: 0} until {@code X-RateLimit-Reset} or for one
+ * interval of the rate limiter.
+ */
+public class RateLimitClient implements Client {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitClient.class);
+
+    private static final String RETRY_AFTER = "Retry-After";
+
+    private static final String RATE_LIMIT_REMAINING = "X-RateLimit-Remaining";
+
+    private static final String RATE_LIMIT_RESET = "X-RateLimit-Reset";
+
+    /**
+     * {@code X-RateLimit-Reset} values above are epoch seconds rather than delta seconds.
+     */
+    private static final long EPOCH_SECONDS_THRESHOLD = 1_000_000_000L;
+
+    private final Client delegate;
+
+    private final String name;
+
+    private final RateLimiter clientLimiter;
+
+    private final Map<Method, RateLimiter> methodLimiters;
+
+    /**
+     * @param delegate the http client to decorate.
+     * @param name name of the feign client.
+     * @param clientLimiter rate limiter of the feign client, null for none.
+     * @param methodLimiters rate limiters of methods, empty for none.
+     */
+    public RateLimitClient(Client delegate, String name, RateLimiter clientLimiter,
+                           Map<Method, RateLimiter> methodLimiters) {
+        this.delegate = delegate;
+        this.name = name;
+        this.clientLimiter = clientLimiter;
+        this.methodLimiters = methodLimiters;
+    }
+
+    @Override
+    public Response execute(Request request, Options options) throws IOException {
+        acquire(request);
+        Response response = delegate.execute(request, options);
+        observe(response);
+        return response;
+    }
+
+    /**
+     * Take a permit from the rate limiter of the feign client, then from the one of the called method.
+     * @throws RateLimitExceededException if a permit cannot be taken in time.
+     */
+    void acquire(Request request) {
+        acquire(clientLimiter);
+        if (!methodLimiters.isEmpty() && request.requestTemplate() != null
+                && request.requestTemplate().methodMetadata() != null) {
+            try {
+                acquire(methodLimiters.get(request.requestTemplate().methodMetadata().method()));
+            } catch (RateLimitExceededException e) {
+                // Not sent, so not counted against the feign client
+                if (clientLimiter != null) {
+                    clientLimiter.release();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void acquire(RateLimiter limiter) {
+        if (limiter == null) {
+            return;
+        }
+        try {
+            if (!limiter.tryAcquire()) {
+                throw new RateLimitExceededException("Rate limit of feign client " + name + " exceeded");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RateLimitExceededException("Interrupted waiting for rate limit of feign client " + name, e);
+        }
+    }
+
+    /**
+     * Back off the rate limiter of the feign client as the response tells.
+     */
+    void observe(Response response) {
+        if (clientLimiter == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        String retryAfter = header(response, RETRY_AFTER);
+        if (retryAfter != null && (response.status() == 429 || response.status() == 503)) {
+            long delayNanos = parseRetryAfter(retryAfter);
+            if (delayNanos >= 0) {
+                log.debug("Feign client {} pauses for {} ms as told by the server", name,
+                        TimeUnit.NANOSECONDS.toMillis(delayNanos));
+                clientLimiter.pauseUntil(now + delayNanos);
+                return;
+            }
+        }
+        if ("0".equals(header(response, RATE_LIMIT_REMAINING))) {
+            String reset = header(response, RATE_LIMIT_RESET);
+            long delayNanos = reset != null ? parseRateLimitReset(reset) : -1;
+            if (delayNanos < 0) {
+                delayNanos = clientLimiter.getIntervalNanos();
+            }
+            log.debug("Feign client {} pauses for {} ms as no request remains", name,
+                    TimeUnit.NANOSECONDS.toMillis(delayNanos));
+            clientLimiter.pauseUntil(now + delayNanos);
+        }
+    }
+
+    private static String header(Response response, String name) {
+        Collection<String> values = response.headers().get(name);
+        return values == null || values.isEmpty() ? null : values.iterator().next().trim();
+    }
+
+    /**
+     * @return delay in nanoseconds, or -1 if unparseable.
+     */
+    static long parseRetryAfter(String value) {
+        try {
+            return TimeUnit.SECONDS.toNanos(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            // fall through to an HTTP-date
+        }
+        try {
+            long millis = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli()
+                    - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return delay in nanoseconds of delta seconds or epoch seconds, or -1 if unparseable.
+     */
+    static long parseRateLimitReset(String value) {
+        long seconds;
+        try {
+            seconds = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        if (seconds > EPOCH_SECONDS_THRESHOLD) {
+            long millis = TimeUnit.SECONDS.toMillis(seconds) - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+        }
+        return TimeUnit.SECONDS.toNanos(Math.max(0, seconds));
+    }
+
+}
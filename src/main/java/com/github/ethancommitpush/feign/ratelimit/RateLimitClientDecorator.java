@@ -0,0 +1,109 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.ratelimit;
+
+import com.github.ethancommitpush.feign.FeignClientsProperties;
+import com.github.ethancommitpush.feign.annotation.RateLimit;
+import com.github.ethancommitpush.feign.async.AsyncClient;
+import com.github.ethancommitpush.feign.client.ClientDecorator;
+import feign.Client;
+import feign.Feign;
+
+import org.springframework.core.Ordered;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decorates the http client of each feign client with a {@link RateLimitClient}, when it has a rate limit
+ * configured by {@code feign.clients.<name>.rate-limit} or methods annotated with {@link RateLimit}.
+ * The rate limiters are created here, again when the feign client is refreshed, and kept by name for
+ * monitoring. The non-blocking http client of the feign client takes its permits from the same ones.
+ */
+public class RateLimitClientDecorator implements ClientDecorator, Ordered {
+
+    private final FeignClientsProperties properties;
+
+    private final Map<String, RateLimiter> limiters = new ConcurrentHashMap<>();
+
+    private final Map<String, RateLimitClient> clients = new ConcurrentHashMap<>();
+
+    public RateLimitClientDecorator(FeignClientsProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Client decorate(String name, Class<?> apiType, Client client) {
+        RateLimiter clientLimiter = null;
+        FeignClientsProperties.RateLimit rateLimit = properties.getClient(name).getRateLimit();
+        if (rateLimit.getPermitsPerSecond() > 0) {
+            clientLimiter = new RateLimiter(rateLimit.getPermitsPerSecond(), rateLimit.getBurst(),
+                    rateLimit.getTimeout().toNanos());
+            limiters.put(name, clientLimiter);
+        } else {
+            limiters.remove(name);
+        }
+
+        // Of the methods before a refresh
+        limiters.keySet().removeIf(key -> key.startsWith(name + "#"));
+        Map<Method, RateLimiter> methodLimiters = new HashMap<>();
+        for (Method method : apiType.getMethods()) {
+            RateLimit annotation = method.getAnnotation(RateLimit.class);
+            if (annotation != null) {
+                RateLimiter limiter = new RateLimiter(annotation.permitsPerSecond(), annotation.burst(),
+                        TimeUnit.MILLISECONDS.toNanos(annotation.timeoutMillis()));
+                methodLimiters.put(method, limiter);
+                // Signature of the config key, unique among overloads
+                String configKey = Feign.configKey(apiType, method);
+                limiters.put(name + configKey.substring(configKey.indexOf('#')), limiter);
+            }
+        }
+
+        if (clientLimiter == null && methodLimiters.isEmpty()) {
+            clients.remove(name);
+            return client;
+        }
+        RateLimitClient rateLimitClient = new RateLimitClient(client, name, clientLimiter,
+                methodLimiters.isEmpty() ? Collections.emptyMap() : methodLimiters);
+        clients.put(name, rateLimitClient);
+        return rateLimitClient;
+    }
+
+    /**
+     * Takes its permits from the rate limiters of the last decoration of the http client of the feign client.
+     */
+    @Override
+    public AsyncClient decorateAsync(String name, Class<?> apiType, AsyncClient client) {
+        RateLimitClient rateLimitClient = clients.get(name);
+        return rateLimitClient != null ? new RateLimitAsyncClient(client, rateLimitClient) : client;
+    }
+
+    /**
+     * @return rate limiters by feign client name, or by feign client name and method signature for annotated
+     * methods, e.g. {@code timeClient#time(String)}.
+     */
+    public Map<String, RateLimiter> getLimiters() {
+        return Collections.unmodifiableMap(limiters);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 100;
+    }
+
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free token bucket, implemented as the generic cell rate algorithm: a single theoretical arrival
+ * time is advanced by one interval per permit with compare-and-set, and a permit is available when that
+ * time is no further ahead than the burst.
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+
+    private final long burstNanos;
+
+    private final long timeoutNanos;
+
+    private final AtomicLong theoreticalArrival;
+
+    private final LongAdder granted = new LongAdder();
+
+    private final LongAdder waited = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param permitsPerSecond sustained rate.
+     * @param burst permits available at once after being idle.
+     * @param timeoutNanos max time to wait for a permit, zero not to wait.
+     */
+    public RateLimiter(double permitsPerSecond, int burst, long timeoutNanos) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permits per second must be positive and burst at least 1");
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstNanos = intervalNanos * burst;
+        this.timeoutNanos = timeoutNanos;
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Acquire a permit, waiting for it up to the timeout of the rate limiter.
+     * @return whether the permit is acquired.
+     * @throws InterruptedException if interrupted while waiting, the permit is consumed anyway.
+     */
+    public boolean tryAcquire() throws InterruptedException {
+        return tryAcquire(timeoutNanos);
+    }
+
+    /**
+     * Acquire a permit, waiting for it up to the timeout.
+     * @param timeoutNanos max time to wait, zero not to wait.
+     * @return whether the permit is acquired.
+     * @throws InterruptedException if interrupted while waiting, the permit is consumed anyway.
+     */
+    public boolean tryAcquire(long timeoutNanos) throws InterruptedException {
+        while (true) {
+            long now = System.nanoTime();
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long waitNanos = next - now - burstNanos;
+            if (waitNanos > timeoutNanos) {
+                rejected.increment();
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                granted.increment();
+                if (waitNanos > 0) {
+                    waited.increment();
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Make no permit available before the time, e.g. as told by a {@code Retry-After} response header.
+     * @param nanoTime time in {@link System#nanoTime()}.
+     */
+    public void pauseUntil(long nanoTime) {
+        long earliest = nanoTime + burstNanos - intervalNanos;
+        theoreticalArrival.accumulateAndGet(earliest, Math::max);
+    }
+
+    /**
+     * Give back a permit acquired but not used, e.g. when the call is rejected by another rate limiter.
+     */
+    public void release() {
+        theoreticalArrival.addAndGet(-intervalNanos);
+        granted.decrement();
+    }
+
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    public long getGranted() {
+        return granted.sum();
+    }
+
+    public long getWaited() {
+        return waited.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+}
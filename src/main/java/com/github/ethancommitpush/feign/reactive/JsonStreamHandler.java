@@ -0,0 +1,207 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.reactive;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.github.ethancommitpush.feign.async.AsyncClient;
+import com.github.ethancommitpush.feign.limit.ResponseTooLargeException;
+
+import feign.Response;
+import feign.codec.Decoder;
+import feign.codec.ErrorDecoder;
+
+import reactor.core.publisher.FluxSink;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+/**
+ * Splits a streamed JSON array, or newline delimited JSON, into its elements with the non-blocking parser
+ * of Jackson as the chunks of the body arrive, and emits them to the sink once decoded by the decoder of
+ * the feign client. The input is suspended while the subscriber has no demand, so at most the elements of
+ * one chunk are buffered ahead of it. The body of an error response is buffered for the error decoder
+ * instead, up to its max size.
+ */
+class JsonStreamHandler implements AsyncClient.BodyHandler {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private final FluxSink<Object> sink;
+
+    private final Decoder decoder;
+
+    private final Type elementType;
+
+    private final ErrorDecoder errorDecoder;
+
+    private final String configKey;
+
+    private final long maxErrorBodyBytes;
+
+    private final JsonParser parser;
+
+    private final ByteArrayFeeder feeder;
+
+    private final ByteArrayOutputStream elementJson = new ByteArrayOutputStream();
+
+    private byte[] chunk = new byte[0];
+
+    private volatile AsyncClient.InputControl control;
+
+    private Response response;
+
+    private ByteArrayOutputStream errorBody;
+
+    private boolean array;
+
+    private boolean started;
+
+    private int depth;
+
+    private TokenBuffer element;
+
+    JsonStreamHandler(FluxSink<Object> sink, Decoder decoder, Type elementType, ErrorDecoder errorDecoder,
+                      String configKey, long maxErrorBodyBytes) throws IOException {
+        this.sink = sink;
+        this.decoder = decoder;
+        this.elementType = elementType;
+        this.errorDecoder = errorDecoder;
+        this.configKey = configKey;
+        this.maxErrorBodyBytes = maxErrorBodyBytes;
+        this.parser = FACTORY.createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    @Override
+    public void onResponse(Response response, AsyncClient.InputControl control) {
+        this.response = response;
+        this.control = control;
+        if (response.status() < 200 || response.status() >= 300) {
+            errorBody = new ByteArrayOutputStream();
+        }
+        // Newline delimited JSON may as well have arrays as elements
+        Collection<String> contentType = response.headers().get("Content-Type");
+        array = contentType == null || contentType.stream().noneMatch(value -> value.contains("ndjson"));
+    }
+
+    @Override
+    public void onContent(ByteBuffer content) throws IOException {
+        int length = content.remaining();
+        if (errorBody != null) {
+            if (errorBody.size() + length > maxErrorBodyBytes) {
+                // Fails the exchange, which closes the connection
+                throw new ResponseTooLargeException("Body of " + response.status() + " response of " + configKey
+                        + " is larger than " + maxErrorBodyBytes + " bytes", maxErrorBodyBytes);
+            }
+            errorBody.write(content.array(), content.arrayOffset() + content.position(), length);
+            return;
+        }
+        if (chunk.length < length) {
+            chunk = new byte[length];
+        }
+        content.get(chunk, 0, length);
+        feeder.feedInput(chunk, 0, length);
+        parse();
+        if (sink.requestedFromDownstream() <= 0) {
+            control.suspend();
+            // The subscriber may have requested more in between
+            if (sink.requestedFromDownstream() > 0) {
+                control.resume();
+            }
+        }
+    }
+
+    /**
+     * Resume the input on demand of the subscriber.
+     */
+    void request() {
+        AsyncClient.InputControl control = this.control;
+        if (control != null) {
+            control.resume();
+        }
+    }
+
+    /**
+     * Complete the sink once the exchange is done.
+     * @param error failure of the exchange, if any.
+     */
+    void complete(Throwable error) {
+        if (error != null) {
+            sink.error(error);
+            return;
+        }
+        try {
+            if (errorBody != null) {
+                sink.error(errorDecoder.decode(configKey, response.toBuilder().body(errorBody.toByteArray()).build()));
+                return;
+            }
+            feeder.endOfInput();
+            parse();
+            if (element != null) {
+                throw new IOException("Unexpected end of JSON stream");
+            }
+            sink.complete();
+        } catch (Exception e) {
+            sink.error(e);
+        }
+    }
+
+    private void parse() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (element == null && depth == 0) {
+                if (!started && array && token == JsonToken.START_ARRAY) {
+                    // The elements are the ones of the top-level array
+                    started = true;
+                    continue;
+                }
+                started = true;
+                if (array && token == JsonToken.END_ARRAY) {
+                    continue;
+                }
+                element = new TokenBuffer(parser);
+            }
+            element.copyCurrentEvent(parser);
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+            if (depth == 0) {
+                Object value = decode(element);
+                element = null;
+                if (!sink.isCancelled()) {
+                    sink.next(value);
+                }
+            }
+        }
+    }
+
+    private Object decode(TokenBuffer element) throws IOException {
+        elementJson.reset();
+        try (JsonGenerator generator = FACTORY.createGenerator(elementJson)) {
+            element.serialize(generator);
+        }
+        return decoder.decode(response.toBuilder().body(elementJson.toByteArray()).build(), elementType);
+    }
+
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.reactive;
+
+import com.github.ethancommitpush.feign.async.AsyncClient;
+import com.github.ethancommitpush.feign.async.AsyncDispatch;
+import com.github.ethancommitpush.feign.async.AsyncMethodHandlerDecorator;
+import com.github.ethancommitpush.feign.handler.MethodHandlerDecorator;
+
+import feign.Feign;
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.Target;
+import feign.codec.Decoder;
+import feign.codec.ErrorDecoder;
+import feign.jackson.JacksonDecoder;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Decorates the methods of a feign client returning {@link Mono} or {@link Flux}. The request is prepared
+ * on the calling thread and sent through the {@link AsyncClient} on subscription. A {@link Mono} is decoded
+ * from the buffered response like a {@link CompletableFuture}, while a {@link Flux} is decoded element by
+ * element from the streamed JSON array or newline delimited JSON, with backpressure, each element through
+ * the decoder of the feign client. Cancelling the subscription aborts the exchange.
+ */
+public class ReactiveMethodHandlerDecorator implements MethodHandlerDecorator {
+
+    /** Max size of the error bodies buffered for the error decoder, unless the feign client sets one. */
+    public static final long DEFAULT_MAX_ERROR_BODY_BYTES = 64 * 1024;
+
+    private final AsyncClient asyncClient;
+
+    private final AsyncMethodHandlerDecorator asyncMethodHandlerDecorator;
+
+    private final Decoder decoder;
+
+    private final ErrorDecoder errorDecoder;
+
+    private final long maxErrorBodyBytes;
+
+    public ReactiveMethodHandlerDecorator(AsyncClient asyncClient,
+                                          AsyncMethodHandlerDecorator asyncMethodHandlerDecorator,
+                                          ErrorDecoder errorDecoder) {
+        this(asyncClient, asyncMethodHandlerDecorator, new JacksonDecoder(), errorDecoder,
+                DEFAULT_MAX_ERROR_BODY_BYTES);
+    }
+
+    /**
+     * @param asyncClient the non-blocking http client.
+     * @param asyncMethodHandlerDecorator sends and decodes the calls of {@link Mono} methods.
+     * @param decoder decoder of the elements of {@link Flux} methods, given the JSON of one at a time.
+     * @param errorDecoder decoder of error responses of {@link Flux} methods.
+     * @param maxErrorBodyBytes max size of the error bodies of {@link Flux} methods, over which the exchange
+     *                          fails with a {@link com.github.ethancommitpush.feign.limit.ResponseTooLargeException}.
+     */
+    public ReactiveMethodHandlerDecorator(AsyncClient asyncClient,
+                                          AsyncMethodHandlerDecorator asyncMethodHandlerDecorator,
+                                          Decoder decoder, ErrorDecoder errorDecoder, long maxErrorBodyBytes) {
+        this.asyncClient = asyncClient;
+        this.asyncMethodHandlerDecorator = asyncMethodHandlerDecorator;
+        this.decoder = decoder;
+        this.errorDecoder = errorDecoder;
+        this.maxErrorBodyBytes = maxErrorBodyBytes;
+    }
+
+    /**
+     * @param apiType interface of a feign client.
+     * @return whether any of its methods returns {@link Mono} or {@link Flux}.
+     */
+    public static boolean hasReactiveMethods(Class<?> apiType) {
+        for (Method method : apiType.getMethods()) {
+            if (method.getReturnType() == Mono.class || method.getReturnType() == Flux.class) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public MethodHandler decorate(Target<?> target, Method method, MethodHandler handler) {
+        String configKey = Feign.configKey(target.type(), method);
+        if (method.getReturnType() == Mono.class) {
+            Type resultType = AsyncMethodHandlerDecorator.resultType(method, Mono.class);
+            return argv -> {
+                AsyncDispatch dispatch;
+                try {
+                    dispatch = AsyncDispatch.prepare(handler, argv);
+                } catch (Throwable e) {
+                    return Mono.error(e);
+                }
+                return Mono.defer(() -> {
+                    CompletableFuture<Object> result = asyncMethodHandlerDecorator.send(dispatch, configKey,
+                            resultType);
+                    return Mono.fromFuture(result).doOnCancel(() -> result.cancel(true));
+                });
+            };
+        }
+        if (method.getReturnType() == Flux.class) {
+            Type elementType = AsyncMethodHandlerDecorator.resultType(method, Flux.class);
+            return argv -> {
+                AsyncDispatch dispatch;
+                try {
+                    dispatch = AsyncDispatch.prepare(handler, argv);
+                } catch (Throwable e) {
+                    return Flux.error(e);
+                }
+                return Flux.create(sink -> {
+                    JsonStreamHandler streamHandler;
+                    try {
+                        streamHandler = new JsonStreamHandler(sink, decoder, elementType, errorDecoder, configKey,
+                                maxErrorBodyBytes);
+                    } catch (Exception e) {
+                        sink.error(e);
+                        return;
+                    }
+                    CompletableFuture<Void> exchange = asyncClient.stream(dispatch.getRequest(),
+                            dispatch.getOptions(), streamHandler);
+                    sink.onRequest(n -> streamHandler.request());
+                    sink.onCancel(() -> exchange.cancel(true));
+                    exchange.whenComplete((r, e) -> streamHandler.complete(e));
+                });
+            };
+        }
+        return handler;
+    }
+
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.slowcall;
+
+import feign.Request;
+import feign.Response;
+
+/**
+ * Timings of the call in progress on the current thread, accumulated over its attempts. One instance per
+ * thread is reused from call to call, so tracing a call allocates nothing: only the calls over their
+ * threshold are copied into a {@link SlowCall}. An asynchronous exchange moves the call on to a trace of its
+ * own, see {@link #detach()}.
+ */
+final class CallTrace {
+
+    /** Attempts kept in detail, the further ones being only counted. */
+    static final int MAX_ATTEMPTS = 8;
+
+    private static final ThreadLocal<CallTrace> CURRENT = ThreadLocal.withInitial(CallTrace::new);
+
+    private boolean active;
+
+    long start;
+    long lease;
+    long connect;
+    long tls;
+    long write;
+    long firstByte;
+
+    private boolean leasing;
+    private long attemptStart;
+    long responded;
+
+    int attempts;
+    final long[] attemptNanos = new long[MAX_ATTEMPTS];
+    final int[] attemptStatus = new int[MAX_ATTEMPTS];
+    final Throwable[] attemptError = new Throwable[MAX_ATTEMPTS];
+
+    Request request;
+    Response response;
+
+    private CallTrace detached;
+
+    private CallTrace() {
+    }
+
+    /**
+     * Start tracing a call on the current thread.
+     * @return the trace of the call, null if a call is already traced on the current thread.
+     */
+    static CallTrace begin() {
+        CallTrace trace = CURRENT.get();
+        if (trace.active) {
+            return null;
+        }
+        trace.active = true;
+        trace.lease = 0;
+        trace.connect = 0;
+        trace.tls = 0;
+        trace.write = 0;
+        trace.firstByte = 0;
+        trace.leasing = false;
+        trace.responded = 0;
+        trace.attempts = 0;
+        trace.detached = null;
+        trace.start = System.nanoTime();
+        return trace;
+    }
+
+    /**
+     * @return the trace of the call in progress on the current thread, null if none.
+     */
+    static CallTrace current() {
+        CallTrace trace = CURRENT.get();
+        return trace.active ? trace : null;
+    }
+
+    /**
+     * Move the call on to a trace of its own, for an exchange completed off the current thread.
+     * @return the trace of the call, which the current thread no longer sees.
+     */
+    CallTrace detach() {
+        CallTrace trace = new CallTrace();
+        trace.active = true;
+        trace.start = start;
+        detached = trace;
+        return trace;
+    }
+
+    /**
+     * @return the trace the call moved on to, null if none.
+     */
+    CallTrace detached() {
+        return detached;
+    }
+
+    /**
+     * Stop tracing, and release what the call referenced.
+     */
+    void end() {
+        request = null;
+        response = null;
+        detached = null;
+        for (int i = 0; i < Math.min(attempts, MAX_ATTEMPTS); i++) {
+            attemptError[i] = null;
+        }
+        active = false;
+    }
+
+    void attemptStarted(Request request) {
+        this.request = request;
+        this.response = null;
+        this.leasing = true;
+        this.attemptStart = System.nanoTime();
+    }
+
+    void attemptEnded(Response response, Throwable error) {
+        long now = System.nanoTime();
+        if (attempts < MAX_ATTEMPTS) {
+            attemptNanos[attempts] = now - attemptStart;
+            attemptStatus[attempts] = response != null ? response.status() : 0;
+            attemptError[attempts] = error;
+        }
+        attempts++;
+        leasing = false;
+        this.response = response;
+        this.responded = response != null ? now : 0;
+    }
+
+    /**
+     * Ends the wait for a connection of the attempt, at the first use of the connection.
+     */
+    void leased(long now) {
+        if (leasing) {
+            lease += now - attemptStart;
+            leasing = false;
+        }
+    }
+
+    /**
+     * @param start when the connect started.
+     * @param tlsBefore {@link #tls} when the connect started, the handshake not being part of the connect.
+     */
+    void connected(long start, long tlsBefore) {
+        connect += System.nanoTime() - start - (tls - tlsBefore);
+    }
+
+    void handshaked(long start) {
+        tls += System.nanoTime() - start;
+    }
+
+    void wrote(long start) {
+        write += System.nanoTime() - start;
+    }
+
+    void firstByte(long start) {
+        firstByte += System.nanoTime() - start;
+    }
+
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.slowcall;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+import java.io.IOException;
+
+/**
+ * Times the write of the requests, and the wait for the head of their responses, of the call traced on the
+ * current thread, if any. The first use of the connection ends its lease when it was pooled.
+ */
+public class PhaseTimingRequestExecutor extends HttpRequestExecutor {
+
+    @Override
+    protected HttpResponse doSendRequest(HttpRequest request, HttpClientConnection conn, HttpContext context)
+            throws IOException, HttpException {
+        CallTrace trace = CallTrace.current();
+        if (trace == null) {
+            return super.doSendRequest(request, conn, context);
+        }
+        long start = System.nanoTime();
+        trace.leased(start);
+        try {
+            return super.doSendRequest(request, conn, context);
+        } finally {
+            trace.wrote(start);
+        }
+    }
+
+    @Override
+    protected HttpResponse doReceiveResponse(HttpRequest request, HttpClientConnection conn, HttpContext context)
+            throws HttpException, IOException {
+        CallTrace trace = CallTrace.current();
+        if (trace == null) {
+            return super.doReceiveResponse(request, conn, context);
+        }
+        long start = System.nanoTime();
+        try {
+            return super.doReceiveResponse(request, conn, context);
+        } finally {
+            trace.firstByte(start);
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.slowcall;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Times the connects of a plain socket factory for the call traced on the current thread, if any.
+ */
+public class PhaseTimingSocketFactory implements ConnectionSocketFactory {
+
+    private final ConnectionSocketFactory delegate;
+
+    public PhaseTimingSocketFactory(ConnectionSocketFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Socket createSocket(HttpContext context) throws IOException {
+        return delegate.createSocket(context);
+    }
+
+    @Override
+    public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                                InetSocketAddress localAddress, HttpContext context) throws IOException {
+        CallTrace trace = CallTrace.current();
+        if (trace == null) {
+            return delegate.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+        }
+        long start = System.nanoTime();
+        trace.leased(start);
+        long tlsBefore = trace.tls;
+        try {
+            return delegate.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+        } finally {
+            trace.connected(start, tlsBefore);
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.slowcall;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Times the connects and the TLS handshakes of the call traced on the current thread, if any, apart: the
+ * handshake of a connect being done by {@link #createLayeredSocket}, as for a tunnel through a proxy.
+ */
+public class PhaseTimingSslSocketFactory extends SSLConnectionSocketFactory {
+
+    public PhaseTimingSslSocketFactory(SSLContext sslContext) {
+        super(sslContext);
+    }
+
+    @Override
+    public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                                InetSocketAddress localAddress, HttpContext context) throws IOException {
+        CallTrace trace = CallTrace.current();
+        if (trace == null) {
+            return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+        }
+        long start = System.nanoTime();
+        trace.leased(start);
+        long tlsBefore = trace.tls;
+        try {
+            return super.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+        } finally {
+            trace.connected(start, tlsBefore);
+        }
+    }
+
+    @Override
+    public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context)
+            throws IOException {
+        CallTrace trace = CallTrace.current();
+        if (trace == null) {
+            return super.createLayeredSocket(socket, target, port, context);
+        }
+        long start = System.nanoTime();
+        try {
+            return super.createLayeredSocket(socket, target, port, context);
+        } finally {
+            trace.handshaked(start);
+        }
+    }
+
+}
@@ -0,0 +1,235 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.slowcall;
+
+import com.github.ethancommitpush.feign.FeignClientsProperties;
+
+import feign.Request;
+import feign.Response;
+
+import java.nio.charset.Charset;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Diagnostic record of a call over the slow-call threshold of its feign client: its timings by phase, its
+ * attempts, and the last request and response with their headers and the request body truncated.
+ * The phases of the default http client are summed over the attempts, and are zero with other http clients.
+ */
+public final class SlowCall {
+
+    private static final String MASK = "****";
+
+    private final String timestamp;
+    private final String client;
+    private final String method;
+    private final String httpMethod;
+    private final String url;
+    private final double durationMillis;
+    private final Map<String, Double> phases = new LinkedHashMap<>();
+    private final List<Attempt> attempts;
+    private final int status;
+    private final String error;
+    private final Map<String, List<String>> requestHeaders;
+    private final String requestBody;
+    private final Map<String, List<String>> responseHeaders;
+
+    SlowCall(String client, String method, CallTrace trace, long end, Throwable error,
+             FeignClientsProperties.SlowCalls settings) {
+        int maxBodyBytes = (int) Math.min(settings.getMaxBodyBytes().toBytes(), Integer.MAX_VALUE);
+        int maxHeaderLength = settings.getMaxHeaderLength();
+        Set<String> masked = settings.getMaskedHeaders();
+        long durationNanos = end - trace.start;
+        this.timestamp = Instant.now().minusNanos(durationNanos).toString();
+        this.client = client;
+        this.method = method;
+        Request request = trace.request;
+        this.httpMethod = request != null ? request.httpMethod().name() : null;
+        if (request != null) {
+            String url = settings.isKeepQueryString() ? request.url() : withoutQuery(request.url());
+            this.url = truncate(url, maxHeaderLength);
+        } else {
+            this.url = null;
+        }
+        this.durationMillis = millis(durationNanos);
+        phases.put("lease", millis(trace.lease));
+        phases.put("connect", millis(trace.connect));
+        phases.put("tls", millis(trace.tls));
+        phases.put("requestWrite", millis(trace.write));
+        phases.put("firstByte", millis(trace.firstByte));
+        phases.put("decode", millis(trace.responded != 0 ? end - trace.responded : 0));
+        this.attempts = new ArrayList<>(Math.min(trace.attempts, CallTrace.MAX_ATTEMPTS));
+        for (int i = 0; i < Math.min(trace.attempts, CallTrace.MAX_ATTEMPTS); i++) {
+            attempts.add(new Attempt(millis(trace.attemptNanos[i]), trace.attemptStatus[i],
+                    describe(trace.attemptError[i], maxHeaderLength)));
+        }
+        Response response = trace.response;
+        this.status = response != null ? response.status() : 0;
+        this.error = describe(error, maxHeaderLength);
+        this.requestHeaders = request != null ? headers(request.headers(), masked, maxHeaderLength) : null;
+        this.requestBody = request != null ? body(request.body(), request.charset(), maxBodyBytes) : null;
+        this.responseHeaders = response != null ? headers(response.headers(), masked, maxHeaderLength) : null;
+    }
+
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    public String getClient() {
+        return client;
+    }
+
+    /**
+     * @return config key of the method of the feign client, e.g. {@code UserApi#get(long)}.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public double getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * @return milliseconds by phase: lease, connect, tls, requestWrite, firstByte and decode.
+     */
+    public Map<String, Double> getPhases() {
+        return Collections.unmodifiableMap(phases);
+    }
+
+    public List<Attempt> getAttempts() {
+        return Collections.unmodifiableList(attempts);
+    }
+
+    public int getRetries() {
+        return Math.max(attempts.size() - 1, 0);
+    }
+
+    /**
+     * @return status of the last response, zero if none.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public Map<String, List<String>> getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    public String getRequestBody() {
+        return requestBody;
+    }
+
+    public Map<String, List<String>> getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength) + "...";
+    }
+
+    private static String describe(Throwable error, int maxLength) {
+        if (error == null) {
+            return null;
+        }
+        return error.getMessage() != null
+                ? error.getClass().getName() + ": " + truncate(error.getMessage(), maxLength)
+                : error.getClass().getName();
+    }
+
+    private static Map<String, List<String>> headers(Map<String, Collection<String>> headers, Set<String> masked,
+                                                     int maxLength) {
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        headers.forEach((name, values) -> {
+            List<String> copy = new ArrayList<>(values.size());
+            for (String value : values) {
+                copy.add(masked.contains(name) ? MASK : truncate(value, maxLength));
+            }
+            result.put(name, copy);
+        });
+        return result;
+    }
+
+    private static String withoutQuery(String url) {
+        int end = url.indexOf('?');
+        int fragment = url.indexOf('#');
+        if (fragment >= 0 && (end < 0 || fragment < end)) {
+            end = fragment;
+        }
+        return end < 0 ? url : url.substring(0, end);
+    }
+
+    private static String body(byte[] body, Charset charset, int maxBytes) {
+        if (body == null) {
+            return null;
+        }
+        if (charset == null) {
+            return "<" + body.length + " bytes>";
+        }
+        String text = new String(body, 0, Math.min(body.length, maxBytes), charset);
+        return body.length > maxBytes ? text + "...(" + body.length + " bytes)" : text;
+    }
+
+    /**
+     * An attempt of the call: an exchange with the server, or a failure to get one.
+     */
+    public static final class Attempt {
+
+        private final double durationMillis;
+        private final int status;
+        private final String error;
+
+        Attempt(double durationMillis, int status, String error) {
+            this.durationMillis = durationMillis;
+            this.status = status;
+            this.error = error;
+        }
+
+        public double getDurationMillis() {
+            return durationMillis;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+    }
+
+}
@@ -0,0 +1,234 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.slowcall;
+
+import com.github.ethancommitpush.feign.FeignClientsProperties;
+import com.github.ethancommitpush.feign.async.AsyncClient;
+import com.github.ethancommitpush.feign.client.ClientDecorator;
+import com.github.ethancommitpush.feign.handler.MethodHandlerDecorator;
+
+import feign.Client;
+import feign.Feign;
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+import feign.Target;
+
+import org.springframework.core.Ordered;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps a {@link SlowCall} for each call of a feign client over its threshold, configured by
+ * {@code feign.clients.<name>.slow-call-threshold}, in a ring of the last ones. The calls of the feign
+ * clients with a threshold are traced in a {@link CallTrace} reused by the thread, with their attempts seen
+ * by {@link #clientDecorator()} and the phases of the default http client by {@link PhaseTimingSocketFactory},
+ * {@link PhaseTimingSslSocketFactory} and {@link PhaseTimingRequestExecutor}. Only the slow ones allocate,
+ * and the ones returning a {@link CompletableFuture} sent by the non-blocking http client, traced until the
+ * future completes without the phases. The reactive ones, subscribed later, are not traced.
+ */
+public class SlowCallDetector implements MethodHandlerDecorator, Ordered {
+
+    private final FeignClientsProperties properties;
+
+    private final AtomicReferenceArray<SlowCall> ring;
+
+    private final AtomicLong recorded = new AtomicLong();
+
+    public SlowCallDetector(FeignClientsProperties properties) {
+        this.properties = properties;
+        this.ring = new AtomicReferenceArray<>(Math.max(properties.getSlowCalls().getCapacity(), 1));
+    }
+
+    @Override
+    public MethodHandler decorate(Target<?> target, Method method, MethodHandler handler) {
+        long threshold = threshold(target.name());
+        if (threshold < 0) {
+            return handler;
+        }
+        String name = target.name();
+        String configKey = Feign.configKey(target.type(), method);
+        return argv -> {
+            CallTrace trace = CallTrace.begin();
+            if (trace == null) {
+                return handler.invoke(argv);
+            }
+            Object result;
+            try {
+                result = handler.invoke(argv);
+            } catch (Throwable e) {
+                ended(trace, e, threshold, name, configKey);
+                throw e;
+            }
+            CallTrace detached = trace.detached();
+            if (detached == null || !(result instanceof CompletableFuture)) {
+                ended(trace, null, threshold, name, configKey);
+                return result;
+            }
+            // Sent by the non-blocking http client, the call ends with the future
+            trace.end();
+            return AsyncClient.whenComplete((CompletableFuture<?>) result,
+                    (r, e) -> ended(detached, e, threshold, name, configKey));
+        };
+    }
+
+    private void ended(CallTrace trace, Throwable error, long threshold, String name, String configKey) {
+        long end = System.nanoTime();
+        if (end - trace.start >= threshold) {
+            record(new SlowCall(name, configKey, trace, end, error, properties.getSlowCalls()));
+        }
+        trace.end();
+    }
+
+    /**
+     * @return client decorator recording the attempts of the traced calls, innermost so the waits of the
+     * rate limits and of the admission are not taken for the lease of a connection.
+     */
+    public ClientDecorator clientDecorator() {
+        return new AttemptClientDecorator();
+    }
+
+    /**
+     * @return the slow calls kept, the last one first.
+     */
+    public List<SlowCall> getSlowCalls() {
+        long last = recorded.get();
+        int count = (int) Math.min(last, ring.length());
+        List<SlowCall> calls = new ArrayList<>(count);
+        for (long i = last - 1; i >= last - count; i--) {
+            SlowCall call = ring.get((int) (i % ring.length()));
+            if (call != null) {
+                calls.add(call);
+            }
+        }
+        return calls;
+    }
+
+    /**
+     * @return slow calls recorded since startup, including the ones out of the ring.
+     */
+    public long getRecorded() {
+        return recorded.get();
+    }
+
+    private void record(SlowCall call) {
+        long index = recorded.getAndIncrement();
+        ring.set((int) (index % ring.length()), call);
+    }
+
+    private long threshold(String name) {
+        Duration threshold = properties.getClient(name).getSlowCallThreshold();
+        return threshold != null && !threshold.isNegative() ? threshold.toNanos() : -1;
+    }
+
+    /**
+     * Right inside the metrics.
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 20;
+    }
+
+    private class AttemptClientDecorator implements ClientDecorator, Ordered {
+
+        @Override
+        public Client decorate(String name, Class<?> apiType, Client client) {
+            if (threshold(name) < 0) {
+                return client;
+            }
+            return (request, options) -> {
+                CallTrace trace = CallTrace.current();
+                if (trace == null) {
+                    return client.execute(request, options);
+                }
+                trace.attemptStarted(request);
+                Response response = null;
+                Throwable error = null;
+                try {
+                    response = client.execute(request, options);
+                    return response;
+                } catch (IOException | RuntimeException | Error e) {
+                    error = e;
+                    throw e;
+                } finally {
+                    trace.attemptEnded(response, error);
+                }
+            };
+        }
+
+        /**
+         * Records the attempt on a trace detached from the calling thread, completed by the exchange.
+         */
+        @Override
+        public AsyncClient decorateAsync(String name, Class<?> apiType, AsyncClient client) {
+            if (threshold(name) < 0) {
+                return client;
+            }
+            return new AsyncClient() {
+                @Override
+                public CompletableFuture<Response> execute(Request request, Options options) {
+                    CallTrace current = CallTrace.current();
+                    if (current == null) {
+                        return client.execute(request, options);
+                    }
+                    CallTrace trace = current.detach();
+                    trace.attemptStarted(request);
+                    return AsyncClient.whenComplete(client.execute(request, options), trace::attemptEnded);
+                }
+
+                @Override
+                public CompletableFuture<Void> stream(Request request, Options options, BodyHandler handler) {
+                    CallTrace current = CallTrace.current();
+                    if (current == null) {
+                        return client.stream(request, options, handler);
+                    }
+                    CallTrace trace = current.detach();
+                    trace.attemptStarted(request);
+                    AtomicReference<Response> received = new AtomicReference<>();
+                    BodyHandler recording = new BodyHandler() {
+                        @Override
+                        public void onResponse(Response response, InputControl control) throws IOException {
+                            received.set(response);
+                            handler.onResponse(response, control);
+                        }
+
+                        @Override
+                        public void onContent(ByteBuffer content) throws IOException {
+                            handler.onContent(content);
+                        }
+                    };
+                    return AsyncClient.whenComplete(client.stream(request, options, recording),
+                            (r, e) -> trace.attemptEnded(received.get(), e));
+                }
+            };
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+
+    }
+
+}
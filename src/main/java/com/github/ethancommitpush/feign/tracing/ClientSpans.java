@@ -0,0 +1,146 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.tracing;
+
+import feign.Request;
+import feign.Response;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.context.propagation.TextMapSetter;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Client spans of the requests of a feign client, shared by its blocking and non-blocking clients.
+ */
+final class ClientSpans {
+
+    private static final TextMapSetter<Headers> SETTER = Headers::put;
+
+    private final Tracer tracer;
+
+    private final TextMapPropagator propagator;
+
+    private final String name;
+
+    private final boolean propagating;
+
+    ClientSpans(Tracer tracer, TextMapPropagator propagator, String name) {
+        this.tracer = tracer;
+        this.propagator = propagator;
+        this.name = name;
+        this.propagating = !propagator.fields().isEmpty();
+    }
+
+    /**
+     * @return span started for the request, or null when the parent span is not sampled.
+     */
+    Span start(Request request, Context parent) {
+        SpanContext parentSpanContext = Span.fromContext(parent).getSpanContext();
+        if (parentSpanContext.isValid() && !parentSpanContext.isSampled()) {
+            return null;
+        }
+
+        Span span = tracer.spanBuilder(spanName(request))
+                .setParent(parent)
+                .setSpanKind(SpanKind.CLIENT)
+                .startSpan();
+        if (span.isRecording()) {
+            span.setAttribute("feign.client", name);
+            if (request.requestTemplate() != null && request.requestTemplate().methodMetadata() != null) {
+                span.setAttribute("feign.method", request.requestTemplate().methodMetadata().configKey());
+            }
+            span.setAttribute("http.method", request.httpMethod().name());
+            span.setAttribute("net.peer.name", host(request.url()));
+        }
+        return span;
+    }
+
+    static void responded(Span span, Response response) {
+        span.setAttribute("http.status_code", response.status());
+        if (response.status() >= 400) {
+            span.setStatus(StatusCode.ERROR);
+        }
+    }
+
+    static void failed(Span span, Throwable error) {
+        span.recordException(error);
+        span.setStatus(StatusCode.ERROR);
+    }
+
+    private static String spanName(Request request) {
+        if (request.requestTemplate() != null && request.requestTemplate().methodMetadata() != null) {
+            return request.requestTemplate().methodMetadata().configKey();
+        }
+        return "HTTP " + request.httpMethod().name();
+    }
+
+    private static String host(String url) {
+        try {
+            return URI.create(url).getHost();
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    /**
+     * @return the request with the headers of the context, or the request itself if the propagators write
+     * none, e.g. without a valid span context.
+     */
+    Request inject(Request request, Context parent, Span span) {
+        if (!propagating) {
+            return request;
+        }
+        Headers headers = new Headers(request.headers());
+        propagator.inject(span != null ? parent.with(span) : parent, headers, SETTER);
+        if (headers.copy == null) {
+            return request;
+        }
+        return Request.create(request.httpMethod(), request.url(), headers.copy, request.body(), request.charset(),
+                request.requestTemplate());
+    }
+
+    /**
+     * Headers of a request, copied on the first one set.
+     */
+    private static final class Headers {
+
+        private final Map<String, Collection<String>> headers;
+
+        private Map<String, Collection<String>> copy;
+
+        Headers(Map<String, Collection<String>> headers) {
+            this.headers = headers;
+        }
+
+        void put(String key, String value) {
+            if (copy == null) {
+                copy = new LinkedHashMap<>(headers);
+            }
+            copy.put(key, Collections.singletonList(value));
+        }
+
+    }
+
+}
@@ -0,0 +1,43 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@link org.springframework.boot.autoconfigure.EnableAutoConfiguration
+ * Auto-configuration} that traces feign clients when an {@link OpenTelemetry} bean is present.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(OpenTelemetry.class)
+@ConditionalOnBean(OpenTelemetry.class)
+@ConditionalOnProperty(prefix = "feign.tracing", name = "enabled", havingValue = "true", matchIfMissing = true)
+@AutoConfigureAfter(name = "io.opentelemetry.instrumentation.spring.autoconfigure.OpenTelemetryAutoConfiguration")
+public class FeignTracingAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public TracingClientDecorator feignTracingClientDecorator(OpenTelemetry openTelemetry) {
+        return new TracingClientDecorator(openTelemetry);
+    }
+
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.tracing;
+
+import com.github.ethancommitpush.feign.async.AsyncClient;
+
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Context;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link AsyncClient} which starts the client span of each request in the context of the calling thread,
+ * and ends it once the exchange completes.
+ */
+class TracingAsyncClient implements AsyncClient {
+
+    private final AsyncClient delegate;
+
+    private final ClientSpans spans;
+
+    TracingAsyncClient(AsyncClient delegate, ClientSpans spans) {
+        this.delegate = delegate;
+        this.spans = spans;
+    }
+
+    @Override
+    public CompletableFuture<Response> execute(Request request, Options options) {
+        Context parent = Context.current();
+        Span span = spans.start(request, parent);
+        if (span == null) {
+            return delegate.execute(spans.inject(request, parent, null), options);
+        }
+        CompletableFuture<Response> exchange;
+        try {
+            exchange = delegate.execute(spans.inject(request, parent, span), options);
+        } catch (RuntimeException e) {
+            ClientSpans.failed(span, e);
+            span.end();
+            throw e;
+        }
+        return AsyncClient.whenComplete(exchange, (response, e) -> {
+            if (response != null) {
+                ClientSpans.responded(span, response);
+            } else {
+                ClientSpans.failed(span, e);
+            }
+            span.end();
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> stream(Request request, Options options, BodyHandler handler) {
+        Context parent = Context.current();
+        Span span = spans.start(request, parent);
+        if (span == null) {
+            return delegate.stream(spans.inject(request, parent, null), options, handler);
+        }
+        BodyHandler tracing = new BodyHandler() {
+            @Override
+            public void onResponse(Response response, InputControl control) throws IOException {
+                ClientSpans.responded(span, response);
+                handler.onResponse(response, control);
+            }
+
+            @Override
+            public void onContent(ByteBuffer content) throws IOException {
+                handler.onContent(content);
+            }
+        };
+        CompletableFuture<Void> exchange;
+        try {
+            exchange = delegate.stream(spans.inject(request, parent, span), options, tracing);
+        } catch (RuntimeException e) {
+            ClientSpans.failed(span, e);
+            span.end();
+            throw e;
+        }
+        return AsyncClient.whenComplete(exchange, (r, e) -> {
+            if (e != null) {
+                ClientSpans.failed(span, e);
+            }
+            span.end();
+        });
+    }
+
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.tracing;
+
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+
+import java.io.IOException;
+
+/**
+ * {@link Client} which starts a client span for each request and propagates it in the request headers,
+ * in the formats of the configured propagators, e.g. W3C {@code traceparent} or B3. When the current span
+ * is not sampled, no span is started and only the current context is propagated.
+ */
+public class TracingClient implements Client {
+
+    private final Client delegate;
+
+    private final ClientSpans spans;
+
+    public TracingClient(Client delegate, Tracer tracer, TextMapPropagator propagator, String name) {
+        this(delegate, new ClientSpans(tracer, propagator, name));
+    }
+
+    TracingClient(Client delegate, ClientSpans spans) {
+        this.delegate = delegate;
+        this.spans = spans;
+    }
+
+    @Override
+    public Response execute(Request request, Options options) throws IOException {
+        Context parent = Context.current();
+        Span span = spans.start(request, parent);
+        if (span == null) {
+            return delegate.execute(spans.inject(request, parent, null), options);
+        }
+        try {
+            Response response = delegate.execute(spans.inject(request, parent, span), options);
+            ClientSpans.responded(span, response);
+            return response;
+        } catch (IOException | RuntimeException e) {
+            ClientSpans.failed(span, e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+}
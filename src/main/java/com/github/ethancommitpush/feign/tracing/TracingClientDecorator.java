@@ -0,0 +1,59 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.tracing;
+
+import com.github.ethancommitpush.feign.async.AsyncClient;
+import com.github.ethancommitpush.feign.client.ClientDecorator;
+
+import feign.Client;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+
+import org.springframework.core.Ordered;
+
+/**
+ * Decorates the http client of each feign client with a {@link TracingClient}, outermost so the span covers
+ * the other decorators, and its non-blocking client likewise.
+ */
+public class TracingClientDecorator implements ClientDecorator, Ordered {
+
+    private static final String INSTRUMENTATION_NAME = "com.github.ethancommitpush.feign";
+
+    private final Tracer tracer;
+
+    private final TextMapPropagator propagator;
+
+    public TracingClientDecorator(OpenTelemetry openTelemetry) {
+        this.tracer = openTelemetry.getTracer(INSTRUMENTATION_NAME);
+        this.propagator = openTelemetry.getPropagators().getTextMapPropagator();
+    }
+
+    @Override
+    public Client decorate(String name, Class<?> apiType, Client client) {
+        return new TracingClient(client, tracer, propagator, name);
+    }
+
+    @Override
+    public AsyncClient decorateAsync(String name, Class<?> apiType, AsyncClient client) {
+        return new TracingAsyncClient(client, new ClientSpans(tracer, propagator, name));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+}
@@ -22,22 +22,31 @@ import org.mockito.Mock;
 import static org.mockito.Mockito.*;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import com.github.ethancommitpush.feign.decoder.CustomErrorDecoder;
 import com.github.ethancommitpush.feign.example.TargetInterface;
+import com.github.ethancommitpush.feign.handler.GeneratedClient;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.core.env.Environment;
 
 import feign.Client;
 import feign.FeignException;
+import feign.InvocationHandlerFactory.MethodHandler;
 import feign.Request;
 import feign.Request.Options;
+import feign.RequestInterceptor;
+import feign.RequestLine;
 import feign.RequestTemplate;
 import feign.Response;
+import feign.Target;
 import feign.codec.DecodeException;
 import feign.codec.Decoder;
 import feign.codec.EncodeException;
@@ -213,4 +222,117 @@ public class FeignClientsFactoryTest {
         Assert.assertSame(expected, actual);
     }
 
+    @Test
+    public void test_resolveInterceptors_withAttribute_bean() {
+        RequestInterceptor expected = template -> template.header("X-Test", "test");
+
+        this.attributes.put("interceptors", new String[] { "myInterceptorBean" });
+        when(this.beanFactory.getBean("myInterceptorBean", RequestInterceptor.class)).thenReturn(expected);
+
+        List<RequestInterceptor> actual = this.target.resolveInterceptors();
+        Assert.assertEquals(Collections.singletonList(expected), actual);
+    }
+
+    @Test
+    public void test_resolveHeaders_clientOverGlobal() {
+        this.target.setBeanName("targetInterface");
+        this.properties.getHeaders().put("X-Tenant", "global");
+        this.properties.getHeaders().put("X-Global", "global");
+        FeignClientsProperties.ClientProperties client = new FeignClientsProperties.ClientProperties();
+        client.getHeaders().put("X-Tenant", "client");
+        this.properties.getClients().put("targetInterface", client);
+
+        Map<String, Collection<String>> actual = this.target.resolveHeaders();
+        Assert.assertEquals(Collections.singletonList("client"), actual.get("X-Tenant"));
+        Assert.assertEquals(Collections.singletonList("global"), actual.get("X-Global"));
+    }
+
+    interface EchoInterface {
+
+        @RequestLine("GET /echo")
+        String echo();
+
+    }
+
+    @Test
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void test_refresh_swapsDelegate() throws Exception {
+        ((FeignClientsFactory) this.target).setApiType(EchoInterface.class);
+        this.attributes.put("url", "${echo.url}");
+        when(this.environment.resolvePlaceholders("${echo.url}")).thenReturn("http://before");
+        when(this.feignClient.execute(any(), any())).thenAnswer(invocation -> Response.builder()
+                .status(200)
+                .headers(Collections.emptyMap())
+                .request(invocation.getArgument(0))
+                .body(new byte[0])
+                .build());
+        when(this.feignDecoder.decode(any(), any())).thenReturn("ok");
+
+        EchoInterface actual = (EchoInterface) this.target.getObject();
+        actual.echo();
+
+        when(this.environment.resolvePlaceholders("${echo.url}")).thenReturn("http://after");
+        this.target.refresh();
+        actual.echo();
+
+        verify(this.feignClient).execute(argThat(request -> request.url().equals("http://before/echo")), any());
+        verify(this.feignClient).execute(argThat(request -> request.url().equals("http://after/echo")), any());
+    }
+
+    /**
+     * As generated by spring-boot-starter-openfeign-processor.
+     */
+    public static final class EchoInterfaceImpl implements EchoInterface, GeneratedClient {
+
+        private volatile MethodHandler[] handlers;
+
+        @Override
+        public void bind(Target<?> target, Map<Method, MethodHandler> dispatch) {
+            try {
+                handlers = new MethodHandler[] { dispatch.get(EchoInterface.class.getMethod("echo")) };
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public String echo() {
+            try {
+                return (String) handlers[0].invoke(new Object[] {});
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+    }
+
+    @Test
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void test_getObject_generatedType() throws Exception {
+        ((FeignClientsFactory) this.target).setApiType(EchoInterface.class);
+        this.target.setGeneratedType(EchoInterfaceImpl.class);
+        this.attributes.put("url", "${echo.url}");
+        when(this.environment.resolvePlaceholders("${echo.url}")).thenReturn("http://before");
+        when(this.feignClient.execute(any(), any())).thenAnswer(invocation -> Response.builder()
+                .status(200)
+                .headers(Collections.emptyMap())
+                .request(invocation.getArgument(0))
+                .body(new byte[0])
+                .build());
+        when(this.feignDecoder.decode(any(), any())).thenReturn("ok");
+
+        Object actual = this.target.getObject();
+        Assert.assertTrue(actual instanceof EchoInterfaceImpl);
+        Assert.assertEquals("ok", ((EchoInterface) actual).echo());
+
+        when(this.environment.resolvePlaceholders("${echo.url}")).thenReturn("http://after");
+        this.target.refresh();
+        ((EchoInterface) actual).echo();
+
+        verify(this.feignClient).execute(argThat(request -> request.url().equals("http://before/echo")), any());
+        verify(this.feignClient).execute(argThat(request -> request.url().equals("http://after/echo")), any());
+    }
+
 }
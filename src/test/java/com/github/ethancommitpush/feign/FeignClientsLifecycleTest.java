@@ -0,0 +1,198 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign;
+
+import org.junit.Test;
+import org.junit.Assert;
+import static org.mockito.Mockito.*;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.Target;
+
+import com.github.ethancommitpush.feign.example.TargetInterface;
+
+public class FeignClientsLifecycleTest {
+
+    private final Target<TargetInterface> target = new Target.HardCodedTarget<>(TargetInterface.class,
+            "targetInterface", "http://test");
+
+    @Test
+    public void test_decorate_running() throws Throwable {
+        FeignClientsLifecycle lifecycle = new FeignClientsLifecycle(Duration.ZERO);
+        lifecycle.start();
+
+        MethodHandler handler = lifecycle.decorate(target, null, argv -> "ok");
+        Assert.assertEquals("ok", handler.invoke(new Object[0]));
+        Assert.assertEquals(0, lifecycle.getInFlightCalls());
+    }
+
+    @Test
+    public void test_decorate_stopped() throws Throwable {
+        FeignClientsLifecycle lifecycle = new FeignClientsLifecycle(Duration.ZERO);
+        lifecycle.start();
+        lifecycle.stop();
+
+        MethodHandler handler = lifecycle.decorate(target, null, argv -> "ok");
+        try {
+            handler.invoke(new Object[0]);
+            Assert.fail();
+        } catch (RejectedExecutionException e) {
+            Assert.assertEquals(1, lifecycle.getRejectedCalls());
+        }
+    }
+
+    @Test
+    public void test_destroy_closeRegistered() throws Exception {
+        Closeable closeable = mock(Closeable.class);
+        FeignClientsLifecycle lifecycle = new FeignClientsLifecycle(Duration.ZERO);
+        lifecycle.register(closeable);
+        lifecycle.start();
+        lifecycle.stop();
+
+        verify(closeable, never()).close();
+        Assert.assertFalse(lifecycle.isRunning());
+
+        lifecycle.destroy();
+        verify(closeable).close();
+        try {
+            lifecycle.start();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertFalse(lifecycle.isRunning());
+        }
+    }
+
+    @Test
+    public void test_start_afterStop() throws Throwable {
+        Closeable closeable = mock(Closeable.class);
+        FeignClientsLifecycle lifecycle = new FeignClientsLifecycle(Duration.ZERO);
+        lifecycle.register(closeable);
+        lifecycle.start();
+        lifecycle.stop();
+        lifecycle.start();
+
+        MethodHandler handler = lifecycle.decorate(target, null, argv -> "ok");
+        Assert.assertEquals("ok", handler.invoke(new Object[0]));
+        Assert.assertTrue(lifecycle.isRunning());
+        verify(closeable, never()).close();
+    }
+
+    @Test
+    public void test_stopAndDestroy_drainInFlight() throws Exception {
+        List<String> events = new CopyOnWriteArrayList<>();
+        FeignClientsLifecycle lifecycle = new FeignClientsLifecycle(Duration.ofSeconds(10));
+        lifecycle.register(() -> events.add("closed"));
+        lifecycle.start();
+        CountDownLatch started = new CountDownLatch(1);
+        MethodHandler handler = lifecycle.decorate(target, null, argv -> {
+            started.countDown();
+            TimeUnit.MILLISECONDS.sleep(200);
+            events.add("returned");
+            return "ok";
+        });
+        Thread call = new Thread(() -> {
+            try {
+                handler.invoke(new Object[0]);
+            } catch (Throwable e) {
+                events.add("failed");
+            }
+        });
+        call.start();
+        started.await();
+
+        long start = System.nanoTime();
+        lifecycle.stop();
+        lifecycle.destroy();
+
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 100);
+        Assert.assertEquals(Arrays.asList("returned", "closed"), events);
+        Assert.assertEquals(0, lifecycle.getAbortedCalls());
+        call.join();
+    }
+
+    @Test
+    public void test_stopAndDestroy_drainAsynchronousInFlight() throws Throwable {
+        List<String> events = new CopyOnWriteArrayList<>();
+        FeignClientsLifecycle lifecycle = new FeignClientsLifecycle(Duration.ofSeconds(10));
+        lifecycle.register(() -> events.add("closed"));
+        lifecycle.start();
+        CompletableFuture<String> future = new CompletableFuture<>();
+        MethodHandler handler = lifecycle.decorate(target, null, argv -> future);
+        Assert.assertSame(future, handler.invoke(new Object[0]));
+        Assert.assertEquals(1, lifecycle.getInFlightCalls());
+        Thread completion = new Thread(() -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add("completed");
+            future.complete("ok");
+        });
+        completion.start();
+
+        lifecycle.stop();
+        lifecycle.destroy();
+
+        Assert.assertEquals(Arrays.asList("completed", "closed"), events);
+        Assert.assertEquals(0, lifecycle.getInFlightCalls());
+        completion.join();
+    }
+
+    @Test
+    public void test_stopAndDestroy_timeout() throws Exception {
+        List<String> events = new CopyOnWriteArrayList<>();
+        FeignClientsLifecycle lifecycle = new FeignClientsLifecycle(Duration.ofMillis(200));
+        lifecycle.register(() -> events.add("closed"));
+        lifecycle.start();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MethodHandler handler = lifecycle.decorate(target, null, argv -> {
+            started.countDown();
+            release.await();
+            events.add("returned");
+            return "ok";
+        });
+        Thread call = new Thread(() -> {
+            try {
+                handler.invoke(new Object[0]);
+            } catch (Throwable e) {
+                events.add("failed");
+            }
+        });
+        call.start();
+        started.await();
+
+        long start = System.nanoTime();
+        lifecycle.stop();
+        lifecycle.destroy();
+
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+        Assert.assertEquals(Arrays.asList("closed"), events);
+        Assert.assertEquals(1, lifecycle.getAbortedCalls());
+        release.countDown();
+        call.join();
+    }
+
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class FeignClientsParallelBuilderTest {
+
+    static class TestFactory extends FeignClientsFactory<Object> {
+
+        private final String name;
+
+        private final Supplier<Object> build;
+
+        final AtomicInteger prepared = new AtomicInteger();
+
+        volatile Runnable onPrepare = () -> { };
+
+        volatile boolean built;
+
+        TestFactory(String name, Supplier<Object> build) {
+            this.name = name;
+            this.build = build;
+        }
+
+        @Override
+        Supplier<Object> prepare() {
+            prepared.incrementAndGet();
+            onPrepare.run();
+            return build;
+        }
+
+        @Override
+        boolean isBuilt() {
+            return built;
+        }
+
+        @Override
+        public String getBeanName() {
+            return name;
+        }
+
+    }
+
+    private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+    private final FeignClientsParallelBuilder target = new FeignClientsParallelBuilder(beanFactory, 2);
+
+    private TestFactory register(TestFactory factory) {
+        beanFactory.registerSingleton(factory.getBeanName(), factory);
+        return factory;
+    }
+
+    @Test
+    public void test_getBuilt_prebuilt() throws Exception {
+        Object a = new Object();
+        Object b = new Object();
+        TestFactory factoryA = register(new TestFactory("aClient", () -> a));
+        TestFactory factoryB = register(new TestFactory("bClient", () -> b));
+
+        Assert.assertSame(a, target.getBuilt(factoryA));
+        Assert.assertEquals(1, factoryA.prepared.get());
+        Assert.assertEquals(1, factoryB.prepared.get());
+        Assert.assertSame(b, target.getBuilt(factoryB));
+        // Handed out once, built on the calling thread afterwards, e.g. on refresh
+        Assert.assertNull(target.getBuilt(factoryA));
+        Assert.assertEquals(1, factoryA.prepared.get());
+    }
+
+    @Test
+    public void test_getBuilt_reentrantFallsBackToCallingThread() throws Exception {
+        TestFactory factoryA = register(new TestFactory("aClient", Object::new));
+        TestFactory factoryB = register(new TestFactory("bClient", Object::new));
+        Object[] reentrant = { "not called" };
+        // A component of aClient depends on bClient, which is then built on the calling thread
+        Runnable dependsOnB = () -> {
+            try {
+                reentrant[0] = target.getBuilt(factoryB);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            factoryB.built = true;
+        };
+        factoryA.onPrepare = dependsOnB;
+
+        Assert.assertNotNull(target.getBuilt(factoryA));
+        Assert.assertNull(reentrant[0]);
+        Assert.assertEquals(0, factoryB.prepared.get());
+        Assert.assertNull(target.getBuilt(factoryB));
+    }
+
+    @Test
+    public void test_getBuilt_exceptionUnwrapped() throws Exception {
+        IllegalStateException failure = new IllegalStateException("invalid API interface");
+        TestFactory factoryA = register(new TestFactory("aClient", () -> {
+            throw failure;
+        }));
+
+        try {
+            target.getBuilt(factoryA);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertSame(failure, e);
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign;
+
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import feign.Client;
+import feign.RequestLine;
+import feign.Response;
+
+import static org.mockito.Mockito.mock;
+
+public class FeignClientsRefresherTest {
+
+    interface EchoInterface {
+
+        @RequestLine("GET /echo")
+        String echo();
+
+    }
+
+    private final Map<String, Object> settings = new HashMap<>();
+
+    private final StandardEnvironment environment = new StandardEnvironment();
+
+    private final FeignClientsProperties properties = new FeignClientsProperties();
+
+    private final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+
+    private final List<Integer> readTimeouts = new CopyOnWriteArrayList<>();
+
+    private final Client client = (request, options) -> {
+        readTimeouts.add(options.readTimeoutMillis());
+        return Response.builder()
+                .status(200)
+                .headers(Collections.emptyMap())
+                .request(request)
+                .body("ok", StandardCharsets.UTF_8)
+                .build();
+    };
+
+    @Test
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void test_refresh() throws Exception {
+        settings.put("feign.logger-type", "NO_OP");
+        settings.put("feign.clients.echoClient.read-timeout", "1s");
+        settings.put("feign.clients.otherClient.read-timeout", "1s");
+        settings.put("feign.http-client.max-connections-per-route", "2");
+        environment.getPropertySources().addFirst(new MapPropertySource("test", settings));
+        FeignClientsRefresher refresher = new FeignClientsRefresher(environment, properties, connectionManager);
+        refresher.refresh();
+        FeignClientsProperties.HttpClient httpClient = properties.getHttpClient();
+        FeignClientsProperties.Admission admission = properties.getAdmission();
+
+        FeignClientsFactory factory = new FeignClientsFactory();
+        factory.setBeanFactory(mock(BeanFactory.class));
+        factory.setEnvironment(environment);
+        factory.setBeanName("echoClient");
+        factory.setApiType(EchoInterface.class);
+        factory.setAttributes(new HashMap<>(Collections.singletonMap("url", "http://echo.test")));
+        factory.setProperties(properties);
+        ReflectionTestUtils.setField(factory, "feignClient", client);
+        refresher.register(factory);
+        EchoInterface echo = (EchoInterface) factory.getObject();
+        Assert.assertEquals("ok", echo.echo());
+
+        settings.put("feign.clients.echoClient.read-timeout", "2s");
+        settings.put("feign.http-client.max-connections-per-route", "5");
+        settings.remove("feign.clients.otherClient.read-timeout");
+        refresher.refresh();
+
+        // Updated in place
+        Assert.assertSame(httpClient, properties.getHttpClient());
+        Assert.assertSame(admission, properties.getAdmission());
+        Assert.assertEquals(2000, properties.getClient("echoClient").getReadTimeout().toMillis());
+        Assert.assertFalse(properties.getClients().containsKey("otherClient"));
+        Assert.assertEquals(5, connectionManager.getDefaultMaxPerRoute());
+        // Rebuilt with the new value
+        Assert.assertEquals("ok", echo.echo());
+        Assert.assertEquals(Arrays.asList(1000, 2000), readTimeouts);
+    }
+
+}
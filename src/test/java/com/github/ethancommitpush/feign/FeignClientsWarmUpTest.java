@@ -0,0 +1,182 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FeignClientsWarmUpTest {
+
+    private final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+    private final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+
+    private final CloseableHttpClient httpClient = HttpClients.custom().setConnectionManager(connectionManager)
+            .build();
+
+    private final FeignClientsProperties properties = new FeignClientsProperties();
+
+    private final AtomicInteger accepted = new AtomicInteger();
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private ServerSocket server;
+
+    @Before
+    public void setUp() throws IOException {
+        // Keep-alive server counting the connections it accepts
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(() -> {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    accepted.incrementAndGet();
+                    Thread handler = new Thread(() -> serve(socket));
+                    handler.setDaemon(true);
+                    handler.start();
+                } catch (IOException e) {
+                    // Closed
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+        connectionManager.setDefaultMaxPerRoute(2);
+        appender.start();
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(FeignClientsWarmUp.class)).addAppender(appender);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(FeignClientsWarmUp.class)).detachAppender(appender);
+        httpClient.close();
+        server.close();
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(s.getInputStream(),
+                    StandardCharsets.US_ASCII));
+            OutputStream out = s.getOutputStream();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                requests.add(line.split(" ")[1]);
+                while (!(line = reader.readLine()).isEmpty()) {
+                    // Headers
+                }
+                out.write("HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\nok".getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+            }
+        } catch (IOException | NullPointerException e) {
+            // Closed by the client
+        }
+    }
+
+    private void register(String name, String url) {
+        beanFactory.registerSingleton(name, new FeignClientsFactory<Object>() {
+            @Override
+            public String getUrl() {
+                return url;
+            }
+        });
+    }
+
+    private FeignClientsWarmUp warmUp() {
+        FeignClientsWarmUp warmUp = new FeignClientsWarmUp(connectionManager, httpClient, properties);
+        warmUp.setBeanFactory(beanFactory);
+        return warmUp;
+    }
+
+    private void get(String url) throws IOException {
+        try (CloseableHttpResponse response = httpClient.execute(new HttpGet(url))) {
+            Assert.assertEquals("ok", EntityUtils.toString(response.getEntity()));
+        }
+    }
+
+    @Test
+    public void test_afterSingletonsInstantiated() throws Exception {
+        String url = "http://localhost:" + server.getLocalPort();
+        // Two clients of the same host, and one without a url
+        register("aClient", url + "/a");
+        register("bClient", url + "/b");
+        register("cClient", null);
+        properties.getWarmUp().setConnections(2);
+        properties.getWarmUp().setHealthPath("/health");
+
+        warmUp().afterSingletonsInstantiated();
+
+        Assert.assertEquals(2, accepted.get());
+        Assert.assertEquals(2, connectionManager.getTotalStats().getAvailable());
+        Assert.assertEquals(1, requests.size());
+        Assert.assertEquals("/a/health", requests.get(0));
+
+        // Served on the pre-opened connections
+        get(url + "/a/time");
+        get(url + "/b/time");
+        Assert.assertEquals(2, accepted.get());
+        Assert.assertEquals(3, requests.size());
+    }
+
+    @Test
+    public void test_afterSingletonsInstantiated_failureLogged() throws Exception {
+        ServerSocket closed = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        closed.close();
+        register("aClient", "http://localhost:" + closed.getLocalPort());
+        register("bClient", "http://localhost:" + server.getLocalPort());
+
+        warmUp().afterSingletonsInstantiated();
+
+        String failedHost = "localhost:" + closed.getLocalPort();
+        Assert.assertTrue(appender.list.stream().anyMatch(event -> event.getLevel() == Level.WARN
+                && event.getFormattedMessage().startsWith("feign client warm-up: failed to open connections to http://"
+                + failedHost + ", 0 opened") && event.getThrowableProxy() != null));
+        // No success reported for the failed host, only for the other one
+        Assert.assertFalse(appender.list.stream().anyMatch(event -> event.getLevel() == Level.INFO
+                && event.getFormattedMessage().contains(failedHost)));
+        Assert.assertTrue(appender.list.stream().anyMatch(event -> event.getLevel() == Level.INFO
+                && event.getFormattedMessage().startsWith("feign client warm-up: opened 1 connection(s) to http://"
+                + "localhost:" + server.getLocalPort())));
+        // The other hosts are still warmed up
+        Assert.assertEquals(1, accepted.get());
+        Assert.assertEquals(1, connectionManager.getTotalStats().getAvailable());
+    }
+
+}
@@ -76,5 +76,18 @@ public class FeignConfigurationUtilsTest {
             bf, "", TargetClassWrong.class);
     }
 
+    @Test
+    public void test_resolveOverrideableBean_withClassAndRegistry() {
+        BeanFactory bf = mock(BeanFactory.class);
+        FeignComponentRegistry registry = new FeignComponentRegistry();
+
+        TargetInterface first = FeignConfigurationUtils.resolveOverrideableBean(TargetInterface.class,
+            bf, "", TargetClassOK.class, registry, "first");
+        TargetInterface second = FeignConfigurationUtils.resolveOverrideableBean(TargetInterface.class,
+            bf, "", TargetClassOK.class, registry, "second");
+        Assert.assertTrue(first instanceof TargetClassOK);
+        Assert.assertSame(first, second);
+        Assert.assertEquals(2, registry.getUsers().get(TargetClassOK.class).size());
+    }
 
 }
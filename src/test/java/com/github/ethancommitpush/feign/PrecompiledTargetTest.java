@@ -0,0 +1,68 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import java.util.Collections;
+
+import com.github.ethancommitpush.feign.example.TargetInterface;
+
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Target.HardCodedTarget;
+
+public class PrecompiledTargetTest {
+
+    private RequestTemplate resolve(String uri) {
+        return new RequestTemplate()
+                .method(Request.HttpMethod.GET)
+                .uri(uri)
+                .header("Content-Type", "application/json")
+                .resolve(Collections.emptyMap());
+    }
+
+    private void assertSameRequest(String url, String uri) {
+        Request expected = new HardCodedTarget<>(TargetInterface.class, url).apply(resolve(uri));
+        Request actual = new PrecompiledTarget<>(TargetInterface.class, "targetInterface", url).apply(resolve(uri));
+
+        Assert.assertEquals(expected.url(), actual.url());
+        Assert.assertEquals(expected.httpMethod(), actual.httpMethod());
+        Assert.assertEquals(expected.headers(), actual.headers());
+        Assert.assertEquals(expected.isBinary(), actual.isBinary());
+    }
+
+    @Test
+    public void test_apply_sameAsHardCodedTarget() {
+        assertSameRequest("http://test", "/time/object?timestamp=2016-10-10");
+        assertSameRequest("http://test/", "/time/object");
+        assertSameRequest("http://test/api", "/time/object");
+        assertSameRequest("http://test?key=value", "/time/object");
+    }
+
+    @Test
+    public void test_apply_urlParameter() {
+        RequestTemplate template = new RequestTemplate()
+                .method(Request.HttpMethod.GET)
+                .uri("/time/object")
+                .target("http://other")
+                .resolve(Collections.emptyMap());
+
+        Request actual = new PrecompiledTarget<>(TargetInterface.class, "targetInterface", "http://test")
+                .apply(template);
+        Assert.assertEquals("http://other/time/object", actual.url());
+    }
+
+}
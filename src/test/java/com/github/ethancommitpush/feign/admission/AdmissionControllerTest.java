@@ -0,0 +1,176 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.admission;
+
+import com.github.ethancommitpush.feign.FeignClientsProperties;
+import com.github.ethancommitpush.feign.annotation.Priority;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import feign.Client;
+import feign.Feign;
+import feign.Logger;
+import feign.Request;
+import feign.RequestLine;
+import feign.Response;
+
+public class AdmissionControllerTest {
+
+    private final FeignClientsProperties.Admission properties = new FeignClientsProperties.Admission();
+
+    private final FeignClientsProperties feignClientsProperties = new FeignClientsProperties();
+
+    private AdmissionController target;
+
+    @Before
+    public void beforeEach() {
+        properties.setMaxConcurrentCalls(1);
+        properties.getMaxQueueTime().put(Priority.Level.BACKGROUND, Duration.ofSeconds(5));
+        properties.getMaxQueueTime().put(Priority.Level.CRITICAL, Duration.ofSeconds(5));
+        feignClientsProperties.setAdmission(properties);
+        target = new AdmissionController(feignClientsProperties);
+    }
+
+    @Test
+    public void test_release_admitsHighestPriorityFirst() throws Exception {
+        target.acquire(Priority.Level.NORMAL);
+        List<Priority.Level> admitted = new CopyOnWriteArrayList<>();
+        Thread background = waitFor(Priority.Level.BACKGROUND, admitted);
+        awaitQueued(Priority.Level.BACKGROUND);
+        Thread critical = waitFor(Priority.Level.CRITICAL, admitted);
+        awaitQueued(Priority.Level.CRITICAL);
+
+        target.release();
+        critical.join(5000);
+        background.join(5000);
+        Assert.assertEquals(Priority.Level.CRITICAL, admitted.get(0));
+        Assert.assertEquals(Priority.Level.BACKGROUND, admitted.get(1));
+        Assert.assertEquals(0, target.getInFlight());
+    }
+
+    @Test
+    public void test_acquire_shedAfterMaxQueueTime() throws Exception {
+        properties.getMaxQueueTime().put(Priority.Level.BACKGROUND, Duration.ofMillis(10));
+        target.acquire(Priority.Level.CRITICAL);
+        try {
+            target.acquire(Priority.Level.BACKGROUND);
+            Assert.fail();
+        } catch (CallShedException e) {
+            Assert.assertEquals(1, target.getLanes().get(Priority.Level.BACKGROUND).getShed());
+            Assert.assertEquals(0, target.getLanes().get(Priority.Level.BACKGROUND).getQueued());
+        }
+    }
+
+    @Test
+    public void test_acquire_refreshedProperties() throws Exception {
+        target.acquire(Priority.Level.NORMAL);
+        // Bound anew, as by a refresh
+        FeignClientsProperties.Admission refreshed = new FeignClientsProperties.Admission();
+        refreshed.setMaxConcurrentCalls(2);
+        feignClientsProperties.setAdmission(refreshed);
+
+        target.acquire(Priority.Level.NORMAL);
+        Assert.assertEquals(2, target.getInFlight());
+    }
+
+    interface Api {
+        @RequestLine("GET /")
+        String get();
+    }
+
+    @Test
+    public void test_execute_releasedWhenBodyLogged() throws Exception {
+        properties.getMaxQueueTime().put(Priority.Level.NORMAL, Duration.ofMillis(10));
+        Client client = (request, options) -> Response.builder()
+                .status(200)
+                .headers(Collections.emptyMap())
+                .request(request)
+                .body(new ByteArrayInputStream("ok".getBytes(StandardCharsets.UTF_8)), 2)
+                .build();
+        Api api = Feign.builder()
+                .client(new AdmissionClient(client, target, Priority.Level.NORMAL, Collections.emptyMap()))
+                .logger(new Logger() {
+                    @Override
+                    protected void log(String configKey, String format, Object... args) {
+                    }
+                })
+                .logLevel(Logger.Level.HEADERS)
+                .target(Api.class, "http://test");
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals("ok", api.get());
+            Assert.assertEquals(0, target.getInFlight());
+        }
+    }
+
+    @Test
+    public void test_executeAsync_heldUntilCompleted() throws Exception {
+        properties.getMaxQueueTime().put(Priority.Level.NORMAL, Duration.ofMillis(10));
+        CompletableFuture<Response> exchange = new CompletableFuture<>();
+        AdmissionAsyncClient client = new AdmissionAsyncClient((request, options) -> exchange, target,
+                Priority.Level.NORMAL, Collections.emptyMap());
+        Request request = Request.create(Request.HttpMethod.GET, "http://test/", Collections.emptyMap(), null,
+                StandardCharsets.UTF_8, null);
+
+        CompletableFuture<Response> response = client.execute(request, new Request.Options());
+        Assert.assertEquals(1, target.getInFlight());
+        // Shed without blocking the calling thread past its max queue time
+        CompletableFuture<Response> shed = client.execute(request, new Request.Options());
+        try {
+            shed.get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof CallShedException);
+        }
+
+        exchange.completeExceptionally(new IOException("Connection reset"));
+        Assert.assertTrue(response.isCompletedExceptionally());
+        Assert.assertEquals(0, target.getInFlight());
+    }
+
+    private Thread waitFor(Priority.Level level, List<Priority.Level> admitted) {
+        Thread thread = new Thread(() -> {
+            try {
+                target.acquire(level);
+                admitted.add(level);
+                target.release();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private void awaitQueued(Priority.Level level) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (target.getLanes().get(level).getQueued() == 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+    }
+
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.async;
+
+import com.github.ethancommitpush.feign.handler.DecoratingInvocationHandlerFactory;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import feign.Client;
+import feign.Feign;
+import feign.FeignException;
+import feign.Logger;
+import feign.Logger.Level;
+import feign.RequestLine;
+import feign.Response;
+import feign.codec.Decoder;
+import feign.codec.ErrorDecoder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AsyncMethodHandlerDecoratorTest {
+
+    interface EchoClient {
+
+        @RequestLine("GET /sync")
+        String sync();
+
+        @RequestLine("GET /async")
+        CompletableFuture<String> async();
+
+    }
+
+    private static Response response(feign.Request request, int status, String body) {
+        return Response.builder()
+                .status(status)
+                .headers(Collections.emptyMap())
+                .request(request)
+                .body(body, StandardCharsets.UTF_8)
+                .build();
+    }
+
+    private static class RecordingLogger extends Logger {
+
+        private final List<String> lines = new CopyOnWriteArrayList<>();
+
+        @Override
+        protected void log(String configKey, String format, Object... args) {
+            lines.add(String.format(format, args));
+        }
+
+    }
+
+    private static EchoClient build(AsyncClient asyncClient) {
+        return build((request, options) -> response(request, 200, "blocking"), asyncClient,
+                new Logger.NoOpLogger(), Level.NONE);
+    }
+
+    private static EchoClient build(Client client, AsyncClient asyncClient, Logger logger, Level logLevel) {
+        Decoder decoder = new Decoder.Default();
+        return Feign.builder()
+                .client(new AsyncDispatchingClient(client))
+                .decoder(decoder)
+                .logger(logger)
+                .logLevel(logLevel)
+                .invocationHandlerFactory(new DecoratingInvocationHandlerFactory(Collections.singletonList(
+                        new AsyncMethodHandlerDecorator(asyncClient, decoder, new ErrorDecoder.Default(),
+                                logger, logLevel))))
+                .target(EchoClient.class, "http://localhost");
+    }
+
+    @Test
+    public void test_async() throws Exception {
+        CompletableFuture<feign.Request> dispatched = new CompletableFuture<>();
+        CompletableFuture<Response> pending = new CompletableFuture<>();
+        EchoClient target = build((request, options) -> {
+            dispatched.complete(request);
+            return pending;
+        });
+
+        CompletableFuture<String> result = target.async();
+        Assert.assertFalse(result.isDone());
+        pending.complete(response(dispatched.get(), 200, "non-blocking"));
+        Assert.assertEquals("non-blocking", result.get());
+        Assert.assertEquals("blocking", target.sync());
+    }
+
+    @Test
+    public void test_async_error() throws Exception {
+        EchoClient target = build((request, options) ->
+                CompletableFuture.completedFuture(response(request, 500, "error")));
+        try {
+            target.async().get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof FeignException);
+        }
+    }
+
+    @Test
+    public void test_async_realResponseLogged() throws Exception {
+        RecordingLogger logger = new RecordingLogger();
+        EchoClient target = build((request, options) -> response(request, 200, "blocking"),
+                (request, options) -> CompletableFuture.completedFuture(response(request, 201, "non-blocking")),
+                logger, Level.BASIC);
+
+        Assert.assertEquals("non-blocking", target.async().get());
+        Assert.assertEquals(2, logger.lines.size());
+        Assert.assertTrue(logger.lines.get(0).startsWith("---> GET http://localhost/async"));
+        Assert.assertTrue(logger.lines.get(1).startsWith("<--- HTTP/1.1 201"));
+    }
+
+    @Test
+    public void test_async_failureLogged() throws Exception {
+        RecordingLogger logger = new RecordingLogger();
+        CompletableFuture<Response> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IOException("refused"));
+        EchoClient target = build((request, options) -> response(request, 200, "blocking"),
+                (request, options) -> failed, logger, Level.BASIC);
+
+        try {
+            target.async().get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IOException);
+        }
+        Assert.assertEquals(2, logger.lines.size());
+        Assert.assertTrue(logger.lines.get(1).startsWith("<--- ERROR IOException: refused"));
+    }
+
+    @Test
+    public void test_async_skipsBlockingClient() throws Exception {
+        AtomicInteger executed = new AtomicInteger();
+        Client decorated = (request, options) -> {
+            executed.incrementAndGet();
+            return response(request, 200, "blocking");
+        };
+        EchoClient target = build(decorated,
+                (request, options) -> CompletableFuture.completedFuture(response(request, 200, "non-blocking")),
+                new Logger.NoOpLogger(), Level.NONE);
+
+        Assert.assertEquals("non-blocking", target.async().get());
+        Assert.assertEquals(0, executed.get());
+        Assert.assertEquals("blocking", target.sync());
+        Assert.assertEquals(1, executed.get());
+    }
+
+}
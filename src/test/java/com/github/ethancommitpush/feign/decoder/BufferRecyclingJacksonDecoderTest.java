@@ -0,0 +1,95 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.decoder;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+import feign.Request;
+import feign.Response;
+
+public class BufferRecyclingJacksonDecoderTest {
+
+    private final BufferRecyclingJacksonDecoder target = new BufferRecyclingJacksonDecoder();
+
+    private Response response(String body) {
+        Request request = Request.create(Request.HttpMethod.GET, "http://test", Collections.emptyMap(),
+                Request.Body.empty(), null);
+        Response.Builder builder = Response.builder()
+                .status(200)
+                .headers(Collections.emptyMap())
+                .request(request);
+        if (body != null) {
+            builder.body(body, StandardCharsets.UTF_8);
+        }
+        return builder.build();
+    }
+
+    private Response response(String body, String contentType, Charset charset) {
+        Request request = Request.create(Request.HttpMethod.GET, "http://test", Collections.emptyMap(),
+                Request.Body.empty(), null);
+        return Response.builder()
+                .status(200)
+                .headers(Collections.singletonMap("Content-Type", Collections.singletonList(contentType)))
+                .request(request)
+                .body(body, charset)
+                .build();
+    }
+
+    static class Dto {
+        public int years;
+        public String name;
+    }
+
+    @Test
+    public void test_decode_happy() throws Exception {
+        Dto actual = (Dto) target.decode(response("{\"years\":2016,\"name\":\"test\",\"unknown\":{\"a\":[1]}}"),
+                Dto.class);
+        Assert.assertEquals(2016, actual.years);
+        Assert.assertEquals("test", actual.name);
+    }
+
+    @Test
+    public void test_decode_emptyBody() throws Exception {
+        Assert.assertNull(target.decode(response(""), Dto.class));
+        Assert.assertNull(target.decode(response(null), Dto.class));
+    }
+
+    @Test
+    public void test_decode_map() throws Exception {
+        Map<?, ?> actual = (Map<?, ?>) target.decode(response("{\"a\":\"b\"}"), Map.class);
+        Assert.assertEquals("b", actual.get("a"));
+    }
+
+    @Test
+    public void test_decode_charset() throws Exception {
+        String json = "{\"years\":2016,\"name\":\"caf\u00e9 \u20ac\"}";
+        Dto actual = (Dto) target.decode(response(json, "application/json; charset=windows-1252",
+                Charset.forName("windows-1252")), Dto.class);
+        Assert.assertEquals("caf\u00e9 \u20ac", actual.name);
+        actual = (Dto) target.decode(response(json.replace(" \u20ac", ""), "application/json;charset=\"ISO-8859-1\"",
+                StandardCharsets.ISO_8859_1), Dto.class);
+        Assert.assertEquals("caf\u00e9", actual.name);
+        // Detected from the bytes
+        actual = (Dto) target.decode(response(json, "application/json; charset=UTF-16", StandardCharsets.UTF_16BE),
+                Dto.class);
+        Assert.assertEquals("caf\u00e9 \u20ac", actual.name);
+    }
+
+}
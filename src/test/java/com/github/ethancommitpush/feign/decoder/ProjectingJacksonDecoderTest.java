@@ -0,0 +1,203 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.decoder;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import feign.Request;
+import feign.Response;
+
+public class ProjectingJacksonDecoderTest {
+
+    private final ProjectingJacksonDecoder target = new ProjectingJacksonDecoder();
+
+    private Response response(String body) {
+        Request request = Request.create(Request.HttpMethod.GET, "http://test", Collections.emptyMap(),
+                Request.Body.empty(), null);
+        Response.Builder builder = Response.builder()
+                .status(200)
+                .headers(Collections.emptyMap())
+                .request(request);
+        if (body != null) {
+            builder.body(body, StandardCharsets.UTF_8);
+        }
+        return builder.build();
+    }
+
+    private Response response(String body, String contentType, Charset charset) {
+        Request request = Request.create(Request.HttpMethod.GET, "http://test", Collections.emptyMap(),
+                Request.Body.empty(), null);
+        return Response.builder()
+                .status(200)
+                .headers(Collections.singletonMap("Content-Type", Collections.singletonList(contentType)))
+                .request(request)
+                .body(body, charset)
+                .build();
+    }
+
+    private Object decode(String body, Type type) throws Exception {
+        return target.decode(response(body.replace('\'', '"')), type);
+    }
+
+    static class Headers {
+        public String host;
+        @JsonAlias("Accept")
+        public String accept;
+    }
+
+    static class Item {
+        public int id;
+    }
+
+    static class Post {
+        public Headers headers;
+        @JsonProperty("link")
+        public String url;
+        public List<Item> items;
+        public Map<String, Item> byName;
+    }
+
+    static class Catalog {
+        public String name;
+        public LazySection<List<Item>> items;
+    }
+
+    static class Point {
+        final int x;
+        final int y;
+
+        @JsonCreator
+        Point(@JsonProperty("x") int x, @JsonProperty("y") int y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    static class Open {
+        public String name;
+        final Map<String, Object> others = new HashMap<>();
+
+        @JsonAnySetter
+        void set(String key, Object value) {
+            others.put(key, value);
+        }
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "kind")
+    @JsonSubTypes({@JsonSubTypes.Type(value = Circle.class, name = "circle")})
+    abstract static class Shape {
+    }
+
+    static class Circle extends Shape {
+        public int radius;
+    }
+
+    @Test
+    public void test_decode_projected() throws Exception {
+        Post actual = (Post) decode("{'args':{'a':[1,{'b':2}]},'headers':{'x-1':'v','host':'h','Accept':'json',"
+                + "'x-2':{'c':[]}},'link':'u','items':[{'id':1,'name':'a','tags':['x']},{'id':2},{}],"
+                + "'byName':{'a':{'id':3,'more':{'d':1}}},'json':[[1,2],{'e':null}]}", Post.class);
+        Assert.assertEquals("h", actual.headers.host);
+        Assert.assertEquals("json", actual.headers.accept);
+        Assert.assertEquals("u", actual.url);
+        Assert.assertEquals(3, actual.items.size());
+        Assert.assertEquals(2, actual.items.get(1).id);
+        Assert.assertEquals(3, actual.byName.get("a").id);
+    }
+
+    @Test
+    public void test_decode_creator() throws Exception {
+        Point actual = (Point) decode("{'z':{'w':1},'y':2,'x':1}", Point.class);
+        Assert.assertEquals(1, actual.x);
+        Assert.assertEquals(2, actual.y);
+    }
+
+    @Test
+    public void test_decode_notProjected() throws Exception {
+        Open open = (Open) decode("{'name':'n','a':{'b':1}}", Open.class);
+        Assert.assertEquals(Collections.singletonMap("b", 1), open.others.get("a"));
+        Circle circle = (Circle) decode("{'radius':2,'extra':[1],'kind':'circle'}", Shape.class);
+        Assert.assertEquals(2, circle.radius);
+        Map<?, ?> map = (Map<?, ?>) decode("{'a':{'b':1}}", Map.class);
+        Assert.assertEquals(Collections.singletonMap("b", 1), map.get("a"));
+    }
+
+    @Test
+    public void test_decode_lazySection() throws Exception {
+        Catalog actual = (Catalog) decode("{'name':'c','items':[{'id':1,'name':'a'},{'id':2,'tags':[1]}]}",
+                Catalog.class);
+        Assert.assertEquals("c", actual.name);
+        Assert.assertFalse(actual.items.isDecoded());
+        Assert.assertEquals("[{\"id\":1,\"name\":\"a\"},{\"id\":2,\"tags\":[1]}]", actual.items.toString());
+        Assert.assertEquals(2, actual.items.get().get(1).id);
+        Assert.assertTrue(actual.items.isDecoded());
+        Assert.assertEquals("{\"name\":\"c\",\"items\":[{\"id\":1},{\"id\":2}]}",
+                new ObjectMapper().writeValueAsString(actual));
+
+        Assert.assertNull(((Catalog) decode("{'name':'c','items':null}", Catalog.class)).items);
+
+        // Copied when parsed from a stream
+        Catalog streamed = (Catalog) new BufferRecyclingJacksonDecoder().decode(
+                response("{\"items\":[{\"id\":3,\"name\":\"b\"}]}"), Catalog.class);
+        Assert.assertEquals("[{\"id\":3,\"name\":\"b\"}]", streamed.items.toString());
+        Assert.assertEquals(3, streamed.items.get().get(0).id);
+    }
+
+    @Test
+    public void test_decode_emptyBody() throws Exception {
+        Assert.assertNull(target.decode(response(""), Post.class));
+        Assert.assertNull(target.decode(response(null), Post.class));
+    }
+
+    @Test
+    public void test_decode_array() throws Exception {
+        Item[] actual = (Item[]) decode("[{'id':1,'x':{'y':[]}},{'id':2}]", Item[].class);
+        Assert.assertEquals(2, actual.length);
+        Assert.assertEquals(2, actual[1].id);
+    }
+
+    @Test
+    public void test_decode_charset() throws Exception {
+        Charset charset = Charset.forName("windows-1252");
+        String contentType = "application/json; charset=windows-1252";
+        Post post = (Post) target.decode(response("{\"headers\":{\"host\":\"caf\u00e9\"}}", contentType, charset),
+                Post.class);
+        Assert.assertEquals("caf\u00e9", post.headers.host);
+
+        Catalog catalog = (Catalog) target.decode(response(
+                "{\"name\":\"\u20ac\",\"items\":[{\"id\":1,\"name\":\"caf\u00e9\"}]}", contentType, charset),
+                Catalog.class);
+        Assert.assertEquals("\u20ac", catalog.name);
+        Assert.assertEquals("[{\"id\":1,\"name\":\"caf\u00e9\"}]", catalog.items.toString());
+        Assert.assertEquals(1, catalog.items.get().get(0).id);
+    }
+
+}
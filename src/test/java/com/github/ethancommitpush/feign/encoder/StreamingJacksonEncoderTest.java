@@ -0,0 +1,76 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.encoder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.RequestTemplate;
+
+public class StreamingJacksonEncoderTest {
+
+    private final StreamingJacksonEncoder target = new StreamingJacksonEncoder();
+
+    @Test
+    public void test_encode_outOfScope() {
+        RequestTemplate template = new RequestTemplate();
+        target.encode(Arrays.asList(1, 2), List.class, template);
+        Assert.assertEquals("[1,2]", new String(template.body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void test_encode_outOfScope_sequence() {
+        RequestTemplate template = new RequestTemplate();
+        target.encode(Stream.of("a", "b"), Stream.class, template);
+        Assert.assertEquals("\"a\"\n\"b\"\n", new String(template.body(), StandardCharsets.UTF_8));
+        Assert.assertTrue(template.headers().get("Content-Type").contains(StreamingBody.NDJSON));
+    }
+
+    @Test
+    public void test_encode_inScope() throws Throwable {
+        RequestTemplate template = new RequestTemplate();
+        MethodHandler handler = argv -> {
+            target.encode(Arrays.asList(1, 2), List.class, template);
+            StreamingBody body = StreamingScope.body();
+            Assert.assertNotNull(body);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            body.writeTo(out);
+            return out.toString("UTF-8");
+        };
+        Object result = StreamingScope.DECORATOR.decorate(null, null, handler).invoke(new Object[0]);
+        Assert.assertEquals("[1,2]", result);
+        Assert.assertNull(template.body());
+        Assert.assertNull(StreamingScope.body());
+    }
+
+    @Test(expected = IOException.class)
+    public void test_writeTo_sequenceTwice() throws IOException {
+        StreamingBody body = new StreamingBody(new ObjectMapper(),
+                Arrays.asList(1, 2).iterator(), Iterator.class);
+        body.writeTo(new ByteArrayOutputStream());
+        body.writeTo(new ByteArrayOutputStream());
+    }
+
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.httpclient;
+
+import org.junit.Test;
+import org.junit.Assert;
+import static org.mockito.Mockito.*;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import org.apache.http.conn.DnsResolver;
+
+public class CachingDnsResolverTest {
+
+    @Test
+    public void test_resolve_cached() throws Exception {
+        InetAddress[] expected = { InetAddress.getByAddress("test", new byte[] { 10, 0, 0, 1 }) };
+        DnsResolver delegate = mock(DnsResolver.class);
+        when(delegate.resolve("test")).thenReturn(expected);
+
+        CachingDnsResolver target = new CachingDnsResolver(delegate, 60_000L);
+        Assert.assertArrayEquals(expected, target.resolve("test"));
+        Assert.assertArrayEquals(expected, target.resolve("test"));
+
+        verify(delegate, times(1)).resolve("test");
+    }
+
+    @Test
+    public void test_resolve_expired() throws Exception {
+        InetAddress[] expected = { InetAddress.getByAddress("test", new byte[] { 10, 0, 0, 1 }) };
+        DnsResolver delegate = mock(DnsResolver.class);
+        when(delegate.resolve("test")).thenReturn(expected);
+
+        CachingDnsResolver target = new CachingDnsResolver(delegate, 0L);
+        target.resolve("test");
+        target.resolve("test");
+
+        verify(delegate, times(2)).resolve("test");
+    }
+
+    @Test
+    public void test_resolve_staleOnFailure() throws Exception {
+        InetAddress[] expected = { InetAddress.getByAddress("test", new byte[] { 10, 0, 0, 1 }) };
+        DnsResolver delegate = mock(DnsResolver.class);
+        when(delegate.resolve("test")).thenReturn(expected).thenThrow(new UnknownHostException("test"));
+
+        CachingDnsResolver target = new CachingDnsResolver(delegate, 0L);
+        target.resolve("test");
+        Assert.assertArrayEquals(expected, target.resolve("test"));
+    }
+
+    @Test(expected = UnknownHostException.class)
+    public void test_resolve_unknownHost() throws Exception {
+        DnsResolver delegate = mock(DnsResolver.class);
+        when(delegate.resolve("test")).thenThrow(new UnknownHostException("test"));
+
+        new CachingDnsResolver(delegate, 60_000L).resolve("test");
+    }
+
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.httpclient;
+
+import com.github.ethancommitpush.feign.FeignClientsProperties;
+
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+
+import feign.Client;
+import feign.Feign;
+import feign.Logger;
+import feign.Request;
+import feign.RequestLine;
+import feign.Response;
+
+public class ConnectionPartitionsTest {
+
+    private final FeignClientsProperties properties = new FeignClientsProperties();
+
+    private final Client client = (request, options) -> Response.builder()
+            .status(200)
+            .headers(Collections.emptyMap())
+            .request(request)
+            .body(new byte[0])
+            .build();
+
+    private final Client streamingClient = (request, options) -> Response.builder()
+            .status(200)
+            .headers(Collections.emptyMap())
+            .request(request)
+            .body(new ByteArrayInputStream("ok".getBytes(StandardCharsets.UTF_8)), 2)
+            .build();
+
+    interface Api {
+        @RequestLine("GET /")
+        String get();
+    }
+
+    private final Request request = Request.create(Request.HttpMethod.GET, "http://test/", Collections.emptyMap(),
+            Request.Body.empty(), null);
+
+    private ConnectionPartitions target;
+
+    @Before
+    public void beforeEach() {
+        properties.getHttpClient().setMaxConnections(3);
+        properties.getHttpClient().setMaxConnectionsPerRoute(3);
+        FeignClientsProperties.ClientProperties critical = new FeignClientsProperties.ClientProperties();
+        critical.getPool().setReserved(2);
+        properties.getClients().put("critical", critical);
+        FeignClientsProperties.ClientProperties batch = new FeignClientsProperties.ClientProperties();
+        batch.getPool().setLeaseTimeout(Duration.ofMillis(10));
+        properties.getClients().put("batch", batch);
+        target = new ConnectionPartitions(properties);
+    }
+
+    @Test
+    public void test_partition_disabled() {
+        properties.getClients().clear();
+        Assert.assertSame(client, target.partition("batch", "http://test", client));
+    }
+
+    @Test
+    public void test_execute_reservedNotBorrowed() throws Exception {
+        Client critical = target.partition("critical", "http://test", client);
+        Client batch = target.partition("batch", "http://test", client);
+
+        Response first = batch.execute(request, new Request.Options());
+        try {
+            batch.execute(request, new Request.Options());
+            Assert.fail();
+        } catch (ConnectionPoolTimeoutException e) {
+            Assert.assertEquals(1, target.getPartitions().get("batch").getTimeouts());
+        }
+        Response reserved1 = critical.execute(request, new Request.Options());
+        Response reserved2 = critical.execute(request, new Request.Options());
+        Assert.assertEquals(2, target.getPartitions().get("critical").getLeased());
+
+        first.close();
+        Assert.assertEquals(0, target.getPartitions().get("batch").getLeased());
+        batch.execute(request, new Request.Options()).close();
+        reserved1.close();
+        reserved2.close();
+        Assert.assertEquals(0, target.getPartitions().get("critical").getLeased());
+    }
+
+    @Test
+    public void test_execute_borrowsBeyondReserved() throws Exception {
+        Client critical = target.partition("critical", "http://test", client);
+        target.partition("batch", "http://test", client);
+
+        critical.execute(request, new Request.Options());
+        critical.execute(request, new Request.Options());
+        critical.execute(request, new Request.Options());
+        Assert.assertEquals(3, target.getPartitions().get("critical").getLeased());
+    }
+
+    @Test
+    public void test_execute_releasedWhenBodyLogged() throws Exception {
+        properties.getClients().get("critical").getPool().setMax(2);
+        properties.getClients().get("critical").getPool().setLeaseTimeout(Duration.ofMillis(10));
+        Api api = Feign.builder()
+                .client(target.partition("critical", "http://test", streamingClient))
+                .logger(new Logger() {
+                    @Override
+                    protected void log(String configKey, String format, Object... args) {
+                    }
+                })
+                .logLevel(Logger.Level.FULL)
+                .target(Api.class, "http://test");
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals("ok", api.get());
+            Assert.assertEquals(0, target.getPartitions().get("critical").getLeased());
+        }
+    }
+
+    @Test
+    public void test_execute_boundedPerRoute() throws Exception {
+        properties.getHttpClient().setMaxConnectionsPerRoute(2);
+        properties.getHttpClient().setMaxConnections(4);
+        properties.getClients().get("critical").getPool().setReserved(1);
+        properties.getClients().get("critical").getPool().setLeaseTimeout(Duration.ofMillis(10));
+        // Both feign clients on one host, and another one elsewhere
+        Client critical = target.partition("critical", "http://test", client);
+        Client batch = target.partition("batch", "http://TEST:80/api", client);
+        Client other = target.partition("other", "https://other.test", client);
+        Assert.assertEquals("http://test:80", target.getPartitions().get("batch").getRoute());
+
+        // The route keeps the connection reserved to critical
+        batch.execute(request, new Request.Options());
+        try {
+            batch.execute(request, new Request.Options());
+            Assert.fail();
+        } catch (ConnectionPoolTimeoutException e) {
+            Assert.assertEquals(1, target.getPartitions().get("batch").getTimeouts());
+        }
+        critical.execute(request, new Request.Options());
+        // Full as the pool would be for the route, without waiting in the pool
+        try {
+            critical.execute(request, new Request.Options());
+            Assert.fail();
+        } catch (ConnectionPoolTimeoutException e) {
+            Assert.assertEquals(1, target.getPartitions().get("critical").getTimeouts());
+        }
+        other.execute(request, new Request.Options());
+        other.execute(request, new Request.Options());
+        Assert.assertEquals(2, target.getPartitions().get("other").getLeased());
+    }
+
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.httpclient;
+
+import org.apache.http.HttpHost;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketException;
+
+public class StaleConnectionRetryHandlerTest {
+
+    private final ConnectionReuseMetrics metrics = new ConnectionReuseMetrics();
+
+    private final StaleConnectionRetryHandler target = new StaleConnectionRetryHandler(1, metrics);
+
+    @Test
+    public void test_retryRequest_idempotent() {
+        Assert.assertTrue(retry(new NoHttpResponseException("no response"), 1, new HttpGet("http://test/"), true));
+        Assert.assertTrue(retry(new SocketException("Connection reset"), 1, new HttpGet("http://test/"), true));
+        Assert.assertEquals(2, metrics.getHosts().get("http://test:80").getStaleRetries());
+    }
+
+    @Test
+    public void test_retryRequest_notIdempotent() {
+        Assert.assertFalse(retry(new NoHttpResponseException("no response"), 1, new HttpPost("http://test/"), true));
+        Assert.assertTrue(retry(new NoHttpResponseException("no response"), 1, new HttpPost("http://test/"), false));
+    }
+
+    @Test
+    public void test_retryRequest_notStale() {
+        Assert.assertFalse(retry(new ConnectException("refused"), 1, new HttpGet("http://test/"), false));
+        Assert.assertFalse(retry(new IOException("other"), 1, new HttpGet("http://test/"), false));
+        Assert.assertFalse(retry(new NoHttpResponseException("no response"), 2, new HttpGet("http://test/"), true));
+        Assert.assertTrue(metrics.getHosts().isEmpty());
+    }
+
+    private boolean retry(IOException exception, int executionCount, HttpUriRequest request, boolean sent) {
+        HttpClientContext context = HttpClientContext.create();
+        context.setAttribute(HttpCoreContext.HTTP_REQUEST, request);
+        context.setAttribute(HttpCoreContext.HTTP_REQ_SENT, sent);
+        context.setAttribute(HttpCoreContext.HTTP_TARGET_HOST, new HttpHost("test", 80, "http"));
+        return target.retryRequest(exception, executionCount, context);
+    }
+
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.httpclient;
+
+import com.github.ethancommitpush.feign.encoder.StreamingJacksonEncoder;
+import com.github.ethancommitpush.feign.encoder.StreamingScope;
+import com.github.ethancommitpush.feign.handler.DecoratingInvocationHandlerFactory;
+import com.sun.net.httpserver.HttpServer;
+
+import feign.Feign;
+import feign.RequestLine;
+import feign.Retryer;
+import feign.Util;
+
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+public class StreamingApacheHttpClientTest {
+
+    interface EventClient {
+
+        @RequestLine("POST /events")
+        void send(Stream<Map<String, Object>> events);
+
+        @RequestLine("POST /batch")
+        void sendBatch(List<Integer> batch);
+
+    }
+
+    private HttpServer server;
+
+    private CloseableHttpClient httpClient;
+
+    private volatile List<String> transferEncoding;
+
+    private volatile List<String> contentType;
+
+    private volatile List<String> contentLength;
+
+    private volatile String body;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            transferEncoding = exchange.getRequestHeaders().get("Transfer-Encoding");
+            contentType = exchange.getRequestHeaders().get("Content-Type");
+            contentLength = exchange.getRequestHeaders().get("Content-Length");
+            try (InputStream in = exchange.getRequestBody()) {
+                body = new String(Util.toByteArray(in), StandardCharsets.UTF_8);
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        httpClient = HttpClients.createDefault();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    private EventClient target() {
+        return Feign.builder()
+                .client(new StreamingApacheHttpClient(httpClient))
+                .encoder(new StreamingJacksonEncoder())
+                .invocationHandlerFactory(new DecoratingInvocationHandlerFactory(
+                        Collections.singletonList(StreamingScope.DECORATOR)))
+                .target(EventClient.class, "http://localhost:" + server.getAddress().getPort());
+    }
+
+    @Test
+    public void test_execute_ndjsonChunked() {
+        target().send(Stream.of(Collections.singletonMap("id", 1), Collections.singletonMap("id", 2)));
+
+        Assert.assertEquals(Collections.singletonList("chunked"), transferEncoding);
+        Assert.assertNull(contentLength);
+        Assert.assertEquals(Collections.singletonList("application/x-ndjson"), contentType);
+        Assert.assertEquals("{\"id\":1}\n{\"id\":2}\n", body);
+    }
+
+    @Test
+    public void test_execute_jsonChunked() {
+        target().sendBatch(Arrays.asList(1, 2, 3));
+
+        Assert.assertEquals(Collections.singletonList("chunked"), transferEncoding);
+        Assert.assertNull(contentLength);
+        Assert.assertEquals(1, contentType.size());
+        Assert.assertTrue(contentType.get(0).startsWith("application/json"));
+        Assert.assertEquals("[1,2,3]", body);
+    }
+
+    @Test
+    public void test_execute_consumedBodyNotRetried() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        try (ServerSocket closing = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            Thread acceptor = new Thread(() -> {
+                while (!closing.isClosed()) {
+                    // Reads the request, then closes the connection without a response
+                    try (Socket socket = closing.accept()) {
+                        requests.incrementAndGet();
+                        BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                                StandardCharsets.US_ASCII));
+                        String line;
+                        while ((line = reader.readLine()) != null && !line.equals("0")) {
+                            // Headers and chunks
+                        }
+                    } catch (IOException e) {
+                        // Closed
+                    }
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+            EventClient target = Feign.builder()
+                    .client(new StreamingApacheHttpClient(httpClient))
+                    .encoder(new StreamingJacksonEncoder())
+                    .retryer(new Retryer.Default(1, 1, 5))
+                    .invocationHandlerFactory(new DecoratingInvocationHandlerFactory(
+                            Collections.singletonList(StreamingScope.DECORATOR)))
+                    .target(EventClient.class, "http://localhost:" + closing.getLocalPort());
+
+            try {
+                target.send(Stream.of(Collections.singletonMap("id", 1)));
+                Assert.fail();
+            } catch (UncheckedIOException e) {
+                Assert.assertTrue(e.getCause() instanceof NoHttpResponseException);
+            }
+            Assert.assertEquals(1, requests.get());
+        }
+    }
+
+}
@@ -0,0 +1,222 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.httpclient;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class UnixDomainSocketTest {
+
+    private File directory;
+
+    private String path;
+
+    private ServerSocketChannel server;
+
+    private final AtomicInteger accepted = new AtomicInteger();
+
+    private final List<String> hosts = new CopyOnWriteArrayList<>();
+
+    private UnixDomainSocketClients clients;
+
+    @Before
+    public void setUp() throws Exception {
+        Assume.assumeTrue(UnixDomainSocket.isSupported());
+        directory = Files.createTempDirectory("uds").toFile();
+        path = new File(directory, "test.sock").getPath();
+        // Compiled for Java 8
+        ProtocolFamily unix = StandardProtocolFamily.valueOf("UNIX");
+        SocketAddress address = (SocketAddress) Class.forName("java.net.UnixDomainSocketAddress")
+                .getMethod("of", String.class).invoke(null, path);
+        server = (ServerSocketChannel) ServerSocketChannel.class.getMethod("open", ProtocolFamily.class)
+                .invoke(null, unix);
+        server.bind(address);
+        Thread acceptor = new Thread(this::accept, "uds-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        clients = new UnixDomainSocketClients(2);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (clients != null) {
+            clients.close();
+        }
+        if (server != null) {
+            server.close();
+            new File(path).delete();
+            directory.delete();
+        }
+    }
+
+    private void accept() {
+        while (server.isOpen()) {
+            SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (IOException e) {
+                return;
+            }
+            accepted.incrementAndGet();
+            Thread handler = new Thread(() -> serve(channel), "uds-connection");
+            handler.setDaemon(true);
+            handler.start();
+        }
+    }
+
+    /**
+     * Answer the requests of a keep-alive connection with their path, but never the ones of /slow.
+     */
+    private void serve(SocketChannel channel) {
+        try (SocketChannel c = channel) {
+            InputStream in = Channels.newInputStream(c);
+            OutputStream out = Channels.newOutputStream(c);
+            String head;
+            while ((head = readHead(in)) != null) {
+                String requestPath = head.split(" ")[1];
+                for (String line : head.split("\r\n")) {
+                    if (line.toLowerCase().startsWith("host:")) {
+                        hosts.add(line.substring("host:".length()).trim());
+                    }
+                }
+                if (requestPath.equals("/slow")) {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+                    return;
+                }
+                byte[] body = requestPath.getBytes(StandardCharsets.UTF_8);
+                out.write(("HTTP/1.1 200 OK\r\nContent-Type: text/plain\r\nContent-Length: " + body.length
+                        + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                out.write(body);
+                out.flush();
+            }
+        } catch (IOException | InterruptedException e) {
+            // connection closed by the client
+        }
+    }
+
+    private static String readHead(InputStream in) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        int b;
+        int matched = 0;
+        while ((b = in.read()) != -1) {
+            head.write(b);
+            matched = b == "\r\n\r\n".charAt(matched) ? matched + 1 : (b == '\r' ? 1 : 0);
+            if (matched == 4) {
+                return new String(head.toByteArray(), StandardCharsets.US_ASCII);
+            }
+        }
+        return null;
+    }
+
+    private Response get(String requestPath, long readTimeoutMillis) throws IOException {
+        Client client = clients.getClient("unix://" + path);
+        Request request = Request.create(Request.HttpMethod.GET, UnixDomainSocketClients.TARGET_URL + requestPath,
+                Collections.emptyMap(), null, StandardCharsets.UTF_8, null);
+        return client.execute(request, new Request.Options(1, TimeUnit.SECONDS, readTimeoutMillis,
+                TimeUnit.MILLISECONDS, true));
+    }
+
+    @Test
+    public void test_roundTrip() throws Exception {
+        try (UnixDomainSocket socket = new UnixDomainSocket(path)) {
+            socket.open();
+            socket.setSoTimeout(1000);
+            socket.getOutputStream().write("GET /raw HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                    .getBytes(StandardCharsets.US_ASCII));
+            String head = readHead(socket.getInputStream());
+            Assert.assertNotNull(head);
+            Assert.assertTrue(head.startsWith("HTTP/1.1 200 OK"));
+            byte[] body = new byte[4];
+            Assert.assertEquals(4, socket.getInputStream().read(body));
+            Assert.assertEquals("/raw", new String(body, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void test_client_roundTrip() throws Exception {
+        try (Response response = get("/hello", 1000)) {
+            Assert.assertEquals(200, response.status());
+            Assert.assertEquals("/hello", Util.toString(response.body().asReader(StandardCharsets.UTF_8)));
+        }
+        Assert.assertEquals(Collections.singletonList("localhost"), hosts);
+    }
+
+    @Test
+    public void test_client_connectionReused() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            try (Response response = get("/hello", 1000)) {
+                Assert.assertEquals("/hello", Util.toString(response.body().asReader(StandardCharsets.UTF_8)));
+            }
+        }
+        Assert.assertEquals(1, accepted.get());
+        Assert.assertEquals(1, clients.getConnectionManagers().get(path).getTotalStats().getAvailable());
+    }
+
+    @Test
+    public void test_readTimeout() throws Exception {
+        try (UnixDomainSocket socket = new UnixDomainSocket(path)) {
+            socket.open();
+            socket.setSoTimeout(100);
+            socket.getOutputStream().write("GET /slow HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                    .getBytes(StandardCharsets.US_ASCII));
+            long start = System.nanoTime();
+            try {
+                socket.getInputStream().read();
+                Assert.fail();
+            } catch (SocketTimeoutException e) {
+                Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+            }
+        }
+    }
+
+    @Test
+    public void test_client_readTimeout() throws Exception {
+        try {
+            get("/slow", 100).close();
+            Assert.fail();
+        } catch (SocketTimeoutException e) {
+            // The connection is discarded rather than pooled
+            Assert.assertEquals(0, clients.getConnectionManagers().get(path).getTotalStats().getAvailable());
+        }
+    }
+
+}
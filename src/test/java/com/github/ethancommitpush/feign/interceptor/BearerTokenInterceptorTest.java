@@ -0,0 +1,120 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.interceptor;
+
+import com.github.ethancommitpush.feign.interceptor.BearerTokenInterceptor.Token;
+
+import feign.RequestTemplate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+public class BearerTokenInterceptorTest {
+
+    private static String authorization(BearerTokenInterceptor target) {
+        RequestTemplate template = new RequestTemplate();
+        target.apply(template);
+        Collection<String> values = template.headers().get("Authorization");
+        return values != null ? values.iterator().next() : null;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void test_apply_firstFetch() {
+        AtomicInteger fetches = new AtomicInteger();
+        try (BearerTokenInterceptor target = new BearerTokenInterceptor(
+                () -> new Token("t" + fetches.incrementAndGet(), Instant.now().plus(Duration.ofHours(1))),
+                Duration.ofMinutes(1), Duration.ofSeconds(10))) {
+            Assert.assertEquals(0, fetches.get());
+            Assert.assertEquals("Bearer t1", authorization(target));
+            Assert.assertEquals("Bearer t1", authorization(target));
+            Assert.assertEquals(1, fetches.get());
+        }
+    }
+
+    @Test
+    public void test_apply_refreshedInBackground() throws Exception {
+        AtomicInteger fetches = new AtomicInteger();
+        // Refreshed 50ms after each fetch
+        try (BearerTokenInterceptor target = new BearerTokenInterceptor(
+                () -> new Token("t" + fetches.incrementAndGet(), Instant.now().plus(Duration.ofMillis(1050))),
+                Duration.ofSeconds(1), Duration.ofMillis(10))) {
+            Assert.assertEquals("Bearer t1", authorization(target));
+            await(() -> fetches.get() >= 2);
+            await(() -> !"Bearer t1".equals(authorization(target)));
+            Assert.assertTrue(authorization(target).startsWith("Bearer t"));
+        }
+    }
+
+    @Test
+    public void test_apply_failedFirstFetch() throws Exception {
+        AtomicInteger fetches = new AtomicInteger();
+        try (BearerTokenInterceptor target = new BearerTokenInterceptor(() -> {
+            if (fetches.incrementAndGet() == 1) {
+                throw new IOException("token endpoint unavailable");
+            }
+            return new Token("t" + fetches.get(), Instant.now().plus(Duration.ofHours(1)));
+        }, Duration.ofMinutes(1), Duration.ofMillis(200))) {
+            for (int i = 0; i < 2; i++) {
+                try {
+                    authorization(target);
+                    Assert.fail();
+                } catch (IllegalStateException e) {
+                    // Until the scheduled retry, without fetching on the calling thread again
+                }
+            }
+            Assert.assertEquals(1, fetches.get());
+
+            await(() -> fetches.get() == 2);
+            await(() -> {
+                try {
+                    return "Bearer t2".equals(authorization(target));
+                } catch (IllegalStateException e) {
+                    return false;
+                }
+            });
+        }
+    }
+
+    @Test
+    public void test_close() throws Exception {
+        AtomicInteger fetches = new AtomicInteger();
+        BearerTokenInterceptor target = new BearerTokenInterceptor(
+                () -> new Token("t" + fetches.incrementAndGet(), Instant.now().plus(Duration.ofMillis(1020))),
+                Duration.ofSeconds(1), Duration.ofMillis(10));
+        Assert.assertEquals("Bearer t1", authorization(target));
+        target.close();
+
+        Thread.sleep(100);
+        Assert.assertEquals(1, fetches.get());
+        // The last token is still used
+        Assert.assertEquals("Bearer t1", authorization(target));
+    }
+
+}
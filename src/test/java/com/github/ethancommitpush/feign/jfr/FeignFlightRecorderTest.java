@@ -0,0 +1,138 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.jfr;
+
+import feign.Client;
+import feign.Feign;
+import feign.Param;
+import feign.RequestLine;
+import feign.Response;
+import feign.Retryer;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+public class FeignFlightRecorderTest {
+
+    private static final String CALL = "com.github.ethancommitpush.feign.Call";
+
+    private static final String CODEC = "com.github.ethancommitpush.feign.Codec";
+
+    private static final String RETRY = "com.github.ethancommitpush.feign.Retry";
+
+    interface TimeClient {
+
+        @RequestLine("POST /time/{zone}")
+        String time(@Param("zone") String zone, String body);
+
+    }
+
+    private static List<RecordedEvent> events(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void test_events() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        Client client = (request, options) -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IOException("connection reset");
+            }
+            return Response.builder()
+                    .status(200)
+                    .headers(Collections.emptyMap())
+                    .request(request)
+                    .body("12:00", StandardCharsets.UTF_8)
+                    .build();
+        };
+        FeignFlightRecorder recorder = new FeignFlightRecorder();
+        TimeClient target = Feign.builder()
+                .client(recorder.decorate("timeClient", TimeClient.class, client))
+                .encoder(recorder.encoder("timeClient", new Encoder.Default()))
+                .decoder(recorder.decoder("timeClient", new Decoder.Default()))
+                .retryer(recorder.retryer("timeClient", new Retryer.Default(1, 1, 2)))
+                .target(TimeClient.class, "http://time.test:8080");
+
+        Path dump = Files.createTempFile("feign", ".jfr");
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(CALL).withThreshold(Duration.ZERO);
+            recording.enable(CODEC).withThreshold(Duration.ZERO);
+            recording.enable(RETRY).withThreshold(Duration.ZERO);
+            recording.start();
+            Assert.assertEquals("12:00", target.time("utc", "{}"));
+            recording.stop();
+            recording.dump(dump);
+            events = RecordingFile.readAllEvents(dump);
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+
+        List<RecordedEvent> calls = events(events, CALL);
+        Assert.assertEquals(2, calls.size());
+        RecordedEvent failed = calls.get(0);
+        Assert.assertEquals("timeClient", failed.getString("client"));
+        Assert.assertEquals("TimeClient#time(String,String)", failed.getString("configKey"));
+        Assert.assertEquals("POST", failed.getString("method"));
+        Assert.assertEquals("time.test:8080", failed.getString("host"));
+        Assert.assertEquals(0, failed.getInt("status"));
+        Assert.assertEquals(2, failed.getLong("requestBytes"));
+        Assert.assertEquals("java.io.IOException", failed.getString("error"));
+        RecordedEvent succeeded = calls.get(1);
+        Assert.assertEquals(200, succeeded.getInt("status"));
+        Assert.assertEquals(5, succeeded.getLong("responseBytes"));
+        Assert.assertNull(succeeded.getString("error"));
+
+        List<RecordedEvent> codecs = events(events, CODEC);
+        Assert.assertEquals(2, codecs.size());
+        Assert.assertEquals("encode", codecs.get(0).getString("operation"));
+        Assert.assertEquals("java.lang.String", codecs.get(0).getString("type"));
+        Assert.assertEquals(2, codecs.get(0).getLong("bytes"));
+        Assert.assertEquals("TimeClient#time(String,String)", codecs.get(0).getString("configKey"));
+        RecordedEvent decode = codecs.get(1);
+        Assert.assertEquals("decode", decode.getString("operation"));
+        Assert.assertEquals("timeClient", decode.getString("client"));
+        Assert.assertEquals(5, decode.getLong("bytes"));
+
+        List<RecordedEvent> retries = events(events, RETRY);
+        Assert.assertEquals(1, retries.size());
+        RecordedEvent retry = retries.get(0);
+        Assert.assertEquals("timeClient", retry.getString("client"));
+        Assert.assertEquals(1, retry.getInt("attempt"));
+        Assert.assertTrue(retry.getBoolean("retried"));
+        Assert.assertEquals(-1, retry.getInt("status"));
+        Assert.assertEquals("POST", retry.getString("method"));
+        Assert.assertEquals("time.test:8080", retry.getString("host"));
+        Assert.assertEquals("java.io.IOException", retry.getString("cause"));
+    }
+
+}
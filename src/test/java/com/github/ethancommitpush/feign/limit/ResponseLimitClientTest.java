@@ -0,0 +1,225 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.limit;
+
+import com.github.ethancommitpush.feign.FeignClientsProperties;
+import com.github.ethancommitpush.feign.async.ApacheHttpAsyncClient;
+import com.github.ethancommitpush.feign.async.AsyncClient;
+import com.github.ethancommitpush.feign.decoder.CustomErrorDecoder;
+
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+
+public class ResponseLimitClientTest {
+
+    private final FeignClientsProperties properties = new FeignClientsProperties();
+
+    private final Request request = Request.create(Request.HttpMethod.GET, "http://test/", Collections.emptyMap(),
+            Request.Body.empty(), null);
+
+    private int status;
+
+    private boolean chunked;
+
+    private final Client client = (request, options) -> Response.builder()
+            .status(status)
+            .headers(Collections.emptyMap())
+            .request(request)
+            .body(new ByteArrayInputStream(new byte[100]), chunked ? null : 100)
+            .build();
+
+    private ResponseLimitClientDecorator decorator;
+
+    private final CloseableHttpAsyncClient asyncHttpClient = HttpAsyncClients.createDefault();
+
+    private ServerSocket server;
+
+    @Before
+    public void beforeEach() {
+        FeignClientsProperties.ClientProperties limited = new FeignClientsProperties.ClientProperties();
+        limited.setMaxResponseBytes(DataSize.ofBytes(100));
+        limited.setMaxErrorResponseBytes(DataSize.ofBytes(10));
+        properties.getClients().put("limited", limited);
+        decorator = new ResponseLimitClientDecorator(properties);
+        status = 200;
+        chunked = true;
+    }
+
+    @After
+    public void afterEach() throws IOException {
+        asyncHttpClient.close();
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void test_decorate_noLimit() {
+        Assert.assertSame(client, decorator.decorate("other", Object.class, client));
+        Assert.assertTrue(decorator.getViolations().isEmpty());
+    }
+
+    @Test
+    public void test_execute_underLimit() throws IOException {
+        Response response = execute();
+        Assert.assertEquals(100, Util.toByteArray(response.body().asInputStream()).length);
+        Assert.assertEquals(Long.valueOf(0), decorator.getViolations().get("limited"));
+    }
+
+    @Test
+    public void test_execute_overLimit() throws IOException {
+        properties.getClient("limited").setMaxResponseBytes(DataSize.ofBytes(50));
+        Response response = execute();
+        InputStream in = response.body().asInputStream();
+        byte[] buffer = new byte[40];
+        Assert.assertEquals(40, in.read(buffer));
+        try {
+            in.read(buffer);
+            Assert.fail();
+        } catch (ResponseTooLargeException e) {
+            Assert.assertEquals(50, e.getMaxBytes());
+        }
+        Assert.assertNotNull(LimitedBody.violation(response));
+        response.close();
+        Assert.assertEquals(Long.valueOf(1), decorator.getViolations().get("limited"));
+    }
+
+    @Test(expected = ResponseTooLargeException.class)
+    public void test_execute_contentLengthOverLimit() throws IOException {
+        chunked = false;
+        properties.getClient("limited").setMaxResponseBytes(DataSize.ofBytes(50));
+        execute().body().asInputStream();
+    }
+
+    @Test
+    public void test_execute_errorOverLimit() throws IOException {
+        status = 500;
+        Response response = execute();
+        Exception exception = new CustomErrorDecoder().decode("Api#get()", response);
+        Assert.assertTrue(exception instanceof ResponseTooLargeException);
+        Assert.assertEquals(10, ((ResponseTooLargeException) exception).getMaxBytes());
+        Assert.assertEquals(Long.valueOf(1), decorator.getViolations().get("limited"));
+    }
+
+    @Test
+    public void test_executeAsync_underLimit() throws Exception {
+        Response response = decorator.decorateAsync("limited", Object.class, new ApacheHttpAsyncClient(asyncHttpClient))
+                .execute(serve(100), new Request.Options()).get();
+        Assert.assertEquals(100, Util.toByteArray(response.body().asInputStream()).length);
+        Assert.assertEquals(Long.valueOf(0), decorator.getViolations().get("limited"));
+    }
+
+    @Test
+    public void test_executeAsync_overLimitAborted() throws Exception {
+        properties.getClient("limited").setMaxResponseBytes(DataSize.ofBytes(50));
+        // Chunked, so only counting the body tells it is too large
+        Request request = serve(-100_000);
+        try {
+            decorator.decorateAsync("limited", Object.class, new ApacheHttpAsyncClient(asyncHttpClient))
+                    .execute(request, new Request.Options()).get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof ResponseTooLargeException);
+            Assert.assertEquals(50, ((ResponseTooLargeException) e.getCause()).getMaxBytes());
+        }
+        Assert.assertEquals(Long.valueOf(1), decorator.getViolations().get("limited"));
+    }
+
+    @Test
+    public void test_executeAsync_bufferedByTheClientChecked() throws Exception {
+        status = 500;
+        AsyncClient bufferingClient = (request, options) -> CompletableFuture.completedFuture(Response.builder()
+                .status(status)
+                .headers(Collections.emptyMap())
+                .request(request)
+                .body(new byte[100])
+                .build());
+        try {
+            decorator.decorateAsync("limited", Object.class, bufferingClient)
+                    .execute(request, new Request.Options()).get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertEquals(10, ((ResponseTooLargeException) e.getCause()).getMaxBytes());
+        }
+        Assert.assertEquals(Long.valueOf(1), decorator.getViolations().get("limited"));
+    }
+
+    /**
+     * Serve one response of the given size, chunked if negative, on a local socket.
+     */
+    private Request serve(int size) throws IOException {
+        server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        Thread thread = new Thread(() -> {
+            try (Socket socket = server.accept()) {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                        StandardCharsets.US_ASCII));
+                String line;
+                while ((line = reader.readLine()) != null && !line.isEmpty()) {
+                    // Request line and headers
+                }
+                OutputStream out = socket.getOutputStream();
+                if (size >= 0) {
+                    out.write(("HTTP/1.1 200 OK\r\nContent-Length: " + size + "\r\n\r\n")
+                            .getBytes(StandardCharsets.US_ASCII));
+                    out.write(new byte[size]);
+                } else {
+                    out.write("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n"
+                            .getBytes(StandardCharsets.US_ASCII));
+                    for (int sent = 0; sent < -size; sent += 1000) {
+                        out.write("3e8\r\n".getBytes(StandardCharsets.US_ASCII));
+                        out.write(new byte[1000]);
+                        out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+                    }
+                    out.write("0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                }
+                out.flush();
+            } catch (IOException e) {
+                // Aborted by the client
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return Request.create(Request.HttpMethod.GET, "http://localhost:" + server.getLocalPort() + "/",
+                Collections.emptyMap(), Request.Body.empty(), null);
+    }
+
+    private Response execute() throws IOException {
+        return decorator.decorate("limited", Object.class, client).execute(request, new Request.Options());
+    }
+
+}
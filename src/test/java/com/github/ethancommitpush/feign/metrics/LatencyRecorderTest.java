@@ -0,0 +1,47 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.metrics;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class LatencyRecorderTest {
+
+    @Test
+    public void test_bucket_boundaries() {
+        for (long micros = 0; micros < 1_000_000; micros += 7) {
+            int bucket = LatencyRecorder.bucket(micros);
+            Assert.assertTrue(micros <= LatencyRecorder.upperBound(bucket));
+            Assert.assertTrue(bucket == 0 || micros > LatencyRecorder.upperBound(bucket - 1));
+        }
+    }
+
+    @Test
+    public void test_snapshot() {
+        LatencyRecorder target = new LatencyRecorder(60_000, 6);
+        for (int i = 1; i <= 100; i++) {
+            target.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        Map<String, Object> actual = target.snapshot();
+        Assert.assertEquals(100L, actual.get("count"));
+        Assert.assertEquals(100.0, (Double) actual.get("max"), 0.0);
+        Assert.assertEquals(50.0, (Double) actual.get("p50"), 50.0 * 0.125);
+        Assert.assertEquals(99.0, (Double) actual.get("p99"), 99.0 * 0.125);
+    }
+
+}
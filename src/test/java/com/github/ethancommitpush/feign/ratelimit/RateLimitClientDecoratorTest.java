@@ -0,0 +1,132 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.ratelimit;
+
+import com.github.ethancommitpush.feign.FeignClientsProperties;
+import com.github.ethancommitpush.feign.annotation.RateLimit;
+import com.github.ethancommitpush.feign.async.AsyncClient;
+import feign.Client;
+import feign.Contract;
+import feign.MethodMetadata;
+import feign.Param;
+import feign.Request;
+import feign.RequestLine;
+import feign.RequestTemplate;
+import feign.Response;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+public class RateLimitClientDecoratorTest {
+
+    interface TimeClient {
+
+        @RateLimit(permitsPerSecond = 0.001, timeoutMillis = 0)
+        @RequestLine("GET /time")
+        String time();
+
+        @RateLimit(permitsPerSecond = 0.001, timeoutMillis = 0)
+        @RequestLine("GET /time?zone={zone}")
+        String time(@Param("zone") String zone);
+
+    }
+
+    private final RateLimitClientDecorator target = new RateLimitClientDecorator(new FeignClientsProperties());
+
+    private final Client client = (request, options) -> Response.builder()
+            .status(200)
+            .request(request)
+            .headers(Collections.emptyMap())
+            .build();
+
+    private static Request request(MethodMetadata metadata) {
+        RequestTemplate template = new RequestTemplate();
+        template.methodMetadata(metadata);
+        return Request.create(Request.HttpMethod.GET, "http://time.test/time", Collections.emptyMap(), null,
+                StandardCharsets.UTF_8, template);
+    }
+
+    @Test
+    public void test_decorate_overloads() throws Exception {
+        Client decorated = target.decorate("timeClient", TimeClient.class, client);
+
+        Assert.assertEquals(new TreeSet<>(Arrays.asList("timeClient#time()", "timeClient#time(String)")),
+                target.getLimiters().keySet());
+        List<MethodMetadata> metadata = new Contract.Default().parseAndValidateMetadata(TimeClient.class);
+        MethodMetadata time = metadata.stream().filter(m -> m.method().getParameterCount() == 0)
+                .findFirst().get();
+        MethodMetadata timeOfZone = metadata.stream().filter(m -> m.method().getParameterCount() == 1)
+                .findFirst().get();
+        Request.Options options = new Request.Options();
+
+        decorated.execute(request(time), options);
+        // Limited on its own
+        decorated.execute(request(timeOfZone), options);
+        try {
+            decorated.execute(request(time), options);
+            Assert.fail();
+        } catch (RateLimitExceededException e) {
+            // Expected
+        }
+        Assert.assertEquals(1, target.getLimiters().get("timeClient#time()").getRejected());
+        Assert.assertEquals(0, target.getLimiters().get("timeClient#time(String)").getRejected());
+    }
+
+    @Test
+    public void test_decorateAsync() throws Exception {
+        Client decorated = target.decorate("timeClient", TimeClient.class, client);
+        AsyncClient asyncClient = target.decorateAsync("timeClient", TimeClient.class,
+                (request, options) -> CompletableFuture.completedFuture(Response.builder()
+                        .status(200)
+                        .request(request)
+                        .headers(Collections.emptyMap())
+                        .build()));
+        MethodMetadata time = new Contract.Default().parseAndValidateMetadata(TimeClient.class).stream()
+                .filter(m -> m.method().getParameterCount() == 0).findFirst().get();
+        Request.Options options = new Request.Options();
+
+        Assert.assertEquals(200, asyncClient.execute(request(time), options).get().status());
+        // Rejected without waiting, sharing the permits of the blocking client
+        CompletableFuture<Response> rejected = asyncClient.execute(request(time), options);
+        Assert.assertTrue(rejected.isCompletedExceptionally());
+        try {
+            rejected.get();
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RateLimitExceededException);
+        }
+        try {
+            decorated.execute(request(time), options);
+            Assert.fail();
+        } catch (RateLimitExceededException e) {
+            // Expected
+        }
+        Assert.assertEquals(2, target.getLimiters().get("timeClient#time()").getRejected());
+    }
+
+    @Test
+    public void test_decorate_refreshed() throws Exception {
+        target.decorate("timeClient", TimeClient.class, client);
+        Assert.assertSame(client, target.decorate("timeClient", Runnable.class, client));
+        Assert.assertTrue(target.getLimiters().isEmpty());
+    }
+
+}
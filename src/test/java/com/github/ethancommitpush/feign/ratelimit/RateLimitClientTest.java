@@ -0,0 +1,137 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.ratelimit;
+
+import feign.Client;
+import feign.Contract;
+import feign.MethodMetadata;
+import feign.Request;
+import feign.RequestLine;
+import feign.RequestTemplate;
+import feign.Response;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class RateLimitClientTest {
+
+    interface TimeClient {
+
+        @RequestLine("GET /time")
+        String time();
+
+    }
+
+    private final Map<String, Collection<String>> responseHeaders = new HashMap<>();
+
+    private final Client delegate = (request, options) -> Response.builder()
+            .status(200)
+            .request(request)
+            .headers(responseHeaders)
+            .build();
+
+    private final Request.Options options = new Request.Options();
+
+    private static Request request() {
+        MethodMetadata metadata = new Contract.Default().parseAndValidateMetadata(TimeClient.class).get(0);
+        RequestTemplate template = new RequestTemplate();
+        template.methodMetadata(metadata);
+        return Request.create(Request.HttpMethod.GET, "http://time.test/time", Collections.emptyMap(), null,
+                StandardCharsets.UTF_8, template);
+    }
+
+    private static void assertRejected(Client client) throws Exception {
+        try {
+            client.execute(request(), new Request.Options());
+            Assert.fail();
+        } catch (RateLimitExceededException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void test_execute_remainingZeroPausesOneInterval() throws Exception {
+        RateLimiter clientLimiter = new RateLimiter(1, 5, 0);
+        RateLimitClient target = new RateLimitClient(delegate, "timeClient", clientLimiter, Collections.emptyMap());
+        responseHeaders.put("X-RateLimit-Remaining", Collections.singletonList("0"));
+
+        target.execute(request(), options);
+
+        // The burst is left, but no request remains on the server
+        assertRejected(target);
+    }
+
+    @Test
+    public void test_execute_remainingZeroPausesUntilReset() throws Exception {
+        RateLimiter clientLimiter = new RateLimiter(1000, 5, TimeUnit.MILLISECONDS.toNanos(500));
+        RateLimitClient target = new RateLimitClient(delegate, "timeClient", clientLimiter, Collections.emptyMap());
+        responseHeaders.put("X-RateLimit-Remaining", Collections.singletonList("0"));
+        responseHeaders.put("X-RateLimit-Reset", Collections.singletonList("2"));
+
+        target.execute(request(), options);
+
+        assertRejected(target);
+    }
+
+    @Test
+    public void test_execute_methodRejectionReleasesClientPermit() throws Exception {
+        RateLimiter clientLimiter = new RateLimiter(1, 2, 0);
+        RateLimiter methodLimiter = new RateLimiter(1, 1, 0);
+        Method method = TimeClient.class.getMethod("time");
+        RateLimitClient target = new RateLimitClient(delegate, "timeClient", clientLimiter,
+                Collections.singletonMap(method, methodLimiter));
+
+        target.execute(request(), options);
+        assertRejected(target);
+
+        Assert.assertEquals(1, clientLimiter.getGranted());
+        Assert.assertEquals(1, methodLimiter.getRejected());
+        // The permit given back by the second call
+        Assert.assertTrue(clientLimiter.tryAcquire());
+        Assert.assertFalse(clientLimiter.tryAcquire());
+    }
+
+    @Test
+    public void test_execute_clientRejectionTakesNoMethodPermit() throws Exception {
+        RateLimiter clientLimiter = new RateLimiter(1, 1, 0);
+        RateLimiter methodLimiter = new RateLimiter(1, 2, 0);
+        Method method = TimeClient.class.getMethod("time");
+        RateLimitClient target = new RateLimitClient(delegate, "timeClient", clientLimiter,
+                Collections.singletonMap(method, methodLimiter));
+
+        target.execute(request(), options);
+        assertRejected(target);
+
+        Assert.assertEquals(1, clientLimiter.getRejected());
+        Assert.assertEquals(1, methodLimiter.getGranted());
+    }
+
+    @Test
+    public void test_parseRateLimitReset() {
+        Assert.assertEquals(TimeUnit.SECONDS.toNanos(30), RateLimitClient.parseRateLimitReset("30"));
+        long epochSeconds = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + 60;
+        long delayNanos = RateLimitClient.parseRateLimitReset(String.valueOf(epochSeconds));
+        Assert.assertTrue(delayNanos > TimeUnit.SECONDS.toNanos(58) && delayNanos <= TimeUnit.SECONDS.toNanos(60));
+        Assert.assertEquals(0, RateLimitClient.parseRateLimitReset("1000000001"));
+        Assert.assertEquals(-1, RateLimitClient.parseRateLimitReset("soon"));
+    }
+
+}
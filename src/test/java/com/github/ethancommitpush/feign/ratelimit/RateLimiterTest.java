@@ -0,0 +1,66 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.ratelimit;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+import java.util.concurrent.TimeUnit;
+
+public class RateLimiterTest {
+
+    @Test
+    public void test_tryAcquire_burst() throws Exception {
+        RateLimiter target = new RateLimiter(1, 3, 0);
+        Assert.assertTrue(target.tryAcquire());
+        Assert.assertTrue(target.tryAcquire());
+        Assert.assertTrue(target.tryAcquire());
+        Assert.assertFalse(target.tryAcquire());
+        Assert.assertEquals(3, target.getGranted());
+        Assert.assertEquals(1, target.getRejected());
+    }
+
+    @Test
+    public void test_tryAcquire_wait() throws Exception {
+        RateLimiter target = new RateLimiter(100, 1, TimeUnit.SECONDS.toNanos(1));
+        Assert.assertTrue(target.tryAcquire());
+        Assert.assertTrue(target.tryAcquire());
+        Assert.assertEquals(1, target.getWaited());
+    }
+
+    @Test
+    public void test_pauseUntil() throws Exception {
+        RateLimiter target = new RateLimiter(1000, 10, 0);
+        target.pauseUntil(System.nanoTime() + TimeUnit.SECONDS.toNanos(10));
+        Assert.assertFalse(target.tryAcquire());
+    }
+
+    @Test
+    public void test_release() throws Exception {
+        RateLimiter target = new RateLimiter(1, 1, 0);
+        Assert.assertTrue(target.tryAcquire());
+        Assert.assertFalse(target.tryAcquire());
+        target.release();
+        Assert.assertTrue(target.tryAcquire());
+        Assert.assertEquals(1, target.getGranted());
+    }
+
+    @Test
+    public void test_parseRetryAfter() {
+        Assert.assertEquals(TimeUnit.SECONDS.toNanos(2), RateLimitClient.parseRetryAfter("2"));
+        Assert.assertEquals(0, RateLimitClient.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT"));
+        Assert.assertEquals(-1, RateLimitClient.parseRetryAfter("soon"));
+    }
+
+}
@@ -0,0 +1,283 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.reactive;
+
+import com.github.ethancommitpush.feign.async.AsyncClient;
+import com.github.ethancommitpush.feign.async.AsyncDispatchingClient;
+import com.github.ethancommitpush.feign.async.AsyncMethodHandlerDecorator;
+import com.github.ethancommitpush.feign.handler.DecoratingInvocationHandlerFactory;
+import com.github.ethancommitpush.feign.limit.ResponseTooLargeException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import feign.Feign;
+import feign.FeignException;
+import feign.Request;
+import feign.RequestLine;
+import feign.Response;
+import feign.codec.Decoder;
+import feign.codec.ErrorDecoder;
+import feign.jackson.JacksonDecoder;
+
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ReactiveMethodHandlerDecoratorTest {
+
+    public static class Greeting {
+
+        public String text;
+
+    }
+
+    interface GreetingClient {
+
+        @RequestLine("GET /greetings")
+        Flux<Greeting> greetings();
+
+        @RequestLine("GET /batches")
+        Flux<List<Integer>> batches();
+
+    }
+
+    /**
+     * Non-blocking http client whose streamed response is played by the test.
+     */
+    static class StreamingAsyncClient implements AsyncClient, AsyncClient.InputControl {
+
+        AsyncClient.BodyHandler handler;
+
+        final CompletableFuture<Void> exchange = new CompletableFuture<>();
+
+        final List<String> controls = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletableFuture<Response> execute(Request request, Request.Options options) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Void> stream(Request request, Request.Options options, BodyHandler handler) {
+            this.handler = handler;
+            return exchange;
+        }
+
+        @Override
+        public void suspend() {
+            controls.add("suspend");
+        }
+
+        @Override
+        public void resume() {
+            controls.add("resume");
+        }
+
+        void respond(int status, String contentType) throws IOException {
+            Map<String, Collection<String>> headers = contentType != null
+                    ? Collections.singletonMap("Content-Type", Collections.singletonList(contentType))
+                    : Collections.emptyMap();
+            handler.onResponse(Response.builder()
+                    .status(status)
+                    .headers(headers)
+                    .request(Request.create(Request.HttpMethod.GET, "http://localhost/greetings",
+                            Collections.emptyMap(), null, StandardCharsets.UTF_8, null))
+                    .build(), this);
+        }
+
+        void content(String chunk) throws IOException {
+            handler.onContent(ByteBuffer.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+        }
+
+    }
+
+    static class Subscriber<T> extends BaseSubscriber<T> {
+
+        final List<T> values = new CopyOnWriteArrayList<>();
+
+        volatile Throwable error;
+
+        volatile boolean completed;
+
+        private final long initialRequest;
+
+        Subscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        protected void hookOnSubscribe(org.reactivestreams.Subscription subscription) {
+            request(initialRequest);
+        }
+
+        @Override
+        protected void hookOnNext(T value) {
+            values.add(value);
+        }
+
+        @Override
+        protected void hookOnError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        protected void hookOnComplete() {
+            completed = true;
+        }
+
+    }
+
+    private static GreetingClient build(StreamingAsyncClient asyncClient, Decoder decoder, long maxErrorBodyBytes) {
+        ErrorDecoder errorDecoder = new ErrorDecoder.Default();
+        AsyncMethodHandlerDecorator asyncDecorator = new AsyncMethodHandlerDecorator(asyncClient, decoder,
+                errorDecoder);
+        return Feign.builder()
+                .client(new AsyncDispatchingClient((request, options) -> {
+                    throw new UnsupportedOperationException();
+                }))
+                .invocationHandlerFactory(new DecoratingInvocationHandlerFactory(Arrays.asList(asyncDecorator,
+                        new ReactiveMethodHandlerDecorator(asyncClient, asyncDecorator, decoder, errorDecoder,
+                                maxErrorBodyBytes))))
+                .target(GreetingClient.class, "http://localhost");
+    }
+
+    private static GreetingClient build(StreamingAsyncClient asyncClient) {
+        return build(asyncClient, new JacksonDecoder(), ReactiveMethodHandlerDecorator.DEFAULT_MAX_ERROR_BODY_BYTES);
+    }
+
+    @Test
+    public void test_flux_array_decodedByDecoder() throws Exception {
+        StreamingAsyncClient asyncClient = new StreamingAsyncClient();
+        AtomicInteger decoded = new AtomicInteger();
+        Decoder jackson = new JacksonDecoder();
+        GreetingClient target = build(asyncClient, (response, type) -> {
+            decoded.incrementAndGet();
+            return jackson.decode(response, type);
+        }, ReactiveMethodHandlerDecorator.DEFAULT_MAX_ERROR_BODY_BYTES);
+
+        Subscriber<Greeting> subscriber = new Subscriber<>(Long.MAX_VALUE);
+        target.greetings().subscribe(subscriber);
+        asyncClient.respond(200, "application/json");
+        // Split in the middle of an element
+        asyncClient.content("[{\"text\":\"hel");
+        asyncClient.content("lo\"},{\"text\":\"world\"}]");
+        asyncClient.exchange.complete(null);
+
+        Assert.assertTrue(subscriber.completed);
+        Assert.assertEquals(2, subscriber.values.size());
+        Assert.assertEquals("hello", subscriber.values.get(0).text);
+        Assert.assertEquals("world", subscriber.values.get(1).text);
+        Assert.assertEquals(2, decoded.get());
+    }
+
+    @Test
+    public void test_flux_ndjson() throws Exception {
+        StreamingAsyncClient asyncClient = new StreamingAsyncClient();
+        GreetingClient target = build(asyncClient);
+
+        Subscriber<List<Integer>> subscriber = new Subscriber<>(Long.MAX_VALUE);
+        target.batches().subscribe(subscriber);
+        asyncClient.respond(200, "application/x-ndjson");
+        asyncClient.content("[1,2]\n[3]\n");
+        asyncClient.exchange.complete(null);
+
+        Assert.assertTrue(subscriber.completed);
+        Assert.assertEquals(Arrays.asList(Arrays.asList(1, 2), Collections.singletonList(3)), subscriber.values);
+    }
+
+    @Test
+    public void test_flux_suspendedWithoutDemand() throws Exception {
+        StreamingAsyncClient asyncClient = new StreamingAsyncClient();
+        GreetingClient target = build(asyncClient);
+
+        Subscriber<Greeting> subscriber = new Subscriber<>(1);
+        target.greetings().subscribe(subscriber);
+        asyncClient.respond(200, null);
+        asyncClient.content("[{\"text\":\"hello\"},");
+        Assert.assertEquals(1, subscriber.values.size());
+        Assert.assertEquals(Collections.singletonList("suspend"), asyncClient.controls);
+
+        subscriber.request(1);
+        Assert.assertEquals(Arrays.asList("suspend", "resume"), asyncClient.controls);
+        asyncClient.content("{\"text\":\"world\"}]");
+        asyncClient.exchange.complete(null);
+        Assert.assertEquals(2, subscriber.values.size());
+        Assert.assertTrue(subscriber.completed);
+    }
+
+    @Test
+    public void test_flux_cancelAbortsExchange() throws Exception {
+        StreamingAsyncClient asyncClient = new StreamingAsyncClient();
+        GreetingClient target = build(asyncClient);
+
+        Subscriber<Greeting> subscriber = new Subscriber<>(Long.MAX_VALUE);
+        target.greetings().subscribe(subscriber);
+        asyncClient.respond(200, null);
+        asyncClient.content("[{\"text\":\"hello\"},");
+        subscriber.dispose();
+
+        Assert.assertTrue(asyncClient.exchange.isCancelled());
+        Assert.assertEquals(1, subscriber.values.size());
+    }
+
+    @Test
+    public void test_flux_errorResponse() throws Exception {
+        StreamingAsyncClient asyncClient = new StreamingAsyncClient();
+        GreetingClient target = build(asyncClient);
+
+        Subscriber<Greeting> subscriber = new Subscriber<>(Long.MAX_VALUE);
+        target.greetings().subscribe(subscriber);
+        asyncClient.respond(503, "text/plain");
+        asyncClient.content("unavailable");
+        asyncClient.exchange.complete(null);
+
+        Assert.assertTrue(subscriber.error instanceof FeignException);
+        Assert.assertEquals(503, ((FeignException) subscriber.error).status());
+        Assert.assertTrue(subscriber.error.getMessage().contains("unavailable"));
+    }
+
+    @Test
+    public void test_flux_errorResponseTooLarge() throws Exception {
+        StreamingAsyncClient asyncClient = new StreamingAsyncClient();
+        GreetingClient target = build(asyncClient, new JacksonDecoder(), 8);
+
+        Subscriber<Greeting> subscriber = new Subscriber<>(Long.MAX_VALUE);
+        target.greetings().subscribe(subscriber);
+        asyncClient.respond(500, "text/plain");
+        asyncClient.content("12345");
+        try {
+            asyncClient.content("67890");
+            Assert.fail();
+        } catch (ResponseTooLargeException e) {
+            Assert.assertEquals(8, e.getMaxBytes());
+            // As the http client fails the exchange
+            asyncClient.exchange.completeExceptionally(e);
+        }
+
+        Assert.assertTrue(subscriber.error instanceof ResponseTooLargeException);
+    }
+
+}
@@ -0,0 +1,215 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.slowcall;
+
+import com.github.ethancommitpush.feign.FeignClientsProperties;
+import com.github.ethancommitpush.feign.async.AsyncClient;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import feign.Client;
+import feign.InvocationHandlerFactory.MethodHandler;
+import feign.Request;
+import feign.Response;
+import feign.RetryableException;
+import feign.Target;
+
+public class SlowCallDetectorTest {
+
+    interface Api {
+        String get();
+    }
+
+    private final FeignClientsProperties properties = new FeignClientsProperties();
+
+    private final Method method = Api.class.getMethods()[0];
+
+    private int failures;
+
+    private String url = "http://test/";
+
+    private final Map<String, Collection<String>> extraHeaders = new HashMap<>();
+
+    private final Client server = (request, options) -> {
+        if (failures-- > 0) {
+            throw new IOException("Connection reset");
+        }
+        return Response.builder()
+                .status(200)
+                .headers(Collections.singletonMap("Set-Cookie", Collections.singletonList("session=secret")))
+                .request(request)
+                .build();
+    };
+
+    private SlowCallDetector detector;
+
+    @Before
+    public void beforeEach() {
+        FeignClientsProperties.ClientProperties slow = new FeignClientsProperties.ClientProperties();
+        slow.setSlowCallThreshold(Duration.ZERO);
+        properties.getClients().put("slow", slow);
+        FeignClientsProperties.ClientProperties fast = new FeignClientsProperties.ClientProperties();
+        fast.setSlowCallThreshold(Duration.ofHours(1));
+        properties.getClients().put("fast", fast);
+        properties.getSlowCalls().setCapacity(3);
+        properties.getSlowCalls().setMaxBodyBytes(DataSize.ofBytes(4));
+        detector = new SlowCallDetector(properties);
+    }
+
+    @Test
+    public void recordsCallsOverThreshold() throws Throwable {
+        failures = 1;
+        call("slow", "payload");
+
+        List<SlowCall> calls = detector.getSlowCalls();
+        Assert.assertEquals(1, calls.size());
+        SlowCall call = calls.get(0);
+        Assert.assertEquals("slow", call.getClient());
+        Assert.assertEquals("Api#get()", call.getMethod());
+        Assert.assertEquals("POST", call.getHttpMethod());
+        Assert.assertEquals(200, call.getStatus());
+        Assert.assertEquals(1, call.getRetries());
+        Assert.assertEquals("java.io.IOException: Connection reset", call.getAttempts().get(0).getError());
+        Assert.assertEquals(200, call.getAttempts().get(1).getStatus());
+        Assert.assertEquals("payl...(7 bytes)", call.getRequestBody());
+        Assert.assertEquals(Collections.singletonList("****"), call.getRequestHeaders().get("Authorization"));
+        Assert.assertEquals(Collections.singletonList("text/plain"), call.getRequestHeaders().get("Accept"));
+        Assert.assertEquals(Collections.singletonList(Collections.singletonList("****")),
+                Arrays.asList(call.getResponseHeaders().values().toArray()));
+        Assert.assertEquals(Arrays.asList("lease", "connect", "tls", "requestWrite", "firstByte", "decode"),
+                Arrays.asList(call.getPhases().keySet().toArray()));
+    }
+
+    @Test
+    public void masksConfiguredHeaders() throws Throwable {
+        extraHeaders.put("x-api-key", Collections.singletonList("key"));
+        extraHeaders.put("X-Tenant-Secret", Collections.singletonList("secret"));
+        call("slow", "payload");
+        properties.getSlowCalls().setMaskedHeaders(new HashSet<>(Collections.singletonList("x-tenant-secret")));
+        call("slow", "payload");
+
+        List<SlowCall> calls = detector.getSlowCalls();
+        // Masked by default, case-insensitive
+        Assert.assertEquals(Collections.singletonList("****"), calls.get(1).getRequestHeaders().get("x-api-key"));
+        Assert.assertEquals(Collections.singletonList("secret"),
+                calls.get(1).getRequestHeaders().get("X-Tenant-Secret"));
+        // Replaced by the configured set
+        Assert.assertEquals(Collections.singletonList("key"), calls.get(0).getRequestHeaders().get("x-api-key"));
+        Assert.assertEquals(Collections.singletonList("****"),
+                calls.get(0).getRequestHeaders().get("X-Tenant-Secret"));
+        Assert.assertEquals(Collections.singletonList("Bearer secret"),
+                calls.get(0).getRequestHeaders().get("Authorization"));
+    }
+
+    @Test
+    public void stripsTheQueryString() throws Throwable {
+        url = "http://test/users?token=secret#top";
+        call("slow", "payload");
+        url = "http://test/users#top";
+        call("slow", "payload");
+        properties.getSlowCalls().setKeepQueryString(true);
+        url = "http://test/users?token=secret";
+        call("slow", "payload");
+
+        List<SlowCall> calls = detector.getSlowCalls();
+        Assert.assertEquals("http://test/users", calls.get(2).getUrl());
+        Assert.assertEquals("http://test/users", calls.get(1).getUrl());
+        Assert.assertEquals("http://test/users?token=secret", calls.get(0).getUrl());
+    }
+
+    @Test
+    public void ignoresFastCalls() throws Throwable {
+        call("fast", "payload");
+        call("unconfigured", "payload");
+
+        Assert.assertTrue(detector.getSlowCalls().isEmpty());
+        Assert.assertNull(CallTrace.current());
+    }
+
+    @Test
+    public void keepsTheLastCalls() throws Throwable {
+        properties.getSlowCalls().setMaxBodyBytes(DataSize.ofKilobytes(1));
+        for (int i = 0; i < 5; i++) {
+            call("slow", "call" + i);
+        }
+
+        Assert.assertEquals(5, detector.getRecorded());
+        List<SlowCall> calls = detector.getSlowCalls();
+        Assert.assertEquals(3, calls.size());
+        Assert.assertEquals("call4", calls.get(0).getRequestBody());
+        Assert.assertEquals("call2", calls.get(2).getRequestBody());
+    }
+
+    @Test
+    public void recordsAsynchronousCalls() throws Throwable {
+        CompletableFuture<Response> exchange = new CompletableFuture<>();
+        AsyncClient asyncClient = detector.clientDecorator().decorateAsync("slow", Api.class,
+                (request, options) -> exchange);
+        Request request = Request.create(Request.HttpMethod.GET, "http://test/", Collections.emptyMap(), null,
+                StandardCharsets.UTF_8, null);
+        MethodHandler handler = argv -> asyncClient.execute(request, new Request.Options());
+
+        CompletableFuture<?> result = (CompletableFuture<?>) detector.decorate(
+                new Target.HardCodedTarget<>(Api.class, "slow", "http://test"), method, handler)
+                .invoke(new Object[0]);
+
+        // The thread is free to trace another call while the exchange is in progress
+        Assert.assertNull(CallTrace.current());
+        Assert.assertTrue(detector.getSlowCalls().isEmpty());
+        exchange.complete(server.execute(request, new Request.Options()));
+        Assert.assertTrue(result.isDone());
+        List<SlowCall> calls = detector.getSlowCalls();
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals(200, calls.get(0).getStatus());
+        Assert.assertEquals(0, calls.get(0).getRetries());
+    }
+
+    private void call(String name, String body) throws Throwable {
+        Client client = detector.clientDecorator().decorate(name, Api.class, server);
+        Map<String, Collection<String>> headers = new HashMap<>();
+        headers.put("Authorization", Collections.singletonList("Bearer secret"));
+        headers.put("Accept", Collections.singletonList("text/plain"));
+        headers.putAll(extraHeaders);
+        Request request = Request.create(Request.HttpMethod.POST, url, headers,
+                body.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8, null);
+        MethodHandler handler = argv -> {
+            while (true) {
+                try {
+                    return client.execute(request, new Request.Options());
+                } catch (IOException e) {
+                    // Retried as feign would do
+                }
+            }
+        };
+        detector.decorate(new Target.HardCodedTarget<>(Api.class, name, "http://test"), method, handler)
+                .invoke(new Object[0]);
+    }
+
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.tracing;
+
+import com.github.ethancommitpush.feign.async.AsyncClient;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.ContextPropagators;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TracingClientTest {
+
+    private static final String TRACE_ID = "0af7651916cd43dd8448eb211c80319c";
+
+    private static final String SPAN_ID = "b7ad6b7169203331";
+
+    private final AtomicReference<Request> sent = new AtomicReference<>();
+
+    private final Client client = (request, options) -> {
+        sent.set(request);
+        return Response.builder()
+                .status(200)
+                .headers(Collections.emptyMap())
+                .request(request)
+                .body(new byte[0])
+                .build();
+    };
+
+    private final Request request = Request.create(Request.HttpMethod.GET, "http://localhost/time",
+            Collections.singletonMap("Accept", Collections.singletonList("application/json")),
+            Request.Body.empty(), null);
+
+    private static OpenTelemetry w3c() {
+        return OpenTelemetry.propagating(ContextPropagators.create(W3CTraceContextPropagator.getInstance()));
+    }
+
+    private Client tracingClient(OpenTelemetry openTelemetry) {
+        return new TracingClientDecorator(openTelemetry).decorate("timeClient", Object.class, client);
+    }
+
+    @Test
+    public void test_execute_noopNotCopied() throws Exception {
+        tracingClient(OpenTelemetry.noop()).execute(request, new Request.Options());
+        Assert.assertSame(request, sent.get());
+    }
+
+    @Test
+    public void test_execute_withoutSpanNotCopied() throws Exception {
+        tracingClient(w3c()).execute(request, new Request.Options());
+        Assert.assertSame(request, sent.get());
+    }
+
+    @Test
+    public void test_execute_unsampledPropagated() throws Exception {
+        Span parent = Span.wrap(SpanContext.create(TRACE_ID, SPAN_ID, TraceFlags.getDefault(),
+                TraceState.getDefault()));
+        Scope scope = parent.makeCurrent();
+        try {
+            tracingClient(w3c()).execute(request, new Request.Options());
+        } finally {
+            scope.close();
+        }
+        Map<String, Collection<String>> headers = sent.get().headers();
+        Assert.assertEquals(Collections.singletonList("00-" + TRACE_ID + "-" + SPAN_ID + "-00"),
+                headers.get("traceparent"));
+        Assert.assertEquals(Collections.singletonList("application/json"), headers.get("Accept"));
+        Assert.assertEquals(1, request.headers().size());
+    }
+
+    @Test
+    public void test_decorateAsync_propagatedFromCallingThread() throws Exception {
+        Span parent = Span.wrap(SpanContext.create(TRACE_ID, SPAN_ID, TraceFlags.getSampled(),
+                TraceState.getDefault()));
+        CompletableFuture<Response> exchange = new CompletableFuture<>();
+        AsyncClient asyncClient = new TracingClientDecorator(w3c()).decorateAsync("timeClient", Object.class,
+                (request, options) -> {
+                    sent.set(request);
+                    return exchange;
+                });
+        CompletableFuture<Response> response;
+        Scope scope = parent.makeCurrent();
+        try {
+            response = asyncClient.execute(request, new Request.Options());
+        } finally {
+            scope.close();
+        }
+        Assert.assertEquals(Collections.singletonList("00-" + TRACE_ID + "-" + SPAN_ID + "-01"),
+                sent.get().headers().get("traceparent"));
+
+        // Completed on another thread
+        Thread thread = new Thread(() -> exchange.complete(Response.builder()
+                .status(200)
+                .headers(Collections.emptyMap())
+                .request(request)
+                .build()));
+        thread.start();
+        Assert.assertEquals(200, response.get().status());
+    }
+
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.test;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A recorded call of a feign client: the request it was matched by and the response it got.
+ */
+public class FeignRecording {
+
+    private final String name;
+
+    private final String method;
+
+    private final String url;
+
+    private final int status;
+
+    private final Map<String, Collection<String>> headers;
+
+    private final byte[] body;
+
+    private final long latencyNanos;
+
+    /**
+     * @param name bean name of the feign client.
+     * @param method http method.
+     * @param url path and query, relative to the url of the feign client.
+     * @param status response status.
+     * @param headers response headers.
+     * @param body response body, empty if none.
+     * @param latencyNanos time from sending the request until the response body was read.
+     */
+    public FeignRecording(String name, String method, String url, int status, Map<String, Collection<String>> headers,
+            byte[] body, long latencyNanos) {
+        this.name = name;
+        this.method = method;
+        this.url = url;
+        this.status = status;
+        this.headers = headers;
+        this.body = body;
+        this.latencyNanos = latencyNanos;
+    }
+
+    /**
+     * Key to match requests by: the feign client, http method and relative url.
+     * @return key.
+     */
+    public String key() {
+        return key(name, method, url);
+    }
+
+    static String key(String name, String method, String url) {
+        return name + ' ' + method + ' ' + url;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public Map<String, Collection<String>> getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+}
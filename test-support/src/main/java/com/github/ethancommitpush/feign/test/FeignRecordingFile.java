@@ -0,0 +1,141 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.test;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary file of {@link FeignRecording}s, appended to while recording. Each recording is written as the
+ * client name, method and url, the status, the header count followed by name and value pairs, the body
+ * length followed by the body, and the latency in nanoseconds.
+ */
+public class FeignRecordingFile implements Closeable {
+
+    private static final int MAGIC = 0x46524331;
+
+    private final DataOutputStream out;
+
+    /**
+     * Open the file for appending recordings, creating it if it doesn't exist.
+     * @param path path of the file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public FeignRecordingFile(Path path) throws IOException {
+        boolean created = !Files.exists(path) || Files.size(path) == 0;
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+        if (created) {
+            out.writeInt(MAGIC);
+        }
+    }
+
+    /**
+     * Append a recording, which is serialized first so that one that cannot be written, e.g. with a value
+     * over 64KB, is not partially written.
+     * @param recording recording.
+     * @throws IOException if it cannot be written, the file being unchanged when it cannot be serialized.
+     */
+    public synchronized void write(FeignRecording recording) throws IOException {
+        ByteArrayOutputStream record = new ByteArrayOutputStream(256 + recording.getBody().length);
+        DataOutputStream data = new DataOutputStream(record);
+        data.writeUTF(recording.getName());
+        data.writeUTF(recording.getMethod());
+        data.writeUTF(recording.getUrl());
+        data.writeShort(recording.getStatus());
+
+        int headerCount = 0;
+        for (Collection<String> values : recording.getHeaders().values()) {
+            headerCount += values.size();
+        }
+        if (headerCount > 0xFFFF) {
+            throw new IOException("Too many headers to record: " + headerCount);
+        }
+        data.writeShort(headerCount);
+        for (Map.Entry<String, Collection<String>> header : recording.getHeaders().entrySet()) {
+            for (String value : header.getValue()) {
+                data.writeUTF(header.getKey());
+                data.writeUTF(value);
+            }
+        }
+
+        data.writeInt(recording.getBody().length);
+        data.write(recording.getBody());
+        data.writeLong(recording.getLatencyNanos());
+        record.writeTo(out);
+    }
+
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Read all recordings of the file.
+     * @param path path of the file.
+     * @return recordings in the order they were written.
+     * @throws IOException if the file cannot be read or is not a recording file.
+     */
+    public static List<FeignRecording> read(Path path) throws IOException {
+        List<FeignRecording> recordings = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(path + " is not a feign recording file");
+            }
+            while (true) {
+                String name;
+                try {
+                    name = in.readUTF();
+                } catch (EOFException e) {
+                    return recordings;
+                }
+                String method = in.readUTF();
+                String url = in.readUTF();
+                int status = in.readUnsignedShort();
+
+                int headerCount = in.readUnsignedShort();
+                Map<String, Collection<String>> headers = new LinkedHashMap<>();
+                for (int i = 0; i < headerCount; i++) {
+                    String headerName = in.readUTF();
+                    String headerValue = in.readUTF();
+                    headers.computeIfAbsent(headerName, k -> new ArrayList<>()).add(headerValue);
+                }
+
+                byte[] body = new byte[in.readInt()];
+                in.readFully(body);
+                long latencyNanos = in.readLong();
+                recordings.add(new FeignRecording(name, method, url, status, headers, body, latencyNanos));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.test;
+
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+import feign.Target;
+import feign.Util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * {@link Client} which records every call of the delegate to a {@link FeignRecordingFile}, for
+ * {@link ReplayServer} to replay. The response body is read fully to be recorded.
+ */
+public class RecordingClient implements Client {
+    private static final Logger log = LoggerFactory.getLogger(RecordingClient.class);
+
+    private final Client delegate;
+
+    private final FeignRecordingFile file;
+
+    public RecordingClient(Client delegate, FeignRecordingFile file) {
+        this.delegate = delegate;
+        this.file = file;
+    }
+
+    @Override
+    public Response execute(Request request, Options options) throws IOException {
+        long start = System.nanoTime();
+        Response response = delegate.execute(request, options);
+
+        byte[] body;
+        try (InputStream in = response.body() != null ? response.body().asInputStream() : null) {
+            body = in != null ? Util.toByteArray(in) : new byte[0];
+        } finally {
+            Util.ensureClosed(response.body());
+        }
+        long latencyNanos = System.nanoTime() - start;
+
+        Target<?> target = request.requestTemplate() != null ? request.requestTemplate().feignTarget() : null;
+        if (target != null) {
+            String url = relativeUrl(target.url(), request.url());
+            try {
+                file.write(new FeignRecording(target.name(), request.httpMethod().name(), url, response.status(),
+                        response.headers(), body, latencyNanos));
+            } catch (IOException e) {
+                log.warn("failed to record {} {}", request.httpMethod(), request.url(), e);
+            }
+        }
+
+        return response.toBuilder().body(body).build();
+    }
+
+    private static String relativeUrl(String baseUrl, String url) {
+        if (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+        return url.startsWith(baseUrl) ? url.substring(baseUrl.length()) : url;
+    }
+
+}
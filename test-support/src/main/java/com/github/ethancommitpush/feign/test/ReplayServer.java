@@ -0,0 +1,133 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.test;
+
+import com.github.ethancommitpush.feign.FeignUrlResolver;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded http server replaying {@link FeignRecording}s. Each feign client is served under its bean name,
+ * e.g. {@code http://localhost:port/postmanEchoClient/time/object}, which is where the server as a
+ * {@link FeignUrlResolver} bean sends them. A request is answered with a random recording of the same
+ * client, method and url, after its recorded latency, so the replayed latencies follow the recorded
+ * distribution. Requests without a recording are answered with 404.
+ */
+public class ReplayServer implements FeignUrlResolver, Closeable {
+
+    private final Map<String, List<FeignRecording>> recordings = new HashMap<>();
+
+    private final double latencyFactor;
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    /**
+     * @param recordings recordings to replay.
+     * @param latencyFactor factor applied to the recorded latencies, 0 to answer immediately.
+     * @throws IOException if the server cannot be started.
+     */
+    public ReplayServer(Collection<FeignRecording> recordings, double latencyFactor) throws IOException {
+        for (FeignRecording recording : recordings) {
+            this.recordings.computeIfAbsent(recording.key(), k -> new ArrayList<>()).add(recording);
+        }
+        this.latencyFactor = latencyFactor;
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "feign-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Target every feign client at this server.
+     */
+    @Override
+    public String resolve(String name, String url) {
+        return "http://localhost:" + getPort() + "/" + name;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String requestUri = exchange.getRequestURI().getRawPath();
+            if (exchange.getRequestURI().getRawQuery() != null) {
+                requestUri += "?" + exchange.getRequestURI().getRawQuery();
+            }
+            int slash = requestUri.indexOf('/', 1);
+            String name = slash < 0 ? requestUri.substring(1) : requestUri.substring(1, slash);
+            String url = slash < 0 ? "" : requestUri.substring(slash);
+
+            List<FeignRecording> candidates = recordings.get(FeignRecording.key(name, exchange.getRequestMethod(), url));
+            if (candidates == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            FeignRecording recording = candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+
+            long latencyNanos = (long) (recording.getLatencyNanos() * latencyFactor);
+            if (latencyNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(latencyNanos);
+            }
+
+            recording.getHeaders().forEach((headerName, values) -> {
+                if (!"content-length".equalsIgnoreCase(headerName)
+                        && !"transfer-encoding".equalsIgnoreCase(headerName)) {
+                    exchange.getResponseHeaders().put(headerName, new ArrayList<>(values));
+                }
+            });
+            byte[] body = recording.getBody();
+            exchange.sendResponseHeaders(recording.getStatus(), body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.test;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class FeignRecordingFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static FeignRecording recording(String url, Map<String, Collection<String>> headers) {
+        return new FeignRecording("timeClient", "GET", url, 200, headers,
+                "{\"hour\":12}".getBytes(StandardCharsets.UTF_8), 1000);
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    @Test
+    public void test_write_failureLeavesFileReadable() throws Exception {
+        Path path = folder.newFile("recordings.bin").toPath();
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 0x10000; i++) {
+            values.add("v");
+        }
+        try (FeignRecordingFile file = new FeignRecordingFile(path)) {
+            file.write(recording("http://upstream/a", Collections.emptyMap()));
+            try {
+                file.write(recording("http://upstream/" + repeat('b', 0x10000), Collections.emptyMap()));
+                Assert.fail();
+            } catch (UTFDataFormatException e) {
+                // Expected
+            }
+            try {
+                file.write(recording("http://upstream/c", Collections.singletonMap("X-Many", values)));
+                Assert.fail();
+            } catch (IOException e) {
+                Assert.assertEquals("Too many headers to record: 65536", e.getMessage());
+            }
+            file.write(recording("http://upstream/d",
+                    Collections.singletonMap("X-Long", Collections.singletonList(repeat('e', 0xFFFF)))));
+        }
+
+        List<FeignRecording> actual = FeignRecordingFile.read(path);
+        Assert.assertEquals(2, actual.size());
+        Assert.assertEquals("http://upstream/a", actual.get(0).getUrl());
+        Assert.assertEquals("http://upstream/d", actual.get(1).getUrl());
+        Assert.assertEquals(0xFFFF, actual.get(1).getHeaders().get("X-Long").iterator().next().length());
+        Assert.assertEquals("{\"hour\":12}", new String(actual.get(1).getBody(), StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright 2020 Yisin Lin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.github.ethancommitpush.feign.test;
+
+import feign.Client;
+import feign.Feign;
+import feign.FeignException;
+import feign.RequestLine;
+import feign.Response;
+import feign.Target;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ReplayServerTest {
+
+    interface TimeClient {
+
+        @RequestLine("GET /time/object?zone=utc")
+        String time();
+
+        @RequestLine("GET /unknown")
+        String unknown();
+
+    }
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String BODY = "{\"hour\":12}";
+
+    private final Client upstream = (request, options) -> {
+        Map<String, Collection<String>> headers = new LinkedHashMap<>();
+        headers.put("Content-Type", Collections.singletonList("application/json"));
+        headers.put("X-Upstream", Arrays.asList("a", "b"));
+        return Response.builder()
+                .status(200)
+                .headers(headers)
+                .request(request)
+                .body(BODY, StandardCharsets.UTF_8)
+                .build();
+    };
+
+    private static TimeClient target(Client client, String url) {
+        return Feign.builder()
+                .client(client)
+                .target(new Target.HardCodedTarget<>(TimeClient.class, "timeClient", url));
+    }
+
+    @Test
+    public void test_recordWriteReadReplay() throws Exception {
+        Path path = folder.newFile("recordings.bin").toPath();
+        try (FeignRecordingFile file = new FeignRecordingFile(path)) {
+            TimeClient recording = target(new RecordingClient(upstream, file), "http://upstream/api/");
+            Assert.assertEquals(BODY, recording.time());
+        }
+        // Appended to, as on the next run
+        try (FeignRecordingFile file = new FeignRecordingFile(path)) {
+            target(new RecordingClient(upstream, file), "http://upstream/api").time();
+        }
+
+        List<FeignRecording> recordings = FeignRecordingFile.read(path);
+        Assert.assertEquals(2, recordings.size());
+        FeignRecording recording = recordings.get(0);
+        Assert.assertEquals("timeClient GET /time/object?zone=utc", recording.key());
+        Assert.assertEquals(200, recording.getStatus());
+        Assert.assertEquals(BODY, new String(recording.getBody(), StandardCharsets.UTF_8));
+        Assert.assertEquals(Arrays.asList("a", "b"), recording.getHeaders().get("x-upstream"));
+        Assert.assertTrue(recording.getLatencyNanos() > 0);
+
+        try (ReplayServer server = new ReplayServer(recordings, 0)) {
+            TimeClient replayed = target(new Client.Default(null, null), server.resolve("timeClient", null));
+            Assert.assertEquals(BODY, replayed.time());
+            try {
+                replayed.unknown();
+                Assert.fail();
+            } catch (FeignException e) {
+                Assert.assertEquals(404, e.status());
+            }
+        }
+    }
+
+}